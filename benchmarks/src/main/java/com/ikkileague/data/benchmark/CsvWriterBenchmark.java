@@ -0,0 +1,99 @@
+package com.ikkileague.data.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.ikkileague.data.exception.ConversionException;
+import com.ikkileague.data.formatter.DataFormatter;
+import com.ikkileague.data.model.ColumnDefinition;
+import com.ikkileague.data.writer.CsvWriter;
+
+/**
+ * Écriture d'enregistrements déjà formatés avec {@link CsvWriter#writeRecord(List)}.
+ * Le fichier de sortie est recréé à chaque itération.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Dlogback.configurationFile=logback-benchmark.xml")
+@State(Scope.Thread)
+public class CsvWriterBenchmark {
+
+    @Param({ "NARROW", "WIDE", "STRING_HEAVY", "DATE_HEAVY" })
+    public SyntheticLayouts layout;
+
+    private List<List<String>> records;
+    private Path outputFile;
+    private CsvWriter csvWriter;
+    private int next;
+
+    @Setup
+    public void setUp() throws ConversionException {
+        DataFormatter dataFormatter = new DataFormatter();
+        Random random = new Random(42);
+        records = new ArrayList<>();
+        for (int i = 0; i < 256; i++) {
+            String line = layout.line(random);
+            List<String> record = new ArrayList<>();
+            int position = 0;
+            for (ColumnDefinition column : layout.columns()) {
+                record.add(dataFormatter.format(line.substring(position, position + column.getLength()),
+                        column.getType()));
+                position += column.getLength();
+            }
+            records.add(record);
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void openWriter() throws IOException, ConversionException {
+        outputFile = Files.createTempFile("csv-writer-benchmark", ".csv");
+        csvWriter = new CsvWriter(outputFile, layout.columns().stream().map(ColumnDefinition::getName).toList());
+    }
+
+    @TearDown(Level.Iteration)
+    public void closeWriter() throws IOException {
+        csvWriter.close();
+        Files.deleteIfExists(outputFile);
+    }
+
+    /** Nombre de champs écrits : JMH les rapporte en champs par seconde. */
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    @State(Scope.Thread)
+    public static class Fields {
+        public long fields;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            fields = 0;
+        }
+    }
+
+    @Benchmark
+    public void writeRecord(Fields counter) throws ConversionException {
+        List<String> record = records.get(next++ & 255);
+        counter.fields += record.size();
+        csvWriter.writeRecord(record);
+    }
+}
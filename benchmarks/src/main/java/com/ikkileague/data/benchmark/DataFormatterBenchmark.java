@@ -0,0 +1,71 @@
+package com.ikkileague.data.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.ikkileague.data.exception.ConversionException;
+import com.ikkileague.data.formatter.DataFormatter;
+import com.ikkileague.data.formatter.FieldFormatter;
+import com.ikkileague.data.model.ColumnType;
+
+/**
+ * Formatage d'un champ pour chaque {@link ColumnType} : via la façade
+ * {@link DataFormatter#format(String, ColumnType)} (une chaîne par appel) et
+ * via la stratégie du type écrivant dans un tampon réutilisé.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Dlogback.configurationFile=logback-benchmark.xml")
+@State(Scope.Thread)
+public class DataFormatterBenchmark {
+
+    @Param({ "STRING", "DATE", "NUMERIC" })
+    public ColumnType type;
+
+    private final DataFormatter dataFormatter = new DataFormatter();
+    private final StringBuilder out = new StringBuilder(64);
+    private FieldFormatter fieldFormatter;
+    private String[] values;
+    private int next;
+
+    @Setup
+    public void setUp() throws ConversionException {
+        fieldFormatter = dataFormatter.forType(type);
+        switch (type) {
+        case DATE:
+            values = new String[] { "2023-10-26", "1999-12-31", "2024-02-29", "1950-01-01" };
+            break;
+        case NUMERIC:
+            values = new String[] { "0000012345", "   -42.500", "98765432109", "     3.14 " };
+            break;
+        default:
+            values = new String[] { "Jean Dupont         ", "Alice Smith    ", "Zoé Lefèvre", "Rue des Lilas  " };
+            break;
+        }
+    }
+
+    @Benchmark
+    public String format() throws ConversionException {
+        return dataFormatter.format(values[next++ & 3], type);
+    }
+
+    @Benchmark
+    public int formatTo() throws ConversionException {
+        out.setLength(0);
+        fieldFormatter.formatTo(values[next++ & 3], out);
+        return out.length();
+    }
+}
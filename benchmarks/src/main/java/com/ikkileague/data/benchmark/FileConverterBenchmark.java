@@ -0,0 +1,102 @@
+package com.ikkileague.data.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.ikkileague.data.core.ConversionOptions;
+import com.ikkileague.data.core.FileConverter;
+import com.ikkileague.data.exception.ConversionException;
+
+/**
+ * Conversion de bout en bout d'un fichier synthétique avec
+ * {@link FileConverter#convert(Path, Path, Path, ConversionOptions)}.
+ * <p>
+ * Le compteur auxiliaire {@code inputBytes} donne le débit d'entrée en octets
+ * par seconde ; {@code -prof gc} donne l'allocation par opération, que l'on
+ * divise par {@link #records} pour obtenir l'allocation par enregistrement.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Dlogback.configurationFile=logback-benchmark.xml")
+@State(Scope.Benchmark)
+public class FileConverterBenchmark {
+
+    @Param({ "NARROW", "WIDE", "STRING_HEAVY", "DATE_HEAVY" })
+    public SyntheticLayouts layout;
+
+    /** Taille approximative du fichier d'entrée, en Mio. */
+    @Param({ "16" })
+    public int sizeMiB;
+
+    @Param({ "1", "4" })
+    public int threads;
+
+    private final FileConverter fileConverter = new FileConverter();
+    private Path directory;
+    private Path fixedFile;
+    private Path metadataFile;
+    private Path outputFile;
+    private long inputBytes;
+    /** Nombre d'enregistrements du fichier d'entrée (journalisé au démarrage). */
+    public long records;
+    private ConversionOptions options;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("file-converter-benchmark");
+        fixedFile = directory.resolve("input.txt");
+        metadataFile = directory.resolve("metadata.csv");
+        outputFile = directory.resolve("output.csv");
+        layout.writeMetadata(metadataFile);
+        records = layout.writeFixedFile(fixedFile, sizeMiB * 1024L * 1024L, 42);
+        inputBytes = Files.size(fixedFile);
+        options = ConversionOptions.builder().threads(threads).build();
+        System.out.printf("%n%s : %d enregistrements, %d octets%n", layout, records, inputBytes);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    /** Octets d'entrée convertis : JMH les rapporte en octets par seconde. */
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    @State(Scope.Thread)
+    public static class Throughput {
+        public long inputBytes;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            inputBytes = 0;
+        }
+    }
+
+    @Benchmark
+    public void convert(Throughput counter) throws ConversionException {
+        fileConverter.convert(fixedFile, metadataFile, outputFile, options);
+        counter.inputBytes += inputBytes;
+    }
+}
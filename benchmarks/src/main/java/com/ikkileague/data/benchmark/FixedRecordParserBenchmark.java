@@ -0,0 +1,86 @@
+package com.ikkileague.data.benchmark;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.ikkileague.data.exception.ConversionException;
+import com.ikkileague.data.formatter.DataFormatter;
+import com.ikkileague.data.model.ColumnDefinition;
+import com.ikkileague.data.model.RecordLayout;
+import com.ikkileague.data.parser.FixedRecordParser;
+import com.ikkileague.data.parser.ParsedRecord;
+
+/**
+ * Découpage d'une ligne : {@code parseLine} (liste de chaînes) et
+ * {@code parseInto} (vues réutilisées, sans allocation).
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Dlogback.configurationFile=logback-benchmark.xml")
+@State(Scope.Thread)
+public class FixedRecordParserBenchmark {
+
+    @Param({ "NARROW", "WIDE", "STRING_HEAVY", "DATE_HEAVY" })
+    public SyntheticLayouts layout;
+
+    private final FixedRecordParser parser = new FixedRecordParser();
+    private List<ColumnDefinition> columns;
+    private ParsedRecord parsedRecord;
+    private String[] lines;
+    private int next;
+
+    @Setup
+    public void setUp() throws ConversionException {
+        columns = layout.columns();
+        parsedRecord = new ParsedRecord(RecordLayout.compile(columns, new DataFormatter()));
+        Random random = new Random(42);
+        lines = new String[1024];
+        for (int i = 0; i < lines.length; i++) {
+            lines[i] = layout.line(random);
+        }
+    }
+
+    /** Octets d'entrée traités : JMH les rapporte en octets par seconde. */
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    @State(Scope.Thread)
+    public static class Bytes {
+        public long bytes;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            bytes = 0;
+        }
+    }
+
+    @Benchmark
+    public List<String> parseLine(Bytes counter) throws ConversionException {
+        String line = lines[next++ & (lines.length - 1)];
+        counter.bytes += line.length();
+        return parser.parseLine(line, columns, next);
+    }
+
+    @Benchmark
+    public ParsedRecord parseInto(Bytes counter) throws ConversionException {
+        String line = lines[next++ & (lines.length - 1)];
+        counter.bytes += line.length();
+        parser.parseInto(line, parsedRecord, next);
+        return parsedRecord;
+    }
+}
@@ -0,0 +1,157 @@
+package com.ikkileague.data.benchmark;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import com.ikkileague.data.model.ColumnDefinition;
+import com.ikkileague.data.model.ColumnType;
+
+/**
+ * Structures d'enregistrement synthétiques utilisées par les benchmarks, et
+ * génération de lignes valides correspondantes.
+ */
+public enum SyntheticLayouts {
+
+    /** Quatre colonnes courtes : identifiant, nom, date, poids. */
+    NARROW(new ColumnType[] { ColumnType.NUMERIC, ColumnType.STRING, ColumnType.DATE, ColumnType.NUMERIC },
+            new int[] { 10, 25, 10, 6 }),
+
+    /** 600 colonnes alternant les trois types. */
+    WIDE(repeat(new ColumnType[] { ColumnType.STRING, ColumnType.NUMERIC, ColumnType.DATE }, 200),
+            repeat(new int[] { 12, 8, 10 }, 200)),
+
+    /** 40 colonnes dont 36 chaînes de 20 caractères. */
+    STRING_HEAVY(concat(repeat(new ColumnType[] { ColumnType.STRING }, 36),
+            new ColumnType[] { ColumnType.NUMERIC, ColumnType.NUMERIC, ColumnType.DATE, ColumnType.DATE }),
+            concat(repeat(new int[] { 20 }, 36), new int[] { 10, 8, 10, 10 })),
+
+    /** 12 colonnes dont 8 dates, comme nos fichiers d'événements. */
+    DATE_HEAVY(concat(repeat(new ColumnType[] { ColumnType.DATE }, 8),
+            new ColumnType[] { ColumnType.NUMERIC, ColumnType.NUMERIC, ColumnType.STRING, ColumnType.STRING }),
+            concat(repeat(new int[] { 10 }, 8), new int[] { 10, 8, 15, 15 }));
+
+    private static final String[] WORDS = { "Jean", "Alice", "Dupont", "Martin", "Émile", "Zoé", "Lefèvre",
+            "Bernard", "Rue", "des", "Lilas", "Paris", "Lyon", "Nantes" };
+
+    private final List<ColumnDefinition> columns;
+    private final int lineLength;
+
+    SyntheticLayouts(ColumnType[] types, int[] lengths) {
+        List<ColumnDefinition> definitions = new ArrayList<>(types.length);
+        int total = 0;
+        for (int i = 0; i < types.length; i++) {
+            definitions.add(new ColumnDefinition("c" + i, lengths[i], types[i]));
+            total += lengths[i];
+        }
+        this.columns = Collections.unmodifiableList(definitions);
+        this.lineLength = total;
+    }
+
+    public List<ColumnDefinition> columns() {
+        return columns;
+    }
+
+    public int lineLength() {
+        return lineLength;
+    }
+
+    /** Génère une ligne valide, de longueur {@link #lineLength()}. */
+    public String line(Random random) {
+        StringBuilder line = new StringBuilder(lineLength);
+        for (ColumnDefinition column : columns) {
+            String value;
+            switch (column.getType()) {
+            case DATE:
+                value = String.format("%04d-%02d-%02d", 1950 + random.nextInt(70), 1 + random.nextInt(12),
+                        1 + random.nextInt(28));
+                break;
+            case NUMERIC:
+                int digits = Math.max(1, column.getLength() - 3);
+                long bound = (long) Math.pow(10, Math.min(digits, 15));
+                value = random.nextInt(4) == 0
+                        ? (Math.floorMod(random.nextLong(), bound) / 100) + "." + random.nextInt(10)
+                        : Long.toString(Math.floorMod(random.nextLong(), bound));
+                break;
+            default:
+                value = WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)];
+                break;
+            }
+            if (value.length() > column.getLength()) {
+                value = value.substring(0, column.getLength());
+            }
+            line.append(value);
+            for (int i = value.length(); i < column.getLength(); i++) {
+                line.append(' ');
+            }
+        }
+        return line.toString();
+    }
+
+    /** Écrit le fichier de métadonnées de la structure. */
+    public void writeMetadata(Path metadataFile) throws IOException {
+        StringBuilder metadata = new StringBuilder();
+        for (ColumnDefinition column : columns) {
+            metadata.append(column.getName()).append(',').append(column.getLength()).append(',')
+                    .append(column.getType().getName()).append('\n');
+        }
+        Files.writeString(metadataFile, metadata, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Écrit un fichier à largeur fixe d'environ {@code targetBytes} octets.
+     *
+     * @return Le nombre de lignes écrites.
+     */
+    public long writeFixedFile(Path fixedFile, long targetBytes, long seed) throws IOException {
+        Random random = new Random(seed);
+        long written = 0;
+        long lines = 0;
+        try (BufferedWriter writer = Files.newBufferedWriter(fixedFile, StandardCharsets.UTF_8)) {
+            while (written < targetBytes) {
+                String line = line(random);
+                writer.write(line);
+                writer.write('\n');
+                written += line.getBytes(StandardCharsets.UTF_8).length + 1;
+                lines++;
+            }
+        }
+        return lines;
+    }
+
+    private static ColumnType[] repeat(ColumnType[] pattern, int times) {
+        ColumnType[] result = new ColumnType[pattern.length * times];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = pattern[i % pattern.length];
+        }
+        return result;
+    }
+
+    private static int[] repeat(int[] pattern, int times) {
+        int[] result = new int[pattern.length * times];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = pattern[i % pattern.length];
+        }
+        return result;
+    }
+
+    private static ColumnType[] concat(ColumnType[] a, ColumnType[] b) {
+        ColumnType[] result = new ColumnType[a.length + b.length];
+        System.arraycopy(a, 0, result, 0, a.length);
+        System.arraycopy(b, 0, result, a.length, b.length);
+        return result;
+    }
+
+    private static int[] concat(int[] a, int[] b) {
+        int[] result = new int[a.length + b.length];
+        System.arraycopy(a, 0, result, 0, a.length);
+        System.arraycopy(b, 0, result, a.length, b.length);
+        return result;
+    }
+}
@@ -0,0 +1,180 @@
+package com.ikkileague.data;
+
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Future;
+
+import javax.management.ObjectName;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.ikkileague.data.core.BatchConverter;
+import com.ikkileague.data.core.BatchReport;
+import com.ikkileague.data.core.ConversionOptions;
+import com.ikkileague.data.core.ErrorPolicy;
+import com.ikkileague.data.core.FileConverter;
+import com.ikkileague.data.exception.ConversionException;
+import com.ikkileague.data.metrics.ConversionMetrics;
+import com.ikkileague.data.reader.ReaderType;
+import com.ikkileague.data.writer.OutputFormat;
+import com.ikkileague.data.writer.Partitioning;
+
+import picocli.CommandLine.Command;
+import picocli.CommandLine.Model.CommandSpec;
+import picocli.CommandLine.Option;
+import picocli.CommandLine.Spec;
+
+@Command(name = "batch", mixinStandardHelpOptions = true, description = "Converts every fixed-width file of a "
+        + "directory (or matching a glob) with a shared metadata file, in a single JVM.")
+public class BatchCommand implements Runnable {
+
+    private static final Logger logger = LoggerFactory.getLogger(BatchCommand.class);
+
+    @Option(names = { "-i", "--input" }, description = "Input directory, or a glob such as 'data/*.txt'.",
+            required = true)
+    private Path input;
+
+    @Option(names = "--glob", description = "File name pattern applied when --input is a directory "
+            + "(default: ${DEFAULT-VALUE}).", defaultValue = "*")
+    private String glob;
+
+    @Option(names = { "-m", "--metadata" }, description = "Path to the metadata CSV file shared by all inputs.",
+            required = true)
+    private Path metadataFilePath;
+
+    @Option(names = { "-o", "--output-dir" }, description = "Directory receiving one CSV file per input.",
+            required = true)
+    private Path outputDirectory;
+
+    @Option(names = { "-c", "--concurrency" }, description = "Maximum number of files converted at the same time "
+            + "(default: number of processors). Virtual threads are used when the JVM provides them.")
+    private int concurrency = Runtime.getRuntime().availableProcessors();
+
+    @Option(names = { "-t", "--threads" }, description = "Conversion threads per file (default: ${DEFAULT-VALUE}).",
+            defaultValue = "1")
+    private int threads;
+
+    @Option(names = "--reader", description = "Input reading strategy: ${COMPLETION-CANDIDATES} "
+            + "(default: ${DEFAULT-VALUE}).", defaultValue = "BUFFERED")
+    private ReaderType readerType;
+
+    @Option(names = "--charset", description = "Encoding of the input files (default: ${DEFAULT-VALUE}).",
+            defaultValue = "UTF-8")
+    private Charset charset;
+
+    @Option(names = "--on-error", description = "What to do with an invalid record: ${COMPLETION-CANDIDATES} "
+            + "(default: ${DEFAULT-VALUE}). With 'reject', each input gets a <name>.rejects.csv next to its output.",
+            defaultValue = "FAIL")
+    private ErrorPolicy errorPolicy;
+
+    @Option(names = "--max-errors", description = "Per file: abort once more than this many records have been "
+            + "rejected (default: unlimited).")
+    private Long maxErrors;
+
+    @Option(names = "--max-error-ratio", description = "Per file: abort once rejected records exceed this fraction "
+            + "of the lines read (default: unlimited).")
+    private Double maxErrorRatio;
+
+    @Option(names = "--compression-level", description = "gzip level (1-9) of the outputs of gzipped inputs (default: "
+            + "${DEFAULT-VALUE}).", defaultValue = "" + ConversionOptions.DEFAULT_COMPRESSION_LEVEL)
+    private int compressionLevel;
+
+    @Option(names = "--compression-threads", description = "Threads compressing each gzipped output, each block of "
+            + "1 MiB becoming an independent gzip member (default: number of processors).")
+    private Integer compressionThreads;
+
+    @Option(names = "--checkpoint", arity = "0..1", fallbackValue = "" + ConverterApp.DEFAULT_CHECKPOINT_SECONDS,
+            paramLabel = "<seconds>", description = "Per file: record a checkpoint every <seconds> (default when "
+                    + "given without value: ${FALLBACK-VALUE}) in <output>.checkpoint.")
+    private Integer checkpointSeconds;
+
+    @Option(names = "--resume", description = "Resume each file from its <output>.checkpoint, if any. Implies "
+            + "--checkpoint.")
+    private boolean resume;
+
+    @Option(names = "--also-write", split = ",", paramLabel = "<format>", description = "Also write each file "
+            + "in these formats (${COMPLETION-CANDIDATES}), in the same pass, next to its CSV output.")
+    private List<OutputFormat> additionalFormats = new ArrayList<>();
+
+    @Option(names = "--columns", split = ",", paramLabel = "<column>", description = "Only write these columns, "
+            + "in this order, for every file.")
+    private List<String> columns = new ArrayList<>();
+
+    @Option(names = "--where", paramLabel = "<condition>", description = "Only convert the lines matching this "
+            + "condition on the raw field (see the main command). Repeatable, all conditions required.")
+    private List<String> filters = new ArrayList<>();
+
+    @Option(names = "--partition-by", paramLabel = "<column>[:year|month|day]",
+            converter = ConverterApp.PartitionByConverter.class, description = "Split each CSV output into one file "
+                    + "per value of this column, in Hive-style directories of the output directory.")
+    private Partitioning partitionBy;
+
+    @Option(names = "--shard-by", paramLabel = "<column>:<count>", converter = ConverterApp.ShardByConverter.class,
+            description = "Split each CSV output into <count> numbered files by a hash of this column.")
+    private Partitioning shardBy;
+
+    @Option(names = "--max-open-partitions", description = "Partition files kept open at the same time, per file "
+            + "(default: ${DEFAULT-VALUE}).", defaultValue = "" + ConversionOptions.DEFAULT_MAX_OPEN_PARTITIONS)
+    private int maxOpenPartitions;
+
+    @Spec
+    private CommandSpec spec;
+
+    @Option(names = "--metrics-report", description = "Write metrics aggregated over all files to this JSON file "
+            + "at the end of the batch.")
+    private Path metricsReportPath;
+
+    @Override
+    public void run() {
+        logger.info("Starting batch conversion...");
+        Partitioning partitioning = ConverterApp.partitioning(spec, partitionBy, shardBy);
+        try {
+            List<Path> inputs = BatchConverter.listInputs(input, glob);
+            // Métriques partagées par toutes les conversions du lot
+            ConversionMetrics metrics = new ConversionMetrics();
+            ConversionOptions options = ConversionOptions.builder()
+                    .threads(threads)
+                    .readerType(readerType)
+                    .charset(charset)
+                    .metrics(metrics)
+                    .errorPolicy(errorPolicy)
+                    .maxErrors(maxErrors != null ? maxErrors : Long.MAX_VALUE)
+                    .maxErrorRatio(maxErrorRatio != null ? maxErrorRatio : 1.0)
+                    .checkpointInterval(ConverterApp.checkpointInterval(checkpointSeconds, resume))
+                    .resume(resume)
+                    .compressionLevel(compressionLevel)
+                    .compressionThreads(compressionThreads != null ? compressionThreads
+                            : Runtime.getRuntime().availableProcessors())
+                    .additionalFormats(additionalFormats)
+                    .columns(columns)
+                    .filters(filters)
+                    .partitioning(partitioning)
+                    .maxOpenPartitions(maxOpenPartitions)
+                    .build();
+            Future<ObjectName> metricsRegistration = ConverterApp.registerMetrics(metrics, "batch");
+            BatchReport report;
+            try {
+                report = new BatchConverter(new FileConverter(), concurrency)
+                        .convert(inputs, metadataFilePath, outputDirectory, options);
+            } finally {
+                ConverterApp.publishMetrics(metrics, metricsRegistration, metricsReportPath);
+            }
+
+            for (BatchReport.Failure failure : report.getFailures()) {
+                logger.error("Failed: {}", failure);
+            }
+            if (report.getFailed() > 0) {
+                System.exit(1); // Au moins un fichier en échec
+            }
+        } catch (ConversionException e) {
+            logger.error("Batch conversion failed: {}", e.getMessage(), e);
+            System.exit(1);
+        } catch (Exception e) {
+            logger.error("An unexpected error occurred: {}", e.getMessage(), e);
+            System.exit(2);
+        }
+    }
+}
@@ -1,45 +1,233 @@
 package com.ikkileague.data;
 
+import java.io.IOException;
+import java.nio.charset.Charset;
 import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
 
 import org.slf4j.Logger; // Import SLF4J Logger
 import org.slf4j.LoggerFactory; // Import SLF4J LoggerFactory
 
+import com.ikkileague.data.core.ConversionOptions;
+import com.ikkileague.data.core.ErrorPolicy;
 import com.ikkileague.data.core.FileConverter;
 import com.ikkileague.data.exception.ConversionException;
+import com.ikkileague.data.metrics.ConversionMetrics;
+import com.ikkileague.data.reader.ReaderType;
+import com.ikkileague.data.writer.OutputFormat;
+import com.ikkileague.data.writer.Partitioning;
 
 import picocli.CommandLine;
 import picocli.CommandLine.Command;
+import picocli.CommandLine.ITypeConverter;
+import picocli.CommandLine.Model.CommandSpec;
 import picocli.CommandLine.Option;
+import picocli.CommandLine.ParameterException;
+import picocli.CommandLine.Spec;
 
-@Command(name = "fixed2csv", mixinStandardHelpOptions = true, version = "fixed2csv 1.0", description = "Converts a fixed-width text file to a CSV file based on a metadata file.")
+@Command(name = "fixed2csv", mixinStandardHelpOptions = true, version = "fixed2csv 1.0", description = "Converts a fixed-width text file to a CSV file based on a metadata file.", subcommands = { BatchCommand.class,
+        GenerateCommand.class, ScaleCommand.class, ServeCommand.class, SubmitCommand.class })
 public class ConverterApp implements Runnable {
 
     // Déclaration du logger pour cette classe
     private static final Logger logger = LoggerFactory.getLogger(ConverterApp.class);
 
-    @Option(names = { "-m", "--metadata" }, description = "Path to the metadata CSV file.", required = true)
+    // Valeur de -i désignant l'entrée standard
+    private static final String STDIN = "-";
+
+    // Intervalle entre points de reprise pour --checkpoint sans valeur ou --resume seul
+    static final int DEFAULT_CHECKPOINT_SECONDS = 30;
+
+    // Délai avant la publication JMX des métriques : une conversion plus courte n'est pas publiée
+    static final long JMX_DELAY_MILLIS = 1000;
+
+    private static final ScheduledExecutorService JMX_PUBLISHER = Executors.newSingleThreadScheduledExecutor(task -> {
+        Thread thread = new Thread(task, "fixed2csv-jmx");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Option(names = { "-m", "--metadata" }, description = "Path to the metadata CSV file.")
     private Path metadataFilePath;
 
-    @Option(names = { "-i", "--input" }, description = "Path to the fixed-width input data file.", required = true)
+    @Option(names = { "-i", "--input" }, description = "Path to the fixed-width input data file, "
+            + "or '-' to read standard input.")
     private Path inputFilePath;
 
-    @Option(names = { "-o", "--output" }, description = "Path to the output CSV file.", required = true)
+    @Option(names = { "-o", "--output" }, description = "Path to the output file: CSV, or JSON Lines (.jsonl) or "
+            + "binary columnar (.f2c) according to its extension.")
     private Path outputFilePath;
 
+    @Option(names = { "-t", "--threads" }, description = "Number of conversion threads (default: ${DEFAULT-VALUE}). "
+            + "Values above 1 split the input into chunks converted in parallel.", defaultValue = "1")
+    private int threads;
+
+    @Option(names = "--max-in-flight-mb", description = "Upper bound, in MiB, of input data being converted "
+            + "but not yet written in parallel mode (default: ${DEFAULT-VALUE}).", defaultValue = "256")
+    private long maxInFlightMb;
+
+    @Option(names = "--reader", description = "Input reading strategy: ${COMPLETION-CANDIDATES} "
+            + "(default: ${DEFAULT-VALUE}).", defaultValue = "BUFFERED")
+    private ReaderType readerType;
+
+    @Option(names = "--charset", description = "Encoding of the input file (default: ${DEFAULT-VALUE}). "
+            + "ISO-8859-1 and US-ASCII inputs are parsed directly on bytes.", defaultValue = "UTF-8")
+    private Charset charset;
+
+    @Option(names = "--pipeline", description = "Overlap reading, parsing/formatting and writing on three threads "
+            + "linked by bounded ring buffers. Implied when reading standard input with more than one thread.")
+    private boolean pipelined;
+
+    @Option(names = "--pipeline-batch-size", description = "Records handed from one pipeline stage to the next "
+            + "in a single batch (default: ${DEFAULT-VALUE}).", defaultValue = "4096")
+    private int pipelineBatchSize;
+
+    @Option(names = "--metrics-report", description = "Write per-stage metrics (counters, throughput, sampled "
+            + "latencies) to this JSON file at the end of the run. Metrics are always published over JMX "
+            + "while the conversion runs.")
+    private Path metricsReportPath;
+
+    @Option(names = "--progress", arity = "0..1", fallbackValue = "5", paramLabel = "<seconds>",
+            description = "Report progress (bytes done / total, current and average MiB/s, records/s, ETA) every "
+                    + "<seconds> (default when given without value: ${FALLBACK-VALUE}). The line is rewritten in "
+                    + "place on a terminal and logged otherwise.")
+    private Integer progressSeconds;
+
+    @Option(names = "--on-error", description = "What to do with an invalid record: ${COMPLETION-CANDIDATES} "
+            + "(default: ${DEFAULT-VALUE}). 'reject' writes it, with line number, column and reason, to the reject "
+            + "file and keeps converting.", defaultValue = "FAIL")
+    private ErrorPolicy errorPolicy;
+
+    @Option(names = "--reject-file", description = "Reject file used with --on-error=reject "
+            + "(default: <output>.rejects.csv).")
+    private Path rejectPath;
+
+    @Option(names = "--max-errors", description = "Abort once more than this many records have been rejected "
+            + "(default: unlimited).")
+    private Long maxErrors;
+
+    @Option(names = "--max-error-ratio", description = "Abort once rejected records exceed this fraction of the lines "
+            + "read, e.g. 0.01 (default: unlimited).")
+    private Double maxErrorRatio;
+
+    @Option(names = "--compression-level", description = "gzip level (1-9) of a .gz output (default: "
+            + "${DEFAULT-VALUE}).", defaultValue = "" + ConversionOptions.DEFAULT_COMPRESSION_LEVEL)
+    private int compressionLevel;
+
+    @Option(names = "--compression-threads", description = "Threads compressing a .gz output, each block of "
+            + "1 MiB becoming an independent gzip member (default: number of processors).")
+    private Integer compressionThreads;
+
+    @Option(names = "--checkpoint", arity = "0..1", fallbackValue = "" + DEFAULT_CHECKPOINT_SECONDS,
+            paramLabel = "<seconds>", description = "Every <seconds> (default when given without value: "
+                    + "${FALLBACK-VALUE}), record the input offset, line number and output length in "
+                    + "<output>.checkpoint so that an interrupted run can be resumed with --resume.")
+    private Integer checkpointSeconds;
+
+    @Option(names = "--resume", description = "Resume from <output>.checkpoint if it exists: the output is "
+            + "truncated to the last checkpoint and reading restarts at the matching input offset. Implies "
+            + "--checkpoint.")
+    private boolean resume;
+
+    @Option(names = "--also-write", split = ",", paramLabel = "<format>", description = "Also write the records "
+            + "in these formats (${COMPLETION-CANDIDATES}), in the same pass, next to the output: <output base "
+            + "name>.jsonl or .f2c. The output format itself follows its extension (.csv, .jsonl or .f2c, "
+            + "optionally followed by .gz).")
+    private List<OutputFormat> additionalFormats = new ArrayList<>();
+
+    @Option(names = "--columns", split = ",", paramLabel = "<column>", description = "Only write these columns, "
+            + "in this order. The other columns are neither sliced nor formatted.")
+    private List<String> columns = new ArrayList<>();
+
+    @Option(names = "--where", paramLabel = "<condition>", description = "Only convert the lines matching this "
+            + "condition on the raw field, checked before any formatting: COL=value, COL!=value, COL<value, "
+            + "COL<=value, COL>value, COL>=value or COL^=prefix. Numeric columns compare by value, dates in "
+            + "chronological order. Repeat for several conditions, all required (e.g. a range).")
+    private List<String> filters = new ArrayList<>();
+
+    @Option(names = "--partition-by", paramLabel = "<column>[:year|month|day]", converter = PartitionByConverter.class,
+            description = "Split the CSV output into one file per value of this column, in Hive-style directories "
+                    + "next to the output: <dir>/<column>=<value>/<output file name>. A date column can be split by "
+                    + "year, month or day.")
+    private Partitioning partitionBy;
+
+    @Option(names = "--shard-by", paramLabel = "<column>:<count>", converter = ShardByConverter.class,
+            description = "Split the CSV output into <count> numbered files (<output base name>-00000.csv...) by a "
+                    + "hash of this column. Files are written in parallel with --threads above 1.")
+    private Partitioning shardBy;
+
+    @Option(names = "--max-open-partitions", description = "Partition files kept open at the same time, the least "
+            + "recently used being closed beyond (default: ${DEFAULT-VALUE}).",
+            defaultValue = "" + ConversionOptions.DEFAULT_MAX_OPEN_PARTITIONS)
+    private int maxOpenPartitions;
+
+    @Spec
+    private CommandSpec spec;
+
     @Override
     public void run() {
+        // -i, -m et -o ne sont pas déclarés obligatoires pour que la sous-commande batch reste utilisable
+        if (metadataFilePath == null || inputFilePath == null || outputFilePath == null) {
+            throw new ParameterException(spec.commandLine(),
+                    "Missing required options: --input, --metadata and --output (or use the batch subcommand)");
+        }
 
         logger.info("Starting conversion process...");
         logger.debug("Metadata file: {}", metadataFilePath);
         logger.debug("Input file: {}", inputFilePath);
         logger.debug("Output file: {}", outputFilePath);
+        logger.debug("Threads: {}", threads);
 
+        Partitioning partitioning = partitioning(spec, partitionBy, shardBy);
         FileConverter converter = new FileConverter(); // Utilise le constructeur par défaut
         long startTime = System.nanoTime(); // Démarrage du chronomètre
 
         try {
-            converter.convert(inputFilePath, metadataFilePath, outputFilePath);
+            ConversionMetrics metrics = new ConversionMetrics();
+            ConversionOptions options = ConversionOptions.builder()
+                    .threads(threads)
+                    .maxInFlightBytes(maxInFlightMb * 1024 * 1024)
+                    .readerType(readerType)
+                    .charset(charset)
+                    .pipelined(pipelined)
+                    .pipelineBatchSize(pipelineBatchSize)
+                    .metrics(metrics)
+                    .progressInterval(Duration.ofSeconds(progressSeconds != null ? progressSeconds : 0))
+                    .errorPolicy(errorPolicy)
+                    .rejectPath(rejectPath)
+                    .maxErrors(maxErrors != null ? maxErrors : Long.MAX_VALUE)
+                    .maxErrorRatio(maxErrorRatio != null ? maxErrorRatio : 1.0)
+                    .checkpointInterval(checkpointInterval(checkpointSeconds, resume))
+                    .resume(resume)
+                    .compressionLevel(compressionLevel)
+                    .compressionThreads(compressionThreads != null ? compressionThreads
+                            : Runtime.getRuntime().availableProcessors())
+                    .additionalFormats(additionalFormats)
+                    .columns(columns)
+                    .filters(filters)
+                    .partitioning(partitioning)
+                    .maxOpenPartitions(maxOpenPartitions)
+                    .build();
+            Future<ObjectName> metricsRegistration = registerMetrics(metrics, outputFilePath.getFileName().toString());
+            try {
+                if (STDIN.equals(inputFilePath.toString())) {
+                    converter.convert(System.in, metadataFilePath, outputFilePath, options);
+                } else {
+                    converter.convert(inputFilePath, metadataFilePath, outputFilePath, options);
+                }
+            } finally {
+                publishMetrics(metrics, metricsRegistration, metricsReportPath);
+            }
             long endTime = System.nanoTime(); // Arrêt du chronomètre
             long durationMillis = (endTime - startTime) / 1_000_000; // Convertir en millisecondes
 
@@ -56,13 +244,92 @@ public class ConverterApp implements Runnable {
         }
     }
 
+    // --partition-by et --shard-by décrivent chacun tout le découpage : ils s'excluent
+    static Partitioning partitioning(CommandSpec spec, Partitioning partitionBy, Partitioning shardBy) {
+        if (partitionBy != null && shardBy != null) {
+            throw new ParameterException(spec.commandLine(), "--partition-by and --shard-by are mutually exclusive");
+        }
+        return partitionBy != null ? partitionBy : shardBy;
+    }
+
+    static final class PartitionByConverter implements ITypeConverter<Partitioning> {
+        @Override
+        public Partitioning convert(String value) {
+            return Partitioning.parseByValue(value);
+        }
+    }
+
+    static final class ShardByConverter implements ITypeConverter<Partitioning> {
+        @Override
+        public Partitioning convert(String value) {
+            return Partitioning.parseByHash(value);
+        }
+    }
+
+    // --resume sans --checkpoint : la conversion reprise enregistre elle aussi ses points de reprise
+    static Duration checkpointInterval(Integer checkpointSeconds, boolean resume) {
+        if (checkpointSeconds != null) {
+            return Duration.ofSeconds(checkpointSeconds);
+        }
+        return resume ? Duration.ofSeconds(DEFAULT_CHECKPOINT_SECONDS) : Duration.ZERO;
+    }
+
+    // Publication JMX pendant la conversion, différée : démarrer le serveur MBean de la plateforme coûte plus
+    // qu'une petite conversion. Un échec d'enregistrement ne doit pas empêcher la conversion.
+    static Future<ObjectName> registerMetrics(ConversionMetrics metrics, String name) {
+        return JMX_PUBLISHER.schedule(() -> {
+            try {
+                return metrics.register(name);
+            } catch (JMException e) {
+                logger.warn("Unable to publish conversion metrics over JMX: {}", e.getMessage());
+                return null;
+            }
+        }, JMX_DELAY_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    // Fin de conversion (réussie ou non) : résumé, rapport JSON éventuel et retrait du MBean
+    static void publishMetrics(ConversionMetrics metrics, Future<ObjectName> registration, Path reportPath) {
+        metrics.complete();
+        logger.info("Metrics: {} records read, {} written, {} errors, {} records/s, {} bytes/s.",
+                metrics.getRecordsRead(), metrics.getRecordsWritten(), metrics.getErrors(),
+                Math.round(metrics.getRecordsPerSecond()), Math.round(metrics.getBytesPerSecond()));
+        if (reportPath != null) {
+            try {
+                metrics.writeJson(reportPath);
+                logger.info("Metrics report written to {}", reportPath);
+            } catch (IOException e) {
+                logger.error("Unable to write metrics report {}: {}", reportPath, e.getMessage());
+            }
+        }
+        // Conversion terminée avant la publication : le MBean n'a jamais été enregistré
+        if (registration.cancel(false)) {
+            return;
+        }
+        ObjectName metricsName;
+        try {
+            metricsName = registration.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        } catch (ExecutionException e) {
+            return;
+        }
+        if (metricsName != null) {
+            try {
+                ConversionMetrics.unregister(metricsName);
+            } catch (JMException e) {
+                logger.debug("Unable to unregister metrics MBean {}: {}", metricsName, e.getMessage());
+            }
+        }
+    }
+
     public static void main(String... args) {
         // Picocli configure le logger pour vous si vous implémentez
         // CommandLine.IFactory
         // ou si vous utilisez un logger standard.
         // Pour SLF4J-Simple, pas de configuration spéciale ici, il se configure tout
         // seul.
-        int exitCode = new CommandLine(new ConverterApp()).execute(args);
+        int exitCode = new CommandLine(new ConverterApp()).setCaseInsensitiveEnumValuesAllowed(true).execute(args);
         // CommandLine.execute() retourne le code de sortie, donc System.exit est déjà
         // appelé en interne par Picocli
         // Il est bon de le laisser ici pour la clarté ou si on appelle main directement
@@ -0,0 +1,55 @@
+package com.ikkileague.data;
+
+import java.nio.file.Path;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.ikkileague.data.exception.ConversionException;
+import com.ikkileague.data.formatter.DataFormatter;
+import com.ikkileague.data.generator.FixedFileGenerator;
+import com.ikkileague.data.model.RecordLayout;
+import com.ikkileague.data.parser.MetadataParser;
+
+import picocli.CommandLine.Command;
+import picocli.CommandLine.Option;
+
+@Command(name = "generate", mixinStandardHelpOptions = true, description = "Generates a synthetic fixed-width file "
+        + "matching a metadata file, for volume and scaling tests.")
+public class GenerateCommand implements Runnable {
+
+    private static final Logger logger = LoggerFactory.getLogger(GenerateCommand.class);
+
+    @Option(names = { "-m", "--metadata" }, description = "Path to the metadata CSV file.", required = true)
+    private Path metadataFilePath;
+
+    @Option(names = { "-o", "--output" }, description = "Path to the fixed-width file to generate.",
+            required = true)
+    private Path outputFilePath;
+
+    @Option(names = { "-s", "--size-mb" }, description = "Approximate size of the generated file, in MiB "
+            + "(default: ${DEFAULT-VALUE}).", defaultValue = "1024")
+    private long sizeMb;
+
+    @Option(names = "--malformed-rate", description = "Fraction of deliberately invalid lines, between 0 and 1 "
+            + "(default: ${DEFAULT-VALUE}).", defaultValue = "0")
+    private double malformedRate;
+
+    @Option(names = "--seed", description = "Random seed, for reproducible files (default: ${DEFAULT-VALUE}).",
+            defaultValue = "42")
+    private long seed;
+
+    @Override
+    public void run() {
+        try {
+            RecordLayout layout = new MetadataParser().parseLayout(metadataFilePath, new DataFormatter());
+            new FixedFileGenerator(layout, seed, malformedRate).generate(outputFilePath, sizeMb * 1024 * 1024);
+        } catch (ConversionException e) {
+            logger.error("Generation failed: {}", e.getMessage(), e);
+            System.exit(1);
+        } catch (Exception e) {
+            logger.error("An unexpected error occurred: {}", e.getMessage(), e);
+            System.exit(2);
+        }
+    }
+}
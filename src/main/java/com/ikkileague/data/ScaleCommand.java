@@ -0,0 +1,69 @@
+package com.ikkileague.data;
+
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.ikkileague.data.core.ConversionOptions;
+import com.ikkileague.data.core.FileConverter;
+import com.ikkileague.data.core.ScalingHarness;
+import com.ikkileague.data.exception.ConversionException;
+import com.ikkileague.data.reader.ReaderType;
+
+import picocli.CommandLine.Command;
+import picocli.CommandLine.Option;
+
+@Command(name = "scale", mixinStandardHelpOptions = true, description = "Converts the same file with 1..N threads "
+        + "and prints a throughput and scaling table.")
+public class ScaleCommand implements Runnable {
+
+    private static final Logger logger = LoggerFactory.getLogger(ScaleCommand.class);
+
+    @Option(names = { "-i", "--input" }, description = "Path to the fixed-width input data file.", required = true)
+    private Path inputFilePath;
+
+    @Option(names = { "-m", "--metadata" }, description = "Path to the metadata CSV file.", required = true)
+    private Path metadataFilePath;
+
+    @Option(names = { "-o", "--output" }, description = "Path to the output CSV file, overwritten by each run.",
+            required = true)
+    private Path outputFilePath;
+
+    @Option(names = "--max-threads", description = "Highest thread count measured (default: number of "
+            + "processors).")
+    private int maxThreads = Runtime.getRuntime().availableProcessors();
+
+    @Option(names = "--repetitions", description = "Conversions per thread count; the best time is kept "
+            + "(default: ${DEFAULT-VALUE}).", defaultValue = "3")
+    private int repetitions;
+
+    @Option(names = "--reader", description = "Input reading strategy: ${COMPLETION-CANDIDATES} "
+            + "(default: ${DEFAULT-VALUE}).", defaultValue = "BUFFERED")
+    private ReaderType readerType;
+
+    @Option(names = "--charset", description = "Encoding of the input file (default: ${DEFAULT-VALUE}).",
+            defaultValue = "UTF-8")
+    private Charset charset;
+
+    @Override
+    public void run() {
+        try {
+            ConversionOptions options = ConversionOptions.builder()
+                    .readerType(readerType)
+                    .charset(charset)
+                    .build();
+            List<ScalingHarness.Result> results = new ScalingHarness(new FileConverter())
+                    .run(inputFilePath, metadataFilePath, outputFilePath, maxThreads, repetitions, options);
+            System.out.print(ScalingHarness.formatTable(results));
+        } catch (ConversionException e) {
+            logger.error("Scaling run failed: {}", e.getMessage(), e);
+            System.exit(1);
+        } catch (Exception e) {
+            logger.error("An unexpected error occurred: {}", e.getMessage(), e);
+            System.exit(2);
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.ikkileague.data;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.ikkileague.data.core.ConversionServer;
+import com.ikkileague.data.core.FileConverter;
+
+import picocli.CommandLine.Command;
+import picocli.CommandLine.Option;
+
+@Command(name = "serve", mixinStandardHelpOptions = true, description = "Runs a resident conversion server on "
+        + "127.0.0.1 so that repeated conversions skip JVM startup and warm-up. Jobs are sent with 'submit'.")
+public class ServeCommand implements Runnable {
+
+    private static final Logger logger = LoggerFactory.getLogger(ServeCommand.class);
+
+    @Option(names = "--port", description = "Listening port on 127.0.0.1 (default: ${DEFAULT-VALUE}).",
+            defaultValue = "" + ConversionServer.DEFAULT_PORT)
+    private int port;
+
+    @Option(names = "--jobs", description = "Maximum number of conversions running at the same time "
+            + "(default: number of processors).")
+    private int jobs = Runtime.getRuntime().availableProcessors();
+
+    @Option(names = "--queue", description = "Maximum number of jobs waiting for a slot; further submissions are "
+            + "refused (default: ${DEFAULT-VALUE}).", defaultValue = "64")
+    private int queueCapacity;
+
+    @Option(names = "--layout-cache", description = "Number of compiled metadata files kept between jobs "
+            + "(default: ${DEFAULT-VALUE}).", defaultValue = "32")
+    private int layoutCacheSize;
+
+    @Option(names = "--status-interval", description = "Seconds between two progress lines sent to clients "
+            + "(default: ${DEFAULT-VALUE}).", defaultValue = "1")
+    private double statusIntervalSeconds;
+
+    @Option(names = "--token-file", description = "File receiving the server token, readable by its owner only "
+            + "(default: ~/.fixed2csv/server-<port>.token).")
+    private Path tokenFile;
+
+    @Override
+    public void run() {
+        try {
+            ConversionServer server = ConversionServer.start(new FileConverter(), port, jobs, queueCapacity,
+                    layoutCacheSize, Duration.ofMillis((long) (statusIntervalSeconds * 1000)), tokenFile);
+            // Ctrl+C : les tâches acceptées se terminent avant l'arrêt
+            Runtime.getRuntime().addShutdownHook(new Thread(server::close, "fixed2csv-server-hook"));
+            server.awaitShutdown();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            logger.error("Conversion server failed: {}", e.getMessage(), e);
+            System.exit(2);
+        }
+    }
+}
@@ -0,0 +1,181 @@
+package com.ikkileague.data;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.stream.Collectors;
+
+import com.ikkileague.data.core.ConversionClient;
+import com.ikkileague.data.core.ConversionServer;
+import com.ikkileague.data.core.ErrorPolicy;
+import com.ikkileague.data.reader.ReaderType;
+import com.ikkileague.data.writer.OutputFormat;
+
+import picocli.CommandLine.Command;
+import picocli.CommandLine.Option;
+
+@Command(name = "submit", mixinStandardHelpOptions = true, description = "Sends a conversion to a running 'serve' "
+        + "process and prints its status lines until it completes. Exit code: 0 done, 1 failed, 2 server "
+        + "unreachable.")
+public class SubmitCommand implements Runnable {
+
+    @Option(names = "--port", description = "Port of the conversion server (default: ${DEFAULT-VALUE}).",
+            defaultValue = "" + ConversionServer.DEFAULT_PORT)
+    private int port;
+
+    @Option(names = "--token-file", description = "File holding the server token "
+            + "(default: ~/.fixed2csv/server-<port>.token).")
+    private Path tokenFile;
+
+    @Option(names = { "-i", "--input" }, description = "Path to the input fixed-width file.")
+    private Path inputFilePath;
+
+    @Option(names = { "-m", "--metadata" }, description = "Path to the metadata CSV file.")
+    private Path metadataFilePath;
+
+    @Option(names = { "-o", "--output" }, description = "Path to the output file.")
+    private Path outputFilePath;
+
+    @Option(names = { "-t", "--threads" }, description = "Number of conversion threads (default: ${DEFAULT-VALUE}).",
+            defaultValue = "1")
+    private int threads;
+
+    @Option(names = "--reader", description = "Input reading strategy: ${COMPLETION-CANDIDATES} "
+            + "(default: ${DEFAULT-VALUE}).", defaultValue = "BUFFERED")
+    private ReaderType readerType;
+
+    @Option(names = "--charset", description = "Encoding of the input file (default: ${DEFAULT-VALUE}).",
+            defaultValue = "UTF-8")
+    private String charset;
+
+    @Option(names = "--pipeline", description = "Use the pipelined engine.")
+    private boolean pipelined;
+
+    @Option(names = "--on-error", description = "What to do with an invalid record: ${COMPLETION-CANDIDATES} "
+            + "(default: ${DEFAULT-VALUE}).", defaultValue = "FAIL")
+    private ErrorPolicy errorPolicy;
+
+    @Option(names = "--reject-file", description = "File receiving rejected lines.")
+    private Path rejectPath;
+
+    @Option(names = "--max-errors", description = "Abort once more than this many records have been rejected.")
+    private Long maxErrors;
+
+    @Option(names = "--max-error-ratio", description = "Abort once rejected records exceed this fraction of the "
+            + "lines read.")
+    private Double maxErrorRatio;
+
+    @Option(names = "--also-write", split = ",", paramLabel = "<format>", description = "Also write the output "
+            + "in these formats (${COMPLETION-CANDIDATES}).")
+    private List<OutputFormat> additionalFormats = new ArrayList<>();
+
+    @Option(names = "--columns", split = ",", paramLabel = "<column>", description = "Only write these columns, "
+            + "in this order.")
+    private List<String> columns = new ArrayList<>();
+
+    @Option(names = "--where", paramLabel = "<condition>", description = "Only convert the lines matching this "
+            + "condition on the raw field. Repeatable, all conditions required.")
+    private List<String> filters = new ArrayList<>();
+
+    @Option(names = "--partition-by", paramLabel = "<column>[:year|month|day]", description = "Split the CSV "
+            + "output into one file per value of this column, in Hive-style directories.")
+    private String partitionBy;
+
+    @Option(names = "--shard-by", paramLabel = "<column>:<count>", description = "Split the CSV output into "
+            + "<count> numbered files by a hash of this column.")
+    private String shardBy;
+
+    @Option(names = "--max-open-partitions", description = "Partition files kept open at the same time.")
+    private Integer maxOpenPartitions;
+
+    @Option(names = "--compression-level", description = "gzip level (1-9) of a .gz output.")
+    private Integer compressionLevel;
+
+    @Option(names = "--status", description = "Print the server counters instead of submitting a job.")
+    private boolean status;
+
+    @Option(names = "--stop", description = "Stop the server once its accepted jobs are done.")
+    private boolean stop;
+
+    @Override
+    public void run() {
+        Path tokenPath = tokenFile != null ? tokenFile : ConversionServer.defaultTokenFile(port);
+        ConversionClient client;
+        try {
+            client = new ConversionClient(port, ConversionClient.readToken(tokenPath));
+        } catch (IOException e) {
+            System.err.println("Cannot read the server token from " + tokenPath + ": " + e);
+            System.exit(2);
+            return;
+        }
+        try {
+            if (status) {
+                client.status().forEach((key, value) -> System.out.println(key + "=" + value));
+            } else if (stop) {
+                client.shutdown();
+            } else {
+                if (inputFilePath == null || metadataFilePath == null || outputFilePath == null) {
+                    System.err.println("--input, --metadata and --output are required to submit a job.");
+                    System.exit(2);
+                }
+                if (!client.submit(job(), System.out::println)) {
+                    System.exit(1);
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Conversion server unreachable on port " + port + ": " + e.getMessage());
+            System.exit(2);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            System.exit(2);
+        }
+    }
+
+    // Chemins absolus : le serveur ne partage pas le répertoire courant du client
+    private Properties job() {
+        Properties job = new Properties();
+        job.setProperty(ConversionServer.KEY_INPUT, inputFilePath.toAbsolutePath().toString());
+        job.setProperty(ConversionServer.KEY_METADATA, metadataFilePath.toAbsolutePath().toString());
+        job.setProperty(ConversionServer.KEY_OUTPUT, outputFilePath.toAbsolutePath().toString());
+        job.setProperty(ConversionServer.KEY_THREADS, Integer.toString(threads));
+        job.setProperty(ConversionServer.KEY_READER, readerType.name());
+        job.setProperty(ConversionServer.KEY_CHARSET, charset);
+        job.setProperty(ConversionServer.KEY_PIPELINE, Boolean.toString(pipelined));
+        job.setProperty(ConversionServer.KEY_ON_ERROR, errorPolicy.name());
+        if (rejectPath != null) {
+            job.setProperty(ConversionServer.KEY_REJECT_FILE, rejectPath.toAbsolutePath().toString());
+        }
+        if (maxErrors != null) {
+            job.setProperty(ConversionServer.KEY_MAX_ERRORS, maxErrors.toString());
+        }
+        if (maxErrorRatio != null) {
+            job.setProperty(ConversionServer.KEY_MAX_ERROR_RATIO, maxErrorRatio.toString());
+        }
+        if (!additionalFormats.isEmpty()) {
+            job.setProperty(ConversionServer.KEY_ALSO_WRITE,
+                    additionalFormats.stream().map(OutputFormat::name).collect(Collectors.joining(",")));
+        }
+        if (compressionLevel != null) {
+            job.setProperty(ConversionServer.KEY_COMPRESSION_LEVEL, compressionLevel.toString());
+        }
+        if (!columns.isEmpty()) {
+            job.setProperty(ConversionServer.KEY_COLUMNS, String.join(",", columns));
+        }
+        if (!filters.isEmpty()) {
+            // Une condition par ligne : une valeur comparée peut contenir une virgule
+            job.setProperty(ConversionServer.KEY_WHERE, String.join("\n", filters));
+        }
+        if (partitionBy != null) {
+            job.setProperty(ConversionServer.KEY_PARTITION_BY, partitionBy);
+        }
+        if (shardBy != null) {
+            job.setProperty(ConversionServer.KEY_SHARD_BY, shardBy);
+        }
+        if (maxOpenPartitions != null) {
+            job.setProperty(ConversionServer.KEY_MAX_OPEN_PARTITIONS, maxOpenPartitions.toString());
+        }
+        return job;
+    }
+}
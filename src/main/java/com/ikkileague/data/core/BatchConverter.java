@@ -0,0 +1,202 @@
+package com.ikkileague.data.core;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.ikkileague.data.exception.ConversionException;
+import com.ikkileague.data.formatter.RecordFormatter;
+
+/**
+ * Convertit un lot de fichiers à largeur fixe partageant le même fichier de
+ * métadonnées, dans une seule JVM.
+ * <p>
+ * Les métadonnées sont compilées une seule fois, puis chaque fichier est
+ * converti dans sa propre tâche. Les tâches s'exécutent sur des threads
+ * virtuels lorsque la JVM en dispose (Java 21+) et sur un pool de threads
+ * classiques sinon ; dans les deux cas, un sémaphore limite le nombre de
+ * conversions simultanées. L'échec d'un fichier n'interrompt pas les autres :
+ * il est consigné dans le {@link BatchReport} final.
+ * <p>
+ * Deux entrées qui ne diffèrent que par leur extension ({@code a.txt},
+ * {@code a.dat}) produiraient le même fichier de sortie : aucune n'est
+ * convertie, et chacune est consignée en échec.
+ */
+public class BatchConverter {
+
+    private static final Logger logger = LoggerFactory.getLogger(BatchConverter.class);
+
+    private final FileConverter fileConverter;
+    private final int concurrency;
+
+    public BatchConverter(FileConverter fileConverter, int concurrency) {
+        if (concurrency < 1) {
+            throw new IllegalArgumentException("La concurrence doit être >= 1 : " + concurrency);
+        }
+        this.fileConverter = fileConverter;
+        this.concurrency = concurrency;
+    }
+
+    /**
+     * Convertit chaque fichier d'entrée en un fichier CSV de même nom (extension
+     * remplacée par {@code .csv}, ou {@code .csv.gz} pour une entrée {@code .gz})
+     * dans le répertoire de sortie.
+     *
+     * @throws ConversionException si les métadonnées sont invalides ou si le
+     *                             répertoire de sortie ne peut pas être créé.
+     */
+    public BatchReport convert(List<Path> inputFiles, Path metadataFilePath, Path outputDirectory,
+            ConversionOptions options) throws ConversionException {
+        logger.info("Conversion par lot : {} fichiers, {} conversions simultanées au maximum.", inputFiles.size(),
+                concurrency);
+        RecordFormatter recordFormatter = fileConverter.compileFormatter(metadataFilePath);
+        try {
+            Files.createDirectories(outputDirectory);
+        } catch (IOException e) {
+            throw new ConversionException("Impossible de créer le répertoire de sortie : " + outputDirectory, e);
+        }
+
+        BatchReport report = new BatchReport();
+        Map<String, List<Path>> inputsByOutput = new HashMap<>();
+        for (Path inputFile : inputFiles) {
+            inputsByOutput.computeIfAbsent(csvFileName(inputFile), name -> new ArrayList<>()).add(inputFile);
+        }
+        Semaphore permits = new Semaphore(concurrency);
+        long startTime = System.nanoTime();
+        ExecutorService executor = newExecutor(concurrency);
+        try {
+            for (Path inputFile : inputFiles) {
+                List<Path> sameOutput = inputsByOutput.get(csvFileName(inputFile));
+                if (sameOutput.size() > 1) {
+                    String message = String.format("Fichier de sortie '%s' commun à plusieurs entrées : %s",
+                            csvFileName(inputFile), sameOutput);
+                    logger.error("Échec de la conversion de '{}' : {}", inputFile, message);
+                    report.recordFailure(inputFile, message);
+                    continue;
+                }
+                permits.acquireUninterruptibly();
+                executor.execute(() -> {
+                    try {
+                        convertOne(inputFile, recordFormatter, outputDirectory, options, report);
+                    } finally {
+                        permits.release();
+                    }
+                });
+            }
+        } finally {
+            executor.shutdown();
+            awaitTermination(executor);
+        }
+        report.complete(System.nanoTime() - startTime);
+        logger.info("{}", report);
+        return report;
+    }
+
+    private void convertOne(Path inputFile, RecordFormatter recordFormatter, Path outputDirectory,
+            ConversionOptions options, BatchReport report) {
+        Path outputFile = outputDirectory.resolve(csvFileName(inputFile));
+        try {
+            long size = Files.size(inputFile);
+            fileConverter.convert(inputFile, recordFormatter, outputFile, options);
+            report.recordSuccess(size);
+        } catch (ConversionException | IOException | RuntimeException e) {
+            logger.error("Échec de la conversion de '{}' : {}", inputFile, e.getMessage());
+            report.recordFailure(inputFile, e.getMessage());
+        }
+    }
+
+    /**
+     * Liste les fichiers à convertir. {@code input} est soit un répertoire
+     * (filtré par {@code glob}), soit un motif dont le dernier élément est un
+     * glob, par exemple {@code data/*.txt}.
+     *
+     * @return Les fichiers réguliers correspondants, triés par nom.
+     */
+    public static List<Path> listInputs(Path input, String glob) throws ConversionException {
+        Path directory = input;
+        String pattern = glob;
+        if (!Files.isDirectory(input)) {
+            directory = input.getParent() != null ? input.getParent() : Path.of(".");
+            pattern = input.getFileName().toString();
+        }
+        if (!Files.isDirectory(directory)) {
+            throw new ConversionException("Répertoire d'entrée introuvable : " + directory);
+        }
+        List<Path> inputs = new ArrayList<>();
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(directory, pattern)) {
+            for (Path entry : entries) {
+                if (Files.isRegularFile(entry)) {
+                    inputs.add(entry);
+                }
+            }
+        } catch (IOException e) {
+            throw new ConversionException("Impossible de lister le répertoire d'entrée : " + directory, e);
+        }
+        inputs.sort(null);
+        return inputs;
+    }
+
+    // Une entrée compressée (data.txt.gz) donne une sortie compressée (data.csv.gz)
+    static String csvFileName(Path inputFile) {
+        String name = inputFile.getFileName().toString();
+        String suffix = ".csv";
+        if (name.endsWith(".gz") && name.length() > 3) {
+            name = name.substring(0, name.length() - 3);
+            suffix = ".csv.gz";
+        }
+        int dot = name.lastIndexOf('.');
+        return (dot > 0 ? name.substring(0, dot) : name) + suffix;
+    }
+
+    /**
+     * Threads virtuels si la JVM les propose (recherche par réflexion, le projet
+     * ciblant Java 17), sinon un pool de {@code concurrency} threads démons.
+     */
+    static ExecutorService newExecutor(int concurrency) {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            logger.debug("Conversion par lot sur threads virtuels.");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            logger.debug("Threads virtuels indisponibles : pool de {} threads.", concurrency);
+            AtomicInteger counter = new AtomicInteger();
+            ThreadFactory threadFactory = task -> {
+                Thread thread = new Thread(task, "fixed2csv-batch-" + counter.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            };
+            return Executors.newFixedThreadPool(concurrency, threadFactory);
+        }
+    }
+
+    private static void awaitTermination(ExecutorService executor) {
+        boolean interrupted = false;
+        while (true) {
+            try {
+                if (executor.awaitTermination(1, TimeUnit.MINUTES)) {
+                    break;
+                }
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.ikkileague.data.core;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bilan d'une conversion par lot : réussites, échecs et débit.
+ * <p>
+ * Alimenté simultanément par les tâches de conversion, puis figé par
+ * {@link BatchConverter} à la fin du lot.
+ */
+public final class BatchReport {
+
+    private final AtomicInteger succeeded = new AtomicInteger();
+    private final AtomicLong bytesConverted = new AtomicLong();
+    private final List<Failure> failures = Collections.synchronizedList(new ArrayList<>());
+    private volatile long elapsedNanos;
+
+    void recordSuccess(long inputBytes) {
+        succeeded.incrementAndGet();
+        bytesConverted.addAndGet(inputBytes);
+    }
+
+    void recordFailure(Path inputFile, String message) {
+        failures.add(new Failure(inputFile, message));
+    }
+
+    void complete(long elapsedNanos) {
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public int getSucceeded() {
+        return succeeded.get();
+    }
+
+    public int getFailed() {
+        return failures.size();
+    }
+
+    /** Fichiers en échec, triés par chemin. */
+    public List<Failure> getFailures() {
+        List<Failure> sorted;
+        synchronized (failures) {
+            sorted = new ArrayList<>(failures);
+        }
+        sorted.sort((a, b) -> a.getInputFile().compareTo(b.getInputFile()));
+        return sorted;
+    }
+
+    /** Volume total des fichiers convertis avec succès, en octets. */
+    public long getBytesConverted() {
+        return bytesConverted.get();
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    /** Débit en Mio/s sur la durée totale du lot. */
+    public double getThroughputMiBPerSecond() {
+        return elapsedNanos == 0 ? 0 : bytesConverted.get() / (1024.0 * 1024.0) / (elapsedNanos / 1e9);
+    }
+
+    /** Nombre de fichiers traités (réussis ou non) par seconde. */
+    public double getFilesPerSecond() {
+        return elapsedNanos == 0 ? 0 : (getSucceeded() + getFailed()) / (elapsedNanos / 1e9);
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT,
+                "Batch summary: %d succeeded, %d failed, %d bytes in %d ms (%.1f MiB/s, %.1f files/s)",
+                getSucceeded(), getFailed(), getBytesConverted(), elapsedNanos / 1_000_000,
+                getThroughputMiBPerSecond(), getFilesPerSecond());
+    }
+
+    /** Fichier dont la conversion a échoué, avec le message d'erreur. */
+    public static final class Failure {
+        private final Path inputFile;
+        private final String message;
+
+        Failure(Path inputFile, String message) {
+            this.inputFile = inputFile;
+            this.message = message;
+        }
+
+        public Path getInputFile() {
+            return inputFile;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+
+        @Override
+        public String toString() {
+            return inputFile + ": " + message;
+        }
+    }
+}
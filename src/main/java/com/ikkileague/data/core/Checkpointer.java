@@ -0,0 +1,252 @@
+package com.ikkileague.data.core;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Properties;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.ikkileague.data.exception.ConversionException;
+import com.ikkileague.data.writer.RecordSink;
+
+/**
+ * Points de reprise d'une conversion de fichier.
+ * <p>
+ * À intervalle régulier ({@link ConversionOptions#getCheckpointInterval()}),
+ * le thread qui écrit la sortie vide ses tampons puis enregistre dans un petit
+ * fichier d'état, à côté de la sortie ({@code <sortie>.checkpoint}), la
+ * position atteinte dans le fichier d'entrée, le numéro de la dernière ligne
+ * traitée et la longueur du CSV et du fichier de rejets à cet instant. Le
+ * fichier d'état est remplacé d'un seul coup (écriture dans un fichier
+ * temporaire puis renommage) : il décrit toujours un état cohérent.
+ * <p>
+ * Si la JVM est arrêtée brutalement, une nouvelle conversion avec
+ * {@link ConversionOptions#isResume()} tronque les sorties à ces longueurs et
+ * reprend la lecture à cette position : au plus un intervalle de travail est
+ * perdu. Les sorties ne sont pas synchronisées sur disque (fsync) : la reprise
+ * couvre la mort du processus, pas celle de la machine. Le fichier d'état est
+ * supprimé à la fin d'une conversion réussie.
+ * <p>
+ * La taille et la date de modification du fichier d'entrée sont enregistrées
+ * afin de refuser la reprise d'un fichier modifié entre-temps.
+ */
+final class Checkpointer {
+
+    private static final Logger logger = LoggerFactory.getLogger(Checkpointer.class);
+
+    // Nombre d'enregistrements traités entre deux lectures de l'horloge
+    static final int CLOCK_CHECK_INTERVAL = 4096;
+
+    private static final Checkpointer DISABLED = new Checkpointer(null, 0, 0, 0, Checkpoint.START);
+
+    private final Path statePath;
+    private final long inputSize;
+    private final long inputModified;
+    private final long intervalNanos;
+    private final Checkpoint start;
+    private long nextCheckpoint;
+    private long countdown = CLOCK_CHECK_INTERVAL;
+
+    private Checkpointer(Path statePath, long inputSize, long inputModified, long intervalNanos, Checkpoint start) {
+        this.statePath = statePath;
+        this.inputSize = inputSize;
+        this.inputModified = inputModified;
+        this.intervalNanos = intervalNanos;
+        this.start = start;
+        this.nextCheckpoint = System.nanoTime() + intervalNanos;
+    }
+
+    /**
+     * Prépare les points de reprise d'une conversion et, en mode reprise,
+     * charge le dernier point enregistré pour cette sortie.
+     *
+     * @throws ConversionException si le point de reprise est illisible ou ne
+     *                             correspond plus aux fichiers d'entrée et de sortie.
+     */
+    static Checkpointer forConversion(ConversionOptions options, Path inputPath, Path outputPath)
+            throws ConversionException {
+        if (options.getCheckpointInterval().isZero() && !options.isResume()) {
+            return DISABLED;
+        }
+        if (!RecordSinks.isResumable(outputPath, options)) {
+            logger.warn("Points de reprise ignorés : seule une sortie CSV unique et non compressée peut être "
+                    + "tronquée puis reprise.");
+            return DISABLED;
+        }
+        Path statePath = statePath(outputPath);
+        long inputSize;
+        long inputModified;
+        try {
+            inputSize = Files.size(inputPath);
+            inputModified = Files.getLastModifiedTime(inputPath).toMillis();
+        } catch (IOException e) {
+            throw new ConversionException("Impossible de lire les attributs du fichier d'entrée : " + inputPath, e);
+        }
+        Checkpoint start = Checkpoint.START;
+        if (options.isResume()) {
+            start = load(statePath, inputSize, inputModified, outputPath);
+        }
+        return new Checkpointer(statePath, inputSize, inputModified, options.getCheckpointInterval().toNanos(),
+                start);
+    }
+
+    /** Points de reprise désactivés (entrée lue depuis un flux, par exemple). */
+    static Checkpointer disabled() {
+        return DISABLED;
+    }
+
+    static Path statePath(Path outputPath) {
+        return outputPath.resolveSibling(outputPath.getFileName() + ".checkpoint");
+    }
+
+    /** Point de départ de la conversion : le point de reprise chargé, ou le début du fichier. */
+    Checkpoint getStart() {
+        return start;
+    }
+
+    /**
+     * Indique si la position des enregistrements dans l'entrée doit être
+     * connue : points de reprise activés, ou reprise en cours.
+     */
+    boolean needsPosition() {
+        return intervalNanos > 0 || start.inputOffset > 0;
+    }
+
+    /**
+     * Indique s'il est temps d'enregistrer un point de reprise. L'horloge
+     * n'est consultée que tous les {@link #CLOCK_CHECK_INTERVAL} enregistrements.
+     *
+     * @param records Nombre d'enregistrements traités depuis l'appel précédent.
+     */
+    boolean isDue(long records) {
+        if (intervalNanos == 0) {
+            return false;
+        }
+        countdown -= records;
+        if (countdown > 0) {
+            return false;
+        }
+        countdown = CLOCK_CHECK_INTERVAL;
+        return System.nanoTime() - nextCheckpoint >= 0;
+    }
+
+    /**
+     * Vide les sorties puis enregistre un point de reprise. Doit être appelé
+     * par le thread qui écrit la sortie, entre deux enregistrements.
+     *
+     * @param inputOffset Position dans le fichier d'entrée juste après la ligne {@code lineNumber}.
+     * @param lineNumber  Dernière ligne entièrement traitée (écrite ou rejetée).
+     */
+    void save(long inputOffset, long lineNumber, RecordSink sink, ErrorHandler errors)
+            throws ConversionException {
+        Checkpoint checkpoint = new Checkpoint(inputOffset, lineNumber, sink.flush(), errors.getRejected(),
+                errors.flush());
+        Properties state = new Properties();
+        state.setProperty("input.size", Long.toString(inputSize));
+        state.setProperty("input.modified", Long.toString(inputModified));
+        state.setProperty("input.offset", Long.toString(checkpoint.inputOffset));
+        state.setProperty("line", Long.toString(checkpoint.lineNumber));
+        state.setProperty("output.length", Long.toString(checkpoint.outputLength));
+        state.setProperty("rejects.count", Long.toString(checkpoint.rejected));
+        state.setProperty("rejects.length", Long.toString(checkpoint.rejectLength));
+
+        Path temporary = statePath.resolveSibling(statePath.getFileName() + ".tmp");
+        try {
+            try (OutputStream out = Files.newOutputStream(temporary)) {
+                state.store(out, "fixed2csv checkpoint");
+            }
+            try {
+                Files.move(temporary, statePath, StandardCopyOption.ATOMIC_MOVE,
+                        StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temporary, statePath, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            throw new ConversionException("Impossible d'enregistrer le point de reprise : " + statePath, e);
+        }
+        logger.debug("Point de reprise : ligne {}, octet {} de l'entrée, {} octets écrits.", lineNumber,
+                inputOffset, checkpoint.outputLength);
+        nextCheckpoint = System.nanoTime() + intervalNanos;
+    }
+
+    /** Conversion réussie : le point de reprise n'a plus d'utilité. */
+    void complete() throws ConversionException {
+        if (statePath == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(statePath);
+        } catch (IOException e) {
+            throw new ConversionException("Impossible de supprimer le point de reprise : " + statePath, e);
+        }
+    }
+
+    private static Checkpoint load(Path statePath, long inputSize, long inputModified, Path outputPath)
+            throws ConversionException {
+        Properties state = new Properties();
+        try (InputStream in = Files.newInputStream(statePath)) {
+            state.load(in);
+        } catch (NoSuchFileException e) {
+            logger.info("Aucun point de reprise pour '{}' : conversion depuis le début.", outputPath);
+            return Checkpoint.START;
+        } catch (IOException e) {
+            throw new ConversionException("Impossible de lire le point de reprise : " + statePath, e);
+        }
+
+        Checkpoint checkpoint;
+        try {
+            if (Long.parseLong(state.getProperty("input.size")) != inputSize
+                    || Long.parseLong(state.getProperty("input.modified")) != inputModified) {
+                throw new ConversionException("Le fichier d'entrée a été modifié depuis le point de reprise "
+                        + statePath + " ; supprimez-le pour reconvertir depuis le début.");
+            }
+            checkpoint = new Checkpoint(Long.parseLong(state.getProperty("input.offset")),
+                    Long.parseLong(state.getProperty("line")), Long.parseLong(state.getProperty("output.length")),
+                    Long.parseLong(state.getProperty("rejects.count")),
+                    Long.parseLong(state.getProperty("rejects.length")));
+        } catch (NumberFormatException e) {
+            throw new ConversionException("Point de reprise invalide : " + statePath, e);
+        }
+
+        long outputLength;
+        try {
+            outputLength = Files.size(outputPath);
+        } catch (IOException e) {
+            outputLength = -1;
+        }
+        if (outputLength < checkpoint.outputLength) {
+            throw new ConversionException(String.format(
+                    "Le fichier de sortie %s est plus court (%d octets) que le point de reprise (%d octets).",
+                    outputPath, outputLength, checkpoint.outputLength));
+        }
+        logger.info("Reprise de la conversion à la ligne {} (octet {} de l'entrée).", checkpoint.lineNumber + 1,
+                checkpoint.inputOffset);
+        return checkpoint;
+    }
+
+    /** État enregistré à un point de reprise. */
+    static final class Checkpoint {
+        static final Checkpoint START = new Checkpoint(0, 0, 0, 0, 0);
+
+        final long inputOffset;
+        final long lineNumber;
+        final long outputLength;
+        final long rejected;
+        final long rejectLength;
+
+        Checkpoint(long inputOffset, long lineNumber, long outputLength, long rejected, long rejectLength) {
+            this.inputOffset = inputOffset;
+            this.lineNumber = lineNumber;
+            this.outputLength = outputLength;
+            this.rejected = rejected;
+            this.rejectLength = rejectLength;
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.ikkileague.data.core;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.GZIPInputStream;
+
+import com.ikkileague.data.exception.ConversionException;
+import com.ikkileague.data.writer.ParallelGzipOutputStream;
+
+/**
+ * Prise en charge transparente de gzip en entrée et en sortie.
+ * <p>
+ * Une entrée est reconnue comme gzip à ses deux premiers octets (1f 8b), quel
+ * que soit son nom ; elle est décompressée au fil de la lecture, ses membres
+ * éventuellement concaténés compris. Une sortie est compressée lorsque son nom
+ * se termine par {@code .gz}, en membres gzip indépendants compressés en
+ * parallèle (voir {@link ParallelGzipOutputStream}).
+ */
+final class Compression {
+
+    private static final int GZIP_MAGIC_1 = 0x1f;
+    private static final int GZIP_MAGIC_2 = 0x8b;
+
+    // Tampon de lecture du flux compressé
+    private static final int INPUT_BUFFER_SIZE = 64 * 1024;
+    // Tampon d'écriture d'une sortie non compressée
+    private static final int OUTPUT_BUFFER_SIZE = 64 * 1024;
+
+    private Compression() {
+    }
+
+    /** Indique si le fichier commence par la signature gzip. */
+    static boolean isGzip(Path path) throws IOException {
+        try (InputStream in = Files.newInputStream(path)) {
+            return in.read() == GZIP_MAGIC_1 && in.read() == GZIP_MAGIC_2;
+        }
+    }
+
+    /** Indique si la sortie doit être compressée en gzip. */
+    static boolean isGzipOutput(Path outputPath) {
+        return outputPath.getFileName().toString().endsWith(".gz");
+    }
+
+    /**
+     * Renvoie le flux décompressé s'il commence par la signature gzip, le flux
+     * tel quel (mis en tampon) sinon.
+     */
+    static InputStream decompressIfGzip(InputStream input) throws IOException {
+        BufferedInputStream buffered = new BufferedInputStream(input, INPUT_BUFFER_SIZE);
+        buffered.mark(2);
+        boolean gzip = buffered.read() == GZIP_MAGIC_1 && buffered.read() == GZIP_MAGIC_2;
+        buffered.reset();
+        return gzip ? new GZIPInputStream(buffered, INPUT_BUFFER_SIZE) : buffered;
+    }
+
+    /**
+     * Ouvre un fichier de sortie, compressé si son nom se termine par
+     * {@code .gz}, mis en tampon sinon.
+     */
+    static OutputStream openOutput(Path outputPath, ConversionOptions options) throws ConversionException {
+        OutputStream file;
+        try {
+            file = Files.newOutputStream(outputPath);
+        } catch (IOException e) {
+            throw new ConversionException("Impossible de créer le fichier de sortie : " + outputPath, e);
+        }
+        if (!isGzipOutput(outputPath)) {
+            return new BufferedOutputStream(file, OUTPUT_BUFFER_SIZE);
+        }
+        return new ParallelGzipOutputStream(file, options.getCompressionThreads(), options.getCompressionLevel());
+    }
+}
@@ -0,0 +1,106 @@
+package com.ikkileague.data.core;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.Properties;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Client d'un {@link ConversionServer} local : soumet des conversions et
+ * relaie leurs lignes d'état au fil de l'exécution.
+ */
+public final class ConversionClient {
+
+    private static final Duration CONNECT_TIMEOUT = Duration.ofSeconds(5);
+
+    private final HttpClient httpClient = HttpClient.newBuilder().connectTimeout(CONNECT_TIMEOUT).build();
+    private final URI baseUri;
+    private final String authorization;
+
+    /**
+     * @param token Jeton du serveur (voir {@link #readToken(Path)}).
+     */
+    public ConversionClient(int port, String token) {
+        this.baseUri = URI.create("http://127.0.0.1:" + port);
+        this.authorization = "Bearer " + token;
+    }
+
+    /**
+     * Lit le jeton écrit par le serveur au démarrage.
+     *
+     * @throws IOException si le fichier est absent ou illisible : serveur
+     *                     arrêté, ou lancé par un autre utilisateur.
+     */
+    public static String readToken(Path tokenFile) throws IOException {
+        return Files.readString(tokenFile, StandardCharsets.US_ASCII).trim();
+    }
+
+    /**
+     * Soumet une conversion et attend sa fin.
+     *
+     * @param job    Demande de conversion (clés {@code ConversionServer.KEY_*}) ;
+     *               les chemins relatifs sont résolus par le serveur.
+     * @param status Reçoit chaque ligne d'état du serveur, ou son message d'erreur.
+     * @return {@code true} si la conversion a réussi.
+     * @throws IOException si le serveur est injoignable ou coupe la connexion.
+     */
+    public boolean submit(Properties job, Consumer<String> status) throws IOException, InterruptedException {
+        StringWriter body = new StringWriter();
+        job.store(body, null);
+        HttpRequest request = HttpRequest.newBuilder(baseUri.resolve("/jobs"))
+                .header("Content-Type", "text/plain; charset=utf-8")
+                .header("Authorization", authorization)
+                .POST(HttpRequest.BodyPublishers.ofString(body.toString()))
+                .build();
+        HttpResponse<Stream<String>> response = httpClient.send(request, HttpResponse.BodyHandlers.ofLines());
+        String last = null;
+        try (Stream<String> lines = response.body()) {
+            Iterator<String> iterator = lines.iterator();
+            while (iterator.hasNext()) {
+                last = iterator.next();
+                status.accept(last);
+            }
+        }
+        if (response.statusCode() != 200) {
+            return false;
+        }
+        if (last == null || !(last.startsWith("DONE ") || last.startsWith("FAILED "))) {
+            throw new IOException("Connexion interrompue avant la fin de la tâche");
+        }
+        return last.startsWith("DONE ");
+    }
+
+    /** Compteurs du serveur (tâches, cache des métadonnées). */
+    public Properties status() throws IOException, InterruptedException {
+        HttpResponse<String> response = httpClient.send(HttpRequest.newBuilder(baseUri.resolve("/status"))
+                .header("Authorization", authorization).build(), HttpResponse.BodyHandlers.ofString());
+        checkStatus(response);
+        Properties status = new Properties();
+        status.load(new StringReader(response.body()));
+        return status;
+    }
+
+    /** Demande l'arrêt du serveur, après la fin des tâches acceptées. */
+    public void shutdown() throws IOException, InterruptedException {
+        checkStatus(httpClient.send(HttpRequest.newBuilder(baseUri.resolve("/shutdown"))
+                .header("Authorization", authorization).POST(HttpRequest.BodyPublishers.noBody()).build(),
+                HttpResponse.BodyHandlers.ofString()));
+    }
+
+    private static void checkStatus(HttpResponse<String> response) throws IOException {
+        if (response.statusCode() != 200) {
+            throw new IOException("Demande refusée (" + response.statusCode() + ") : " + response.body().trim());
+        }
+    }
+}
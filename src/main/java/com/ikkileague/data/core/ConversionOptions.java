@@ -0,0 +1,486 @@
+package com.ikkileague.data.core;
+
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+import com.ikkileague.data.metrics.ConversionMetrics;
+import com.ikkileague.data.reader.ReaderType;
+import com.ikkileague.data.writer.OutputFormat;
+import com.ikkileague.data.writer.Partitioning;
+
+/**
+ * Options d'exécution d'une conversion (parallélisme, mémoire en vol...).
+ * <p>
+ * Les instances sont immuables ; on les construit via {@link #builder()}.
+ * {@link #defaults()} reproduit le comportement historique : lecture et
+ * écriture séquentielles sur un seul thread.
+ */
+public final class ConversionOptions {
+
+    /** Taille par défaut d'un bloc (chunk) d'entrée en mode parallèle : 4 Mio. */
+    public static final int DEFAULT_CHUNK_SIZE = 4 * 1024 * 1024;
+
+    /** Limite par défaut des octets d'entrée en cours de traitement : 256 Mio. */
+    public static final long DEFAULT_MAX_IN_FLIGHT_BYTES = 256L * 1024 * 1024;
+
+    /** Nombre par défaut d'enregistrements par lot en mode pipeline. */
+    public static final int DEFAULT_PIPELINE_BATCH_SIZE = 4096;
+
+    /** Nombre par défaut de lots préalloués dans l'anneau du mode pipeline. */
+    public static final int DEFAULT_PIPELINE_DEPTH = 8;
+
+    /** Niveau de compression gzip par défaut de la sortie (celui de gzip). */
+    public static final int DEFAULT_COMPRESSION_LEVEL = 6;
+
+    /** Nombre par défaut de fichiers de partition ouverts simultanément. */
+    public static final int DEFAULT_MAX_OPEN_PARTITIONS = 64;
+
+    private static final ConversionOptions DEFAULTS = builder().build();
+
+    private final int threads;
+    private final int chunkSize;
+    private final long maxInFlightBytes;
+    private final ReaderType readerType;
+    private final Charset charset;
+    private final boolean pipelined;
+    private final int pipelineBatchSize;
+    private final int pipelineDepth;
+    private final ConversionMetrics metrics;
+    private final Duration progressInterval;
+    private final ErrorPolicy errorPolicy;
+    private final Path rejectPath;
+    private final long maxErrors;
+    private final double maxErrorRatio;
+    private final Duration checkpointInterval;
+    private final boolean resume;
+    private final int compressionThreads;
+    private final int compressionLevel;
+    private final Set<OutputFormat> additionalFormats;
+    private final List<String> columns;
+    private final List<String> filters;
+    private final Partitioning partitioning;
+    private final int maxOpenPartitions;
+
+    private ConversionOptions(Builder builder) {
+        this.threads = builder.threads;
+        this.chunkSize = builder.chunkSize;
+        this.maxInFlightBytes = builder.maxInFlightBytes;
+        this.readerType = builder.readerType;
+        this.charset = builder.charset;
+        this.pipelined = builder.pipelined;
+        this.pipelineBatchSize = builder.pipelineBatchSize;
+        this.pipelineDepth = builder.pipelineDepth;
+        this.metrics = builder.metrics;
+        this.progressInterval = builder.progressInterval;
+        this.errorPolicy = builder.errorPolicy;
+        this.rejectPath = builder.rejectPath;
+        this.maxErrors = builder.maxErrors;
+        this.maxErrorRatio = builder.maxErrorRatio;
+        this.checkpointInterval = builder.checkpointInterval;
+        this.resume = builder.resume;
+        this.compressionThreads = builder.compressionThreads;
+        this.compressionLevel = builder.compressionLevel;
+        this.additionalFormats = Collections.unmodifiableSet(EnumSet.copyOf(builder.additionalFormats));
+        this.columns = Collections.unmodifiableList(new ArrayList<>(builder.columns));
+        this.filters = Collections.unmodifiableList(new ArrayList<>(builder.filters));
+        this.partitioning = builder.partitioning;
+        this.maxOpenPartitions = builder.maxOpenPartitions;
+    }
+
+    public static ConversionOptions defaults() {
+        return DEFAULTS;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /** Nombre de threads de conversion ; 1 signifie le mode séquentiel historique. */
+    public int getThreads() {
+        return threads;
+    }
+
+    /** Taille cible (en octets) d'un bloc d'entrée traité par une tâche parallèle. */
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    /** Nombre maximal d'octets d'entrée lus mais pas encore écrits en sortie. */
+    public long getMaxInFlightBytes() {
+        return maxInFlightBytes;
+    }
+
+    /** Stratégie de lecture du fichier d'entrée en mode séquentiel. */
+    public ReaderType getReaderType() {
+        return readerType;
+    }
+
+    /**
+     * Encodage du fichier d'entrée. Pour ISO-8859-1 et US-ASCII, les
+     * enregistrements sont traités directement sur leurs octets.
+     */
+    public Charset getCharset() {
+        return charset;
+    }
+
+    /**
+     * Indique si la lecture, le découpage/formatage et l'écriture s'exécutent
+     * sur des threads distincts reliés par un anneau de lots (voir
+     * {@link PipelinedConversionEngine}). Utile notamment pour une entrée
+     * standard ou un pipe, qui ne peuvent pas être découpés en blocs.
+     */
+    public boolean isPipelined() {
+        return pipelined;
+    }
+
+    /** Nombre d'enregistrements transmis d'un étage à l'autre en un seul lot. */
+    public int getPipelineBatchSize() {
+        return pipelineBatchSize;
+    }
+
+    /** Nombre de lots préalloués dans l'anneau, qui borne la mémoire du pipeline. */
+    public int getPipelineDepth() {
+        return pipelineDepth;
+    }
+
+    /**
+     * Métriques alimentées par la conversion, ou {@code null} : chaque
+     * conversion utilise alors ses propres métriques, non publiées. Une même
+     * instance peut être partagée par plusieurs conversions simultanées.
+     */
+    public ConversionMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Intervalle entre deux rapports d'avancement (voir
+     * {@link com.ikkileague.data.metrics.ProgressReporter}) ; {@link Duration#ZERO}
+     * désactive les rapports.
+     */
+    public Duration getProgressInterval() {
+        return progressInterval;
+    }
+
+    /** Traitement des enregistrements invalides : arrêt immédiat ou rejet. */
+    public ErrorPolicy getErrorPolicy() {
+        return errorPolicy;
+    }
+
+    /**
+     * Fichier de rejets en mode {@link ErrorPolicy#REJECT}, ou {@code null} pour
+     * {@code <sortie>.rejects.csv} à côté du CSV produit.
+     */
+    public Path getRejectPath() {
+        return rejectPath;
+    }
+
+    /** Nombre de rejets au-delà duquel la conversion s'arrête ({@link Long#MAX_VALUE} : illimité). */
+    public long getMaxErrors() {
+        return maxErrors;
+    }
+
+    /** Proportion de lignes rejetées au-delà de laquelle la conversion s'arrête (1 : illimitée). */
+    public double getMaxErrorRatio() {
+        return maxErrorRatio;
+    }
+
+    /**
+     * Intervalle entre deux points de reprise (voir {@link Checkpointer}) ;
+     * {@link Duration#ZERO} désactive les points de reprise.
+     */
+    public Duration getCheckpointInterval() {
+        return checkpointInterval;
+    }
+
+    /**
+     * Indique si la conversion reprend au dernier point de reprise enregistré
+     * pour le fichier de sortie, s'il en existe un.
+     */
+    public boolean isResume() {
+        return resume;
+    }
+
+    /**
+     * Nombre de threads compressant une sortie gzip ({@code .gz}) ; par défaut,
+     * le nombre de processeurs.
+     */
+    public int getCompressionThreads() {
+        return compressionThreads;
+    }
+
+    /** Niveau de compression gzip de la sortie, de 1 (rapide) à 9 (compact). */
+    public int getCompressionLevel() {
+        return compressionLevel;
+    }
+
+    /**
+     * Formats écrits en plus de celui du fichier de sortie, dans la même
+     * passe : chacun dans un fichier voisin de même nom de base (voir
+     * {@link OutputFormat}). Vide par défaut.
+     */
+    public Set<OutputFormat> getAdditionalFormats() {
+        return additionalFormats;
+    }
+
+    /**
+     * Colonnes écrites en sortie, dans cet ordre ; vide pour toutes les
+     * colonnes. Les colonnes écartées ne sont ni découpées ni formatées (voir
+     * {@link com.ikkileague.data.model.RecordLayout#select(List)}).
+     */
+    public List<String> getColumns() {
+        return columns;
+    }
+
+    /**
+     * Conditions que doit satisfaire une ligne pour être convertie, toutes
+     * requises ; vide pour toutes les lignes. Elles sont évaluées sur les
+     * champs bruts, avant formatage (voir
+     * {@link com.ikkileague.data.parser.RecordFilter}).
+     */
+    public List<String> getFilters() {
+        return filters;
+    }
+
+    /**
+     * Découpage de la sortie CSV en plusieurs fichiers (voir
+     * {@link com.ikkileague.data.writer.PartitionedCsvSink}), ou {@code null}
+     * pour un fichier unique.
+     */
+    public Partitioning getPartitioning() {
+        return partitioning;
+    }
+
+    /**
+     * Nombre maximal de fichiers de partition ouverts simultanément ; au-delà,
+     * le moins récemment utilisé est fermé.
+     */
+    public int getMaxOpenPartitions() {
+        return maxOpenPartitions;
+    }
+
+    /**
+     * Nombre maximal de blocs soumis simultanément, déduit de la limite mémoire.
+     * On en garde toujours au moins deux pour que lecture et écriture se
+     * chevauchent.
+     */
+    public int getMaxChunksInFlight() {
+        return (int) Math.max(2, Math.min(Integer.MAX_VALUE, maxInFlightBytes / chunkSize));
+    }
+
+    @Override
+    public String toString() {
+        return String.format(
+                "ConversionOptions{threads=%d, chunkSize=%d, maxInFlightBytes=%d, readerType=%s, charset=%s, "
+                        + "pipelined=%b, pipelineBatchSize=%d, pipelineDepth=%d, progressInterval=%s, "
+                        + "errorPolicy=%s, maxErrors=%d, maxErrorRatio=%s, checkpointInterval=%s, resume=%b, "
+                        + "compressionThreads=%d, compressionLevel=%d, additionalFormats=%s, columns=%s, "
+                        + "filters=%s, partitioning=%s, maxOpenPartitions=%d}",
+                threads, chunkSize, maxInFlightBytes, readerType, charset, pipelined, pipelineBatchSize,
+                pipelineDepth, progressInterval, errorPolicy, maxErrors, maxErrorRatio, checkpointInterval, resume,
+                compressionThreads, compressionLevel, additionalFormats, columns, filters, partitioning,
+                maxOpenPartitions);
+    }
+
+    public static final class Builder {
+        private int threads = 1;
+        private int chunkSize = DEFAULT_CHUNK_SIZE;
+        private long maxInFlightBytes = DEFAULT_MAX_IN_FLIGHT_BYTES;
+        private ReaderType readerType = ReaderType.BUFFERED;
+        private Charset charset = StandardCharsets.UTF_8;
+        private boolean pipelined;
+        private int pipelineBatchSize = DEFAULT_PIPELINE_BATCH_SIZE;
+        private int pipelineDepth = DEFAULT_PIPELINE_DEPTH;
+        private ConversionMetrics metrics;
+        private Duration progressInterval = Duration.ZERO;
+        private ErrorPolicy errorPolicy = ErrorPolicy.FAIL;
+        private Path rejectPath;
+        private long maxErrors = Long.MAX_VALUE;
+        private double maxErrorRatio = 1.0;
+        private Duration checkpointInterval = Duration.ZERO;
+        private boolean resume;
+        private int compressionThreads = Runtime.getRuntime().availableProcessors();
+        private int compressionLevel = DEFAULT_COMPRESSION_LEVEL;
+        private Set<OutputFormat> additionalFormats = EnumSet.noneOf(OutputFormat.class);
+        private List<String> columns = Collections.emptyList();
+        private List<String> filters = Collections.emptyList();
+        private Partitioning partitioning;
+        private int maxOpenPartitions = DEFAULT_MAX_OPEN_PARTITIONS;
+
+        private Builder() {
+        }
+
+        public Builder threads(int threads) {
+            if (threads < 1) {
+                throw new IllegalArgumentException("Le nombre de threads doit être >= 1 : " + threads);
+            }
+            this.threads = threads;
+            return this;
+        }
+
+        public Builder chunkSize(int chunkSize) {
+            if (chunkSize < 1) {
+                throw new IllegalArgumentException("La taille de bloc doit être >= 1 : " + chunkSize);
+            }
+            this.chunkSize = chunkSize;
+            return this;
+        }
+
+        public Builder maxInFlightBytes(long maxInFlightBytes) {
+            if (maxInFlightBytes < 1) {
+                throw new IllegalArgumentException(
+                        "La limite mémoire en vol doit être >= 1 octet : " + maxInFlightBytes);
+            }
+            this.maxInFlightBytes = maxInFlightBytes;
+            return this;
+        }
+
+        public Builder readerType(ReaderType readerType) {
+            this.readerType = Objects.requireNonNull(readerType, "readerType");
+            return this;
+        }
+
+        public Builder charset(Charset charset) {
+            this.charset = Objects.requireNonNull(charset, "charset");
+            return this;
+        }
+
+        public Builder pipelined(boolean pipelined) {
+            this.pipelined = pipelined;
+            return this;
+        }
+
+        public Builder pipelineBatchSize(int pipelineBatchSize) {
+            if (pipelineBatchSize < 1) {
+                throw new IllegalArgumentException("La taille de lot doit être >= 1 : " + pipelineBatchSize);
+            }
+            this.pipelineBatchSize = pipelineBatchSize;
+            return this;
+        }
+
+        public Builder pipelineDepth(int pipelineDepth) {
+            if (pipelineDepth < 2) {
+                throw new IllegalArgumentException("La profondeur du pipeline doit être >= 2 : " + pipelineDepth);
+            }
+            this.pipelineDepth = pipelineDepth;
+            return this;
+        }
+
+        public Builder metrics(ConversionMetrics metrics) {
+            this.metrics = metrics;
+            return this;
+        }
+
+        public Builder progressInterval(Duration progressInterval) {
+            Objects.requireNonNull(progressInterval, "progressInterval");
+            if (progressInterval.isNegative()) {
+                throw new IllegalArgumentException(
+                        "L'intervalle d'avancement doit être positif : " + progressInterval);
+            }
+            this.progressInterval = progressInterval;
+            return this;
+        }
+
+        public Builder errorPolicy(ErrorPolicy errorPolicy) {
+            this.errorPolicy = Objects.requireNonNull(errorPolicy, "errorPolicy");
+            return this;
+        }
+
+        public Builder rejectPath(Path rejectPath) {
+            this.rejectPath = rejectPath;
+            return this;
+        }
+
+        public Builder maxErrors(long maxErrors) {
+            if (maxErrors < 0) {
+                throw new IllegalArgumentException("Le nombre maximal d'erreurs doit être >= 0 : " + maxErrors);
+            }
+            this.maxErrors = maxErrors;
+            return this;
+        }
+
+        public Builder maxErrorRatio(double maxErrorRatio) {
+            if (!(maxErrorRatio >= 0 && maxErrorRatio <= 1)) {
+                throw new IllegalArgumentException(
+                        "La proportion maximale d'erreurs doit être comprise entre 0 et 1 : " + maxErrorRatio);
+            }
+            this.maxErrorRatio = maxErrorRatio;
+            return this;
+        }
+
+        public Builder checkpointInterval(Duration checkpointInterval) {
+            Objects.requireNonNull(checkpointInterval, "checkpointInterval");
+            if (checkpointInterval.isNegative()) {
+                throw new IllegalArgumentException(
+                        "L'intervalle entre points de reprise doit être positif : " + checkpointInterval);
+            }
+            this.checkpointInterval = checkpointInterval;
+            return this;
+        }
+
+        public Builder resume(boolean resume) {
+            this.resume = resume;
+            return this;
+        }
+
+        public Builder compressionThreads(int compressionThreads) {
+            if (compressionThreads < 1) {
+                throw new IllegalArgumentException(
+                        "Le nombre de threads de compression doit être >= 1 : " + compressionThreads);
+            }
+            this.compressionThreads = compressionThreads;
+            return this;
+        }
+
+        public Builder compressionLevel(int compressionLevel) {
+            if (compressionLevel < 1 || compressionLevel > 9) {
+                throw new IllegalArgumentException(
+                        "Le niveau de compression doit être compris entre 1 et 9 : " + compressionLevel);
+            }
+            this.compressionLevel = compressionLevel;
+            return this;
+        }
+
+        public Builder additionalFormats(Collection<OutputFormat> additionalFormats) {
+            this.additionalFormats = EnumSet.noneOf(OutputFormat.class);
+            this.additionalFormats.addAll(Objects.requireNonNull(additionalFormats, "additionalFormats"));
+            return this;
+        }
+
+        public Builder columns(List<String> columns) {
+            this.columns = Objects.requireNonNull(columns, "columns");
+            return this;
+        }
+
+        public Builder filters(List<String> filters) {
+            this.filters = Objects.requireNonNull(filters, "filters");
+            return this;
+        }
+
+        public Builder partitioning(Partitioning partitioning) {
+            this.partitioning = partitioning;
+            return this;
+        }
+
+        public Builder maxOpenPartitions(int maxOpenPartitions) {
+            if (maxOpenPartitions < 1) {
+                throw new IllegalArgumentException(
+                        "Le nombre de fichiers de partition ouverts doit être >= 1 : " + maxOpenPartitions);
+            }
+            this.maxOpenPartitions = maxOpenPartitions;
+            return this;
+        }
+
+        public ConversionOptions build() {
+            return new ConversionOptions(this);
+        }
+    }
+}
@@ -0,0 +1,542 @@
+package com.ikkileague.data.core;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.StringReader;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.ikkileague.data.exception.ConversionException;
+import com.ikkileague.data.formatter.RecordFormatter;
+import com.ikkileague.data.metrics.ConversionMetrics;
+import com.ikkileague.data.reader.ReaderType;
+import com.ikkileague.data.writer.OutputFormat;
+import com.ikkileague.data.writer.Partitioning;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Serveur de conversion résident : évite à chaque fichier le démarrage de la
+ * JVM, l'initialisation de picocli et de logback, et un JIT encore froid.
+ * <p>
+ * Le serveur écoute en HTTP sur l'interface de bouclage uniquement
+ * ({@code 127.0.0.1}) ; les tâches s'exécutent avec les droits du serveur sur
+ * les fichiers qu'elles désignent. Chaque demande doit donc présenter le jeton
+ * du serveur ({@code Authorization: Bearer <jeton>}), tiré au démarrage et
+ * écrit dans un fichier lisible par son seul propriétaire : une page web ou
+ * un autre utilisateur de la machine ne peut pas soumettre de tâche. Une
+ * demande portant un en-tête {@code Origin}, envoyé par les navigateurs, ou
+ * dont le {@code Host} n'est pas l'adresse de bouclage du serveur est refusée
+ * (403) ; une demande sans jeton valide aussi (401). Points d'accès :
+ * <ul>
+ * <li>{@code POST /jobs} : soumet une conversion décrite par des propriétés
+ * {@code clé=valeur} (voir les constantes {@code KEY_*}). La réponse est un
+ * flux de lignes d'état, envoyé au fil de la tâche : {@code QUEUED <id>},
+ * {@code RUNNING <id>}, {@code PROGRESS <id> records=.. bytes=.. errors=..}
+ * puis {@code DONE <id> records=.. errors=.. millis=..} ou
+ * {@code FAILED <id> <message>}. Code 400 pour une demande invalide, 503
+ * lorsque la file d'attente est pleine ou le serveur en cours d'arrêt.</li>
+ * <li>{@code GET /status} : compteurs du serveur, en propriétés.</li>
+ * <li>{@code POST /shutdown} : termine les tâches acceptées puis arrête le
+ * serveur.</li>
+ * </ul>
+ * Au plus {@code jobs} conversions s'exécutent en même temps, sur des threads
+ * qui restent actifs d'une tâche à l'autre ; au-delà, jusqu'à
+ * {@code queueCapacity} tâches attendent leur tour. Les métadonnées compilées
+ * sont conservées entre les tâches (voir {@link LayoutCache}).
+ */
+public final class ConversionServer implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(ConversionServer.class);
+
+    /** Port d'écoute par défaut. */
+    public static final int DEFAULT_PORT = 8765;
+
+    public static final String KEY_INPUT = "input";
+    public static final String KEY_METADATA = "metadata";
+    public static final String KEY_OUTPUT = "output";
+    public static final String KEY_THREADS = "threads";
+    public static final String KEY_READER = "reader";
+    public static final String KEY_CHARSET = "charset";
+    public static final String KEY_PIPELINE = "pipeline";
+    public static final String KEY_ON_ERROR = "on-error";
+    public static final String KEY_REJECT_FILE = "reject-file";
+    public static final String KEY_MAX_ERRORS = "max-errors";
+    public static final String KEY_MAX_ERROR_RATIO = "max-error-ratio";
+    public static final String KEY_ALSO_WRITE = "also-write";
+    public static final String KEY_COMPRESSION_LEVEL = "compression-level";
+    /** Colonnes écrites, séparées par des virgules. */
+    public static final String KEY_COLUMNS = "columns";
+    /** Conditions de filtre, une par ligne. */
+    public static final String KEY_WHERE = "where";
+    /** Découpage par valeur : {@code colonne[:year|month|day]}. */
+    public static final String KEY_PARTITION_BY = "partition-by";
+    /** Découpage par hachage : {@code colonne:nombre}. */
+    public static final String KEY_SHARD_BY = "shard-by";
+    public static final String KEY_MAX_OPEN_PARTITIONS = "max-open-partitions";
+
+    private static final Set<String> LOOPBACK_HOSTS = Set.of("127.0.0.1", "localhost", "[::1]");
+
+    private final FileConverter fileConverter;
+    private final LayoutCache layouts;
+    private final HttpServer httpServer;
+    private final ExecutorService handlers;
+    private final ThreadPoolExecutor jobs;
+    private final long statusIntervalMillis;
+    private final byte[] token;
+    private Path tokenFile;
+    private final AtomicLong nextJobId = new AtomicLong();
+    private final AtomicLong completed = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicInteger running = new AtomicInteger();
+    private final AtomicBoolean closing = new AtomicBoolean();
+    private final CountDownLatch stopped = new CountDownLatch(1);
+
+    private ConversionServer(FileConverter fileConverter, HttpServer httpServer, int jobs, int queueCapacity,
+            int layoutCacheSize, Duration statusInterval) {
+        this.fileConverter = fileConverter;
+        this.layouts = new LayoutCache(fileConverter, layoutCacheSize);
+        this.httpServer = httpServer;
+        this.statusIntervalMillis = Math.max(1, statusInterval.toMillis());
+        byte[] secret = new byte[32];
+        new SecureRandom().nextBytes(secret);
+        this.token = HexFormat.of().formatHex(secret).getBytes(StandardCharsets.US_ASCII);
+        this.jobs = new ThreadPoolExecutor(jobs, jobs, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), daemonThreads("fixed2csv-job-"));
+        this.handlers = Executors.newCachedThreadPool(daemonThreads("fixed2csv-http-"));
+        httpServer.setExecutor(handlers);
+        httpServer.createContext("/jobs", this::handleJob);
+        httpServer.createContext("/status", this::handleStatus);
+        httpServer.createContext("/shutdown", this::handleShutdown);
+    }
+
+    /**
+     * Démarre un serveur sur {@code 127.0.0.1}.
+     *
+     * @param port            Port d'écoute, ou 0 pour un port libre (voir {@link #getPort()}).
+     * @param jobs            Nombre maximal de conversions simultanées.
+     * @param queueCapacity   Nombre maximal de tâches en attente.
+     * @param layoutCacheSize Nombre de fichiers de métadonnées compilés conservés.
+     * @param statusInterval  Intervalle entre deux lignes d'avancement envoyées au client.
+     * @param tokenFile       Fichier recevant le jeton du serveur, ou {@code null}
+     *                        pour {@link #defaultTokenFile(int)} ; supprimé à l'arrêt.
+     */
+    public static ConversionServer start(FileConverter fileConverter, int port, int jobs, int queueCapacity,
+            int layoutCacheSize, Duration statusInterval, Path tokenFile) throws IOException {
+        if (jobs < 1 || queueCapacity < 1) {
+            throw new IllegalArgumentException(
+                    "Le nombre de tâches et la taille de la file doivent être >= 1 : " + jobs + ", " + queueCapacity);
+        }
+        HttpServer httpServer = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        ConversionServer server = new ConversionServer(fileConverter, httpServer, jobs, queueCapacity,
+                layoutCacheSize, statusInterval);
+        try {
+            server.writeToken(tokenFile != null ? tokenFile : defaultTokenFile(server.getPort()));
+        } catch (IOException e) {
+            httpServer.stop(0);
+            server.handlers.shutdownNow();
+            server.jobs.shutdownNow();
+            throw e;
+        }
+        httpServer.start();
+        logger.info("Serveur de conversion à l'écoute sur {} : {} tâches simultanées, {} en attente au maximum.",
+                httpServer.getAddress(), jobs, queueCapacity);
+        return server;
+    }
+
+    /**
+     * Fichier du jeton d'un serveur lancé sans {@code --token-file} :
+     * {@code ~/.fixed2csv/server-<port>.token}.
+     */
+    public static Path defaultTokenFile(int port) {
+        return Paths.get(System.getProperty("user.home"), ".fixed2csv", "server-" + port + ".token");
+    }
+
+    /** Fichier où le jeton de ce serveur a été écrit. */
+    public Path getTokenFile() {
+        return tokenFile;
+    }
+
+    /** Port effectivement utilisé. */
+    public int getPort() {
+        return httpServer.getAddress().getPort();
+    }
+
+    /** Attend l'arrêt du serveur ({@link #close()} ou {@code POST /shutdown}). */
+    public void awaitShutdown() throws InterruptedException {
+        stopped.await();
+    }
+
+    /**
+     * Refuse les nouvelles tâches, attend la fin de celles déjà acceptées
+     * puis arrête le serveur.
+     */
+    @Override
+    public void close() {
+        if (!closing.compareAndSet(false, true)) {
+            return;
+        }
+        logger.info("Arrêt du serveur de conversion : {} tâches en cours ou en attente.",
+                running.get() + jobs.getQueue().size());
+        jobs.shutdown();
+        try {
+            jobs.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            jobs.shutdownNow();
+        }
+        // Laisse aux gestionnaires le temps d'envoyer les dernières lignes d'état
+        httpServer.stop(1);
+        handlers.shutdownNow();
+        try {
+            Files.deleteIfExists(tokenFile);
+        } catch (IOException e) {
+            logger.warn("Impossible de supprimer le fichier de jeton '{}' : {}", tokenFile, e.getMessage());
+        }
+        stopped.countDown();
+        logger.info("Serveur de conversion arrêté : {} tâches réussies, {} en échec.", completed.get(),
+                failed.get());
+    }
+
+    // Jeton lisible du seul propriétaire : remplace un fichier existant, dont les droits sont inconnus
+    private void writeToken(Path file) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        boolean posix = FileSystems.getDefault().supportedFileAttributeViews().contains("posix");
+        if (!Files.isDirectory(parent)) {
+            if (posix) {
+                Files.createDirectories(parent,
+                        PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rwx------")));
+            } else {
+                Files.createDirectories(parent);
+            }
+        }
+        Files.deleteIfExists(file);
+        if (posix) {
+            Files.createFile(file, PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rw-------")));
+        } else {
+            Files.createFile(file);
+        }
+        Files.write(file, token);
+        this.tokenFile = file;
+        logger.info("Jeton du serveur écrit dans '{}'.", file);
+    }
+
+    /**
+     * Contrôle l'origine et le jeton d'une demande, et répond à sa place si
+     * elle est refusée. Le {@code Host} est vérifié contre le rebinding DNS :
+     * une page servie par un nom résolu en {@code 127.0.0.1} l'envoie avec son
+     * propre nom.
+     */
+    private boolean authorize(HttpExchange exchange) throws IOException {
+        String origin = exchange.getRequestHeaders().getFirst("Origin");
+        if (origin != null) {
+            logger.warn("Demande refusée : en-tête Origin '{}'", origin);
+            respond(exchange, 403, "Origine refusée");
+            return false;
+        }
+        String host = exchange.getRequestHeaders().getFirst("Host");
+        if (host == null || !isLoopbackHost(host)) {
+            logger.warn("Demande refusée : en-tête Host '{}'", host);
+            respond(exchange, 403, "Hôte refusé");
+            return false;
+        }
+        String authorization = exchange.getRequestHeaders().getFirst("Authorization");
+        byte[] presented = authorization != null && authorization.startsWith("Bearer ")
+                ? authorization.substring("Bearer ".length()).trim().getBytes(StandardCharsets.US_ASCII)
+                : new byte[0];
+        if (!MessageDigest.isEqual(token, presented)) {
+            respond(exchange, 401, "Jeton absent ou invalide");
+            return false;
+        }
+        return true;
+    }
+
+    // Nom de bouclage, suivi du port du serveur s'il est précisé
+    private boolean isLoopbackHost(String host) {
+        String name = host;
+        int colon = host.lastIndexOf(':');
+        if (colon > host.lastIndexOf(']')) {
+            if (!host.substring(colon + 1).equals(Integer.toString(getPort()))) {
+                return false;
+            }
+            name = host.substring(0, colon);
+        }
+        return LOOPBACK_HOSTS.contains(name.toLowerCase(Locale.ROOT));
+    }
+
+    private void handleJob(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (!authorize(exchange)) {
+                return;
+            }
+            if (!"POST".equals(exchange.getRequestMethod())) {
+                respond(exchange, 405, "POST attendu");
+                return;
+            }
+            Job job;
+            try {
+                job = newJob(readProperties(exchange.getRequestBody()));
+            } catch (IllegalArgumentException e) {
+                respond(exchange, 400, e.getMessage());
+                return;
+            }
+            try {
+                jobs.execute(job);
+            } catch (RejectedExecutionException e) {
+                respond(exchange, 503, closing.get() ? "Serveur en cours d'arrêt" : "File d'attente pleine");
+                return;
+            }
+            streamStatus(exchange, job);
+        }
+    }
+
+    // Envoie l'état de la tâche au fil de son exécution ; un client parti n'interrompt pas la tâche
+    private void streamStatus(HttpExchange exchange, Job job) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+        exchange.sendResponseHeaders(200, 0);
+        try (Writer out = new OutputStreamWriter(exchange.getResponseBody(), StandardCharsets.UTF_8)) {
+            sendLine(out, "QUEUED " + job.id);
+            boolean started = false;
+            while (!job.done.await(statusIntervalMillis, TimeUnit.MILLISECONDS)) {
+                if (!job.started) {
+                    continue;
+                }
+                if (!started) {
+                    started = true;
+                    sendLine(out, "RUNNING " + job.id);
+                } else {
+                    ConversionMetrics metrics = job.metrics;
+                    sendLine(out, String.format("PROGRESS %d records=%d bytes=%d errors=%d", job.id,
+                            metrics.getRecordsRead(), metrics.getBytesRead(), metrics.getErrors()));
+                }
+            }
+            if (!started) {
+                sendLine(out, "RUNNING " + job.id);
+            }
+            if (job.failure == null) {
+                sendLine(out, String.format("DONE %d records=%d errors=%d millis=%d", job.id,
+                        job.metrics.getRecordsWritten(), job.metrics.getErrors(), job.metrics.getElapsedMillis()));
+            } else {
+                String message = String.valueOf(job.failure.getMessage()).replace('\n', ' ');
+                sendLine(out, "FAILED " + job.id + " " + message);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            logger.debug("Client de la tâche {} déconnecté : {}", job.id, e.getMessage());
+        }
+    }
+
+    private void handleStatus(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (!authorize(exchange)) {
+                return;
+            }
+            Properties status = new Properties();
+            status.setProperty("jobs.running", Integer.toString(running.get()));
+            status.setProperty("jobs.queued", Integer.toString(jobs.getQueue().size()));
+            status.setProperty("jobs.completed", Long.toString(completed.get()));
+            status.setProperty("jobs.failed", Long.toString(failed.get()));
+            status.setProperty("layouts.cached", Integer.toString(layouts.size()));
+            status.setProperty("layouts.hits", Long.toString(layouts.getHits()));
+            status.setProperty("layouts.misses", Long.toString(layouts.getMisses()));
+            ByteArrayOutputStream body = new ByteArrayOutputStream();
+            status.store(body, null);
+            respond(exchange, 200, body.toString(StandardCharsets.ISO_8859_1));
+        }
+    }
+
+    private void handleShutdown(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (!authorize(exchange)) {
+                return;
+            }
+            if (!"POST".equals(exchange.getRequestMethod())) {
+                respond(exchange, 405, "POST attendu");
+                return;
+            }
+            respond(exchange, 200, "STOPPING");
+        }
+        // close() attend la fin des tâches : jamais sur un thread de gestionnaire HTTP
+        Thread stopper = new Thread(this::close, "fixed2csv-shutdown");
+        stopper.setDaemon(false);
+        stopper.start();
+    }
+
+    // Demande de conversion : chemins obligatoires, options facultatives avec les valeurs de la ligne de commande
+    private Job newJob(Properties request) {
+        Path input = requiredPath(request, KEY_INPUT);
+        Path metadata = requiredPath(request, KEY_METADATA);
+        Path output = requiredPath(request, KEY_OUTPUT);
+        ConversionMetrics metrics = new ConversionMetrics();
+        ConversionOptions.Builder options = ConversionOptions.builder().metrics(metrics);
+        try {
+            options.threads(Integer.parseInt(request.getProperty(KEY_THREADS, "1")));
+            options.readerType(ReaderType.valueOf(upperCase(request.getProperty(KEY_READER, "BUFFERED"))));
+            options.charset(Charset.forName(request.getProperty(KEY_CHARSET, "UTF-8")));
+            options.pipelined(Boolean.parseBoolean(request.getProperty(KEY_PIPELINE, "false")));
+            options.errorPolicy(ErrorPolicy.valueOf(upperCase(request.getProperty(KEY_ON_ERROR, "FAIL"))));
+            if (request.getProperty(KEY_REJECT_FILE) != null) {
+                options.rejectPath(Paths.get(request.getProperty(KEY_REJECT_FILE)));
+            }
+            options.maxErrors(Long.parseLong(request.getProperty(KEY_MAX_ERRORS, Long.toString(Long.MAX_VALUE))));
+            options.maxErrorRatio(Double.parseDouble(request.getProperty(KEY_MAX_ERROR_RATIO, "1.0")));
+            options.compressionLevel(Integer.parseInt(request.getProperty(KEY_COMPRESSION_LEVEL,
+                    Integer.toString(ConversionOptions.DEFAULT_COMPRESSION_LEVEL))));
+            List<OutputFormat> additionalFormats = new ArrayList<>();
+            for (String format : request.getProperty(KEY_ALSO_WRITE, "").split(",")) {
+                if (!format.isBlank()) {
+                    additionalFormats.add(OutputFormat.valueOf(upperCase(format.trim())));
+                }
+            }
+            options.additionalFormats(additionalFormats);
+            options.columns(split(request.getProperty(KEY_COLUMNS, ""), ","));
+            options.filters(split(request.getProperty(KEY_WHERE, ""), "\n"));
+            if (request.getProperty(KEY_PARTITION_BY) != null && request.getProperty(KEY_SHARD_BY) != null) {
+                throw new IllegalArgumentException(KEY_PARTITION_BY + " et " + KEY_SHARD_BY + " s'excluent");
+            }
+            if (request.getProperty(KEY_PARTITION_BY) != null) {
+                options.partitioning(Partitioning.parseByValue(request.getProperty(KEY_PARTITION_BY)));
+            } else if (request.getProperty(KEY_SHARD_BY) != null) {
+                options.partitioning(Partitioning.parseByHash(request.getProperty(KEY_SHARD_BY)));
+            }
+            options.maxOpenPartitions(Integer.parseInt(request.getProperty(KEY_MAX_OPEN_PARTITIONS,
+                    Integer.toString(ConversionOptions.DEFAULT_MAX_OPEN_PARTITIONS))));
+        } catch (IllegalArgumentException e) {
+            // NumberFormatException, charset ou valeur d'énumération inconnus, valeur hors limites
+            throw new IllegalArgumentException("Option invalide : " + e.getMessage(), e);
+        }
+        return new Job(nextJobId.incrementAndGet(), input, metadata, output, options.build(), metrics);
+    }
+
+    // Éléments non vides d'une liste, débarrassés de leurs blancs
+    private static List<String> split(String value, String separator) {
+        List<String> items = new ArrayList<>();
+        for (String item : value.split(separator)) {
+            if (!item.isBlank()) {
+                items.add(item.trim());
+            }
+        }
+        return items;
+    }
+
+    // Les valeurs d'énumération sont insensibles à la casse, comme en ligne de commande
+    private static String upperCase(String value) {
+        return value.toUpperCase(Locale.ROOT);
+    }
+
+    private static Path requiredPath(Properties request, String key) {
+        String value = request.getProperty(key);
+        if (value == null || value.isBlank()) {
+            throw new IllegalArgumentException("Paramètre obligatoire manquant : " + key);
+        }
+        return Paths.get(value);
+    }
+
+    private static Properties readProperties(InputStream body) throws IOException {
+        Properties properties = new Properties();
+        properties.load(new StringReader(new String(body.readAllBytes(), StandardCharsets.UTF_8)));
+        return properties;
+    }
+
+    private static void respond(HttpExchange exchange, int status, String message) throws IOException {
+        byte[] body = (message + "\n").getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private static void sendLine(Writer out, String line) throws IOException {
+        out.write(line);
+        out.write('\n');
+        out.flush();
+    }
+
+    private static ThreadFactory daemonThreads(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return task -> {
+            Thread thread = new Thread(task, prefix + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /** Conversion soumise au serveur. */
+    private final class Job implements Runnable {
+        final long id;
+        final Path input;
+        final Path metadata;
+        final Path output;
+        final ConversionOptions options;
+        final ConversionMetrics metrics;
+        final CountDownLatch done = new CountDownLatch(1);
+        volatile boolean started;
+        volatile Exception failure;
+
+        Job(long id, Path input, Path metadata, Path output, ConversionOptions options, ConversionMetrics metrics) {
+            this.id = id;
+            this.input = input;
+            this.metadata = metadata;
+            this.output = output;
+            this.options = options;
+            this.metrics = metrics;
+        }
+
+        @Override
+        public void run() {
+            started = true;
+            running.incrementAndGet();
+            logger.info("Tâche {} : '{}' -> '{}'", id, input, output);
+            try {
+                RecordFormatter recordFormatter = layouts.get(metadata);
+                fileConverter.convert(input, recordFormatter, output, options);
+                completed.incrementAndGet();
+            } catch (ConversionException | RuntimeException e) {
+                logger.error("Tâche {} en échec : {}", id, e.getMessage(), e);
+                failure = e;
+                failed.incrementAndGet();
+            } finally {
+                metrics.complete();
+                running.decrementAndGet();
+                done.countDown();
+            }
+        }
+    }
+}
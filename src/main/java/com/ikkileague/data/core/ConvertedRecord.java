@@ -0,0 +1,105 @@
+package com.ikkileague.data.core;
+
+import java.util.List;
+
+import com.ikkileague.data.formatter.FormattedRecord;
+import com.ikkileague.data.model.RecordLayout;
+
+/**
+ * Enregistrement converti livré par {@link RecordIterator}, un
+ * {@link java.util.stream.Stream} ou un {@link java.util.concurrent.Flow.Publisher}
+ * de {@link FileConverter}.
+ * <p>
+ * C'est une vue : les valeurs formatées restent dans le tampon de la
+ * conversion et ne deviennent des {@code String} qu'à l'appel de
+ * {@link #get(int)}. L'instance est réutilisée pour l'enregistrement suivant ;
+ * pour la conserver au-delà, il faut en prendre une {@link #copy()}.
+ */
+public final class ConvertedRecord {
+
+    private final RecordLayout layout;
+    private FormattedRecord values;
+    private long lineNumber;
+
+    ConvertedRecord(RecordLayout layout, FormattedRecord values) {
+        this.layout = layout;
+        this.values = values;
+    }
+
+    // Fait pointer la vue sur l'enregistrement suivant
+    void reset(FormattedRecord values, long lineNumber) {
+        this.values = values;
+        this.lineNumber = lineNumber;
+    }
+
+    /** Numéro de la ligne d'origine dans les données à largeur fixe (à partir de 1). */
+    public long lineNumber() {
+        return lineNumber;
+    }
+
+    public RecordLayout layout() {
+        return layout;
+    }
+
+    public int fieldCount() {
+        return values.fieldCount();
+    }
+
+    /** Vue sur la valeur formatée d'une colonne, sans copie. */
+    public CharSequence field(int column) {
+        return values.field(column);
+    }
+
+    /**
+     * Vue sur la valeur formatée de la colonne de ce nom.
+     *
+     * @throws IllegalArgumentException si aucune colonne ne porte ce nom.
+     */
+    public CharSequence field(String name) {
+        return values.field(columnOf(name));
+    }
+
+    /** Valeur formatée d'une colonne, matérialisée en chaîne. */
+    public String get(int column) {
+        return values.get(column);
+    }
+
+    /**
+     * Valeur formatée de la colonne de ce nom, matérialisée en chaîne.
+     *
+     * @throws IllegalArgumentException si aucune colonne ne porte ce nom.
+     */
+    public String get(String name) {
+        return values.get(columnOf(name));
+    }
+
+    /** Vues sur les valeurs formatées, dans l'ordre des colonnes. */
+    public List<CharSequence> fields() {
+        return values.fields();
+    }
+
+    /** Copie détachée de la conversion, qui reste valide après l'enregistrement suivant. */
+    public ConvertedRecord copy() {
+        FormattedRecord copy = new FormattedRecord(values.fieldCount());
+        for (int i = 0; i < values.fieldCount(); i++) {
+            copy.beginField(i).append(values.field(i));
+            copy.endField(i);
+        }
+        ConvertedRecord record = new ConvertedRecord(layout, copy);
+        record.lineNumber = lineNumber;
+        return record;
+    }
+
+    @Override
+    public String toString() {
+        return "ligne " + lineNumber + " " + values.fields();
+    }
+
+    private int columnOf(String name) {
+        int column = layout.indexOf(name);
+        if (column < 0) {
+            throw new IllegalArgumentException("Colonne inconnue : " + name);
+        }
+        return column;
+    }
+}
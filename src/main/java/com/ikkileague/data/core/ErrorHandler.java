@@ -0,0 +1,198 @@
+package com.ikkileague.data.core;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.ikkileague.data.exception.ConversionException;
+import com.ikkileague.data.exception.InvalidRecordException;
+import com.ikkileague.data.metrics.ErrorLogLimit;
+import com.ikkileague.data.writer.CsvWriter;
+
+/**
+ * Applique l'{@link ErrorPolicy} d'une conversion aux enregistrements invalides.
+ * <p>
+ * En mode {@link ErrorPolicy#FAIL}, l'erreur est simplement relancée. En mode
+ * {@link ErrorPolicy#REJECT}, l'enregistrement est écrit dans le fichier de
+ * rejets (CSV : ligne, colonne, raison, enregistrement brut), créé au premier
+ * rejet, et le budget d'erreurs est vérifié : la conversion s'arrête dès que le
+ * nombre de rejets dépasse {@link ConversionOptions#getMaxErrors()}, ou que
+ * leur proportion dépasse {@link ConversionOptions#getMaxErrorRatio()} (une
+ * fois {@link #RATIO_MIN_LINES} lignes lues, puis en fin de conversion).
+ * <p>
+ * Une instance est utilisée par le seul thread qui écrit le CSV, ce qui garde
+ * les rejets dans l'ordre du fichier d'entrée. Elle porte aussi la limite de
+ * journalisation des erreurs de sa conversion ({@link #getErrorLogLimit()}),
+ * partagée par les threads de conversion.
+ */
+final class ErrorHandler implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(ErrorHandler.class);
+
+    /** Nombre de lignes lues avant que la proportion d'erreurs ne soit vérifiée en cours de conversion. */
+    static final long RATIO_MIN_LINES = 1000;
+
+    private static final List<String> HEADERS = Arrays.asList("line", "column", "reason", "record");
+
+    private final ErrorPolicy policy;
+    private final Path rejectPath;
+    private final long maxErrors;
+    private final double maxErrorRatio;
+    private final ErrorLogLimit errorLogLimit = new ErrorLogLimit();
+    private CsvWriter rejectWriter;
+    private long rejected;
+
+    private ErrorHandler(ErrorPolicy policy, Path rejectPath, long maxErrors, double maxErrorRatio) {
+        this.policy = policy;
+        this.rejectPath = rejectPath;
+        this.maxErrors = maxErrors;
+        this.maxErrorRatio = maxErrorRatio;
+    }
+
+    /**
+     * @param outputFilePath Le CSV produit ; sans fichier de rejets explicite,
+     *                       les rejets vont dans {@code <nom>.rejects.csv} à côté.
+     */
+    static ErrorHandler forConversion(ConversionOptions options, Path outputFilePath) {
+        Path rejectPath = options.getRejectPath() != null ? options.getRejectPath() : defaultRejectPath(outputFilePath);
+        return new ErrorHandler(options.getErrorPolicy(), rejectPath, options.getMaxErrors(),
+                options.getMaxErrorRatio());
+    }
+
+    /**
+     * Pour une conversion sans fichier de sortie (voir {@link RecordIterator}) :
+     * le mode rejet exige un fichier de rejets explicite.
+     */
+    static ErrorHandler forRecords(ConversionOptions options) throws ConversionException {
+        if (options.getErrorPolicy() == ErrorPolicy.REJECT && options.getRejectPath() == null) {
+            throw new ConversionException(
+                    "Le mode rejet exige un fichier de rejets explicite lorsque la conversion n'écrit pas de fichier");
+        }
+        return new ErrorHandler(options.getErrorPolicy(), options.getRejectPath(), options.getMaxErrors(),
+                options.getMaxErrorRatio());
+    }
+
+    static Path defaultRejectPath(Path outputFilePath) {
+        String name = outputFilePath.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        return outputFilePath.resolveSibling((dot > 0 ? name.substring(0, dot) : name) + ".rejects.csv");
+    }
+
+    boolean isRejecting() {
+        return policy == ErrorPolicy.REJECT;
+    }
+
+    /** Limite de journalisation des lignes invalides, propre à cette conversion. */
+    ErrorLogLimit getErrorLogLimit() {
+        return errorLogLimit;
+    }
+
+    /**
+     * Traite un enregistrement invalide.
+     *
+     * @param lineNumber Numéro de ligne dans le fichier d'entrée.
+     * @param linesRead  Nombre de lignes lues jusqu'ici, pour la proportion d'erreurs.
+     * @throws ConversionException l'erreur d'origine en mode {@link ErrorPolicy#FAIL}, ou
+     *                             une erreur de budget lorsque celui-ci est dépassé.
+     */
+    void reject(InvalidRecordException error, long lineNumber, CharSequence record, long linesRead)
+            throws ConversionException {
+        if (!isRejecting()) {
+            throw error;
+        }
+        rejected++;
+        if (rejectWriter == null) {
+            rejectWriter = new CsvWriter(rejectPath, HEADERS);
+        }
+        rejectWriter.writeRecord(Arrays.asList(Long.toString(lineNumber),
+                error.getColumn() != null ? error.getColumn() : "", error.getReason(), record.toString()));
+        if (rejected > maxErrors) {
+            throw new ConversionException(String.format(Locale.ROOT,
+                    "Budget d'erreurs dépassé : %d enregistrements rejetés (maximum %d), dernier à la ligne %d : %s",
+                    rejected, maxErrors, lineNumber, error.getReason()));
+        }
+        if (linesRead >= RATIO_MIN_LINES) {
+            checkRatio(linesRead);
+        }
+    }
+
+    /** Vérifie la proportion d'erreurs sur l'ensemble du fichier et journalise le bilan des rejets. */
+    void finish(long linesRead) throws ConversionException {
+        if (rejected > 0) {
+            logger.warn("{} enregistrements rejetés sur {} lignes, écrits dans {}", rejected, linesRead, rejectPath);
+            checkRatio(linesRead);
+        }
+    }
+
+    private void checkRatio(long linesRead) throws ConversionException {
+        if (rejected > maxErrorRatio * linesRead) {
+            throw new ConversionException(String.format(Locale.ROOT,
+                    "Budget d'erreurs dépassé : %d enregistrements rejetés sur %d lignes (%.2f %%, maximum %.2f %%).",
+                    rejected, linesRead, 100.0 * rejected / linesRead, 100 * maxErrorRatio));
+        }
+    }
+
+    long getRejected() {
+        return rejected;
+    }
+
+    /**
+     * Reprend les rejets d'une conversion interrompue : le fichier de rejets
+     * est tronqué à sa longueur au point de reprise (ou supprimé s'il n'existait
+     * pas encore) et le compteur du budget d'erreurs repart de sa valeur d'alors.
+     */
+    void resume(Checkpointer.Checkpoint checkpoint) throws ConversionException {
+        if (checkpoint.rejectLength > 0) {
+            rejectWriter = new CsvWriter(rejectPath, HEADERS, checkpoint.rejectLength);
+        } else if (checkpoint != Checkpointer.Checkpoint.START) {
+            try {
+                Files.deleteIfExists(rejectPath);
+            } catch (IOException e) {
+                throw new ConversionException("Impossible de supprimer le fichier de rejets : " + rejectPath, e);
+            }
+        }
+        rejected = checkpoint.rejected;
+    }
+
+    /**
+     * Transmet au fichier de rejets les rejets écrits jusqu'ici.
+     *
+     * @return La longueur du fichier de rejets, 0 s'il n'a pas encore été créé.
+     */
+    long flush() throws ConversionException {
+        return rejectWriter != null ? rejectWriter.flush() : 0;
+    }
+
+    /**
+     * Enregistrement invalide mis de côté par un thread de conversion, puis
+     * transmis à {@link ErrorHandler#reject} par le thread d'écriture.
+     */
+    static final class Rejected {
+        final long lineNumber;
+        final String record;
+        final InvalidRecordException error;
+
+        Rejected(long lineNumber, String record, InvalidRecordException error) {
+            this.lineNumber = lineNumber;
+            this.record = record;
+            this.error = error;
+        }
+    }
+
+    @Override
+    public void close() throws ConversionException {
+        if (rejectWriter != null) {
+            try {
+                rejectWriter.close();
+            } catch (IOException e) {
+                throw new ConversionException("Impossible de fermer le fichier de rejets : " + rejectPath, e);
+            }
+        }
+    }
+}
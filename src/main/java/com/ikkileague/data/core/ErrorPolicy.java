@@ -0,0 +1,15 @@
+package com.ikkileague.data.core;
+
+/**
+ * Traitement des enregistrements invalides (longueur de ligne ou champ
+ * invalide).
+ */
+public enum ErrorPolicy {
+    /** Arrête la conversion au premier enregistrement invalide (comportement historique). */
+    FAIL,
+    /**
+     * Écrit les enregistrements invalides dans un fichier de rejets et poursuit
+     * la conversion, dans la limite du budget d'erreurs.
+     */
+    REJECT
+}
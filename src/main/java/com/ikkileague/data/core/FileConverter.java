@@ -1,23 +1,42 @@
 package com.ikkileague.data.core;
 
-import java.io.BufferedReader;
 import java.io.IOException;
-import java.nio.charset.StandardCharsets;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.Charset;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.ikkileague.data.exception.ConversionException;
+import com.ikkileague.data.exception.InvalidRecordException;
 import com.ikkileague.data.formatter.DataFormatter;
-import com.ikkileague.data.model.ColumnDefinition;
+import com.ikkileague.data.formatter.FormattedRecord;
+import com.ikkileague.data.formatter.RecordFormatter;
+import com.ikkileague.data.metrics.ConversionMetrics;
+import com.ikkileague.data.metrics.ErrorLogLimit;
+import com.ikkileague.data.metrics.ProgressReporter;
+import com.ikkileague.data.metrics.Stage;
+import com.ikkileague.data.metrics.StageRecorder;
+import com.ikkileague.data.model.RecordLayout;
+import com.ikkileague.data.model.RecordTypes;
 import com.ikkileague.data.parser.FixedRecordParser;
 import com.ikkileague.data.parser.MetadataParser;
-import com.ikkileague.data.writer.CsvWriter;
+import com.ikkileague.data.parser.RecordFilter;
+import com.ikkileague.data.parser.SingleByteCharSequence;
+import com.ikkileague.data.reader.ByteRecordSource;
+import com.ikkileague.data.reader.RecordSource;
+import com.ikkileague.data.reader.StreamRecordSource;
+import com.ikkileague.data.writer.RecordSink;
 
 public class FileConverter {
 
@@ -39,76 +58,451 @@ public class FileConverter {
     }
 
     public void convert(Path fixedFilePath, Path metadataFilePath, Path outputFilePath) throws ConversionException {
+        convert(fixedFilePath, metadataFilePath, outputFilePath, ConversionOptions.defaults());
+    }
+
+    /**
+     * Convertit un fichier à largeur fixe en CSV selon les options fournies.
+     * Avec plus d'un thread, le fichier est découpé en blocs traités en
+     * parallèle (voir {@link ParallelConversionEngine}) ; en mode pipeline,
+     * lecture, formatage et écriture se chevauchent sur trois threads (voir
+     * {@link PipelinedConversionEngine}). Le CSV produit est toujours identique
+     * à celui du mode séquentiel.
+     * <p>
+     * Le format de sortie suit l'extension du fichier : CSV par défaut, JSON
+     * Lines ({@code .jsonl}) ou format colonne binaire ({@code .f2c}) ; les
+     * formats de {@link ConversionOptions#getAdditionalFormats()} sont écrits
+     * dans la même passe (voir {@link RecordSinks}).
+     * <p>
+     * Avec {@link ConversionOptions#getColumns()}, seules les colonnes
+     * demandées sont formatées et écrites ; avec
+     * {@link ConversionOptions#getFilters()}, les lignes qui ne satisfont pas
+     * les conditions sont écartées avant tout formatage.
+     * <p>
+     * Si les métadonnées déclarent plusieurs types d'enregistrement (voir
+     * {@link MetadataParser}), chaque ligne est convertie selon la structure
+     * de son type et écrite dans la sortie de ce type, en une seule lecture
+     * (voir {@link RecordSinks}) ; une ligne de type inconnu est invalide.
+     */
+    public void convert(Path fixedFilePath, Path metadataFilePath, Path outputFilePath, ConversionOptions options)
+            throws ConversionException {
         logger.info("Début de la conversion : Fichier fixe '{}' + Métadonnées '{}' -> CSV '{}'",
                 fixedFilePath, metadataFilePath, outputFilePath);
 
-        // 1. Lecture du fichier de métadonnées pour récupérer les définitions de
-        // colonnes
-        List<ColumnDefinition> columnDefinitions = metadataParser.parse(metadataFilePath);
-        if (columnDefinitions.isEmpty()) {
-            throw new ConversionException(
-                    "Aucune définition de colonne trouvée dans le fichier de métadonnées : " + metadataFilePath);
-        }
-        logger.debug("Définitions de {} colonnes extraites depuis les métadonnées.", columnDefinitions.size());
-        logger.trace("Définitions de colonnes : {}", columnDefinitions);
-
-        // Extraction des en-têtes pour le fichier CSV
-        List<String> headers = columnDefinitions.stream()
-                .map(ColumnDefinition::getName)
-                .collect(Collectors.toList());
+        // 1. Lecture du fichier de métadonnées et compilation de la structure
+        RecordFormatter recordFormatter = compileFormatter(metadataFilePath);
+        convert(fixedFilePath, recordFormatter, outputFilePath, options);
+    }
 
+    /**
+     * Convertit un fichier avec une structure déjà compilée ; permet de
+     * partager la compilation des métadonnées entre plusieurs fichiers.
+     */
+    void convert(Path fixedFilePath, RecordFormatter recordFormatter, Path outputFilePath, ConversionOptions options)
+            throws ConversionException {
         // Vérifie que le fichier d'entrée existe et est un fichier régulier
         if (fixedFilePath == null || !Files.exists(fixedFilePath) || !Files.isRegularFile(fixedFilePath)) {
             String message = "Fichier d'entrée manquant ou non valide: " + fixedFilePath;
             throw new ConversionException(message);
         }
+        recordFormatter = select(recordFormatter, options);
+
+        if (isGzip(fixedFilePath)) {
+            // Un flux compressé ne peut être ni découpé en blocs ni repris : il est lu d'un seul tenant
+            logger.info("Fichier d'entrée compressé (gzip) : décompression au fil de la lecture.");
+            InputStream compressed;
+            try {
+                compressed = Files.newInputStream(fixedFilePath);
+            } catch (IOException e) {
+                throw ioFailure(e);
+            }
+            convertStream(compressed, recordFormatter, outputFilePath, options);
+            return;
+        }
+
+        ConversionMetrics metrics = metricsOf(options);
+        ProgressReporter progress = startProgress(metrics, sizeOf(fixedFilePath), options);
+        try {
+            convertFile(fixedFilePath, recordFormatter, outputFilePath, options, metrics);
+        } finally {
+            stopProgress(progress);
+        }
+    }
+
+    private void convertFile(Path fixedFilePath, RecordFormatter recordFormatter, Path outputFilePath,
+            ConversionOptions options, ConversionMetrics metrics) throws ConversionException {
+        Checkpointer checkpoints;
+        if (recordFormatter.getRecordTypes() == null) {
+            checkpoints = Checkpointer.forConversion(options, fixedFilePath, outputFilePath);
+        } else {
+            if (!options.getCheckpointInterval().isZero() || options.isResume()) {
+                logger.warn("Points de reprise ignorés : un fichier à plusieurs types d'enregistrement a une "
+                        + "sortie par type.");
+            }
+            checkpoints = Checkpointer.disabled();
+        }
+        try (ErrorHandler errors = ErrorHandler.forConversion(options, outputFilePath)) {
+            errors.resume(checkpoints.getStart());
+            if (options.getThreads() > 1) {
+                long lineCount = new ParallelConversionEngine(this, options, metrics).convert(fixedFilePath,
+                        recordFormatter, outputFilePath, errors, checkpoints);
+                errors.finish(lineCount);
+            } else {
+                convertSequentially(fixedFilePath, recordFormatter, outputFilePath, options, metrics, errors,
+                        checkpoints);
+            }
+        }
+        checkpoints.complete();
+    }
 
+    private void convertSequentially(Path fixedFilePath, RecordFormatter recordFormatter, Path outputFilePath,
+            ConversionOptions options, ConversionMetrics metrics, ErrorHandler errors, Checkpointer checkpoints)
+            throws ConversionException {
         // 2. Lecture ligne par ligne du fichier fixe et écriture dans le fichier CSV
-        try (BufferedReader fixedFileReader = Files.newBufferedReader(fixedFilePath, StandardCharsets.UTF_8);
-                CsvWriter csvWriter = new CsvWriter(outputFilePath, headers)) { // CsvWriter écrit les en-têtes
-                                                                                // automatiquement ici
-
-            String fixedLine;
-            long lineNumber = 0;
-            while ((fixedLine = fixedFileReader.readLine()) != null) {
-                lineNumber++;
-                if (fixedLine.trim().isEmpty()) {
-                    logger.debug("Ligne vide ignorée à la ligne {} du fichier source.", lineNumber);
-                    continue;
+        Charset charset = options.getCharset();
+        StageRecorder recorder = metrics.newRecorder();
+        Checkpointer.Checkpoint start = checkpoints.getStart();
+        try (RecordSink sink = RecordSinks.open(outputFilePath, recordFormatter, options,
+                start.outputLength)) {
+            long lineNumber;
+            if (options.isPipelined()) {
+                try (ByteRecordSource recordSource = options.getReaderType().openBytes(fixedFilePath, charset,
+                        start.inputOffset)) {
+                    lineNumber = new PipelinedConversionEngine(this, options, metrics)
+                            .convert(recordSource, recordFormatter, sink, errors, checkpoints);
                 }
-
-                // Découpage de la ligne fixe en champs bruts
-                List<String> rawFields = fixedRecordParser.parseLine(fixedLine, columnDefinitions, lineNumber);
-                List<String> formattedFields = new ArrayList<>();
-                logger.trace("Ligne {} parsée en champs bruts : {}", lineNumber, rawFields);
-
-                // Formatage de chaque champ selon sa définition
-                for (int i = 0; i < rawFields.size(); i++) {
-                    String rawField = rawFields.get(i);
-                    ColumnDefinition definition = columnDefinitions.get(i);
-                    try {
-                        String formattedField = dataFormatter.format(rawField, definition.getType());
-                        formattedFields.add(formattedField);
-                        logger.trace("Champ '{}' (type {}) formaté en '{}'", rawField, definition.getType(),
-                                formattedField);
-                    } catch (ConversionException e) {
-                        // Enrichissement du message d’erreur avec la ligne et la colonne concernées
-                        String errorMessage = String.format(
-                                "Erreur lors du traitement du champ pour la colonne '%s' (type %s) à la ligne %d : %s",
-                                definition.getName(), definition.getType(), lineNumber, e.getMessage());
-                        logger.error(errorMessage, e); // Log de l’erreur avec trace complète
-                        throw new ConversionException(errorMessage, e);
-                    }
+            } else if (SingleByteCharSequence.supports(charset)) {
+                try (ByteRecordSource recordSource = options.getReaderType().openBytes(fixedFilePath, charset,
+                        start.inputOffset)) {
+                    lineNumber = convertSingleByteRecords(recordSource, recordFormatter, sink, charset,
+                            recorder, errors, checkpoints);
+                }
+            } else {
+                // Le BufferedReader ne connaît pas la position des lignes : source d'octets si elle est nécessaire
+                try (RecordSource recordSource = checkpoints.needsPosition()
+                        ? options.getReaderType().openBytes(fixedFilePath, charset, start.inputOffset)
+                        : options.getReaderType().open(fixedFilePath, charset)) {
+                    lineNumber = convertDecodedRecords(recordSource, recordFormatter, sink, recorder, errors,
+                            checkpoints);
                 }
-                csvWriter.writeRecord(formattedFields);
-                logger.debug("Ligne {} traitée et écrite avec succès dans le CSV.", lineNumber);
             }
+            errors.finish(lineNumber);
             logger.info("Fichier fixe entièrement traité. Nombre total de lignes : {}", lineNumber);
 
         } catch (IOException e) {
-            String errorMessage = "Une erreur d'entrée/sortie est survenue lors de la conversion : " + e.getMessage();
-            logger.error(errorMessage, e); // Log de l’erreur I/O avec trace complète
-            throw new ConversionException(errorMessage, e);
+            throw ioFailure(e);
+        } finally {
+            recorder.flush();
+        }
+    }
+
+    /**
+     * Convertit en CSV des données à largeur fixe lues depuis un flux (entrée
+     * standard, pipe...), qui ne peut pas être découpé en blocs. Avec le mode
+     * pipeline ou plus d'un thread, la lecture, le formatage et l'écriture se
+     * chevauchent (voir {@link PipelinedConversionEngine}) ; sinon la
+     * conversion est séquentielle. Un flux gzip est décompressé au fil de la
+     * lecture. Le flux est fermé à la fin de la conversion.
+     */
+    public void convert(InputStream fixedInput, Path metadataFilePath, Path outputFilePath,
+            ConversionOptions options) throws ConversionException {
+        logger.info("Début de la conversion : Flux d'entrée + Métadonnées '{}' -> CSV '{}'", metadataFilePath,
+                outputFilePath);
+        RecordFormatter recordFormatter = select(compileFormatter(metadataFilePath), options);
+        convertStream(fixedInput, recordFormatter, outputFilePath, options);
+    }
+
+    private void convertStream(InputStream fixedInput, RecordFormatter recordFormatter, Path outputFilePath,
+            ConversionOptions options) throws ConversionException {
+        Charset charset = options.getCharset();
+        if (!options.getCheckpointInterval().isZero() || options.isResume()) {
+            logger.warn("Points de reprise ignorés : la lecture d'un flux ou d'un fichier compressé ne peut pas "
+                    + "être reprise.");
+        }
+        Checkpointer checkpoints = Checkpointer.disabled();
+        ConversionMetrics metrics = metricsOf(options);
+        StageRecorder recorder = metrics.newRecorder();
+        // Taille inconnue : l'avancement n'affiche ni pourcentage ni temps restant
+        ProgressReporter progress = startProgress(metrics, -1, options);
+        try (ErrorHandler errors = ErrorHandler.forConversion(options, outputFilePath);
+                StreamRecordSource recordSource = new StreamRecordSource(Compression.decompressIfGzip(fixedInput),
+                        charset);
+                RecordSink sink = RecordSinks.open(outputFilePath, recordFormatter, options, 0)) {
+            long lineNumber;
+            if (options.isPipelined() || options.getThreads() > 1) {
+                lineNumber = new PipelinedConversionEngine(this, options, metrics)
+                        .convert(recordSource, recordFormatter, sink, errors, checkpoints);
+            } else if (SingleByteCharSequence.supports(charset)) {
+                lineNumber = convertSingleByteRecords(recordSource, recordFormatter, sink, charset, recorder,
+                        errors, checkpoints);
+            } else {
+                lineNumber = convertDecodedRecords(recordSource, recordFormatter, sink, recorder, errors,
+                        checkpoints);
+            }
+            errors.finish(lineNumber);
+            logger.info("Flux d'entrée entièrement traité. Nombre total de lignes : {}", lineNumber);
+
+        } catch (IOException e) {
+            throw ioFailure(e);
+        } finally {
+            recorder.flush();
+            stopProgress(progress);
+        }
+    }
+
+    /**
+     * Convertit à la demande des données à largeur fixe lues depuis un flux,
+     * sans fichier de sortie : voir {@link RecordIterator}. Un flux gzip est
+     * décompressé au fil de la lecture ; le flux est fermé par
+     * {@link RecordIterator#close()} ou en fin de données.
+     *
+     * @throws ConversionException si les métadonnées sont invalides ou décrivent
+     *                             plusieurs types d'enregistrement, ou si le
+     *                             mode rejet est demandé sans fichier de rejets.
+     */
+    public RecordIterator iterate(InputStream fixedInput, Path metadataFilePath, ConversionOptions options)
+            throws ConversionException {
+        try {
+            RecordFormatter recordFormatter = select(compileFormatter(metadataFilePath), options);
+            if (recordFormatter.getRecordTypes() != null) {
+                throw new ConversionException("La conversion à la demande ne s'applique pas à un fichier à "
+                        + "plusieurs types d'enregistrement : " + metadataFilePath);
+            }
+            return new RecordIterator(this, fixedInput, recordFormatter, options);
+        } catch (ConversionException e) {
+            try {
+                fixedInput.close();
+            } catch (IOException closeError) {
+                e.addSuppressed(closeError);
+            }
+            throw e;
+        }
+    }
+
+    /** Comme {@link #iterate(InputStream, Path, ConversionOptions)}, depuis un canal. */
+    public RecordIterator iterate(ReadableByteChannel fixedInput, Path metadataFilePath, ConversionOptions options)
+            throws ConversionException {
+        return iterate(Channels.newInputStream(fixedInput), metadataFilePath, options);
+    }
+
+    /**
+     * Enregistrements convertis d'un flux, sous forme de {@link Stream}
+     * séquentiel et paresseux : seuls les enregistrements consommés sont lus.
+     * Le flux d'entrée est fermé avec le {@code Stream} (try-with-resources)
+     * ou en fin de données. Les erreurs sont levées en
+     * {@link com.ikkileague.data.exception.UncheckedConversionException} ou
+     * {@link java.io.UncheckedIOException} ; chaque {@link ConvertedRecord}
+     * est une vue réutilisée (voir {@link ConvertedRecord#copy()}).
+     */
+    public Stream<ConvertedRecord> stream(InputStream fixedInput, Path metadataFilePath, ConversionOptions options)
+            throws ConversionException {
+        RecordIterator records = iterate(fixedInput, metadataFilePath, options);
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(records,
+                Spliterator.ORDERED | Spliterator.NONNULL), false).onClose(records::close);
+    }
+
+    /** Comme {@link #stream(InputStream, Path, ConversionOptions)}, depuis un canal. */
+    public Stream<ConvertedRecord> stream(ReadableByteChannel fixedInput, Path metadataFilePath,
+            ConversionOptions options) throws ConversionException {
+        return stream(Channels.newInputStream(fixedInput), metadataFilePath, options);
+    }
+
+    /**
+     * Publie les enregistrements convertis d'un flux à un abonné unique, avec
+     * une lecture réglée sur sa demande : voir {@link RecordPublisher}. Les
+     * métadonnées sont lues et le flux ouvert au premier {@code request(n)},
+     * sur l'{@code executor} ; une erreur, métadonnées comprises, est signalée
+     * par {@code onError}.
+     *
+     * @param executor Exécute la lecture, bloquante, et les appels à l'abonné.
+     */
+    public Flow.Publisher<ConvertedRecord> publisher(InputStream fixedInput, Path metadataFilePath,
+            ConversionOptions options, Executor executor) {
+        return new RecordPublisher(() -> iterate(fixedInput, metadataFilePath, options), fixedInput, executor);
+    }
+
+    /** Comme {@link #publisher(InputStream, Path, ConversionOptions, Executor)}, depuis un canal. */
+    public Flow.Publisher<ConvertedRecord> publisher(ReadableByteChannel fixedInput, Path metadataFilePath,
+            ConversionOptions options, Executor executor) {
+        return publisher(Channels.newInputStream(fixedInput), metadataFilePath, options, executor);
+    }
+
+    // Lit les métadonnées et compile la structure d'enregistrement (positions, longueurs, formateurs)
+    RecordFormatter compileFormatter(Path metadataFilePath) throws ConversionException {
+        RecordTypes recordTypes = metadataParser.parseRecordTypes(metadataFilePath, dataFormatter);
+        if (recordTypes.isDiscriminated()) {
+            logger.debug("{} types d'enregistrement extraits depuis les métadonnées : {}", recordTypes.typeCount(),
+                    recordTypes);
+            return RecordFormatter.forRecordTypes(recordTypes, dataFormatter);
+        }
+        RecordLayout layout = recordTypes.getLayout(0);
+        if (layout.columnCount() == 0) {
+            throw new ConversionException(
+                    "Aucune définition de colonne trouvée dans le fichier de métadonnées : " + metadataFilePath);
+        }
+        logger.debug("Définitions de {} colonnes extraites depuis les métadonnées.", layout.columnCount());
+        logger.trace("Définitions de colonnes : {}", layout.getColumnDefinitions());
+        return new RecordFormatter(layout, dataFormatter);
+    }
+
+    /*
+     * Applique la projection (colonnes retenues) et le filtre des options à la
+     * structure complète : le filtre est compilé sur toutes les colonnes, il
+     * peut donc porter sur une colonne que la projection n'écrit pas.
+     */
+    private RecordFormatter select(RecordFormatter recordFormatter, ConversionOptions options)
+            throws ConversionException {
+        if (options.getColumns().isEmpty() && options.getFilters().isEmpty()) {
+            return recordFormatter;
+        }
+        if (recordFormatter.getRecordTypes() != null) {
+            throw new ConversionException("La projection et les filtres ne s'appliquent pas à un fichier à "
+                    + "plusieurs types d'enregistrement.");
+        }
+        RecordLayout layout = recordFormatter.getLayout();
+        RecordFilter filter = RecordFilter.compile(options.getFilters(), layout);
+        RecordLayout selected = options.getColumns().isEmpty() ? layout : layout.select(options.getColumns());
+        logger.info("Colonnes converties : {} sur {} ; conditions de filtre : {}", selected.columnCount(),
+                layout.columnCount(), options.getFilters());
+        return new RecordFormatter(selected, dataFormatter, filter);
+    }
+
+    private static ConversionException ioFailure(IOException e) {
+        String errorMessage = "Une erreur d'entrée/sortie est survenue lors de la conversion : " + e.getMessage();
+        logger.error(errorMessage, e); // Log de l’erreur I/O avec trace complète
+        return new ConversionException(errorMessage, e);
+    }
+
+    // Boucle générique : chaque enregistrement est décodé en String avant découpage
+    private long convertDecodedRecords(RecordSource recordSource, RecordFormatter recordFormatter,
+            RecordSink sink, StageRecorder recorder, ErrorHandler errors, Checkpointer checkpoints)
+            throws IOException, ConversionException {
+        LineConverter lineConverter = newLineConverter(recordFormatter, recorder, errors.getErrorLogLimit());
+        String fixedLine;
+        long inputStart = checkpoints.getStart().inputOffset;
+        long lineNumber = checkpoints.getStart().lineNumber;
+        long readStart = recorder.readStart();
+        while ((fixedLine = recordSource.nextRecord()) != null) {
+            lineNumber++;
+            // Taille approchée en octets : le nombre de caractères décodés
+            recorder.startRecord(fixedLine.length(), readStart);
+            convertRecord(lineConverter, fixedLine, lineNumber, sink, recorder, errors);
+            if (checkpoints.isDue(1)) {
+                checkpoints.save(inputStart + recordSource.position(), lineNumber, sink, errors);
+            }
+            readStart = recorder.readStart();
+        }
+        return lineNumber;
+    }
+
+    /*
+     * Boucle des encodages mono-octet (ISO-8859-1, US-ASCII) : les octets de
+     * l'enregistrement sont découpés et validés en place, sans décodage
+     * intermédiaire ; seules les valeurs formatées deviennent des String.
+     */
+    private long convertSingleByteRecords(ByteRecordSource recordSource, RecordFormatter recordFormatter,
+            RecordSink sink, Charset charset, StageRecorder recorder, ErrorHandler errors,
+            Checkpointer checkpoints) throws IOException, ConversionException {
+        LineConverter lineConverter = newLineConverter(recordFormatter, recorder, errors.getErrorLogLimit());
+        SingleByteCharSequence fixedLine = SingleByteCharSequence.forCharset(charset);
+        long inputStart = checkpoints.getStart().inputOffset;
+        long lineNumber = checkpoints.getStart().lineNumber;
+        long readStart = recorder.readStart();
+        while (recordSource.advance()) {
+            lineNumber++;
+            recorder.startRecord(recordSource.recordLength(), readStart);
+            fixedLine.reset(recordSource.recordBuffer(), recordSource.recordOffset(), recordSource.recordLength());
+            convertRecord(lineConverter, fixedLine, lineNumber, sink, recorder, errors);
+            if (checkpoints.isDue(1)) {
+                checkpoints.save(inputStart + recordSource.position(), lineNumber, sink, errors);
+            }
+            readStart = recorder.readStart();
+        }
+        return lineNumber;
+    }
+
+    // Écrit l'enregistrement converti ; les lignes vides ou filtrées sont ignorées, les invalides confiées aux erreurs
+    private static void convertRecord(LineConverter lineConverter, CharSequence fixedLine, long lineNumber,
+            RecordSink sink, StageRecorder recorder, ErrorHandler errors) throws ConversionException {
+        if (isBlank(fixedLine)) {
+            recorder.recordBlankLine();
+            return;
+        }
+        FormattedRecord formattedRecord;
+        try {
+            formattedRecord = lineConverter.convert(fixedLine, lineNumber);
+        } catch (InvalidRecordException e) {
+            errors.reject(e, lineNumber, fixedLine, lineNumber);
+            return;
+        }
+        if (formattedRecord != null) {
+            writeRecord(sink, formattedRecord, recorder);
+        }
+    }
+
+    private static void writeRecord(RecordSink sink, FormattedRecord record, StageRecorder recorder)
+            throws ConversionException {
+        long writeStart = recorder.stageStart();
+        sink.write(record);
+        recorder.endStage(Stage.WRITE, writeStart);
+        recorder.recordWritten(1);
+    }
+
+    // Équivalent de line.trim().isEmpty() sans créer de chaîne
+    static boolean isBlank(CharSequence line) {
+        for (int i = 0; i < line.length(); i++) {
+            if (line.charAt(i) > ' ') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Crée un convertisseur de lignes pour un thread : il réutilise ses
+     * enregistrements d'une ligne à l'autre et alimente l'enregistreur de
+     * métriques de ce thread, tandis que le parseur et le formateur compilé
+     * sont partagés.
+     */
+    LineConverter newLineConverter(RecordFormatter recordFormatter, StageRecorder recorder,
+            ErrorLogLimit errorLog) {
+        return new LineConverter(fixedRecordParser, recordFormatter, recorder, errorLog);
+    }
+
+    // Métriques fournies par l'appelant, ou métriques propres à cette conversion
+    private static ConversionMetrics metricsOf(ConversionOptions options) {
+        return options.getMetrics() != null ? options.getMetrics() : new ConversionMetrics();
+    }
+
+    // Rapports d'avancement périodiques, ou null s'ils sont désactivés
+    private static ProgressReporter startProgress(ConversionMetrics metrics, long totalBytes,
+            ConversionOptions options) {
+        if (options.getProgressInterval().isZero()) {
+            return null;
+        }
+        return new ProgressReporter(metrics, totalBytes, options.getProgressInterval(),
+                ProgressReporter.Style.detect());
+    }
+
+    private static void stopProgress(ProgressReporter progress) {
+        if (progress != null) {
+            progress.close();
+        }
+    }
+
+    private static boolean isGzip(Path path) throws ConversionException {
+        try {
+            return Compression.isGzip(path);
+        } catch (IOException e) {
+            throw ioFailure(e);
+        }
+    }
+
+    private static long sizeOf(Path path) {
+        try {
+            return Files.size(path);
+        } catch (IOException e) {
+            return -1;
         }
     }
 }
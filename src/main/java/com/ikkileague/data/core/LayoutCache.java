@@ -0,0 +1,115 @@
+package com.ikkileague.data.core;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.ikkileague.data.exception.ConversionException;
+import com.ikkileague.data.formatter.RecordFormatter;
+
+/**
+ * Cache des métadonnées compilées ({@link RecordFormatter}) d'un serveur de
+ * conversion, partagé entre les tâches.
+ * <p>
+ * Une entrée est identifiée par le chemin absolu du fichier de métadonnées,
+ * sa taille et sa date de modification : un fichier modifié est recompilé à
+ * la tâche suivante. Au-delà de {@code capacity} entrées, la moins récemment
+ * utilisée est retirée. Deux tâches demandant en même temps un fichier absent
+ * du cache le compilent chacune ; la compilation ne prend que quelques
+ * millisecondes et aucun verrou n'est tenu pendant ce temps.
+ */
+final class LayoutCache {
+
+    private final FileConverter fileConverter;
+    private final Map<Key, RecordFormatter> entries;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    LayoutCache(FileConverter fileConverter, int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("La capacité du cache doit être >= 1 : " + capacity);
+        }
+        this.fileConverter = fileConverter;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, RecordFormatter> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    /**
+     * Renvoie les métadonnées compilées du fichier, depuis le cache ou après
+     * compilation.
+     *
+     * @throws ConversionException si le fichier est illisible ou invalide.
+     */
+    RecordFormatter get(Path metadataFilePath) throws ConversionException {
+        Key key;
+        try {
+            Path path = metadataFilePath.toAbsolutePath().normalize();
+            key = new Key(path, Files.size(path), Files.getLastModifiedTime(path).toMillis());
+        } catch (IOException e) {
+            throw new ConversionException("Impossible de lire le fichier de métadonnées : " + metadataFilePath, e);
+        }
+        synchronized (entries) {
+            RecordFormatter cached = entries.get(key);
+            if (cached != null) {
+                hits.incrementAndGet();
+                return cached;
+            }
+        }
+        misses.incrementAndGet();
+        RecordFormatter compiled = fileConverter.compileFormatter(key.path);
+        synchronized (entries) {
+            entries.put(key, compiled);
+        }
+        return compiled;
+    }
+
+    int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    long getHits() {
+        return hits.get();
+    }
+
+    long getMisses() {
+        return misses.get();
+    }
+
+    private static final class Key {
+        final Path path;
+        final long size;
+        final long modified;
+
+        Key(Path path, long size, long modified) {
+            this.path = path;
+            this.size = size;
+            this.modified = modified;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) other;
+            return path.equals(key.path) && size == key.size && modified == key.modified;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(path, size, modified);
+        }
+    }
+}
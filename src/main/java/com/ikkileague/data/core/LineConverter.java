@@ -0,0 +1,142 @@
+package com.ikkileague.data.core;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.ikkileague.data.exception.ConversionException;
+import com.ikkileague.data.exception.InvalidRecordException;
+import com.ikkileague.data.formatter.FormattedRecord;
+import com.ikkileague.data.formatter.RecordFormatter;
+import com.ikkileague.data.metrics.ErrorLogLimit;
+import com.ikkileague.data.metrics.RecordTracer;
+import com.ikkileague.data.metrics.Stage;
+import com.ikkileague.data.metrics.StageRecorder;
+import com.ikkileague.data.model.RecordLayout;
+import com.ikkileague.data.model.RecordTypes;
+import com.ikkileague.data.parser.FixedRecordParser;
+import com.ikkileague.data.parser.ParsedRecord;
+import com.ikkileague.data.parser.RecordFilter;
+
+/**
+ * Convertit une ligne du fichier fixe en valeurs formatées, en réutilisant les
+ * mêmes enregistrements d'une ligne à l'autre.
+ * <p>
+ * Une instance appartient à un seul thread : le mode séquentiel en utilise une
+ * seule, le mode parallèle une par tâche. Son {@link StageRecorder} suit le
+ * même découpage.
+ * <p>
+ * Pour un fichier à plusieurs types d'enregistrement, le discriminant de la
+ * ligne désigne, par un accès indexé, la structure qui la découpe et le
+ * formateur qui la convertit ; l'enregistrement rendu porte l'index du type.
+ * <p>
+ * Les lignes invalides sont journalisées ici, dans la limite de la
+ * conversion ({@link ErrorLogLimit}), sauf pour un convertisseur créé sans
+ * limite : celui d'une tâche parallèle, qui ne connaît pas le numéro absolu de
+ * ses lignes.
+ */
+final class LineConverter {
+
+    private static final Logger logger = LoggerFactory.getLogger(LineConverter.class);
+
+    private final FixedRecordParser fixedRecordParser;
+    private final RecordFilter filter;
+    // Fichier à plusieurs types : types et discriminant ; null pour une structure unique
+    private final RecordTypes recordTypes;
+    // Formateur et enregistrements de chaque type, indexés par type (un seul, d'index 0, sans discriminant)
+    private final RecordFormatter[] recordFormatters;
+    private final ParsedRecord[] parsedRecords;
+    private final FormattedRecord[] formattedRecords;
+    private final StageRecorder recorder;
+    // Limite de journalisation de la conversion ; null pour ne rien journaliser
+    private final ErrorLogLimit errorLog;
+    // Lu une seule fois : désactivées, les traces ne coûtent qu'un test de booléen par ligne
+    private final boolean tracing = RecordTracer.isEnabled();
+
+    LineConverter(FixedRecordParser fixedRecordParser, RecordFormatter recordFormatter, StageRecorder recorder,
+            ErrorLogLimit errorLog) {
+        this.fixedRecordParser = fixedRecordParser;
+        this.filter = recordFormatter.getFilter();
+        this.recordTypes = recordFormatter.getRecordTypes();
+        int typeCount = recordTypes != null ? recordTypes.typeCount() : 1;
+        this.recordFormatters = new RecordFormatter[typeCount];
+        this.parsedRecords = new ParsedRecord[typeCount];
+        this.formattedRecords = new FormattedRecord[typeCount];
+        for (int type = 0; type < typeCount; type++) {
+            RecordFormatter typeFormatter = recordTypes != null ? recordFormatter.getTypeFormatter(type)
+                    : recordFormatter;
+            recordFormatters[type] = typeFormatter;
+            parsedRecords[type] = new ParsedRecord(typeFormatter.getLayout());
+            formattedRecords[type] = new FormattedRecord(typeFormatter.getLayout().columnCount(), type);
+        }
+        this.recorder = recorder;
+        this.errorLog = errorLog;
+    }
+
+    /**
+     * Découpe puis formate une ligne non vide du fichier fixe. Le filtre du
+     * formateur est évalué sur les champs bruts, juste après le contrôle de
+     * longueur : une ligne écartée n'est pas formatée.
+     *
+     * @return Les valeurs formatées, ou {@code null} si le filtre écarte la
+     *         ligne ; l'instance est réutilisée à l'appel suivant.
+     * @throws ConversionException si la ligne ou l'un de ses champs est invalide.
+     */
+    FormattedRecord convert(CharSequence fixedLine, long lineNumber) throws ConversionException {
+        // -1 tant que le type de la ligne n'est pas connu
+        int type = -1;
+        try {
+            // Découpage de la ligne fixe en champs bruts (vues sur la ligne, sans copie)
+            long parseStart = recorder.stageStart();
+            type = recordTypes != null ? typeOf(fixedLine, lineNumber) : 0;
+            ParsedRecord parsedRecord = parsedRecords[type];
+            fixedRecordParser.parseInto(fixedLine, parsedRecord, lineNumber);
+            recorder.endStage(Stage.PARSE, parseStart);
+            if (!filter.accepts(fixedLine)) {
+                recorder.recordFiltered();
+                return null;
+            }
+            // Formatage de chaque champ selon sa définition
+            FormattedRecord formattedRecord = formattedRecords[type];
+            recordFormatters[type].format(parsedRecord, formattedRecord, lineNumber, recorder);
+            if (tracing && RecordTracer.isSampled(lineNumber)) {
+                RecordTracer.traceRecord(lineNumber, fixedLine, formattedRecord.fields());
+            }
+            return formattedRecord;
+        } catch (InvalidRecordException e) {
+            recorder.recordError();
+            if (errorLog != null && errorLog.allow(errorClass(type, e))) {
+                logger.error(e.getMessage());
+            }
+            throw e;
+        } catch (ConversionException e) {
+            recorder.recordError();
+            throw e;
+        }
+    }
+
+    // Classe d'erreur pour la limite de journalisation : type inconnu, longueur, ou formatage de la colonne
+    private String errorClass(int type, InvalidRecordException e) {
+        if (type < 0) {
+            return "RECORD_TYPE";
+        }
+        if (e.getColumn() == null) {
+            return "LENGTH";
+        }
+        RecordLayout layout = recordFormatters[type].getLayout();
+        return Stage.format(layout.getType(layout.indexOf(e.getColumn()))).name();
+    }
+
+    // Type de la ligne d'après son discriminant ; un code inconnu rend la ligne invalide
+    private int typeOf(CharSequence fixedLine, long lineNumber) throws InvalidRecordException {
+        int type = recordTypes.typeOf(fixedLine);
+        if (type >= 0) {
+            return type;
+        }
+        int start = Math.min(recordTypes.getOffset(), fixedLine.length());
+        int end = Math.min(start + recordTypes.getLength(), fixedLine.length());
+        String reason = String.format("type d'enregistrement inconnu '%s' (position %d, types attendus : %s)",
+                fixedLine.subSequence(start, end), recordTypes.getOffset() + 1, recordTypes.getCodes());
+        String errorMessage = String.format("Ligne %d : %s. Ligne : '%s'", lineNumber, reason, fixedLine);
+        throw new InvalidRecordException(errorMessage, lineNumber, null, reason, null);
+    }
+}
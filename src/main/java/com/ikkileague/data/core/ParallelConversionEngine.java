@@ -0,0 +1,362 @@
+package com.ikkileague.data.core;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.ikkileague.data.exception.ConversionException;
+import com.ikkileague.data.exception.InvalidRecordException;
+import com.ikkileague.data.formatter.FormattedRecord;
+import com.ikkileague.data.formatter.RecordFormatter;
+import com.ikkileague.data.metrics.ConversionMetrics;
+import com.ikkileague.data.metrics.ErrorLogLimit;
+import com.ikkileague.data.metrics.Stage;
+import com.ikkileague.data.metrics.StageRecorder;
+import com.ikkileague.data.parser.SingleByteCharSequence;
+import com.ikkileague.data.reader.MappedRecordSource;
+import com.ikkileague.data.reader.StreamRecordSource;
+import com.ikkileague.data.writer.CsvBlockEncoder;
+import com.ikkileague.data.writer.RecordBlock;
+import com.ikkileague.data.writer.RecordSink;
+
+/**
+ * Moteur de conversion parallèle.
+ * <p>
+ * Le fichier d'entrée est découpé en blocs d'octets alignés sur les fins de
+ * ligne ('\n', '\r' seul). Chaque bloc est découpé en enregistrements puis formaté sur un
+ * {@link ForkJoinPool}, dans un bloc propre à la sortie
+ * ({@link RecordSink#newBlock(int)}), puis les blocs sont écrits dans l'ordre
+ * exact du fichier d'entrée. Le nombre de blocs en vol est borné par
+ * {@link ConversionOptions#getMaxChunksInFlight()} afin que la mémoire reste
+ * maîtrisée quelle que soit la taille du fichier.
+ * <p>
+ * Une tâche ne connaît pas le numéro de sa première ligne (il dépend des blocs
+ * précédents). En cas d'erreur, le bloc fautif est donc retraité sur le thread
+ * d'écriture avec le bon numéro de ligne de départ, ce qui produit exactement
+ * le même message d'erreur qu'en mode séquentiel ; la tâche elle-même ne
+ * journalise pas l'erreur, dont le numéro de ligne serait relatif au bloc. En
+ * mode rejet, de même, chaque ligne rejetée est reconvertie sur le thread
+ * d'écriture avec son numéro absolu avant d'être transmise à
+ * {@link ErrorHandler#reject}.
+ */
+class ParallelConversionEngine {
+
+    private static final Logger logger = LoggerFactory.getLogger(ParallelConversionEngine.class);
+
+    // Taille du tampon utilisé pour chercher la fin de ligne suivant une borne de bloc
+    private static final int BOUNDARY_SCAN_SIZE = 64 * 1024;
+
+    // Longueur maximale d'une ligne coupée par la taille cible d'un bloc, comme en lecture séquentielle
+    private static final int MAX_LINE_LENGTH = MappedRecordSource.MAX_RECORD_LENGTH;
+
+    // Taille maximale d'un tableau Java, donc d'un bloc
+    private static final int MAX_CHUNK_LENGTH = Integer.MAX_VALUE - 8;
+
+    private final FileConverter fileConverter;
+    private final ConversionOptions options;
+    private final ConversionMetrics metrics;
+
+    ParallelConversionEngine(FileConverter fileConverter, ConversionOptions options, ConversionMetrics metrics) {
+        this.fileConverter = fileConverter;
+        this.options = options;
+        this.metrics = metrics;
+    }
+
+    /**
+     * @return Le nombre de lignes lues, lignes vides comprises.
+     */
+    long convert(Path fixedFilePath, RecordFormatter recordFormatter, Path outputFilePath, ErrorHandler errors,
+            Checkpointer checkpoints) throws ConversionException {
+        logger.info("Conversion parallèle : {} threads, blocs de {} octets, {} blocs en vol au maximum.",
+                options.getThreads(), options.getChunkSize(), options.getMaxChunksInFlight());
+
+        ForkJoinPool pool = new ForkJoinPool(options.getThreads());
+        StageRecorder writeRecorder = metrics.newRecorder();
+        try (FileChannel channel = FileChannel.open(fixedFilePath, StandardOpenOption.READ);
+                RecordSink sink = RecordSinks.open(outputFilePath, recordFormatter, options,
+                        checkpoints.getStart().outputLength)) {
+
+            long fileSize = channel.size();
+            Deque<ForkJoinTask<ChunkResult>> inFlight = new ArrayDeque<>();
+            long nextChunkStart = checkpoints.getStart().inputOffset;
+            long linesWritten = checkpoints.getStart().lineNumber;
+            // Reconvertit les lignes rejetées par les tâches ; métriques ignorées, déjà comptées par la tâche
+            LineConverter rejectConverter = fileConverter.newLineConverter(recordFormatter,
+                    new ConversionMetrics().newRecorder(), errors.getErrorLogLimit());
+
+            while (nextChunkStart < fileSize || !inFlight.isEmpty()) {
+                // Remplit la fenêtre de blocs en vol
+                while (nextChunkStart < fileSize && inFlight.size() < options.getMaxChunksInFlight()) {
+                    long end = findChunkEnd(channel, nextChunkStart, fileSize);
+                    Chunk chunk = new Chunk(nextChunkStart, end);
+                    inFlight.addLast(pool.submit(() -> processChunk(channel, chunk, recordFormatter, sink,
+                            errors.isRejecting())));
+                    nextChunkStart = end;
+                }
+
+                // Écrit le plus ancien bloc, ce qui préserve l'ordre d'entrée
+                ChunkResult result = join(inFlight.removeFirst());
+                if (result.failure != null) {
+                    logger.debug("Échec du bloc [{}, {}[ ; retraitement avec la ligne de départ {}.",
+                            result.chunk.start, result.chunk.end, linesWritten + 1);
+                    convertChunk(readChunk(channel, result.chunk), recordFormatter, linesWritten,
+                            errors.getErrorLogLimit());
+                    // Le retraitement doit échouer de la même façon ; par sécurité on propage l'erreur d'origine
+                    throw result.failure;
+                }
+                long writeStart = System.nanoTime();
+                sink.write(result.block);
+                writeRecorder.recordLatency(Stage.WRITE, System.nanoTime() - writeStart);
+                writeRecorder.recordWritten(result.recordCount);
+                // Les numéros de ligne des rejets sont relatifs au bloc
+                for (ErrorHandler.Rejected rejected : result.rejects) {
+                    long lineNumber = linesWritten + rejected.lineNumber;
+                    errors.reject(absoluteError(rejectConverter, rejected, lineNumber), lineNumber,
+                            rejected.record, lineNumber);
+                }
+                linesWritten += result.lineCount;
+                if (checkpoints.isDue(result.lineCount)) {
+                    checkpoints.save(result.chunk.end, linesWritten, sink, errors);
+                }
+            }
+            logger.info("Fichier fixe entièrement traité. Nombre total de lignes : {}", linesWritten);
+            return linesWritten;
+
+        } catch (IOException | UncheckedIOException e) {
+            String errorMessage = "Une erreur d'entrée/sortie est survenue lors de la conversion : " + e.getMessage();
+            logger.error(errorMessage, e);
+            throw new ConversionException(errorMessage, e);
+        } finally {
+            writeRecorder.flush();
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Calcule la fin (exclusive) du bloc commençant à {@code start} : juste
+     * après la première fin de ligne ('\n', ou '\r' non suivi de '\n') située
+     * au-delà de la taille cible, ou la fin du fichier. Une borne placée ainsi
+     * ne coupe jamais un CRLF ni un caractère UTF-8 multi-octets.
+     *
+     * @throws ConversionException si aucune fin de ligne ne suit la taille cible
+     *                             de moins de {@link #MAX_LINE_LENGTH} octets, ou
+     *                             si le bloc ne tient pas dans un tableau.
+     */
+    private long findChunkEnd(FileChannel channel, long start, long fileSize)
+            throws IOException, ConversionException {
+        long position = start + options.getChunkSize();
+        long end = position >= fileSize ? fileSize : findLineEnd(channel, position, fileSize);
+        if (end - start > MAX_CHUNK_LENGTH) {
+            throw new ConversionException(String.format(
+                    "Bloc de %d octets à la position %d : au-delà de la taille maximale d'un bloc (%d octets). "
+                            + "Réduire la taille de bloc ou convertir le fichier sans parallélisme.",
+                    end - start, start, MAX_CHUNK_LENGTH));
+        }
+        return end;
+    }
+
+    // Position suivant la première fin de ligne à partir de position, dans la limite de MAX_LINE_LENGTH
+    private static long findLineEnd(FileChannel channel, long position, long fileSize)
+            throws IOException, ConversionException {
+        long limit = Math.min(fileSize, position + MAX_LINE_LENGTH);
+        ByteBuffer scan = ByteBuffer.allocate(BOUNDARY_SCAN_SIZE);
+        while (position < limit) {
+            scan.clear();
+            int read = channel.read(scan, position);
+            if (read <= 0) {
+                return fileSize;
+            }
+            for (int i = 0; i < read; i++) {
+                byte b = scan.get(i);
+                if (b == '\n') {
+                    return position + i + 1;
+                }
+                if (b == '\r') {
+                    long next = position + i + 1;
+                    if (next >= fileSize) {
+                        return fileSize;
+                    }
+                    byte following = i + 1 < read ? scan.get(i + 1) : readByte(channel, next);
+                    return following == '\n' ? next + 1 : next;
+                }
+            }
+            position += read;
+        }
+        if (limit == fileSize) {
+            return fileSize;
+        }
+        throw new ConversionException(String.format(
+                "Aucune fin de ligne dans les %d octets suivant la position %d : ligne trop longue pour la "
+                        + "conversion parallèle.", MAX_LINE_LENGTH, limit - MAX_LINE_LENGTH));
+    }
+
+    private static byte readByte(FileChannel channel, long position) throws IOException {
+        ByteBuffer one = ByteBuffer.allocate(1);
+        if (channel.read(one, position) <= 0) {
+            throw new IOException("Fin de fichier inattendue à la position " + position);
+        }
+        return one.get(0);
+    }
+
+    private ChunkResult processChunk(FileChannel channel, Chunk chunk, RecordFormatter recordFormatter,
+            RecordSink sink, boolean rejecting) {
+        StageRecorder recorder = metrics.newRecorder();
+        try {
+            long readStart = System.nanoTime();
+            byte[] bytes = readChunk(channel, chunk);
+            recorder.recordLatency(Stage.READ, System.nanoTime() - readStart);
+            RecordBlock block = sink.newBlock(bytes.length);
+            List<ErrorHandler.Rejected> rejects = rejecting ? new ArrayList<>() : null;
+            try {
+                long lineCount = convertChunk(bytes, recordFormatter, block, 0, recorder, rejects, null);
+                return new ChunkResult(chunk, block, lineCount, block.recordCount(),
+                        rejecting ? rejects : Collections.emptyList(), null);
+            } catch (ConversionException e) {
+                return new ChunkResult(chunk, null, 0, 0, Collections.emptyList(), e);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            recorder.flush();
+        }
+    }
+
+    /**
+     * Erreur d'une ligne rejetée par une tâche, avec son numéro de ligne
+     * absolu : la ligne est reconvertie, ce qui journalise et décrit l'erreur
+     * exactement comme en mode séquentiel.
+     */
+    private static InvalidRecordException absoluteError(LineConverter converter, ErrorHandler.Rejected rejected,
+            long lineNumber) {
+        try {
+            converter.convert(rejected.record, lineNumber);
+        } catch (InvalidRecordException e) {
+            return e;
+        } catch (ConversionException e) {
+            logger.debug("Reconversion de la ligne {} : {}", lineNumber, e.getMessage());
+        }
+        // Inatteignable : la reconversion échoue sur la même ligne
+        return rejected.error;
+    }
+
+    // Retraitement d'un bloc en échec : seule l'exception nous intéresse, les métriques sont ignorées
+    private void convertChunk(byte[] bytes, RecordFormatter recordFormatter, long firstLineOffset,
+            ErrorLogLimit errorLog) throws ConversionException, IOException {
+        convertChunk(bytes, recordFormatter, new CsvBlockEncoder(0), firstLineOffset,
+                new ConversionMetrics().newRecorder(), null, errorLog);
+    }
+
+    /**
+     * Convertit les lignes d'un bloc avec la même sémantique que la boucle
+     * séquentielle de {@link FileConverter} (fins de ligne LF/CR/CRLF, lignes
+     * vides ignorées, traitement direct des octets pour les encodages
+     * mono-octet).
+     *
+     * @param rejects   Reçoit les enregistrements invalides en mode rejet ; {@code null} pour
+     *                  s'arrêter au premier.
+     * @param errorLog  Limite de journalisation des lignes invalides, ou {@code null} pour ne
+     *                  pas les journaliser ; à réserver aux numéros de ligne absolus.
+     * @return Le nombre de lignes lues dans le bloc, lignes vides comprises.
+     */
+    private long convertChunk(byte[] bytes, RecordFormatter recordFormatter, RecordBlock block,
+            long firstLineOffset, StageRecorder recorder, List<ErrorHandler.Rejected> rejects, ErrorLogLimit errorLog)
+            throws ConversionException, IOException {
+        Charset charset = options.getCharset();
+        SingleByteCharSequence singleByteLine = SingleByteCharSequence.supports(charset)
+                ? SingleByteCharSequence.forCharset(charset)
+                : null;
+        StreamRecordSource records = new StreamRecordSource(new ByteArrayInputStream(bytes), charset,
+                Math.max(2, Math.min(bytes.length, StreamRecordSource.DEFAULT_BUFFER_SIZE)));
+        LineConverter lineConverter = fileConverter.newLineConverter(recordFormatter, recorder, errorLog);
+        long lineNumber = firstLineOffset;
+        while (records.advance()) {
+            lineNumber++;
+            recorder.startRecord(records.recordLength(), 0);
+            CharSequence fixedLine = singleByteLine != null
+                    ? singleByteLine.reset(records.recordBuffer(), records.recordOffset(), records.recordLength())
+                    : new String(records.recordBuffer(), records.recordOffset(), records.recordLength(), charset);
+            if (FileConverter.isBlank(fixedLine)) {
+                recorder.recordBlankLine();
+                continue;
+            }
+            try {
+                FormattedRecord formattedRecord = lineConverter.convert(fixedLine, lineNumber);
+                if (formattedRecord != null) {
+                    block.append(formattedRecord);
+                }
+            } catch (InvalidRecordException e) {
+                if (rejects == null) {
+                    throw e;
+                }
+                rejects.add(new ErrorHandler.Rejected(lineNumber, fixedLine.toString(), e));
+            }
+        }
+        return lineNumber - firstLineOffset;
+    }
+
+    private static byte[] readChunk(FileChannel channel, Chunk chunk) throws IOException {
+        // findChunkEnd borne la longueur d'un bloc à la taille d'un tableau
+        ByteBuffer buffer = ByteBuffer.allocate(Math.toIntExact(chunk.end - chunk.start));
+        long position = chunk.start;
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position);
+            if (read < 0) {
+                throw new IOException("Fin de fichier inattendue à la position " + position);
+            }
+            position += read;
+        }
+        return buffer.array();
+    }
+
+    private static ChunkResult join(ForkJoinTask<ChunkResult> task) throws IOException {
+        try {
+            return task.join();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static final class Chunk {
+        final long start;
+        final long end;
+
+        Chunk(long start, long end) {
+            this.start = start;
+            this.end = end;
+        }
+    }
+
+    private static final class ChunkResult {
+        final Chunk chunk;
+        final RecordBlock block;
+        final long lineCount;
+        final long recordCount;
+        final List<ErrorHandler.Rejected> rejects;
+        final ConversionException failure;
+
+        ChunkResult(Chunk chunk, RecordBlock block, long lineCount, long recordCount,
+                List<ErrorHandler.Rejected> rejects, ConversionException failure) {
+            this.chunk = chunk;
+            this.block = block;
+            this.lineCount = lineCount;
+            this.recordCount = recordCount;
+            this.rejects = rejects;
+            this.failure = failure;
+        }
+    }
+}
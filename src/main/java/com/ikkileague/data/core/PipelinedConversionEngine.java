@@ -0,0 +1,349 @@
+package com.ikkileague.data.core;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.ikkileague.data.exception.ConversionException;
+import com.ikkileague.data.exception.InvalidRecordException;
+import com.ikkileague.data.formatter.FormattedRecord;
+import com.ikkileague.data.formatter.RecordFormatter;
+import com.ikkileague.data.metrics.ConversionMetrics;
+import com.ikkileague.data.metrics.ErrorLogLimit;
+import com.ikkileague.data.metrics.Stage;
+import com.ikkileague.data.metrics.StageRecorder;
+import com.ikkileague.data.parser.SingleByteCharSequence;
+import com.ikkileague.data.reader.ByteRecordSource;
+import com.ikkileague.data.writer.RecordBlock;
+import com.ikkileague.data.writer.RecordSink;
+
+/**
+ * Moteur de conversion en pipeline, pour une entrée lue d'un seul tenant
+ * (fichier, entrée standard, pipe).
+ * <p>
+ * Trois étages s'exécutent en parallèle : un thread de lecture découpe les
+ * enregistrements, un thread de découpage/formatage les encode pour la sortie, et
+ * le thread appelant écrit le résultat. Les étages se passent des lots
+ * d'enregistrements via un anneau de {@link ConversionOptions#getPipelineDepth()}
+ * lots préalloués : chaque étage avance son propre compteur et attend
+ * uniquement celui de l'étage précédent. Le lecteur ne peut pas dépasser
+ * l'écrivain de plus d'un tour d'anneau, ce qui borne la mémoire (contre-pression)
+ * sans aucune allocation ni verrou par enregistrement.
+ * <p>
+ * Les numéros de ligne sont connus dès la lecture : les messages d'erreur et
+ * les lignes écrites avant l'erreur sont les mêmes qu'en mode séquentiel.
+ */
+class PipelinedConversionEngine {
+
+    private static final Logger logger = LoggerFactory.getLogger(PipelinedConversionEngine.class);
+
+    // Attente active courte avant de céder le processeur
+    private static final int SPIN_TRIES = 100;
+    private static final long PARK_NANOS = 50_000;
+
+    private final FileConverter fileConverter;
+    private final ConversionOptions options;
+    private final ConversionMetrics metrics;
+    private final Batch[] ring;
+
+    // Nombre de lots publiés par chaque étage
+    private final AtomicLong read = new AtomicLong();
+    private final AtomicLong formatted = new AtomicLong();
+    private final AtomicLong written = new AtomicLong();
+
+    // Première erreur survenue dans un étage ; arrête tous les étages
+    private volatile Throwable failure;
+
+    PipelinedConversionEngine(FileConverter fileConverter, ConversionOptions options, ConversionMetrics metrics) {
+        this.fileConverter = fileConverter;
+        this.options = options;
+        this.metrics = metrics;
+        this.ring = new Batch[options.getPipelineDepth()];
+        for (int i = 0; i < ring.length; i++) {
+            ring[i] = new Batch(options.getPipelineBatchSize());
+        }
+    }
+
+    /**
+     * Convertit tous les enregistrements de la source et les écrit dans la sortie.
+     *
+     * @return Le nombre de lignes lues, lignes vides comprises.
+     */
+    long convert(ByteRecordSource recordSource, RecordFormatter recordFormatter, RecordSink sink,
+            ErrorHandler errors, Checkpointer checkpoints) throws ConversionException, IOException {
+        logger.info("Conversion en pipeline : lots de {} enregistrements, {} lots en anneau.",
+                options.getPipelineBatchSize(), ring.length);
+        for (Batch batch : ring) {
+            batch.block = sink.newBlock(64 * 1024);
+        }
+
+        long firstLineNumber = checkpoints.getStart().lineNumber;
+        Thread reader = new Thread(() -> runStage(() -> readStage(recordSource, firstLineNumber)),
+                "fixed2csv-reader");
+        Thread formatter = new Thread(() -> runStage(() -> formatStage(recordFormatter, errors.isRejecting(),
+                errors.getErrorLogLimit())), "fixed2csv-format");
+        reader.setDaemon(true);
+        formatter.setDaemon(true);
+        reader.start();
+        formatter.start();
+
+        boolean completed = false;
+        try {
+            long lineCount = writeStage(sink, errors, checkpoints);
+            completed = true;
+            return lineCount;
+        } catch (StageAbortedException e) {
+            throw rethrow(e.getCause());
+        } finally {
+            if (!completed) {
+                // Débloque les autres étages ; un lecteur bloqué sur un pipe se termine à sa prochaine lecture
+                abort(new IllegalStateException("Écriture interrompue"));
+            } else {
+                joinQuietly(reader);
+                joinQuietly(formatter);
+            }
+        }
+    }
+
+    // Étage 1 : copie les enregistrements de la source dans les lots libres de l'anneau
+    private void readStage(ByteRecordSource recordSource, long firstLineNumber) throws IOException {
+        long lineNumber = firstLineNumber;
+        for (long sequence = 0;; sequence++) {
+            // Le lot n'est réutilisable qu'une fois écrit au tour d'anneau précédent
+            awaitAtLeast(written, sequence - ring.length + 1);
+            Batch batch = ring[slot(sequence)];
+            batch.clear(lineNumber + 1);
+            long readStart = System.nanoTime();
+            boolean more = true;
+            while (batch.count < batch.offsets.length && (more = recordSource.advance())) {
+                batch.add(recordSource.recordBuffer(), recordSource.recordOffset(), recordSource.recordLength());
+            }
+            metrics.histogram(Stage.READ).record(System.nanoTime() - readStart);
+            lineNumber += batch.count;
+            batch.endPosition = recordSource.position();
+            batch.last = !more;
+            read.set(sequence + 1);
+            if (batch.last) {
+                return;
+            }
+        }
+    }
+
+    // Étage 2 : découpe et formate chaque enregistrement du lot, puis l'encode dans le bloc du lot
+    private void formatStage(RecordFormatter recordFormatter, boolean rejecting, ErrorLogLimit errorLog) {
+        Charset charset = options.getCharset();
+        SingleByteCharSequence singleByteLine = SingleByteCharSequence.supports(charset)
+                ? SingleByteCharSequence.forCharset(charset)
+                : null;
+        StageRecorder recorder = metrics.newRecorder();
+        try {
+            formatBatches(recordFormatter, charset, singleByteLine, recorder, rejecting, errorLog);
+        } finally {
+            recorder.flush();
+        }
+    }
+
+    private void formatBatches(RecordFormatter recordFormatter, Charset charset,
+            SingleByteCharSequence singleByteLine, StageRecorder recorder, boolean rejecting, ErrorLogLimit errorLog) {
+        LineConverter lineConverter = fileConverter.newLineConverter(recordFormatter, recorder, errorLog);
+        for (long sequence = 0;; sequence++) {
+            awaitAtLeast(read, sequence + 1);
+            Batch batch = ring[slot(sequence)];
+            batch.block.reset();
+            batch.rejects.clear();
+            long lineNumber = batch.firstLineNumber - 1;
+            try {
+                for (int i = 0; i < batch.count; i++) {
+                    lineNumber++;
+                    recorder.startRecord(batch.lengths[i], 0);
+                    CharSequence fixedLine = singleByteLine != null
+                            ? singleByteLine.reset(batch.bytes, batch.offsets[i], batch.lengths[i])
+                            : new String(batch.bytes, batch.offsets[i], batch.lengths[i], charset);
+                    if (FileConverter.isBlank(fixedLine)) {
+                        recorder.recordBlankLine();
+                        continue;
+                    }
+                    try {
+                        FormattedRecord formattedRecord = lineConverter.convert(fixedLine, lineNumber);
+                        if (formattedRecord != null) {
+                            batch.block.append(formattedRecord);
+                        }
+                    } catch (InvalidRecordException e) {
+                        if (!rejecting) {
+                            throw e;
+                        }
+                        batch.rejects.add(new ErrorHandler.Rejected(lineNumber, fixedLine.toString(), e));
+                    }
+                }
+            } catch (ConversionException e) {
+                // Les lignes déjà encodées du lot seront écrites, comme en mode séquentiel
+                batch.failure = e;
+                formatted.set(sequence + 1);
+                return;
+            }
+            formatted.set(sequence + 1);
+            if (batch.last) {
+                return;
+            }
+        }
+    }
+
+    // Étage 3 (thread appelant) : écrit les lots dans l'ordre puis les rend au lecteur
+    private long writeStage(RecordSink sink, ErrorHandler errors, Checkpointer checkpoints)
+            throws ConversionException, IOException {
+        StageRecorder recorder = metrics.newRecorder();
+        long inputStart = checkpoints.getStart().inputOffset;
+        try {
+            long lineCount = checkpoints.getStart().lineNumber;
+            for (long sequence = 0;; sequence++) {
+                awaitAtLeast(formatted, sequence + 1);
+                Batch batch = ring[slot(sequence)];
+                long writeStart = System.nanoTime();
+                sink.write(batch.block);
+                recorder.recordLatency(Stage.WRITE, System.nanoTime() - writeStart);
+                recorder.recordWritten(batch.block.recordCount());
+                for (ErrorHandler.Rejected rejected : batch.rejects) {
+                    errors.reject(rejected.error, rejected.lineNumber, rejected.record, rejected.lineNumber);
+                }
+                if (batch.failure != null) {
+                    throw batch.failure;
+                }
+                lineCount += batch.count;
+                if (checkpoints.isDue(batch.count)) {
+                    checkpoints.save(inputStart + batch.endPosition, lineCount, sink, errors);
+                }
+                boolean last = batch.last;
+                written.set(sequence + 1);
+                if (last) {
+                    return lineCount;
+                }
+            }
+        } finally {
+            recorder.flush();
+        }
+    }
+
+    private void awaitAtLeast(AtomicLong sequence, long target) {
+        int tries = 0;
+        while (sequence.get() < target) {
+            Throwable error = failure;
+            if (error != null) {
+                throw new StageAbortedException(error);
+            }
+            if (tries < SPIN_TRIES) {
+                tries++;
+                Thread.onSpinWait();
+            } else {
+                LockSupport.parkNanos(PARK_NANOS);
+            }
+        }
+    }
+
+    // Restitue sur le thread écrivain l'erreur d'origine d'un autre étage
+    private static IOException rethrow(Throwable error) throws IOException {
+        if (error instanceof UncheckedIOException) {
+            throw ((UncheckedIOException) error).getCause();
+        }
+        if (error instanceof RuntimeException) {
+            throw (RuntimeException) error;
+        }
+        throw (Error) error;
+    }
+
+    private int slot(long sequence) {
+        return (int) (sequence % ring.length);
+    }
+
+    private void runStage(StageTask stage) {
+        try {
+            stage.run();
+        } catch (StageAbortedException e) {
+            // Un autre étage a déjà échoué
+        } catch (IOException e) {
+            abort(new UncheckedIOException(e));
+        } catch (RuntimeException | Error e) {
+            abort(e);
+        }
+    }
+
+    private void abort(Throwable error) {
+        if (failure == null) {
+            failure = error;
+        }
+    }
+
+    private static void joinQuietly(Thread thread) {
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @FunctionalInterface
+    private interface StageTask {
+        void run() throws IOException;
+    }
+
+    /**
+     * Levée dans un étage en attente lorsqu'un autre étage a échoué. Côté
+     * écrivain, l'erreur d'origine est restituée par {@link #rethrow(Throwable)}.
+     */
+    private static final class StageAbortedException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        StageAbortedException(Throwable cause) {
+            super(cause.getMessage(), cause, false, false);
+        }
+    }
+
+    /** Lot d'enregistrements préalloué, recyclé à chaque tour d'anneau. */
+    private static final class Batch {
+        final int[] offsets;
+        final int[] lengths;
+        // Bloc propre à la sortie, créé au début de la conversion
+        RecordBlock block;
+        final List<ErrorHandler.Rejected> rejects = new ArrayList<>();
+        byte[] bytes = new byte[64 * 1024];
+        int size;
+        int count;
+        long firstLineNumber;
+        // Position dans la source juste après le dernier enregistrement du lot
+        long endPosition;
+        boolean last;
+        ConversionException failure;
+
+        Batch(int capacity) {
+            this.offsets = new int[capacity];
+            this.lengths = new int[capacity];
+        }
+
+        void clear(long firstLineNumber) {
+            this.firstLineNumber = firstLineNumber;
+            size = 0;
+            count = 0;
+            last = false;
+            failure = null;
+        }
+
+        void add(byte[] source, int offset, int length) {
+            if (bytes.length - size < length) {
+                byte[] larger = new byte[Math.max(size + length, bytes.length * 2)];
+                System.arraycopy(bytes, 0, larger, 0, size);
+                bytes = larger;
+            }
+            System.arraycopy(source, offset, bytes, size, length);
+            offsets[count] = size;
+            lengths[count] = length;
+            size += length;
+            count++;
+        }
+    }
+}
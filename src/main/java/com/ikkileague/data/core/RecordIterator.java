@@ -0,0 +1,180 @@
+package com.ikkileague.data.core;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.Charset;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.ikkileague.data.exception.ConversionException;
+import com.ikkileague.data.exception.InvalidRecordException;
+import com.ikkileague.data.exception.UncheckedConversionException;
+import com.ikkileague.data.formatter.FormattedRecord;
+import com.ikkileague.data.formatter.RecordFormatter;
+import com.ikkileague.data.metrics.ConversionMetrics;
+import com.ikkileague.data.metrics.StageRecorder;
+import com.ikkileague.data.parser.SingleByteCharSequence;
+import com.ikkileague.data.reader.StreamRecordSource;
+
+/**
+ * Conversion à la demande d'un flux à largeur fixe : chaque appel à
+ * {@link #next()} lit, découpe et formate l'enregistrement suivant, sans
+ * fichier intermédiaire.
+ * <p>
+ * Les enregistrements sont livrés sous forme de {@link ConvertedRecord},
+ * une vue réutilisée d'un appel à l'autre. Les lignes vides sont ignorées ;
+ * une ligne invalide est traitée selon l'{@link ErrorPolicy} des options : en
+ * mode {@link ErrorPolicy#FAIL}, {@link #hasNext()} lève une
+ * {@link UncheckedConversionException} ; en mode {@link ErrorPolicy#REJECT},
+ * la ligne va dans le fichier de rejets, qui doit alors être fourni, et le
+ * budget d'erreurs s'applique. Une erreur de lecture est levée en
+ * {@link UncheckedIOException}.
+ * <p>
+ * La conversion est séquentielle, dans le thread de l'appelant : le nombre de
+ * threads, le mode pipeline et les options de sortie sont ignorés. Le flux est
+ * fermé en fin de données, sur erreur ou par {@link #close()}. L'instance
+ * n'est pas thread-safe.
+ */
+public final class RecordIterator implements Iterator<ConvertedRecord>, Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(RecordIterator.class);
+
+    private final StreamRecordSource recordSource;
+    private final LineConverter lineConverter;
+    private final ErrorHandler errors;
+    private final StageRecorder recorder;
+    // Encodage mono-octet : découpage en place des octets lus, sans décodage de la ligne
+    private final SingleByteCharSequence singleByteLine;
+    private final ConvertedRecord current;
+
+    private long lineNumber;
+    private boolean ready;
+    private boolean closed;
+
+    RecordIterator(FileConverter fileConverter, InputStream fixedInput, RecordFormatter recordFormatter,
+            ConversionOptions options) throws ConversionException {
+        Charset charset = options.getCharset();
+        ConversionMetrics metrics = options.getMetrics() != null ? options.getMetrics() : new ConversionMetrics();
+        this.errors = ErrorHandler.forRecords(options);
+        try {
+            this.recordSource = new StreamRecordSource(Compression.decompressIfGzip(fixedInput), charset);
+        } catch (IOException e) {
+            throw new ConversionException("Impossible de lire le flux d'entrée : " + e.getMessage(), e);
+        }
+        this.recorder = metrics.newRecorder();
+        this.lineConverter = fileConverter.newLineConverter(recordFormatter, recorder,
+                errors.getErrorLogLimit());
+        this.singleByteLine = SingleByteCharSequence.supports(charset) ? SingleByteCharSequence.forCharset(charset)
+                : null;
+        // Vue sur l'enregistrement que le convertisseur de lignes réutilise
+        this.current = new ConvertedRecord(recordFormatter.getLayout(), null);
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (ready) {
+            return true;
+        }
+        if (closed) {
+            return false;
+        }
+        try {
+            ready = advance();
+        } catch (IOException e) {
+            close();
+            throw new UncheckedIOException(e);
+        } catch (ConversionException e) {
+            close();
+            throw new UncheckedConversionException(e);
+        }
+        return ready;
+    }
+
+    @Override
+    public ConvertedRecord next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        ready = false;
+        return current;
+    }
+
+    /** Nombre de lignes lues jusqu'ici, lignes vides et rejetées comprises. */
+    public long getLinesRead() {
+        return lineNumber;
+    }
+
+    /** Ferme le flux d'entrée et le fichier de rejets ; les enregistrements restants ne sont pas lus. */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        ready = false;
+        recorder.flush();
+        try {
+            errors.close();
+        } catch (ConversionException e) {
+            logger.error("{}", e.getMessage(), e);
+        }
+        closeQuietly(recordSource);
+    }
+
+    // Lit jusqu'au prochain enregistrement valide ; en fin de données, vérifie le budget d'erreurs et ferme
+    private boolean advance() throws IOException, ConversionException {
+        long readStart = recorder.readStart();
+        while (true) {
+            CharSequence fixedLine = readLine();
+            if (fixedLine == null) {
+                errors.finish(lineNumber);
+                close();
+                return false;
+            }
+            lineNumber++;
+            recorder.startRecord(fixedLine.length(), readStart);
+            readStart = recorder.readStart();
+            if (FileConverter.isBlank(fixedLine)) {
+                recorder.recordBlankLine();
+                continue;
+            }
+            FormattedRecord formattedRecord;
+            try {
+                formattedRecord = lineConverter.convert(fixedLine, lineNumber);
+            } catch (InvalidRecordException e) {
+                errors.reject(e, lineNumber, fixedLine, lineNumber);
+                continue;
+            }
+            if (formattedRecord == null) {
+                continue; // Écartée par le filtre
+            }
+            current.reset(formattedRecord, lineNumber);
+            recorder.recordWritten(1);
+            return true;
+        }
+    }
+
+    private CharSequence readLine() throws IOException {
+        if (singleByteLine == null) {
+            return recordSource.nextRecord();
+        }
+        if (!recordSource.advance()) {
+            return null;
+        }
+        return singleByteLine.reset(recordSource.recordBuffer(), recordSource.recordOffset(),
+                recordSource.recordLength());
+    }
+
+    private static void closeQuietly(Closeable closeable) {
+        try {
+            closeable.close();
+        } catch (IOException e) {
+            logger.debug("Fermeture du flux d'entrée : {}", e.getMessage());
+        }
+    }
+}
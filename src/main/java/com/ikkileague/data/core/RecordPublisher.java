@@ -0,0 +1,175 @@
+package com.ikkileague.data.core;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Publie les enregistrements d'un {@link RecordIterator} à un abonné unique,
+ * au rythme de sa demande.
+ * <p>
+ * Rien n'est lu avant le premier {@code request(n)}, et jamais plus de
+ * {@code n} enregistrements au-delà de ceux déjà livrés : un abonné lent
+ * ralentit la lecture au lieu d'accumuler des enregistrements en mémoire.
+ * La lecture et les appels à {@code onNext} se font sur l'{@link Executor}
+ * fourni, une tâche à la fois, si bien que les signaux d'un abonnement ne se
+ * chevauchent jamais. L'enregistrement passé à {@code onNext} n'est valide que
+ * pendant l'appel (voir {@link ConvertedRecord#copy()}).
+ * <p>
+ * Les données ne peuvent être lues qu'une fois : un second abonné reçoit
+ * {@code onError}.
+ */
+final class RecordPublisher implements Flow.Publisher<ConvertedRecord> {
+
+    /** Ouvre la conversion au premier {@code request(n)}, sur le thread de lecture. */
+    interface Opener {
+        RecordIterator open() throws Exception;
+    }
+
+    private final Opener opener;
+    private final Closeable input;
+    private final Executor executor;
+    private final AtomicBoolean subscribed = new AtomicBoolean();
+
+    /**
+     * @param input Flux lu par la conversion, fermé directement si l'abonnement
+     *              se termine avant l'ouverture de la conversion.
+     */
+    RecordPublisher(Opener opener, Closeable input, Executor executor) {
+        this.opener = opener;
+        this.input = input;
+        this.executor = executor;
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super ConvertedRecord> subscriber) {
+        if (subscriber == null) {
+            throw new NullPointerException("subscriber");
+        }
+        if (!subscribed.compareAndSet(false, true)) {
+            subscriber.onSubscribe(new Flow.Subscription() {
+                @Override
+                public void request(long n) {
+                }
+
+                @Override
+                public void cancel() {
+                }
+            });
+            subscriber.onError(new IllegalStateException("Les enregistrements ne peuvent être publiés qu'une fois"));
+            return;
+        }
+        subscriber.onSubscribe(new RecordSubscription(subscriber));
+    }
+
+    private final class RecordSubscription implements Flow.Subscription, Runnable {
+        private final Flow.Subscriber<? super ConvertedRecord> subscriber;
+        private final AtomicLong demand = new AtomicLong();
+        // Nombre de demandes de traitement en attente : une seule tâche de lecture à la fois
+        private final AtomicInteger pending = new AtomicInteger();
+        private volatile boolean cancelled;
+        private volatile long invalidRequest;
+        private RecordIterator records;
+        private boolean done;
+
+        RecordSubscription(Flow.Subscriber<? super ConvertedRecord> subscriber) {
+            this.subscriber = subscriber;
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                invalidRequest = n;
+            } else {
+                demand.getAndAccumulate(n, (current, added) -> {
+                    long sum = current + added;
+                    return sum < 0 ? Long.MAX_VALUE : sum;
+                });
+            }
+            schedule();
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            schedule();
+        }
+
+        private void schedule() {
+            if (pending.getAndIncrement() == 0) {
+                executor.execute(this);
+            }
+        }
+
+        @Override
+        public void run() {
+            int missed = 1;
+            do {
+                drain();
+                missed = pending.addAndGet(-missed);
+            } while (missed != 0);
+        }
+
+        private void drain() {
+            while (!done) {
+                if (cancelled) {
+                    finish();
+                    return;
+                }
+                if (invalidRequest != 0) {
+                    finish();
+                    subscriber.onError(new IllegalArgumentException(
+                            "La demande doit être strictement positive : " + invalidRequest));
+                    return;
+                }
+                long requested = demand.get();
+                if (requested == 0) {
+                    return;
+                }
+                ConvertedRecord record;
+                try {
+                    if (records == null) {
+                        records = opener.open();
+                    }
+                    if (!records.hasNext()) {
+                        finish();
+                        subscriber.onComplete();
+                        return;
+                    }
+                    record = records.next();
+                } catch (Exception e) {
+                    finish();
+                    subscriber.onError(e);
+                    return;
+                }
+                try {
+                    subscriber.onNext(record);
+                } catch (RuntimeException e) {
+                    // Abonné défaillant (règle 2.13) : l'abonnement est annulé
+                    finish();
+                    throw e;
+                }
+                if (requested != Long.MAX_VALUE) {
+                    demand.decrementAndGet();
+                }
+            }
+        }
+
+        private void finish() {
+            done = true;
+            if (records != null) {
+                records.close();
+                return;
+            }
+            try {
+                input.close();
+            } catch (IOException e) {
+                // Rien n'a été lu : l'erreur de fermeture n'a pas d'effet sur l'abonné
+            }
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package com.ikkileague.data.core;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.ikkileague.data.exception.ConversionException;
+import com.ikkileague.data.formatter.RecordFormatter;
+import com.ikkileague.data.model.RecordLayout;
+import com.ikkileague.data.model.RecordTypes;
+import com.ikkileague.data.writer.ColumnarWriter;
+import com.ikkileague.data.writer.CsvWriter;
+import com.ikkileague.data.writer.JsonLinesWriter;
+import com.ikkileague.data.writer.OutputFormat;
+import com.ikkileague.data.writer.PartitionedCsvSink;
+import com.ikkileague.data.writer.RecordSink;
+import com.ikkileague.data.writer.RecordTypeSink;
+import com.ikkileague.data.writer.TeeSink;
+
+/**
+ * Ouverture des destinations d'une conversion.
+ * <p>
+ * Le format du fichier de sortie est déduit de son extension
+ * ({@link OutputFormat#forPath(Path)}). Chaque format de
+ * {@link ConversionOptions#getAdditionalFormats()} est écrit dans la même
+ * passe, dans un fichier voisin de même nom de base : {@code clients.csv} avec
+ * JSONL donne aussi {@code clients.jsonl}. Une sortie {@code .gz} rend ces
+ * fichiers voisins compressés eux aussi.
+ * <p>
+ * Avec {@link ConversionOptions#getPartitioning()}, la sortie est un CSV non
+ * compressé découpé en partitions ({@link PartitionedCsvSink}), le chemin de
+ * sortie servant de modèle aux noms des fichiers.
+ * <p>
+ * Un fichier à plusieurs types d'enregistrement
+ * ({@link RecordFormatter#getRecordTypes()}) donne une sortie par type, nommée
+ * d'après le type ({@code clients.csv} donne {@code clients-entete.csv},
+ * {@code clients-detail.csv}...) et ouverte comme une sortie ordinaire : les
+ * formats additionnels, la compression et le partitionnement s'appliquent à
+ * chacune ({@link RecordTypeSink}).
+ */
+final class RecordSinks {
+
+    private RecordSinks() {
+    }
+
+    /**
+     * Ouvre la ou les destinations de la conversion : une par type
+     * d'enregistrement pour un fichier à plusieurs types, sinon celles de
+     * {@link #open(Path, RecordLayout, ConversionOptions, long)}.
+     *
+     * @param resumeLength Longueur à laquelle reprendre la sortie d'un fichier à
+     *                     une seule structure, 0 sinon.
+     */
+    static RecordSink open(Path outputPath, RecordFormatter recordFormatter, ConversionOptions options,
+            long resumeLength) throws ConversionException {
+        RecordTypes recordTypes = recordFormatter.getRecordTypes();
+        if (recordTypes == null) {
+            return open(outputPath, recordFormatter.getLayout(), options, resumeLength);
+        }
+        List<RecordSink> sinks = new ArrayList<>(recordTypes.typeCount());
+        try {
+            for (int type = 0; type < recordTypes.typeCount(); type++) {
+                sinks.add(open(typePath(outputPath, recordTypes.getName(type)), recordTypes.getLayout(type),
+                        options, 0));
+            }
+        } catch (ConversionException e) {
+            closeAll(sinks, e);
+            throw e;
+        }
+        return new RecordTypeSink(recordTypes.getNames(), sinks);
+    }
+
+    /**
+     * Ouvre la ou les destinations de la conversion.
+     *
+     * @param resumeLength Longueur à laquelle reprendre la sortie (voir
+     *                     {@link #isResumable(Path, ConversionOptions)}), 0 sinon.
+     */
+    static RecordSink open(Path outputPath, RecordLayout layout, ConversionOptions options, long resumeLength)
+            throws ConversionException {
+        OutputFormat primary = OutputFormat.forPath(outputPath);
+        if (options.getPartitioning() != null) {
+            if (primary != OutputFormat.CSV || Compression.isGzipOutput(outputPath)
+                    || options.getAdditionalFormats().stream().anyMatch(format -> format != primary)) {
+                throw new ConversionException("Une sortie partitionnée ne peut être qu'un CSV non compressé, "
+                        + "sans autre format : " + outputPath);
+            }
+            // En mode parallèle, les partitions d'un bloc sont écrites sur autant de threads que la conversion
+            return new PartitionedCsvSink(outputPath, layout, options.getPartitioning(),
+                    options.getMaxOpenPartitions(), options.getThreads());
+        }
+        List<RecordSink> sinks = new ArrayList<>();
+        try {
+            sinks.add(open(primary, outputPath, layout, options, resumeLength));
+            for (OutputFormat format : options.getAdditionalFormats()) {
+                if (format != primary) {
+                    sinks.add(open(format, siblingPath(outputPath, format), layout, options, 0));
+                }
+            }
+        } catch (ConversionException e) {
+            closeAll(sinks, e);
+            throw e;
+        }
+        return sinks.size() == 1 ? sinks.get(0) : new TeeSink(sinks);
+    }
+
+    // Ferme les destinations déjà ouvertes quand l'ouverture d'une suivante échoue
+    private static void closeAll(List<RecordSink> sinks, ConversionException failure) {
+        for (RecordSink sink : sinks) {
+            try {
+                sink.close();
+            } catch (IOException suppressed) {
+                failure.addSuppressed(suppressed);
+            }
+        }
+    }
+
+    /**
+     * Indique si la sortie peut être tronquée puis reprise : seul un CSV non
+     * compressé et non partitionné, écrit sans autre format, le peut.
+     */
+    static boolean isResumable(Path outputPath, ConversionOptions options) {
+        OutputFormat primary = OutputFormat.forPath(outputPath);
+        return primary == OutputFormat.CSV && options.getPartitioning() == null && !Compression.isGzipOutput(outputPath)
+                && options.getAdditionalFormats().stream().allMatch(format -> format == primary);
+    }
+
+    /** Fichier voisin de la sortie, au format donné : même nom de base, même compression. */
+    static Path siblingPath(Path outputPath, OutputFormat format) {
+        String name = outputPath.getFileName().toString();
+        boolean gzip = Compression.isGzipOutput(outputPath);
+        if (gzip) {
+            name = name.substring(0, name.length() - ".gz".length());
+        }
+        int dot = name.lastIndexOf('.');
+        String baseName = dot > 0 ? name.substring(0, dot) : name;
+        return outputPath.resolveSibling(baseName + "." + format.getExtension() + (gzip ? ".gz" : ""));
+    }
+
+    /** Sortie d'un type d'enregistrement : nom du type ajouté au nom de base, même extension. */
+    static Path typePath(Path outputPath, String typeName) {
+        String name = outputPath.getFileName().toString();
+        String suffix = "";
+        if (Compression.isGzipOutput(outputPath)) {
+            name = name.substring(0, name.length() - ".gz".length());
+            suffix = ".gz";
+        }
+        int dot = name.lastIndexOf('.');
+        if (dot > 0) {
+            suffix = name.substring(dot) + suffix;
+            name = name.substring(0, dot);
+        }
+        return outputPath.resolveSibling(name + "-" + typeName + suffix);
+    }
+
+    private static RecordSink open(OutputFormat format, Path path, RecordLayout layout, ConversionOptions options,
+            long resumeLength) throws ConversionException {
+        if (format == OutputFormat.CSV && !Compression.isGzipOutput(path)) {
+            return new CsvWriter(path, layout.getHeaders(), resumeLength);
+        }
+        OutputStream output = Compression.openOutput(path, options);
+        try {
+            switch (format) {
+                case JSONL:
+                    return new JsonLinesWriter(output, layout);
+                case COLUMNAR:
+                    return new ColumnarWriter(output, layout);
+                case CSV:
+                default:
+                    return new CsvWriter(output, layout.getHeaders());
+            }
+        } catch (ConversionException | RuntimeException e) {
+            try {
+                output.close();
+            } catch (IOException suppressed) {
+                e.addSuppressed(suppressed);
+            }
+            throw e;
+        }
+    }
+}
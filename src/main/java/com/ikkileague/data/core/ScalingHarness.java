@@ -0,0 +1,145 @@
+package com.ikkileague.data.core;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.ikkileague.data.exception.ConversionException;
+
+/**
+ * Mesure le passage à l'échelle du convertisseur : le même fichier est
+ * converti avec 1, 2, ... N threads et le meilleur temps de chaque
+ * configuration est comparé à celui du mode séquentiel.
+ * <p>
+ * Une conversion de préchauffage (non mesurée) précède les mesures, afin que
+ * la compilation JIT ne pénalise pas la première configuration.
+ */
+public class ScalingHarness {
+
+    private static final Logger logger = LoggerFactory.getLogger(ScalingHarness.class);
+
+    private final FileConverter fileConverter;
+
+    public ScalingHarness(FileConverter fileConverter) {
+        this.fileConverter = fileConverter;
+    }
+
+    /**
+     * Convertit {@code fixedFilePath} avec 1 à {@code maxThreads} threads.
+     *
+     * @param outputFilePath Fichier CSV de sortie, réécrit à chaque conversion.
+     * @param repetitions    Nombre de conversions par configuration ; le
+     *                       meilleur temps est retenu.
+     * @param baseOptions    Options communes (lecteur, encodage...) ; le nombre
+     *                       de threads est remplacé à chaque configuration.
+     */
+    public List<Result> run(Path fixedFilePath, Path metadataFilePath, Path outputFilePath, int maxThreads,
+            int repetitions, ConversionOptions baseOptions) throws ConversionException {
+        if (maxThreads < 1 || repetitions < 1) {
+            throw new IllegalArgumentException("maxThreads et repetitions doivent être >= 1");
+        }
+        long inputBytes;
+        try {
+            inputBytes = Files.size(fixedFilePath);
+        } catch (IOException e) {
+            throw new ConversionException("Fichier d'entrée manquant ou non valide: " + fixedFilePath, e);
+        }
+
+        logger.info("Préchauffage : conversion de '{}' ({} octets).", fixedFilePath, inputBytes);
+        fileConverter.convert(fixedFilePath, metadataFilePath, outputFilePath, withThreads(baseOptions, maxThreads));
+
+        List<Result> results = new ArrayList<>();
+        long sequentialNanos = 0;
+        for (int threads = 1; threads <= maxThreads; threads++) {
+            ConversionOptions options = withThreads(baseOptions, threads);
+            long best = Long.MAX_VALUE;
+            for (int i = 0; i < repetitions; i++) {
+                long start = System.nanoTime();
+                fileConverter.convert(fixedFilePath, metadataFilePath, outputFilePath, options);
+                best = Math.min(best, System.nanoTime() - start);
+            }
+            if (threads == 1) {
+                sequentialNanos = best;
+            }
+            Result result = new Result(threads, inputBytes, best, sequentialNanos);
+            logger.info("{}", result);
+            results.add(result);
+        }
+        return results;
+    }
+
+    private static ConversionOptions withThreads(ConversionOptions base, int threads) {
+        return ConversionOptions.builder()
+                .threads(threads)
+                .chunkSize(base.getChunkSize())
+                .maxInFlightBytes(base.getMaxInFlightBytes())
+                .readerType(base.getReaderType())
+                .charset(base.getCharset())
+                .pipelined(base.isPipelined())
+                .pipelineBatchSize(base.getPipelineBatchSize())
+                .pipelineDepth(base.getPipelineDepth())
+                .build();
+    }
+
+    /** Met en forme les résultats en tableau texte. */
+    public static String formatTable(List<Result> results) {
+        StringBuilder table = new StringBuilder();
+        table.append(String.format(Locale.ROOT, "%8s %12s %12s %9s %11s%n", "Threads", "Time (ms)", "MiB/s",
+                "Speedup", "Efficiency"));
+        for (Result result : results) {
+            table.append(String.format(Locale.ROOT, "%8d %12d %12.1f %8.2fx %10.0f%%%n", result.getThreads(),
+                    result.getElapsedNanos() / 1_000_000, result.getMiBPerSecond(), result.getSpeedup(),
+                    result.getEfficiency() * 100));
+        }
+        return table.toString();
+    }
+
+    /** Meilleur temps de conversion pour un nombre de threads donné. */
+    public static final class Result {
+        private final int threads;
+        private final long inputBytes;
+        private final long elapsedNanos;
+        private final long sequentialNanos;
+
+        Result(int threads, long inputBytes, long elapsedNanos, long sequentialNanos) {
+            this.threads = threads;
+            this.inputBytes = inputBytes;
+            this.elapsedNanos = elapsedNanos;
+            this.sequentialNanos = sequentialNanos;
+        }
+
+        public int getThreads() {
+            return threads;
+        }
+
+        public long getElapsedNanos() {
+            return elapsedNanos;
+        }
+
+        public double getMiBPerSecond() {
+            return inputBytes / (1024.0 * 1024.0) / (Math.max(1, elapsedNanos) / 1e9);
+        }
+
+        /** Gain par rapport au mode séquentiel (1 thread). */
+        public double getSpeedup() {
+            return (double) sequentialNanos / Math.max(1, elapsedNanos);
+        }
+
+        /** Gain rapporté au nombre de threads (1.0 = passage à l'échelle parfait). */
+        public double getEfficiency() {
+            return getSpeedup() / threads;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT, "%d thread(s): %d ms, %.1f MiB/s, speedup %.2fx", threads,
+                    elapsedNanos / 1_000_000, getMiBPerSecond(), getSpeedup());
+        }
+    }
+}
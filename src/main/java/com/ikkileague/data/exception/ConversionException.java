@@ -1,6 +1,9 @@
 package com.ikkileague.data.exception;
 
 public class ConversionException extends Exception {
+
+    private static final long serialVersionUID = 1L;
+
     public ConversionException(String message) {
         super(message);
     }
@@ -8,4 +11,12 @@ public class ConversionException extends Exception {
     public ConversionException(String message, Throwable cause) {
         super(message, cause);
     }
+
+    /**
+     * Pour les erreurs de données, fréquentes et sans intérêt diagnostique
+     * côté code : ni pile d'appels ni exceptions supprimées.
+     */
+    protected ConversionException(String message, Throwable cause, boolean writableStackTrace) {
+        super(message, cause, false, writableStackTrace);
+    }
 }
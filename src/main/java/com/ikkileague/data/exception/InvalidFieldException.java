@@ -0,0 +1,19 @@
+package com.ikkileague.data.exception;
+
+/**
+ * Valeur de champ invalide (date, nombre, texte), levée par un formateur de
+ * champ. Sans pile d'appels : elle est créée pour chaque champ en erreur et
+ * aussitôt enrichie en {@link InvalidRecordException}.
+ */
+public class InvalidFieldException extends ConversionException {
+
+    private static final long serialVersionUID = 1L;
+
+    public InvalidFieldException(String message) {
+        super(message, null, false);
+    }
+
+    public InvalidFieldException(String message, Throwable cause) {
+        super(message, cause, false);
+    }
+}
@@ -0,0 +1,43 @@
+package com.ikkileague.data.exception;
+
+/**
+ * Enregistrement invalide : longueur de ligne incorrecte ou champ invalide.
+ * <p>
+ * Porte séparément le numéro de ligne, la colonne en cause et la raison, pour
+ * le fichier de rejets. Comme {@link InvalidFieldException}, elle n'a pas de
+ * pile d'appels : en mode rejet, elle est créée pour chaque ligne invalide.
+ */
+public class InvalidRecordException extends ConversionException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final long lineNumber;
+    private final String column;
+    private final String reason;
+
+    /**
+     * @param message    Message complet, avec la ligne et la colonne.
+     * @param lineNumber Numéro de la ligne invalide.
+     * @param column     Nom de la colonne invalide, ou {@code null} si l'erreur porte sur toute la ligne.
+     * @param reason     Raison de l'erreur, sans numéro de ligne.
+     * @param cause      Erreur du champ, ou {@code null}.
+     */
+    public InvalidRecordException(String message, long lineNumber, String column, String reason, Throwable cause) {
+        super(message, cause, false);
+        this.lineNumber = lineNumber;
+        this.column = column;
+        this.reason = reason;
+    }
+
+    public long getLineNumber() {
+        return lineNumber;
+    }
+
+    public String getColumn() {
+        return column;
+    }
+
+    public String getReason() {
+        return reason;
+    }
+}
@@ -0,0 +1,21 @@
+package com.ikkileague.data.exception;
+
+import java.util.Objects;
+
+/**
+ * Enveloppe une {@link ConversionException} là où une exception vérifiée ne
+ * peut pas être levée : {@link java.util.Iterator}, {@link java.util.stream.Stream}.
+ */
+public class UncheckedConversionException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public UncheckedConversionException(ConversionException cause) {
+        super(cause.getMessage(), Objects.requireNonNull(cause));
+    }
+
+    @Override
+    public synchronized ConversionException getCause() {
+        return (ConversionException) super.getCause();
+    }
+}
@@ -1,8 +1,5 @@
 package com.ikkileague.data.formatter;
 
-import java.time.format.DateTimeFormatter;
-import java.time.format.DateTimeParseException;
-
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -12,8 +9,11 @@ import com.ikkileague.data.model.ColumnType;
 public class DataFormatter {
 
     private static final Logger logger = LoggerFactory.getLogger(DataFormatter.class);
-    private static final DateTimeFormatter INPUT_DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd");
-    private static final DateTimeFormatter OUTPUT_DATE_FORMAT = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+
+    // Stratégies sans état, partagées par toutes les colonnes d'un même type
+    private static final StringFieldFormatter STRING_FORMATTER = new StringFieldFormatter();
+    private static final DateFieldFormatter DATE_FORMATTER = new DateFieldFormatter();
+    private static final NumericFieldFormatter NUMERIC_FORMATTER = new NumericFieldFormatter();
 
     /**
      * Formate un champ brut en fonction de son type de colonne.
@@ -25,20 +25,40 @@ public class DataFormatter {
      *                             nombre incorrect, caractères interdits...).
      */
     public String format(String rawField, ColumnType type) throws ConversionException {
-        // La méthode trim() supprime les espaces en début et fin de chaîne (y compris
-        // tabulations, retours à la ligne, etc.)
-        // C’est souvent nécessaire pour les champs DATE et NUMERIC afin d’éviter les
-        // erreurs de parsing.
-        String trimmedField = rawField.trim();
+        return format((CharSequence) rawField, type);
+    }
+
+    /**
+     * Formate un champ brut fourni sous forme de {@link CharSequence} (par
+     * exemple une vue sur les octets d'un enregistrement ISO-8859-1). Le trim et
+     * les contrôles se font sur la séquence ; une chaîne n'est construite que
+     * pour la valeur formatée.
+     *
+     * @see #format(String, ColumnType)
+     */
+    public String format(CharSequence rawField, ColumnType type) throws ConversionException {
+        StringBuilder out = new StringBuilder(rawField.length());
+        forType(type).formatTo(rawField, out);
+        return out.toString();
+    }
 
+    /**
+     * Renvoie la stratégie de formatage d'un type de colonne. Utilisé pour
+     * lier une fois pour toutes chaque colonne à son formateur lors de la
+     * compilation d'un {@link com.ikkileague.data.model.RecordLayout}, plutôt
+     * que d'aiguiller sur le type à chaque champ.
+     *
+     * @throws ConversionException si le type n'est pas pris en charge.
+     */
+    public FieldFormatter forType(ColumnType type) throws ConversionException {
         switch (type) {
             case DATE:
-                return formatDate(trimmedField);
+                return DATE_FORMATTER;
             case NUMERIC:
-                return formatNumeric(trimmedField);
+                return NUMERIC_FORMATTER;
             case STRING:
-                return formatString(rawField); // On garde rawField ici pour détecter les caractères interdits avant le
-                                               // nettoyage
+                return STRING_FORMATTER; // Le champ brut est conservé pour détecter les caractères interdits
+                                         // avant le nettoyage
             default:
                 // Cas de sécurité si de nouveaux types sont ajoutés sans être pris en charge
                 String errorMessage = "Type de colonne inconnu ou non géré : " + type;
@@ -47,61 +67,15 @@ public class DataFormatter {
         }
     }
 
-    // Formate une date du format AAAA-MM-JJ vers JJ/MM/AAAA
-    private String formatDate(String rawDate) throws ConversionException {
-        logger.trace("Formatage de la date : '{}'", rawDate);
-        if (rawDate.isEmpty()) {
-            return ""; // Retourne une chaîne vide si la date est vide. À adapter selon les règles
-                       // métier.
-        }
-        try {
-            return OUTPUT_DATE_FORMAT.format(INPUT_DATE_FORMAT.parse(rawDate));
-        } catch (DateTimeParseException e) {
-            String errorMessage = "Format de date invalide : '" + rawDate + "'. Format attendu : YYYY-MM-DD.";
-            logger.error(errorMessage, e); // Log avec la trace complète
-            throw new ConversionException(errorMessage, e);
-        }
+    public StringFieldFormatter stringFormatter() {
+        return STRING_FORMATTER;
     }
 
-    // Convertit une chaîne en nombre décimal
-    private String formatNumeric(String rawNumber) throws ConversionException {
-        logger.trace("Formatage d'un champ numérique : '{}'", rawNumber);
-
-        if (rawNumber == null || rawNumber.isBlank()) {
-            return ""; // Retourne une chaîne vide si le champ est vide ou nul
-        }
-
-        String trimmed = rawNumber.trim();
-
-        try {
-            // Si la chaîne contient un point, on tente une conversion en double
-            if (trimmed.contains(".")) {
-                return String.valueOf(Double.parseDouble(trimmed));
-            } else {
-                // Sinon, on tente une conversion en entier
-                return String.valueOf(Integer.parseInt(trimmed));
-            }
-        } catch (NumberFormatException e) {
-            String errorMessage = "Format numérique invalide : '" + rawNumber + "'.";
-            logger.error(errorMessage, e);
-            throw new ConversionException(errorMessage, e);
-        }
+    public DateFieldFormatter dateFormatter() {
+        return DATE_FORMATTER;
     }
 
-    // Nettoie une chaîne et vérifie l’absence de caractères interdits
-    private String formatString(String rawString) throws ConversionException {
-        // Supprime uniquement les espaces en fin de chaîne
-        String trimmedString = rawString.stripTrailing(); 
-
-        // Règle métier : les retours à la ligne ne sont pas autorisés dans les champs
-        // texte
-        if (trimmedString.contains("\r") || trimmedString.contains("\n")) {
-            String errorMessage = "Le champ texte contient des caractères interdits (CR or LF) : '"
-                    + rawString + "'.";
-            logger.error(errorMessage);
-            throw new ConversionException(errorMessage);
-        }
-        logger.trace("Formatage de la chaîne : '{}' -> '{}'", rawString, trimmedString);
-        return trimmedString;
+    public NumericFieldFormatter numericFormatter() {
+        return NUMERIC_FORMATTER;
     }
 }
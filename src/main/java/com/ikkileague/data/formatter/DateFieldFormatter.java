@@ -0,0 +1,123 @@
+package com.ikkileague.data.formatter;
+
+import java.text.ParsePosition;
+import java.time.Year;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoField;
+import java.time.temporal.TemporalAccessor;
+
+import com.ikkileague.data.exception.ConversionException;
+import com.ikkileague.data.exception.InvalidFieldException;
+
+/**
+ * Formatage des colonnes DATE : AAAA-MM-JJ vers JJ/MM/AAAA.
+ * <p>
+ * Le cas courant (exactement dix caractères de la forme {@code dddd-dd-dd})
+ * est traité chiffre par chiffre : l'année, le mois et le jour sont validés
+ * selon le calendrier (longueur des mois, années bissextiles, année 0000
+ * refusée) puis recopiés dans le tampon de sortie, sans aucune allocation. Les
+ * autres formes (année signée de plus de quatre chiffres...) sont découpées par
+ * {@link DateTimeFormatter#parseUnresolved}, qui signale une erreur par sa
+ * position au lieu d'une exception, puis résolues comme le ferait
+ * {@link DateTimeFormatter#parse} (jour ramené au dernier jour du mois).
+ * <p>
+ * Une date invalide lève une {@link InvalidFieldException} sans pile d'appels
+ * ni cause : un fichier plein de dates invalides reste rapide à rejeter.
+ */
+public final class DateFieldFormatter implements FieldFormatter {
+    private static final DateTimeFormatter INPUT_DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+    private static final DateTimeFormatter OUTPUT_DATE_FORMAT = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+
+    // Longueur de la forme AAAA-MM-JJ
+    private static final int ISO_DATE_LENGTH = 10;
+    // Nombre de jours par mois pour une année non bissextile (index 1 à 12)
+    private static final int[] DAYS_IN_MONTH = { 0, 31, 28, 31, 30, 31, 30, 31, 31, 30, 31, 30, 31 };
+
+    @Override
+    public void formatTo(CharSequence rawField, StringBuilder out) throws ConversionException {
+        // Trim par indices, pour ne pas créer de sous-séquence
+        int start = 0;
+        int end = rawField.length();
+        while (start < end && rawField.charAt(start) <= ' ') {
+            start++;
+        }
+        while (end > start && rawField.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        if (start == end) {
+            return; // Une date vide donne une valeur vide. À adapter selon les règles métier.
+        }
+
+        if (end - start == ISO_DATE_LENGTH && hasIsoShape(rawField, start)) {
+            int year = digits(rawField, start, 4);
+            int month = digits(rawField, start + 5, 2);
+            int day = digits(rawField, start + 8, 2);
+            if (year == 0 || month < 1 || month > 12 || day < 1 || day > daysInMonth(year, month)) {
+                throw invalidDate(rawField.subSequence(start, end));
+            }
+            // JJ/MM/AAAA : simple réordonnancement des chiffres déjà validés
+            out.append(rawField.charAt(start + 8)).append(rawField.charAt(start + 9)).append('/')
+                    .append(rawField.charAt(start + 5)).append(rawField.charAt(start + 6)).append('/')
+                    .append(rawField.charAt(start)).append(rawField.charAt(start + 1))
+                    .append(rawField.charAt(start + 2)).append(rawField.charAt(start + 3));
+            return;
+        }
+
+        // Forme inhabituelle : analyse générique (et message d'erreur identique)
+        CharSequence rawDate = rawField.subSequence(start, end);
+        ParsePosition position = new ParsePosition(0);
+        TemporalAccessor parsed = INPUT_DATE_FORMAT.parseUnresolved(rawDate, position);
+        if (parsed == null || position.getErrorIndex() >= 0 || position.getIndex() != rawDate.length()) {
+            throw invalidDate(rawDate);
+        }
+        long year = parsed.getLong(ChronoField.YEAR_OF_ERA);
+        long month = parsed.getLong(ChronoField.MONTH_OF_YEAR);
+        long day = parsed.getLong(ChronoField.DAY_OF_MONTH);
+        if (year < 1 || year > Year.MAX_VALUE || month < 1 || month > 12 || day < 1 || day > 31) {
+            throw invalidDate(rawDate);
+        }
+        YearMonth yearMonth = YearMonth.of((int) year, (int) month);
+        OUTPUT_DATE_FORMAT.formatTo(yearMonth.atDay((int) Math.min(day, yearMonth.lengthOfMonth())), out);
+    }
+
+    private static InvalidFieldException invalidDate(CharSequence rawDate) {
+        String errorMessage = "Format de date invalide : '" + rawDate + "'. Format attendu : YYYY-MM-DD.";
+        return new InvalidFieldException(errorMessage);
+    }
+
+    // Vérifie la forme dddd-dd-dd à partir de l'index donné
+    private static boolean hasIsoShape(CharSequence value, int start) {
+        for (int i = 0; i < ISO_DATE_LENGTH; i++) {
+            char c = value.charAt(start + i);
+            if (i == 4 || i == 7) {
+                if (c != '-') {
+                    return false;
+                }
+            } else if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int digits(CharSequence value, int start, int count) {
+        int result = 0;
+        for (int i = start; i < start + count; i++) {
+            result = result * 10 + (value.charAt(i) - '0');
+        }
+        return result;
+    }
+
+    private static int daysInMonth(int year, int month) {
+        if (month == 2 && isLeapYear(year)) {
+            return 29;
+        }
+        return DAYS_IN_MONTH[month];
+    }
+
+    // Calendrier grégorien proleptique, comme java.time
+    private static boolean isLeapYear(int year) {
+        return (year & 3) == 0 && (year % 100 != 0 || year % 400 == 0);
+    }
+}
@@ -0,0 +1,21 @@
+package com.ikkileague.data.formatter;
+
+import com.ikkileague.data.exception.ConversionException;
+
+/**
+ * Stratégie de formatage d'une colonne, liée une fois pour toutes à son type
+ * lors de la compilation du {@link com.ikkileague.data.model.RecordLayout}.
+ * <p>
+ * Les implémentations sont sans état et peuvent être partagées entre threads.
+ */
+public interface FieldFormatter {
+
+    /**
+     * Formate un champ brut et ajoute la valeur formatée à {@code out}.
+     *
+     * @param rawField Le champ brut issu du fichier à largeur fixe.
+     * @param out      Le tampon de sortie, réutilisé d'un enregistrement à l'autre.
+     * @throws ConversionException si le champ n'est pas valide pour ce type.
+     */
+    void formatTo(CharSequence rawField, StringBuilder out) throws ConversionException;
+}
@@ -0,0 +1,135 @@
+package com.ikkileague.data.formatter;
+
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * Valeurs formatées d'un enregistrement, réutilisables d'une ligne à l'autre.
+ * <p>
+ * Toutes les valeurs sont écrites dans un même tampon de caractères ; chaque
+ * colonne est repérée par ses bornes dans ce tampon et exposée sous forme de
+ * vue {@link CharSequence}. Une fois le tampon dimensionné, remplir
+ * l'enregistrement n'alloue plus rien.
+ * <p>
+ * Dans un fichier à plusieurs types d'enregistrement, chaque type a ses
+ * propres instances, marquées de l'index du type : la destination s'en sert
+ * pour choisir le fichier de sortie.
+ * <p>
+ * L'instance appartient à l'appelant et n'est pas thread-safe.
+ */
+public final class FormattedRecord {
+
+    private final StringBuilder chars = new StringBuilder(256);
+    private final int[] starts;
+    private final int[] ends;
+    private final FieldView[] views;
+    private final List<CharSequence> fields;
+    private final int recordType;
+
+    public FormattedRecord(int columnCount) {
+        this(columnCount, 0);
+    }
+
+    /** @param recordType Index du type d'enregistrement (voir {@link com.ikkileague.data.model.RecordTypes}). */
+    public FormattedRecord(int columnCount, int recordType) {
+        this.recordType = recordType;
+        this.starts = new int[columnCount];
+        this.ends = new int[columnCount];
+        this.views = new FieldView[columnCount];
+        for (int i = 0; i < columnCount; i++) {
+            views[i] = new FieldView(i);
+        }
+        this.fields = new FieldList();
+    }
+
+    /** Vide l'enregistrement avant de formater une nouvelle ligne. */
+    public void clear() {
+        chars.setLength(0);
+    }
+
+    /**
+     * Commence l'écriture de la valeur d'une colonne.
+     *
+     * @return Le tampon dans lequel ajouter la valeur formatée.
+     */
+    public StringBuilder beginField(int column) {
+        starts[column] = chars.length();
+        return chars;
+    }
+
+    /** Termine l'écriture de la valeur commencée par {@link #beginField(int)}. */
+    public void endField(int column) {
+        ends[column] = chars.length();
+    }
+
+    /** Index du type d'enregistrement ; 0 pour un fichier à une seule structure. */
+    public int getRecordType() {
+        return recordType;
+    }
+
+    public int fieldCount() {
+        return views.length;
+    }
+
+    /** Vue sur la valeur formatée d'une colonne. */
+    public CharSequence field(int column) {
+        return views[column];
+    }
+
+    /** Valeur formatée d'une colonne, matérialisée en chaîne. */
+    public String get(int column) {
+        return chars.substring(starts[column], ends[column]);
+    }
+
+    /** Vue liste (réutilisée) sur les valeurs formatées, dans l'ordre des colonnes. */
+    public List<CharSequence> fields() {
+        return fields;
+    }
+
+    private final class FieldView implements CharSequence {
+        private final int column;
+
+        private FieldView(int column) {
+            this.column = column;
+        }
+
+        @Override
+        public int length() {
+            return ends[column] - starts[column];
+        }
+
+        @Override
+        public char charAt(int index) {
+            if (index < 0 || index >= length()) {
+                throw new IndexOutOfBoundsException("index " + index + ", length " + length());
+            }
+            return chars.charAt(starts[column] + index);
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            if (start < 0 || end > length() || start > end) {
+                throw new IndexOutOfBoundsException("start " + start + ", end " + end + ", length " + length());
+            }
+            return chars.subSequence(starts[column] + start, starts[column] + end);
+        }
+
+        @Override
+        public String toString() {
+            return get(column);
+        }
+    }
+
+    private final class FieldList extends AbstractList<CharSequence> implements RandomAccess {
+        @Override
+        public CharSequence get(int index) {
+            return views[index];
+        }
+
+        @Override
+        public int size() {
+            return views.length;
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.ikkileague.data.formatter;
+
+
+import com.ikkileague.data.exception.ConversionException;
+import com.ikkileague.data.exception.InvalidFieldException;
+
+/**
+ * Formatage des colonnes NUMERIC : entier ou nombre décimal.
+ * <p>
+ * Le texte du champ est validé et mis sous forme canonique en une seule passe,
+ * directement dans le tampon de sortie, sans conversion en {@code int} ou en
+ * {@code double} : le nombre de chiffres n'est pas limité et les décimales ne
+ * subissent aucun arrondi.
+ * <p>
+ * Forme acceptée : un signe facultatif ({@code +} ou {@code -}), des chiffres
+ * et au plus un point décimal, avec au moins un chiffre au total. Forme
+ * produite :
+ * <ul>
+ * <li>le signe {@code +} est retiré, ainsi que le signe d'une valeur nulle ;</li>
+ * <li>les zéros non significatifs de la partie entière sont retirés
+ * ({@code 007} donne {@code 7}, {@code .5} donne {@code 0.5}) ;</li>
+ * <li>les zéros de fin de la partie décimale sont retirés en gardant au moins
+ * un chiffre ({@code 12.50} donne {@code 12.5}, {@code 5.} donne
+ * {@code 5.0}).</li>
+ * </ul>
+ */
+public final class NumericFieldFormatter implements FieldFormatter {
+
+    @Override
+    public void formatTo(CharSequence rawField, StringBuilder out) throws ConversionException {
+        // Trim par indices, pour ne pas créer de sous-séquence
+        int start = 0;
+        int end = rawField.length();
+        while (start < end && rawField.charAt(start) <= ' ') {
+            start++;
+        }
+        while (end > start && rawField.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        if (start == end) {
+            return; // Un champ vide donne une valeur vide
+        }
+
+        // Passe unique : signe, partie entière, point décimal, partie décimale
+        int position = start;
+        boolean negative = false;
+        char first = rawField.charAt(position);
+        if (first == '-' || first == '+') {
+            negative = first == '-';
+            position++;
+        }
+        int integerStart = position;
+        int significantStart = -1; // premier chiffre non nul de la partie entière
+        while (position < end && isDigit(rawField.charAt(position))) {
+            if (significantStart < 0 && rawField.charAt(position) != '0') {
+                significantStart = position;
+            }
+            position++;
+        }
+        int integerEnd = position;
+        int pointIndex = -1;
+        int fractionEnd = -1; // fin de la partie décimale sans ses zéros de fin
+        if (position < end && rawField.charAt(position) == '.') {
+            pointIndex = position++;
+            while (position < end && isDigit(rawField.charAt(position))) {
+                if (rawField.charAt(position) != '0') {
+                    fractionEnd = position + 1;
+                }
+                position++;
+            }
+        }
+        boolean hasDigits = integerEnd > integerStart || (pointIndex >= 0 && position > pointIndex + 1);
+        if (position != end || !hasDigits) {
+            throw invalidNumber(rawField.subSequence(start, end));
+        }
+
+        // Écriture de la forme canonique
+        if (negative && (significantStart >= 0 || fractionEnd >= 0)) {
+            out.append('-');
+        }
+        if (significantStart >= 0) {
+            out.append(rawField, significantStart, integerEnd);
+        } else {
+            out.append('0');
+        }
+        if (pointIndex >= 0) {
+            out.append('.');
+            if (fractionEnd >= 0) {
+                out.append(rawField, pointIndex + 1, fractionEnd);
+            } else {
+                out.append('0');
+            }
+        }
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static InvalidFieldException invalidNumber(CharSequence rawNumber) {
+        return new InvalidFieldException("Format numérique invalide : '" + rawNumber + "'.");
+    }
+}
@@ -0,0 +1,194 @@
+package com.ikkileague.data.formatter;
+
+import com.ikkileague.data.exception.ConversionException;
+import com.ikkileague.data.exception.InvalidRecordException;
+import com.ikkileague.data.metrics.Stage;
+import com.ikkileague.data.metrics.StageRecorder;
+import com.ikkileague.data.model.ColumnType;
+import com.ikkileague.data.model.RecordLayout;
+import com.ikkileague.data.model.RecordTypes;
+import com.ikkileague.data.parser.ParsedRecord;
+import com.ikkileague.data.parser.RecordFilter;
+
+/**
+ * Formate un enregistrement découpé selon un {@link RecordLayout} compilé.
+ * <p>
+ * Les colonnes sont traitées par type, chaque boucle appelant directement le
+ * formateur concret de ce type : les sites d'appel restent monomorphes et le
+ * JIT peut les inliner, quel que soit le nombre de colonnes. Les valeurs sont
+ * écrites dans un {@link FormattedRecord} réutilisé.
+ * <p>
+ * En cas d'erreur, les colonnes sont reprises dans leur ordre naturel afin de
+ * signaler la même colonne (la première invalide) qu'un traitement colonne par
+ * colonne.
+ * <p>
+ * Un {@link RecordFilter} peut accompagner la structure : il désigne les
+ * lignes à convertir et s'évalue avant le formatage (voir
+ * {@code LineConverter}).
+ * <p>
+ * Pour un fichier à plusieurs types d'enregistrement
+ * ({@link #forRecordTypes(RecordTypes, DataFormatter)}), le formateur réunit
+ * un formateur par type : {@link #getLayout()} n'a alors pas de sens et la
+ * conversion choisit, ligne par ligne, le formateur du type.
+ * <p>
+ * Les instances sont sans état et peuvent être partagées entre threads.
+ */
+public final class RecordFormatter {
+
+    private final RecordLayout layout;
+    private final RecordFilter filter;
+    private final StringFieldFormatter stringFormatter;
+    private final DateFieldFormatter dateFormatter;
+    private final NumericFieldFormatter numericFormatter;
+    private final int[] stringColumns;
+    private final int[] dateColumns;
+    private final int[] numericColumns;
+    // Fichier à plusieurs types : un formateur par type, null sinon
+    private final RecordTypes recordTypes;
+    private final RecordFormatter[] typeFormatters;
+
+    public RecordFormatter(RecordLayout layout, DataFormatter dataFormatter) {
+        this(layout, dataFormatter, RecordFilter.acceptAll());
+    }
+
+    /**
+     * @param filter Les lignes à convertir, évalué sur la ligne complète : le
+     *               filtre peut porter sur des colonnes absentes d'une
+     *               projection ({@link RecordLayout#select(java.util.List)}).
+     */
+    public RecordFormatter(RecordLayout layout, DataFormatter dataFormatter, RecordFilter filter) {
+        this.layout = layout;
+        this.filter = filter;
+        this.stringFormatter = dataFormatter.stringFormatter();
+        this.dateFormatter = dataFormatter.dateFormatter();
+        this.numericFormatter = dataFormatter.numericFormatter();
+        this.stringColumns = layout.columnsOfType(ColumnType.STRING);
+        this.dateColumns = layout.columnsOfType(ColumnType.DATE);
+        this.numericColumns = layout.columnsOfType(ColumnType.NUMERIC);
+        this.recordTypes = null;
+        this.typeFormatters = null;
+    }
+
+    private RecordFormatter(RecordTypes recordTypes, RecordFormatter[] typeFormatters) {
+        this.layout = null;
+        this.filter = RecordFilter.acceptAll();
+        this.stringFormatter = null;
+        this.dateFormatter = null;
+        this.numericFormatter = null;
+        this.stringColumns = null;
+        this.dateColumns = null;
+        this.numericColumns = null;
+        this.recordTypes = recordTypes;
+        this.typeFormatters = typeFormatters;
+    }
+
+    /**
+     * Formateur d'un fichier à plusieurs types d'enregistrement : un formateur
+     * par type, choisi d'après le discriminant de chaque ligne. Un fichier à
+     * un seul type donne un formateur ordinaire.
+     */
+    public static RecordFormatter forRecordTypes(RecordTypes recordTypes, DataFormatter dataFormatter) {
+        if (!recordTypes.isDiscriminated()) {
+            return new RecordFormatter(recordTypes.getLayout(0), dataFormatter);
+        }
+        RecordFormatter[] typeFormatters = new RecordFormatter[recordTypes.typeCount()];
+        for (int type = 0; type < typeFormatters.length; type++) {
+            typeFormatters[type] = new RecordFormatter(recordTypes.getLayout(type), dataFormatter);
+        }
+        return new RecordFormatter(recordTypes, typeFormatters);
+    }
+
+    /** Structure formatée ; {@code null} pour un fichier à plusieurs types. */
+    public RecordLayout getLayout() {
+        return layout;
+    }
+
+    /** Types d'enregistrement du fichier, ou {@code null} pour un fichier à une seule structure. */
+    public RecordTypes getRecordTypes() {
+        return recordTypes;
+    }
+
+    /** Formateur du type d'enregistrement {@code type} d'un fichier à plusieurs types. */
+    public RecordFormatter getTypeFormatter(int type) {
+        return typeFormatters[type];
+    }
+
+    public RecordFilter getFilter() {
+        return filter;
+    }
+
+    /**
+     * Formate toutes les colonnes de {@code parsed} dans {@code out}.
+     *
+     * @param lineNumber Le numéro de ligne, pour les messages d'erreur.
+     * @throws ConversionException si un champ est invalide ; le message indique
+     *                             la colonne, son type et la ligne.
+     */
+    public void format(ParsedRecord parsed, FormattedRecord out, long lineNumber) throws ConversionException {
+        format(parsed, out, lineNumber, null);
+    }
+
+    /**
+     * Variante de {@link #format(ParsedRecord, FormattedRecord, long)} qui, pour
+     * un enregistrement échantillonné, mesure la durée de chaque boucle de type
+     * ({@link Stage#format(ColumnType)}).
+     *
+     * @param recorder L'enregistreur du thread appelant, ou {@code null}.
+     */
+    public void format(ParsedRecord parsed, FormattedRecord out, long lineNumber, StageRecorder recorder)
+            throws ConversionException {
+        out.clear();
+        long start = recorder != null ? recorder.stageStart() : 0;
+        try {
+            for (int column : stringColumns) {
+                stringFormatter.formatTo(parsed.field(column), out.beginField(column));
+                out.endField(column);
+            }
+            if (start != 0) {
+                start = endStage(recorder, Stage.FORMAT_STRING, start);
+            }
+            for (int column : dateColumns) {
+                dateFormatter.formatTo(parsed.field(column), out.beginField(column));
+                out.endField(column);
+            }
+            if (start != 0) {
+                start = endStage(recorder, Stage.FORMAT_DATE, start);
+            }
+            for (int column : numericColumns) {
+                numericFormatter.formatTo(parsed.field(column), out.beginField(column));
+                out.endField(column);
+            }
+            if (start != 0) {
+                endStage(recorder, Stage.FORMAT_NUMERIC, start);
+            }
+        } catch (ConversionException e) {
+            formatInColumnOrder(parsed, out, lineNumber);
+            throw e; // Inatteignable : le second passage échoue sur la même ligne
+        }
+    }
+
+    // Enregistre la durée d'une boucle de type et renvoie le départ de la suivante
+    private static long endStage(StageRecorder recorder, Stage stage, long start) {
+        long now = System.nanoTime();
+        recorder.recordLatency(stage, now - start);
+        return now;
+    }
+
+    // Chemin d'erreur : retrouve la première colonne invalide dans l'ordre des colonnes
+    private void formatInColumnOrder(ParsedRecord parsed, FormattedRecord out, long lineNumber)
+            throws ConversionException {
+        out.clear();
+        for (int column = 0; column < layout.columnCount(); column++) {
+            try {
+                layout.getFormatter(column).formatTo(parsed.field(column), out.beginField(column));
+                out.endField(column);
+            } catch (ConversionException e) {
+                // Enrichissement du message d’erreur avec la ligne et la colonne concernées
+                String errorMessage = String.format(
+                        "Erreur lors du traitement du champ pour la colonne '%s' (type %s) à la ligne %d : %s",
+                        layout.getName(column), layout.getType(column), lineNumber, e.getMessage());
+                throw new InvalidRecordException(errorMessage, lineNumber, layout.getName(column), e.getMessage(), e);
+            }
+        }
+    }
+}
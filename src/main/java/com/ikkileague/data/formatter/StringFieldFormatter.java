@@ -0,0 +1,33 @@
+package com.ikkileague.data.formatter;
+
+
+import com.ikkileague.data.exception.ConversionException;
+import com.ikkileague.data.exception.InvalidFieldException;
+
+/**
+ * Formatage des colonnes STRING : suppression des espaces de fin et refus des
+ * retours à la ligne.
+ */
+public final class StringFieldFormatter implements FieldFormatter {
+
+    @Override
+    public void formatTo(CharSequence rawString, StringBuilder out) throws ConversionException {
+        // Supprime uniquement les espaces en fin de chaîne (équivalent de stripTrailing)
+        int end = rawString.length();
+        while (end > 0 && Character.isWhitespace(rawString.charAt(end - 1))) {
+            end--;
+        }
+
+        // Règle métier : les retours à la ligne ne sont pas autorisés dans les champs
+        // texte
+        for (int i = 0; i < end; i++) {
+            char c = rawString.charAt(i);
+            if (c == '\r' || c == '\n') {
+                String errorMessage = "Le champ texte contient des caractères interdits (CR or LF) : '"
+                        + rawString + "'.";
+                throw new InvalidFieldException(errorMessage);
+            }
+        }
+        out.append(rawString, 0, end);
+    }
+}
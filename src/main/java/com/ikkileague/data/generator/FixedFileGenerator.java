@@ -0,0 +1,241 @@
+package com.ikkileague.data.generator;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.SplittableRandom;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.ikkileague.data.model.ColumnType;
+import com.ikkileague.data.model.RecordLayout;
+
+/**
+ * Génère un fichier à largeur fixe synthétique conforme à une structure
+ * d'enregistrement, pour tester le convertisseur sur de gros volumes.
+ * <p>
+ * Les lignes sont écrites directement en octets ASCII dans un tampon
+ * réutilisé, ce qui permet de produire plusieurs Go en quelques secondes. Les
+ * valeurs suivent des distributions réalistes :
+ * <ul>
+ * <li>chaînes : prénoms, noms et mots de voies tirés avec une distribution
+ * biaisée (quelques valeurs très fréquentes, une longue traîne), complétées par
+ * des espaces ;</li>
+ * <li>dates : jours valides entre 1930 et 2024 ;</li>
+ * <li>nombres : ordre de grandeur log-uniforme, 5 % de valeurs négatives et
+ * 25 % de décimales (si la colonne est assez large), alignés à droite.</li>
+ * </ul>
+ * Une proportion de lignes peut être volontairement invalide (ligne tronquée,
+ * date inexistante ou nombre non numérique) pour tester la gestion d'erreurs.
+ * <p>
+ * Le générateur est déterministe pour une graine donnée.
+ */
+public class FixedFileGenerator {
+
+    private static final Logger logger = LoggerFactory.getLogger(FixedFileGenerator.class);
+
+    private static final int BUFFER_SIZE = 1024 * 1024;
+
+    private static final byte[][] WORDS = ascii("Jean", "Marie", "Pierre", "Anne", "Louis", "Sophie", "Paul",
+            "Julie", "Nicolas", "Camille", "Martin", "Bernard", "Dubois", "Thomas", "Robert", "Richard", "Petit",
+            "Durand", "Leroy", "Moreau", "Simon", "Laurent", "Lefebvre", "Michel", "Garcia", "David", "Bertrand",
+            "Roux", "Vincent", "Fournier", "rue", "avenue", "boulevard", "des", "de la", "Lilas", "Paris", "Lyon",
+            "Marseille", "Nantes", "Lille", "Bordeaux", "Toulouse", "Rennes");
+
+    // 30 février : a la forme AAAA-MM-JJ mais n'existe pas
+    private static final byte[] INVALID_DATE = ascii("2023-02-30")[0];
+
+    private static final int[] DAYS_IN_MONTH = { 31, 28, 31, 30, 31, 30, 31, 31, 30, 31, 30, 31 };
+
+    private final RecordLayout layout;
+    private final double malformedRate;
+    private final SplittableRandom random;
+
+    /**
+     * @param layout        La structure des enregistrements à générer.
+     * @param seed          La graine du générateur pseudo-aléatoire.
+     * @param malformedRate La proportion de lignes invalides, entre 0 et 1.
+     */
+    public FixedFileGenerator(RecordLayout layout, long seed, double malformedRate) {
+        if (malformedRate < 0 || malformedRate > 1) {
+            throw new IllegalArgumentException("Le taux de lignes invalides doit être entre 0 et 1 : "
+                    + malformedRate);
+        }
+        this.layout = layout;
+        this.malformedRate = malformedRate;
+        this.random = new SplittableRandom(seed);
+    }
+
+    /**
+     * Écrit des lignes terminées par '\n' jusqu'à atteindre au moins
+     * {@code targetBytes} octets.
+     */
+    public GenerationResult generate(Path outputFile, long targetBytes) throws IOException {
+        logger.info("Génération de {} octets dans '{}' ({} colonnes, {} % de lignes invalides).", targetBytes,
+                outputFile, layout.columnCount(), malformedRate * 100);
+        long startTime = System.nanoTime();
+        int lineLength = layout.getTotalLength() + 1;
+        byte[] buffer = new byte[Math.max(BUFFER_SIZE, lineLength)];
+        int position = 0;
+        long bytes = 0;
+        long lines = 0;
+        long malformed = 0;
+
+        try (OutputStream output = Files.newOutputStream(outputFile)) {
+            while (bytes < targetBytes) {
+                if (buffer.length - position < lineLength) {
+                    output.write(buffer, 0, position);
+                    position = 0;
+                }
+                int start = position;
+                position = writeRecord(buffer, position);
+                if (malformedRate > 0 && random.nextDouble() < malformedRate) {
+                    position = corrupt(buffer, start, position);
+                    malformed++;
+                }
+                buffer[position++] = '\n';
+                bytes += position - start;
+                lines++;
+            }
+            output.write(buffer, 0, position);
+        }
+
+        GenerationResult result = new GenerationResult(lines, bytes, malformed, System.nanoTime() - startTime);
+        logger.info("{}", result);
+        return result;
+    }
+
+    private int writeRecord(byte[] buffer, int position) {
+        for (int column = 0; column < layout.columnCount(); column++) {
+            int length = layout.getLength(column);
+            ColumnType type = layout.getType(column);
+            if (type == ColumnType.DATE) {
+                writeDate(buffer, position, length);
+            } else if (type == ColumnType.NUMERIC) {
+                writeNumber(buffer, position, length);
+            } else {
+                writeText(buffer, position, length);
+            }
+            position += length;
+        }
+        return position;
+    }
+
+    // Distribution biaisée : le carré d'un tirage uniforme favorise les premiers mots
+    private byte[] pickWord() {
+        double u = random.nextDouble();
+        return WORDS[(int) (u * u * WORDS.length)];
+    }
+
+    private void writeText(byte[] buffer, int start, int length) {
+        int position = start;
+        int end = start + length;
+        // Une chaîne sur dix est vide, les autres comptent un à trois mots
+        int words = random.nextInt(10) == 0 ? 0 : 1 + random.nextInt(3);
+        for (int w = 0; w < words && position < end; w++) {
+            if (w > 0) {
+                buffer[position++] = ' ';
+            }
+            byte[] word = pickWord();
+            int count = Math.min(word.length, end - position);
+            System.arraycopy(word, 0, buffer, position, count);
+            position += count;
+        }
+        // Complète la colonne par des espaces
+        while (position < end) {
+            buffer[position++] = ' ';
+        }
+    }
+
+    private void writeDate(byte[] buffer, int start, int length) {
+        if (length < 10) {
+            fill(buffer, start, length, (byte) ' ');
+            return;
+        }
+        int year = 1930 + random.nextInt(95);
+        int month = 1 + random.nextInt(12);
+        int maxDay = month == 2 && isLeapYear(year) ? 29 : DAYS_IN_MONTH[month - 1];
+        int day = 1 + random.nextInt(maxDay);
+        writeDigits(buffer, start, year, 4);
+        buffer[start + 4] = '-';
+        writeDigits(buffer, start + 5, month, 2);
+        buffer[start + 7] = '-';
+        writeDigits(buffer, start + 8, day, 2);
+        fill(buffer, start + 10, length - 10, (byte) ' ');
+    }
+
+    private void writeNumber(byte[] buffer, int start, int length) {
+        boolean negative = length > 1 && random.nextInt(20) == 0;
+        boolean decimal = length > 4 && random.nextInt(4) == 0;
+        int available = length - (negative ? 1 : 0) - (decimal ? 3 : 0);
+        // Ordre de grandeur log-uniforme sur les chiffres disponibles (18 au plus)
+        int digits = 1 + random.nextInt(Math.min(available, 18));
+        long magnitude = 1;
+        for (int i = 1; i < digits; i++) {
+            magnitude *= 10;
+        }
+        long value = digits == 1 ? random.nextInt(10) : magnitude + random.nextLong(magnitude * 9);
+
+        int end = start + length;
+        int position = end;
+        if (decimal) {
+            writeDigits(buffer, end - 2, random.nextInt(100), 2);
+            buffer[end - 3] = '.';
+            position = end - 3;
+        }
+        do {
+            buffer[--position] = (byte) ('0' + value % 10);
+            value /= 10;
+        } while (value > 0);
+        if (negative) {
+            buffer[--position] = '-';
+        }
+        fill(buffer, start, position - start, (byte) ' ');
+    }
+
+    // Rend la ligne invalide d'une des trois façons rencontrées en production
+    private int corrupt(byte[] buffer, int start, int end) {
+        int kind = random.nextInt(3);
+        for (int column = 0; column < layout.columnCount() && kind > 0; column++) {
+            int offset = start + layout.getOffset(column);
+            if (kind == 1 && layout.getType(column) == ColumnType.DATE && layout.getLength(column) >= 10) {
+                System.arraycopy(INVALID_DATE, 0, buffer, offset, INVALID_DATE.length);
+                return end;
+            }
+            if (kind == 2 && layout.getType(column) == ColumnType.NUMERIC) {
+                fill(buffer, offset, layout.getLength(column), (byte) 'X');
+                return end;
+            }
+        }
+        // Ligne tronquée (également utilisée si la structure n'a pas le type visé)
+        return start + Math.max(0, (end - start) / 2);
+    }
+
+    private static void writeDigits(byte[] buffer, int start, int value, int count) {
+        for (int i = start + count - 1; i >= start; i--) {
+            buffer[i] = (byte) ('0' + value % 10);
+            value /= 10;
+        }
+    }
+
+    private static void fill(byte[] buffer, int start, int length, byte value) {
+        for (int i = start; i < start + length; i++) {
+            buffer[i] = value;
+        }
+    }
+
+    private static boolean isLeapYear(int year) {
+        return (year & 3) == 0 && (year % 100 != 0 || year % 400 == 0);
+    }
+
+    private static byte[][] ascii(String... values) {
+        byte[][] bytes = new byte[values.length][];
+        for (int i = 0; i < values.length; i++) {
+            bytes[i] = values[i].getBytes(StandardCharsets.US_ASCII);
+        }
+        return bytes;
+    }
+}
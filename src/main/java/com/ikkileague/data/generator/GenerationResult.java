@@ -0,0 +1,44 @@
+package com.ikkileague.data.generator;
+
+import java.util.Locale;
+
+/**
+ * Bilan d'une génération de fichier synthétique.
+ */
+public final class GenerationResult {
+
+    private final long lines;
+    private final long bytes;
+    private final long malformedLines;
+    private final long elapsedNanos;
+
+    GenerationResult(long lines, long bytes, long malformedLines, long elapsedNanos) {
+        this.lines = lines;
+        this.bytes = bytes;
+        this.malformedLines = malformedLines;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public long getLines() {
+        return lines;
+    }
+
+    public long getBytes() {
+        return bytes;
+    }
+
+    public long getMalformedLines() {
+        return malformedLines;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT, "Generated %d lines (%d malformed), %d bytes in %d ms (%.1f MiB/s)",
+                lines, malformedLines, bytes, elapsedNanos / 1_000_000,
+                elapsedNanos == 0 ? 0 : bytes / (1024.0 * 1024.0) / (elapsedNanos / 1e9));
+    }
+}
@@ -0,0 +1,136 @@
+package com.ikkileague.data.logging;
+
+import java.nio.charset.StandardCharsets;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.UnsynchronizedAppenderBase;
+import ch.qos.logback.core.rolling.RollingFileAppender;
+import ch.qos.logback.core.rolling.SizeAndTimeBasedRollingPolicy;
+import ch.qos.logback.core.util.FileSize;
+
+/**
+ * Journal fichier asynchrone créé au premier événement qui l'atteint.
+ * <p>
+ * Au démarrage, seuls les paramètres sont lus : ni fichier, ni politique de
+ * rotation (qui parcourt le répertoire des journaux), ni thread d'écriture.
+ * Le premier événement construit la chaîne complète, un
+ * {@link AsyncAppender} devant un {@link RollingFileAppender} à rotation par
+ * jour et par taille, équivalente à sa déclaration dans {@code logback.xml}.
+ * Un journal dont le logger est désactivé (les traces d'enregistrements, par
+ * défaut) ne coûte donc rien au lancement et ne crée aucun fichier.
+ * <p>
+ * Le fichier est écrit en UTF-8. Comme pour l'appender asynchrone déclaré
+ * directement, une file pleine abandonne les événements plutôt que de bloquer
+ * les threads de conversion.
+ */
+public class LazyFileAppender extends UnsynchronizedAppenderBase<ILoggingEvent> {
+
+    private String file;
+    private String fileNamePattern;
+    private int maxHistory = 30;
+    private FileSize maxFileSize = FileSize.valueOf("10MB");
+    private String pattern;
+    private int queueSize = 8192;
+
+    private volatile Appender<ILoggingEvent> delegate;
+
+    public void setFile(String file) {
+        this.file = file;
+    }
+
+    public void setFileNamePattern(String fileNamePattern) {
+        this.fileNamePattern = fileNamePattern;
+    }
+
+    public void setMaxHistory(int maxHistory) {
+        this.maxHistory = maxHistory;
+    }
+
+    public void setMaxFileSize(FileSize maxFileSize) {
+        this.maxFileSize = maxFileSize;
+    }
+
+    public void setPattern(String pattern) {
+        this.pattern = pattern;
+    }
+
+    public void setQueueSize(int queueSize) {
+        this.queueSize = queueSize;
+    }
+
+    /** Indique si le fichier a été ouvert, c'est-à-dire si un événement a atteint ce journal. */
+    public boolean isOpened() {
+        return delegate != null;
+    }
+
+    @Override
+    public void start() {
+        if (file == null || fileNamePattern == null || pattern == null) {
+            addError("Les paramètres file, fileNamePattern et pattern sont obligatoires pour l'appender " + name);
+            return;
+        }
+        super.start();
+    }
+
+    @Override
+    protected void append(ILoggingEvent event) {
+        Appender<ILoggingEvent> target = delegate;
+        if (target == null) {
+            target = open();
+        }
+        target.doAppend(event);
+    }
+
+    @Override
+    public void stop() {
+        synchronized (this) {
+            if (delegate != null) {
+                // Vide la file d'attente puis ferme le fichier
+                delegate.stop();
+            }
+        }
+        super.stop();
+    }
+
+    private synchronized Appender<ILoggingEvent> open() {
+        if (delegate != null) {
+            return delegate;
+        }
+        PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+        encoder.setContext(context);
+        encoder.setPattern(pattern);
+        encoder.setCharset(StandardCharsets.UTF_8);
+        encoder.start();
+
+        RollingFileAppender<ILoggingEvent> fileAppender = new RollingFileAppender<>();
+        fileAppender.setContext(context);
+        fileAppender.setName(name + "-file");
+        fileAppender.setFile(file);
+        fileAppender.setEncoder(encoder);
+
+        SizeAndTimeBasedRollingPolicy<ILoggingEvent> rollingPolicy = new SizeAndTimeBasedRollingPolicy<>();
+        rollingPolicy.setContext(context);
+        rollingPolicy.setParent(fileAppender);
+        rollingPolicy.setFileNamePattern(fileNamePattern);
+        rollingPolicy.setMaxHistory(maxHistory);
+        rollingPolicy.setMaxFileSize(maxFileSize);
+        rollingPolicy.start();
+        fileAppender.setRollingPolicy(rollingPolicy);
+        fileAppender.start();
+
+        AsyncAppender asyncAppender = new AsyncAppender();
+        asyncAppender.setContext(context);
+        asyncAppender.setName(name + "-async");
+        asyncAppender.setQueueSize(queueSize);
+        asyncAppender.setDiscardingThreshold(0);
+        asyncAppender.setNeverBlock(true);
+        asyncAppender.addAppender(fileAppender);
+        asyncAppender.start();
+
+        delegate = asyncAppender;
+        return asyncAppender;
+    }
+}
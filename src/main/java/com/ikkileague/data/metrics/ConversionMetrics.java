@@ -0,0 +1,254 @@
+package com.ikkileague.data.metrics;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToLongFunction;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Métriques d'une conversion : compteurs d'enregistrements, d'octets et
+ * d'erreurs, et latences par étape ({@link Stage}).
+ * <p>
+ * Conçues pour rester actives en production : les threads de conversion
+ * n'écrivent jamais directement ici mais dans leur {@link StageRecorder}, qui
+ * reporte ses compteurs par paquets dans des {@link LongAdder} et ne mesure les
+ * latences que sur un enregistrement sur {@link #SAMPLE_INTERVAL}. Aucun verrou
+ * n'est pris dans la boucle de conversion.
+ * <p>
+ * Pendant l'exécution, les métriques peuvent être publiées comme MBean
+ * ({@link #register(String)}) ; à la fin, {@link #toJson()} en produit un
+ * rapport lisible par machine.
+ */
+public final class ConversionMetrics implements ConversionMetricsMXBean {
+
+    /** Un enregistrement sur {@value} est chronométré ; doit être une puissance de deux. */
+    public static final int SAMPLE_INTERVAL = 64;
+
+    /** Domaine JMX sous lequel les métriques sont publiées. */
+    public static final String JMX_DOMAIN = "com.ikkileague.data";
+
+    private final LongAdder recordsRead = new LongAdder();
+    private final LongAdder bytesRead = new LongAdder();
+    private final LongAdder recordsWritten = new LongAdder();
+    private final LongAdder blankLines = new LongAdder();
+    private final LongAdder filteredLines = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final Map<Stage, LatencyHistogram> latencies = new EnumMap<>(Stage.class);
+    private final long startNanos = System.nanoTime();
+    private volatile long endNanos;
+
+    public ConversionMetrics() {
+        for (Stage stage : Stage.values()) {
+            latencies.put(stage, new LatencyHistogram());
+        }
+    }
+
+    /** Crée l'enregistreur d'un thread de conversion. */
+    public StageRecorder newRecorder() {
+        return new StageRecorder(this);
+    }
+
+    void add(long records, long bytes, long blank, long filtered, long written, long errorCount) {
+        // Les LongAdder sont striés : pas de contention entre threads qui reportent en même temps
+        if (records != 0) {
+            recordsRead.add(records);
+            bytesRead.add(bytes);
+        }
+        if (blank != 0) {
+            blankLines.add(blank);
+        }
+        if (filtered != 0) {
+            filteredLines.add(filtered);
+        }
+        if (written != 0) {
+            recordsWritten.add(written);
+        }
+        if (errorCount != 0) {
+            errors.add(errorCount);
+        }
+    }
+
+    /** Histogramme des latences d'une étape. */
+    public LatencyHistogram histogram(Stage stage) {
+        return latencies.get(stage);
+    }
+
+    /** Fige la durée de la conversion ; les débits sont ensuite calculés sur cette durée. */
+    public void complete() {
+        if (endNanos == 0) {
+            endNanos = System.nanoTime();
+        }
+    }
+
+    /**
+     * Publie ces métriques sur le serveur MBean de la plateforme.
+     *
+     * @param name Nom de la conversion, utilisé dans l'{@link ObjectName}.
+     * @return Le nom sous lequel le MBean a été enregistré, à passer à {@link #unregister(ObjectName)}.
+     */
+    public ObjectName register(String name) throws JMException {
+        ObjectName objectName = new ObjectName(JMX_DOMAIN + ":type=ConversionMetrics,name=" + ObjectName.quote(name));
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        if (server.isRegistered(objectName)) {
+            server.unregisterMBean(objectName);
+        }
+        server.registerMBean(this, objectName);
+        return objectName;
+    }
+
+    /** Retire un MBean publié par {@link #register(String)} ; sans effet s'il est absent. */
+    public static void unregister(ObjectName objectName) throws JMException {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        if (server.isRegistered(objectName)) {
+            server.unregisterMBean(objectName);
+        }
+    }
+
+    @Override
+    public long getRecordsRead() {
+        return recordsRead.sum();
+    }
+
+    @Override
+    public long getBytesRead() {
+        return bytesRead.sum();
+    }
+
+    @Override
+    public long getRecordsWritten() {
+        return recordsWritten.sum();
+    }
+
+    @Override
+    public long getBlankLines() {
+        return blankLines.sum();
+    }
+
+    @Override
+    public long getFilteredLines() {
+        return filteredLines.sum();
+    }
+
+    @Override
+    public long getErrors() {
+        return errors.sum();
+    }
+
+    @Override
+    public long getElapsedMillis() {
+        return elapsedNanos() / 1_000_000;
+    }
+
+    @Override
+    public double getRecordsPerSecond() {
+        return perSecond(getRecordsRead());
+    }
+
+    @Override
+    public double getBytesPerSecond() {
+        return perSecond(getBytesRead());
+    }
+
+    @Override
+    public Map<String, Long> getLatencySamples() {
+        return longsByStage(LatencyHistogram::getCount);
+    }
+
+    @Override
+    public Map<String, Double> getLatencyMeanNanos() {
+        return doublesByStage(LatencyHistogram::getMeanNanos);
+    }
+
+    @Override
+    public Map<String, Long> getLatencyP50Nanos() {
+        return longsByStage(histogram -> histogram.getPercentileNanos(50));
+    }
+
+    @Override
+    public Map<String, Long> getLatencyP99Nanos() {
+        return longsByStage(histogram -> histogram.getPercentileNanos(99));
+    }
+
+    @Override
+    public Map<String, Long> getLatencyMaxNanos() {
+        return longsByStage(LatencyHistogram::getMaxNanos);
+    }
+
+    /**
+     * Rapport JSON des métriques : compteurs, débits et, pour chaque étape,
+     * nombre d'échantillons, moyenne, p50, p90, p99 et maximum en nanosecondes.
+     */
+    public String toJson() {
+        StringBuilder json = new StringBuilder(1024);
+        json.append("{\n");
+        json.append("  \"elapsedMillis\": ").append(getElapsedMillis()).append(",\n");
+        json.append("  \"recordsRead\": ").append(getRecordsRead()).append(",\n");
+        json.append("  \"recordsWritten\": ").append(getRecordsWritten()).append(",\n");
+        json.append("  \"blankLines\": ").append(getBlankLines()).append(",\n");
+        json.append("  \"filteredLines\": ").append(getFilteredLines()).append(",\n");
+        json.append("  \"errors\": ").append(getErrors()).append(",\n");
+        json.append("  \"bytesRead\": ").append(getBytesRead()).append(",\n");
+        json.append("  \"recordsPerSecond\": ").append(decimal(getRecordsPerSecond())).append(",\n");
+        json.append("  \"bytesPerSecond\": ").append(decimal(getBytesPerSecond())).append(",\n");
+        json.append("  \"sampleInterval\": ").append(SAMPLE_INTERVAL).append(",\n");
+        json.append("  \"stages\": {");
+        String separator = "\n";
+        for (Stage stage : Stage.values()) {
+            LatencyHistogram histogram = latencies.get(stage);
+            json.append(separator).append("    \"").append(stage.name()).append("\": {")
+                    .append("\"samples\": ").append(histogram.getCount())
+                    .append(", \"meanNanos\": ").append(decimal(histogram.getMeanNanos()))
+                    .append(", \"p50Nanos\": ").append(histogram.getPercentileNanos(50))
+                    .append(", \"p90Nanos\": ").append(histogram.getPercentileNanos(90))
+                    .append(", \"p99Nanos\": ").append(histogram.getPercentileNanos(99))
+                    .append(", \"maxNanos\": ").append(histogram.getMaxNanos())
+                    .append('}');
+            separator = ",\n";
+        }
+        json.append("\n  }\n}\n");
+        return json.toString();
+    }
+
+    /** Écrit le rapport {@link #toJson()} dans un fichier (UTF-8). */
+    public void writeJson(Path reportPath) throws IOException {
+        Files.writeString(reportPath, toJson(), StandardCharsets.UTF_8);
+    }
+
+    private long elapsedNanos() {
+        long end = endNanos;
+        return (end != 0 ? end : System.nanoTime()) - startNanos;
+    }
+
+    private double perSecond(long count) {
+        long nanos = elapsedNanos();
+        return nanos <= 0 ? 0 : count / (nanos / 1e9);
+    }
+
+    private Map<String, Long> longsByStage(ToLongFunction<LatencyHistogram> value) {
+        Map<String, Long> values = new LinkedHashMap<>();
+        latencies.forEach((stage, histogram) -> values.put(stage.name(), value.applyAsLong(histogram)));
+        return values;
+    }
+
+    private Map<String, Double> doublesByStage(ToDoubleFunction<LatencyHistogram> value) {
+        Map<String, Double> values = new LinkedHashMap<>();
+        latencies.forEach((stage, histogram) -> values.put(stage.name(), value.applyAsDouble(histogram)));
+        return values;
+    }
+
+    private static String decimal(double value) {
+        return String.format(Locale.ROOT, "%.1f", value);
+    }
+}
@@ -0,0 +1,40 @@
+package com.ikkileague.data.metrics;
+
+import java.util.Map;
+
+/**
+ * Vue JMX des métriques d'une conversion en cours (voir {@link ConversionMetrics}).
+ * <p>
+ * Les latences sont indexées par nom d'étape ({@link Stage}) et exprimées en
+ * nanosecondes.
+ */
+public interface ConversionMetricsMXBean {
+
+    long getRecordsRead();
+
+    long getBytesRead();
+
+    long getRecordsWritten();
+
+    long getBlankLines();
+
+    long getFilteredLines();
+
+    long getErrors();
+
+    long getElapsedMillis();
+
+    double getRecordsPerSecond();
+
+    double getBytesPerSecond();
+
+    Map<String, Long> getLatencySamples();
+
+    Map<String, Double> getLatencyMeanNanos();
+
+    Map<String, Long> getLatencyP50Nanos();
+
+    Map<String, Long> getLatencyP99Nanos();
+
+    Map<String, Long> getLatencyMaxNanos();
+}
@@ -0,0 +1,40 @@
+package com.ikkileague.data.metrics;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Limite la journalisation des erreurs de conversion à
+ * {@link RecordTracer#ERRORS_PER_CLASS} occurrences par classe d'erreur.
+ * <p>
+ * Une instance vaut pour une seule conversion : dans le serveur résident ou
+ * en mode lot, chaque tâche ou fichier journalise ses propres premières
+ * erreurs, quelles que soient celles des conversions précédentes. Les
+ * compteurs sont partagés sans verrou par les threads d'une conversion.
+ */
+public final class ErrorLogLimit {
+
+    private static final Logger logger = LoggerFactory.getLogger(ErrorLogLimit.class);
+
+    private final ConcurrentMap<String, AtomicInteger> errorCounts = new ConcurrentHashMap<>();
+
+    /**
+     * Décide si une erreur de la classe donnée doit encore être journalisée.
+     * Au-delà de {@link RecordTracer#ERRORS_PER_CLASS} occurrences, les
+     * suivantes sont seulement comptées, et un avertissement unique le signale.
+     *
+     * @param errorClass Nature de l'erreur (longueur de ligne, type de colonne...).
+     */
+    public boolean allow(String errorClass) {
+        int count = errorCounts.computeIfAbsent(errorClass, key -> new AtomicInteger()).incrementAndGet();
+        if (count == RecordTracer.ERRORS_PER_CLASS + 1) {
+            logger.warn("Plus de {} erreurs de type {} : les suivantes ne sont plus journalisées.",
+                    RecordTracer.ERRORS_PER_CLASS, errorClass);
+        }
+        return count <= RecordTracer.ERRORS_PER_CLASS;
+    }
+}
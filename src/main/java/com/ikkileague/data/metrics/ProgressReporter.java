@@ -0,0 +1,164 @@
+package com.ikkileague.data.metrics;
+
+import java.io.PrintStream;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Affiche périodiquement l'avancement d'une conversion : octets consommés sur
+ * la taille totale, débit instantané et moyen, enregistrements par seconde et
+ * temps restant estimé.
+ * <p>
+ * Le rapport est produit par un thread d'échantillonnage dédié qui se contente
+ * de lire les compteurs de {@link ConversionMetrics} : la boucle de conversion
+ * n'incrémente que les compteurs locaux de son {@link StageRecorder}, déjà
+ * présents pour les métriques. Les compteurs étant reportés par paquets,
+ * l'avancement est mis à jour tous les {@link StageRecorder#FLUSH_INTERVAL}
+ * enregistrements par thread.
+ * <p>
+ * Les octets consommés sont estimés en ajoutant un octet de fin de ligne par
+ * enregistrement ; la taille totale peut être inconnue (entrée standard), auquel
+ * cas ni pourcentage ni temps restant ne sont affichés.
+ */
+public final class ProgressReporter implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProgressReporter.class);
+
+    private static final double MIB = 1024.0 * 1024.0;
+
+    /** Forme des rapports d'avancement. */
+    public enum Style {
+        /** Une seule ligne réécrite sur place (retour chariot), pour un terminal. */
+        TTY,
+        /** Une ligne de journal par rapport. */
+        LOG;
+
+        /** {@link #TTY} si la JVM est attachée à un terminal, {@link #LOG} sinon. */
+        public static Style detect() {
+            return System.console() != null ? TTY : LOG;
+        }
+    }
+
+    private final ConversionMetrics metrics;
+    private final long totalBytes;
+    private final Style style;
+    private final PrintStream terminal;
+    private final long startNanos;
+    private final ScheduledExecutorService sampler;
+
+    // Dernier échantillon, pour le débit instantané ; lus et écrits par le seul thread d'échantillonnage
+    private long lastNanos;
+    private long lastBytes;
+    private long lastRecords;
+    private volatile boolean printed;
+
+    /**
+     * Démarre le thread d'échantillonnage.
+     *
+     * @param totalBytes Taille de l'entrée en octets, ou une valeur négative si elle est inconnue.
+     * @param interval   Intervalle entre deux rapports.
+     */
+    public ProgressReporter(ConversionMetrics metrics, long totalBytes, Duration interval, Style style) {
+        this(metrics, totalBytes, interval, style, System.err);
+    }
+
+    ProgressReporter(ConversionMetrics metrics, long totalBytes, Duration interval, Style style,
+            PrintStream terminal) {
+        this.metrics = metrics;
+        this.totalBytes = totalBytes;
+        this.style = style;
+        this.terminal = terminal;
+        this.startNanos = System.nanoTime();
+        this.lastNanos = startNanos;
+        this.lastBytes = consumedBytes();
+        this.lastRecords = metrics.getRecordsRead();
+        this.sampler = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "fixed2csv-progress");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long period = Math.max(1, interval.toMillis());
+        sampler.scheduleAtFixedRate(this::report, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    private void report() {
+        String line = sample(System.nanoTime());
+        if (style == Style.TTY) {
+            terminal.print('\r' + line);
+            terminal.flush();
+            printed = true;
+        } else {
+            logger.info("Progress: {}", line);
+        }
+    }
+
+    /** Construit le rapport d'avancement à l'instant {@code nowNanos} et mémorise l'échantillon. */
+    String sample(long nowNanos) {
+        long bytes = consumedBytes();
+        long records = metrics.getRecordsRead();
+        double elapsedSeconds = Math.max(1e-9, (nowNanos - startNanos) / 1e9);
+        double intervalSeconds = Math.max(1e-9, (nowNanos - lastNanos) / 1e9);
+        double currentRate = (bytes - lastBytes) / intervalSeconds;
+        double averageRate = bytes / elapsedSeconds;
+        double recordsPerSecond = (records - lastRecords) / intervalSeconds;
+        lastNanos = nowNanos;
+        lastBytes = bytes;
+        lastRecords = records;
+
+        StringBuilder line = new StringBuilder(128);
+        if (totalBytes >= 0) {
+            line.append(String.format(Locale.ROOT, "%5.1f%% %s / %s", percent(bytes), size(bytes), size(totalBytes)));
+        } else {
+            line.append(size(bytes));
+        }
+        line.append(String.format(Locale.ROOT, " | %.1f MiB/s now, %.1f MiB/s avg | %,.0f records/s | ETA %s",
+                currentRate / MIB, averageRate / MIB, recordsPerSecond, eta(bytes, averageRate)));
+        return line.toString();
+    }
+
+    // Octets des enregistrements plus un octet de fin de ligne chacun, bornés par la taille connue
+    private long consumedBytes() {
+        long bytes = metrics.getBytesRead() + metrics.getRecordsRead();
+        return totalBytes >= 0 ? Math.min(bytes, totalBytes) : bytes;
+    }
+
+    private double percent(long bytes) {
+        return totalBytes == 0 ? 100 : 100.0 * bytes / totalBytes;
+    }
+
+    private String eta(long bytes, double averageRate) {
+        if (totalBytes < 0 || averageRate <= 0) {
+            return "--:--:--";
+        }
+        long seconds = (long) Math.ceil((totalBytes - bytes) / averageRate);
+        return String.format(Locale.ROOT, "%02d:%02d:%02d", seconds / 3600, seconds / 60 % 60, seconds % 60);
+    }
+
+    private static String size(long bytes) {
+        if (bytes >= 1024L * 1024 * 1024) {
+            return String.format(Locale.ROOT, "%.2f GiB", bytes / (MIB * 1024));
+        }
+        return String.format(Locale.ROOT, "%.1f MiB", bytes / MIB);
+    }
+
+    /** Arrête l'échantillonnage ; sur un terminal, affiche le dernier état et termine la ligne. */
+    @Override
+    public void close() {
+        sampler.shutdownNow();
+        try {
+            sampler.awaitTermination(1, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (printed) {
+            // Dernier état, puis fin de la ligne réécrite
+            terminal.println('\r' + sample(System.nanoTime()));
+        }
+    }
+}
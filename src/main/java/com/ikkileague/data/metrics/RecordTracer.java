@@ -0,0 +1,54 @@
+package com.ikkileague.data.metrics;
+
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Traces par enregistrement, échantillonnées pour ne rien coûter lorsqu'elles
+ * sont désactivées.
+ * <p>
+ * Les boucles de conversion ne journalisent jamais un enregistrement sur deux :
+ * elles lisent {@link #isEnabled()} une fois, à leur création, puis ne tracent
+ * qu'un enregistrement sur {@link #SAMPLE_INTERVAL} ({@link #isSampled(long)}).
+ * Désactivé, le coût se réduit au test d'un booléen local, sans formatage
+ * d'arguments ni boxing. Les traces passent par le logger
+ * {@value #TRACE_LOGGER}, désactivé par défaut et relié à un appender
+ * asynchrone dans {@code logback.xml}.
+ * <p>
+ * Les erreurs de conversion sont journalisées au plus
+ * {@link #ERRORS_PER_CLASS} fois par classe d'erreur et par conversion (voir
+ * {@link ErrorLogLimit}).
+ */
+public final class RecordTracer {
+
+    /** Nom du logger des traces d'enregistrements (niveau DEBUG pour les activer). */
+    public static final String TRACE_LOGGER = "com.ikkileague.data.trace";
+
+    /** Un enregistrement sur {@value} est tracé (propriété {@code fixed2csv.trace.every}). */
+    public static final long SAMPLE_INTERVAL = Math.max(1, Long.getLong("fixed2csv.trace.every", 10_000));
+
+    /** Nombre d'erreurs journalisées par classe d'erreur (propriété {@code fixed2csv.trace.errors-per-class}). */
+    public static final int ERRORS_PER_CLASS = Integer.getInteger("fixed2csv.trace.errors-per-class", 20);
+
+    private static final Logger tracer = LoggerFactory.getLogger(TRACE_LOGGER);
+
+    private RecordTracer() {
+    }
+
+    /** Indique si les traces d'enregistrements sont actives ; à lire une fois par boucle. */
+    public static boolean isEnabled() {
+        return tracer.isDebugEnabled();
+    }
+
+    /** Indique si l'enregistrement de ce numéro de ligne fait partie de l'échantillon. */
+    public static boolean isSampled(long lineNumber) {
+        return lineNumber % SAMPLE_INTERVAL == 0;
+    }
+
+    /** Trace une ligne échantillonnée et ses valeurs formatées. */
+    public static void traceRecord(long lineNumber, CharSequence fixedLine, List<? extends CharSequence> fields) {
+        tracer.debug("Ligne {} : '{}' -> {}", lineNumber, fixedLine, fields);
+    }
+}
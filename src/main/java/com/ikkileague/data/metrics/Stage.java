@@ -0,0 +1,31 @@
+package com.ikkileague.data.metrics;
+
+import com.ikkileague.data.model.ColumnType;
+
+/**
+ * Étapes de la conversion dont la latence est mesurée.
+ * <p>
+ * En mode séquentiel, {@link #READ} et {@link #WRITE} portent sur un
+ * enregistrement ; en modes parallèle et pipeline, ils portent sur un bloc ou
+ * un lot d'enregistrements.
+ */
+public enum Stage {
+    READ,
+    PARSE,
+    FORMAT_STRING,
+    FORMAT_DATE,
+    FORMAT_NUMERIC,
+    WRITE;
+
+    /** Étape de formatage correspondant à un type de colonne. */
+    public static Stage format(ColumnType type) {
+        switch (type) {
+        case DATE:
+            return FORMAT_DATE;
+        case NUMERIC:
+            return FORMAT_NUMERIC;
+        default:
+            return FORMAT_STRING;
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.ikkileague.data.metrics;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Enregistreur de métriques propre à un thread de conversion.
+ * <p>
+ * Les compteurs sont de simples champs {@code long}, reportés dans les
+ * compteurs partagés de {@link ConversionMetrics} tous les
+ * {@link #FLUSH_INTERVAL} enregistrements et à la fin ({@link #flush()}). Les
+ * latences ne sont mesurées que sur un enregistrement sur
+ * {@link ConversionMetrics#SAMPLE_INTERVAL} : pour les autres,
+ * {@link #stageStart()} renvoie 0 et {@link #endStage(Stage, long)} ne fait
+ * rien, sans appel à {@link System#nanoTime()}.
+ * <p>
+ * Une instance n'est pas thread-safe ; chaque thread crée la sienne via
+ * {@link ConversionMetrics#newRecorder()}.
+ */
+public final class StageRecorder {
+
+    /** Nombre d'enregistrements entre deux reports vers les compteurs partagés. */
+    static final int FLUSH_INTERVAL = 1024;
+
+    private final ConversionMetrics metrics;
+    private long sequence;
+    private boolean sampling;
+
+    private long records;
+    private long bytes;
+    private long blankLines;
+    private long filtered;
+    private long written;
+    private long errors;
+
+    StageRecorder(ConversionMetrics metrics) {
+        this.metrics = metrics;
+        // Départ aléatoire : les enregistreurs de courte durée (un par bloc) sont aussi échantillonnés
+        this.sequence = ThreadLocalRandom.current().nextInt(ConversionMetrics.SAMPLE_INTERVAL);
+    }
+
+    /**
+     * Début de lecture de l'enregistrement suivant.
+     *
+     * @return L'instant de départ si cet enregistrement sera échantillonné, 0 sinon.
+     */
+    public long readStart() {
+        return ((sequence + 1) & (ConversionMetrics.SAMPLE_INTERVAL - 1)) == 0 ? System.nanoTime() : 0;
+    }
+
+    /**
+     * Comptabilise un enregistrement lu et décide s'il est échantillonné.
+     *
+     * @param length    Taille de l'enregistrement, en octets.
+     * @param readStart Valeur renvoyée par {@link #readStart()}, ou 0.
+     */
+    public void startRecord(int length, long readStart) {
+        sequence++;
+        sampling = (sequence & (ConversionMetrics.SAMPLE_INTERVAL - 1)) == 0;
+        records++;
+        bytes += length;
+        if (readStart != 0) {
+            metrics.histogram(Stage.READ).record(System.nanoTime() - readStart);
+        }
+        if (records == FLUSH_INTERVAL) {
+            flush();
+        }
+    }
+
+    /** Indique si l'enregistrement en cours est échantillonné. */
+    public boolean isSampling() {
+        return sampling;
+    }
+
+    /** Instant de départ d'une étape si l'enregistrement est échantillonné, 0 sinon. */
+    public long stageStart() {
+        return sampling ? System.nanoTime() : 0;
+    }
+
+    /** Termine une étape commencée par {@link #stageStart()}. */
+    public void endStage(Stage stage, long start) {
+        if (start != 0) {
+            metrics.histogram(stage).record(System.nanoTime() - start);
+        }
+    }
+
+    /** Enregistre directement une latence (mesure par bloc ou par lot). */
+    public void recordLatency(Stage stage, long nanos) {
+        metrics.histogram(stage).record(nanos);
+    }
+
+    public void recordBlankLine() {
+        blankLines++;
+    }
+
+    /** Ligne écartée par le filtre de la conversion, sans être formatée. */
+    public void recordFiltered() {
+        filtered++;
+    }
+
+    public void recordWritten(long records) {
+        written += records;
+    }
+
+    public void recordError() {
+        errors++;
+    }
+
+    /** Reporte les compteurs locaux dans les compteurs partagés. */
+    public void flush() {
+        metrics.add(records, bytes, blankLines, filtered, written, errors);
+        records = 0;
+        bytes = 0;
+        blankLines = 0;
+        filtered = 0;
+        written = 0;
+        errors = 0;
+    }
+}
@@ -0,0 +1,198 @@
+package com.ikkileague.data.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.ikkileague.data.exception.ConversionException;
+import com.ikkileague.data.formatter.DataFormatter;
+import com.ikkileague.data.formatter.FieldFormatter;
+
+/**
+ * Structure d'enregistrement compilée à partir des métadonnées.
+ * <p>
+ * Tout ce qui ne dépend pas de la ligne traitée est calculé une seule fois :
+ * positions et longueurs des colonnes (tableaux primitifs), longueur totale,
+ * en-têtes CSV, stratégie de formatage liée à chaque colonne et index des
+ * colonnes regroupées par type. La boucle de conversion n'a ainsi ni liste à
+ * parcourir ni aiguillage sur le type à faire, y compris pour des structures de
+ * plusieurs milliers de colonnes.
+ * <p>
+ * Les instances sont immuables et peuvent être partagées entre threads.
+ */
+public final class RecordLayout {
+
+    private final List<ColumnDefinition> columnDefinitions;
+    private final List<String> headers;
+    private final String[] names;
+    private final int[] offsets;
+    private final int[] lengths;
+    private final ColumnType[] types;
+    private final FieldFormatter[] formatters;
+    private final int totalLength;
+    private final int[][] columnsByType;
+    private final Map<String, Integer> indexByName;
+
+    private RecordLayout(List<ColumnDefinition> columnDefinitions, FieldFormatter[] formatters) {
+        this(columnDefinitions, formatters, null, -1);
+    }
+
+    /*
+     * Positions explicites (projection) : la colonne i commence à offsets[i] et
+     * la ligne complète mesure totalLength. Sans positions, les colonnes se
+     * suivent dans l'ordre des définitions.
+     */
+    private RecordLayout(List<ColumnDefinition> columnDefinitions, FieldFormatter[] formatters, int[] offsets,
+            int totalLength) {
+        int columnCount = columnDefinitions.size();
+        this.columnDefinitions = Collections.unmodifiableList(new ArrayList<>(columnDefinitions));
+        this.names = new String[columnCount];
+        this.offsets = new int[columnCount];
+        this.lengths = new int[columnCount];
+        this.types = new ColumnType[columnCount];
+        this.formatters = formatters;
+        this.indexByName = new HashMap<>(columnCount * 2);
+
+        int position = 0;
+        int[] typeCounts = new int[ColumnType.values().length];
+        for (int i = 0; i < columnCount; i++) {
+            ColumnDefinition definition = columnDefinitions.get(i);
+            names[i] = definition.getName();
+            this.offsets[i] = offsets != null ? offsets[i] : position;
+            lengths[i] = definition.getLength();
+            types[i] = definition.getType();
+            typeCounts[types[i].ordinal()]++;
+            indexByName.putIfAbsent(names[i], i);
+            position += lengths[i];
+        }
+        this.totalLength = offsets != null ? totalLength : position;
+        this.headers = Collections.unmodifiableList(Arrays.asList(names.clone()));
+
+        this.columnsByType = new int[typeCounts.length][];
+        for (ColumnType type : ColumnType.values()) {
+            columnsByType[type.ordinal()] = new int[typeCounts[type.ordinal()]];
+        }
+        int[] filled = new int[typeCounts.length];
+        for (int i = 0; i < columnCount; i++) {
+            int type = types[i].ordinal();
+            columnsByType[type][filled[type]++] = i;
+        }
+    }
+
+    /**
+     * Compile une structure d'enregistrement en liant chaque colonne à la
+     * stratégie de formatage de son type.
+     *
+     * @throws ConversionException si un type de colonne n'est pas pris en charge.
+     */
+    public static RecordLayout compile(List<ColumnDefinition> columnDefinitions, DataFormatter dataFormatter)
+            throws ConversionException {
+        FieldFormatter[] formatters = new FieldFormatter[columnDefinitions.size()];
+        for (int i = 0; i < formatters.length; i++) {
+            formatters[i] = dataFormatter.forType(columnDefinitions.get(i).getType());
+        }
+        return new RecordLayout(columnDefinitions, formatters);
+    }
+
+    /**
+     * Projection de la structure sur quelques colonnes, dans l'ordre demandé.
+     * <p>
+     * Les colonnes retenues gardent leur position dans la ligne et la longueur
+     * attendue reste celle de la ligne complète : la projection s'applique aux
+     * mêmes données, mais les colonnes écartées ne sont ni découpées ni
+     * formatées.
+     *
+     * @throws ConversionException si un nom ne désigne aucune colonne ou figure
+     *                             deux fois.
+     */
+    public RecordLayout select(List<String> columnNames) throws ConversionException {
+        if (columnNames.isEmpty()) {
+            throw new ConversionException("La projection doit retenir au moins une colonne.");
+        }
+        List<ColumnDefinition> selected = new ArrayList<>(columnNames.size());
+        FieldFormatter[] selectedFormatters = new FieldFormatter[columnNames.size()];
+        int[] selectedOffsets = new int[columnNames.size()];
+        boolean[] seen = new boolean[names.length];
+        for (int i = 0; i < columnNames.size(); i++) {
+            String name = columnNames.get(i);
+            int column = indexOf(name);
+            if (column < 0) {
+                throw new ConversionException("Colonne inconnue dans la projection : '" + name + "'. Colonnes "
+                        + "disponibles : " + headers);
+            }
+            if (seen[column]) {
+                throw new ConversionException("Colonne présente deux fois dans la projection : '" + name + "'.");
+            }
+            seen[column] = true;
+            selected.add(columnDefinitions.get(column));
+            selectedFormatters[i] = formatters[column];
+            selectedOffsets[i] = offsets[column];
+        }
+        return new RecordLayout(selected, selectedFormatters, selectedOffsets, totalLength);
+    }
+
+    public int columnCount() {
+        return names.length;
+    }
+
+    /**
+     * Longueur de ligne attendue : somme des longueurs de colonnes, ou pour une
+     * projection ({@link #select(List)}), longueur de la ligne complète.
+     */
+    public int getTotalLength() {
+        return totalLength;
+    }
+
+    public String getName(int column) {
+        return names[column];
+    }
+
+    /** Position (en caractères) du premier caractère de la colonne dans la ligne. */
+    public int getOffset(int column) {
+        return offsets[column];
+    }
+
+    public int getLength(int column) {
+        return lengths[column];
+    }
+
+    public ColumnType getType(int column) {
+        return types[column];
+    }
+
+    public FieldFormatter getFormatter(int column) {
+        return formatters[column];
+    }
+
+    /** Index des colonnes d'un type donné, dans l'ordre des colonnes. */
+    public int[] columnsOfType(ColumnType type) {
+        return columnsByType[type.ordinal()].clone();
+    }
+
+    /**
+     * Index de la première colonne portant ce nom.
+     *
+     * @return L'index de la colonne, ou -1 si aucune colonne ne porte ce nom.
+     */
+    public int indexOf(String name) {
+        Integer index = indexByName.get(name);
+        return index == null ? -1 : index;
+    }
+
+    /** Noms des colonnes, dans l'ordre, pour l'en-tête CSV. */
+    public List<String> getHeaders() {
+        return headers;
+    }
+
+    public List<ColumnDefinition> getColumnDefinitions() {
+        return columnDefinitions;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("RecordLayout{columns=%d, totalLength=%d}", names.length, totalLength);
+    }
+}
@@ -0,0 +1,201 @@
+package com.ikkileague.data.model;
+
+import java.util.Arrays;
+import java.util.List;
+
+import com.ikkileague.data.exception.ConversionException;
+
+/**
+ * Structures d'un fichier qui mêle plusieurs types d'enregistrement (en-tête,
+ * détail, fin de fichier...), le type de chaque ligne étant donné par un code
+ * à position fixe : le discriminant.
+ * <p>
+ * Le type d'une ligne se retrouve sans table de hachage ni allocation : les
+ * codes, triés, sont regroupés par premier caractère, et un tableau indexé par
+ * ce caractère donne les seuls codes à comparer, le plus souvent un seul.
+ * <p>
+ * Un fichier décrit par une seule structure, sans discriminant, est un fichier
+ * à un seul type (voir {@link #single(RecordLayout)}).
+ * <p>
+ * Les instances sont immuables et peuvent être partagées entre threads.
+ */
+public final class RecordTypes {
+
+    // Les codes sont limités à ISO-8859-1 : un caractère au-delà désigne un type inconnu
+    private static final int FIRST_CHAR_RANGE = 256;
+
+    private final int offset;
+    private final int length;
+    private final String[] codes;
+    private final String[] names;
+    private final RecordLayout[] layouts;
+    // Codes triés, et type de chacun ; firstCodes[c] .. firstCodes[c + 1] : codes commençant par c
+    private final char[][] sortedCodes;
+    private final int[] sortedTypes;
+    private final int[] firstCodes;
+
+    private RecordTypes(int offset, int length, String[] codes, String[] names, RecordLayout[] layouts) {
+        this.offset = offset;
+        this.length = length;
+        this.codes = codes;
+        this.names = names;
+        this.layouts = layouts;
+
+        Integer[] order = new Integer[codes.length];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> codes[a].compareTo(codes[b]));
+        this.sortedCodes = new char[codes.length][];
+        this.sortedTypes = new int[codes.length];
+        this.firstCodes = new int[FIRST_CHAR_RANGE + 1];
+        for (int i = 0; i < order.length; i++) {
+            sortedCodes[i] = codes[order[i]].toCharArray();
+            sortedTypes[i] = order[i];
+            if (length > 0) {
+                firstCodes[sortedCodes[i][0] + 1]++;
+            }
+        }
+        for (int c = 0; c < FIRST_CHAR_RANGE; c++) {
+            firstCodes[c + 1] += firstCodes[c];
+        }
+    }
+
+    /** Fichier à une seule structure : toutes les lignes sont du type 0. */
+    public static RecordTypes single(RecordLayout layout) {
+        return new RecordTypes(0, 0, new String[] { "" }, new String[] { "" }, new RecordLayout[] { layout });
+    }
+
+    /**
+     * Compile les types d'un fichier discriminé.
+     *
+     * @param offset  Position du code dans la ligne, à partir de 0.
+     * @param length  Longueur du code.
+     * @param codes   Code de chaque type, de {@code length} caractères.
+     * @param names   Nom de chaque type, repris dans le nom de son fichier de sortie.
+     * @param layouts Structure de chaque type.
+     * @throws ConversionException si un code n'a pas la longueur du discriminant,
+     *                             ou si un code ou un nom figure deux fois.
+     */
+    public static RecordTypes compile(int offset, int length, List<String> codes, List<String> names,
+            List<RecordLayout> layouts) throws ConversionException {
+        if (offset < 0 || length <= 0) {
+            throw new ConversionException(String.format(
+                    "Discriminant invalide : position %d, longueur %d.", offset + 1, length));
+        }
+        if (codes.isEmpty()) {
+            throw new ConversionException("Au moins un type d'enregistrement est requis avec un discriminant.");
+        }
+        for (int i = 0; i < codes.size(); i++) {
+            String code = codes.get(i);
+            if (code.length() != length) {
+                throw new ConversionException(String.format(
+                        "Le code de type '%s' doit compter %d caractère(s), la longueur du discriminant.", code,
+                        length));
+            }
+            for (int c = 0; c < code.length(); c++) {
+                if (code.charAt(c) >= FIRST_CHAR_RANGE) {
+                    throw new ConversionException("Le code de type '" + code
+                            + "' contient un caractère hors ISO-8859-1.");
+                }
+            }
+            if (codes.subList(0, i).contains(code)) {
+                throw new ConversionException("Le code de type '" + code + "' est déclaré deux fois.");
+            }
+            if (names.subList(0, i).contains(names.get(i))) {
+                throw new ConversionException("Le nom de type '" + names.get(i) + "' est déclaré deux fois.");
+            }
+            if (layouts.get(i).getTotalLength() < offset + length) {
+                throw new ConversionException(String.format(
+                        "Le type '%s' mesure %d caractères : il ne contient pas le discriminant (position %d, "
+                                + "longueur %d).", names.get(i), layouts.get(i).getTotalLength(), offset + 1,
+                        length));
+            }
+        }
+        return new RecordTypes(offset, length, codes.toArray(new String[0]), names.toArray(new String[0]),
+                layouts.toArray(new RecordLayout[0]));
+    }
+
+    /**
+     * Type d'une ligne, d'après son discriminant.
+     *
+     * @return L'index du type, ou -1 si le code ne correspond à aucun type ou
+     *         si la ligne est trop courte pour le contenir.
+     */
+    public int typeOf(CharSequence line) {
+        if (length == 0) {
+            return 0;
+        }
+        if (line.length() < offset + length) {
+            return -1;
+        }
+        char first = line.charAt(offset);
+        if (first >= FIRST_CHAR_RANGE) {
+            return -1;
+        }
+        candidates:
+        for (int i = firstCodes[first]; i < firstCodes[first + 1]; i++) {
+            char[] code = sortedCodes[i];
+            for (int c = 1; c < code.length; c++) {
+                if (line.charAt(offset + c) != code[c]) {
+                    continue candidates;
+                }
+            }
+            return sortedTypes[i];
+        }
+        return -1;
+    }
+
+    /** Indique un fichier à plusieurs types, discriminés par un code. */
+    public boolean isDiscriminated() {
+        return length > 0;
+    }
+
+    /** Position du discriminant dans la ligne, à partir de 0. */
+    public int getOffset() {
+        return offset;
+    }
+
+    public int getLength() {
+        return length;
+    }
+
+    public int typeCount() {
+        return layouts.length;
+    }
+
+    public String getCode(int type) {
+        return codes[type];
+    }
+
+    public String getName(int type) {
+        return names[type];
+    }
+
+    public RecordLayout getLayout(int type) {
+        return layouts[type];
+    }
+
+    /** Noms des types, dans l'ordre de déclaration. */
+    public List<String> getNames() {
+        return List.of(names);
+    }
+
+    /** Codes des types, dans l'ordre de déclaration. */
+    public List<String> getCodes() {
+        return List.of(codes);
+    }
+
+    @Override
+    public String toString() {
+        if (!isDiscriminated()) {
+            return "RecordTypes{single}";
+        }
+        StringBuilder description = new StringBuilder("RecordTypes{position=").append(offset + 1)
+                .append(", length=").append(length);
+        for (int i = 0; i < codes.length; i++) {
+            description.append(", ").append(codes[i]).append('=').append(names[i]);
+        }
+        return description.append('}').toString();
+    }
+}
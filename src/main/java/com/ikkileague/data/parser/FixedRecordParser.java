@@ -3,16 +3,12 @@ package com.ikkileague.data.parser;
 import java.util.ArrayList;
 import java.util.List;
 
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
-
 import com.ikkileague.data.exception.ConversionException;
+import com.ikkileague.data.exception.InvalidRecordException;
 import com.ikkileague.data.model.ColumnDefinition;
 
 public class FixedRecordParser {
 
-    private static final Logger logger = LoggerFactory.getLogger(FixedRecordParser.class);
-
     /**
      * Analyse une ligne de données au format fixe en fonction des définitions de
      * colonnes.
@@ -27,43 +23,43 @@ public class FixedRecordParser {
      */
     public List<String> parseLine(String line, List<ColumnDefinition> columnDefinitions, long lineNumber)
             throws ConversionException {
+        // Méthode de commodité : s'appuie sur parseInto puis matérialise chaque champ
+        ParsedRecord record = new ParsedRecord(columnDefinitions);
+        parseInto(line, record, lineNumber);
 
-        List<String> fields = new ArrayList<>();
-        int currentPosition = 0;
-
-        // Calcule la longueur totale attendue de la ligne en fonction des définitions
-        int expectedTotalLength = columnDefinitions.stream().mapToInt(ColumnDefinition::getLength).sum();
-
-        logger.debug("parseLine line {} : {}", line.length(), line);
-        logger.debug("parseLine columnDefinitions {} : {}", columnDefinitions.size(), columnDefinitions.toArray());
+        List<String> fields = new ArrayList<>(record.fieldCount());
+        for (int i = 0; i < record.fieldCount(); i++) {
+            fields.add(record.field(i).toString());
+        }
+        return fields;
+    }
 
+    /**
+     * Découpe une ligne dans un enregistrement réutilisable fourni par
+     * l'appelant. La longueur de la ligne est comparée à la longueur totale
+     * précalculée par {@link ParsedRecord} ; les champs sont des vues sur la
+     * ligne. En régime établi, cette méthode n'alloue aucun objet.
+     * <p>
+     * Avec une {@link SingleByteCharSequence}, le découpage se fait directement
+     * sur les octets de l'enregistrement.
+     *
+     * @param line       La ligne à analyser
+     * @param record     L'enregistrement à remplir, construit à partir des
+     *                   définitions de colonnes
+     * @param lineNumber Le numéro de ligne dans le fichier (utile pour les
+     *                   erreurs)
+     * @throws ConversionException si la ligne ne correspond pas à la structure
+     *                             attendue
+     */
+    public void parseInto(CharSequence line, ParsedRecord record, long lineNumber) throws ConversionException {
         // Vérifie si la longueur de la ligne correspond bien à la somme des longueurs
         // des colonnes
-        if (line.length() != expectedTotalLength) {
-            String errorMessage = String.format(
-                    "Ligne %d : la longueur (%d) ne correspond pas à la longueur attendue (%d). Ligne : '%s'",
-                    lineNumber, line.length(), expectedTotalLength, line);
-            logger.error(errorMessage);
-            throw new ConversionException(errorMessage);
+        if (line.length() != record.getTotalLength()) {
+            String reason = String.format("la longueur (%d) ne correspond pas à la longueur attendue (%d)",
+                    line.length(), record.getTotalLength());
+            String errorMessage = String.format("Ligne %d : %s. Ligne : '%s'", lineNumber, reason, line);
+            throw new InvalidRecordException(errorMessage, lineNumber, null, reason, null);
         }
-
-        // Extraction de chaque champ selon sa position et longueur définies
-        for (int i = 0; i < columnDefinitions.size(); i++) {
-            ColumnDefinition definition = columnDefinitions.get(i);
-            int length = definition.getLength();
-
-            // Découpe le champ à partir de la position actuelle
-            String field = line.substring(currentPosition, currentPosition + length);
-            logger.debug("Champ extrait de longueur {} : {}", field.length(), field);
-
-            fields.add(field);
-            logger.trace("Ligne {} : champ extrait pour '{}' (longueur {}) à partir de '{}' -> '{}'",
-                    lineNumber, definition.getName(), length, field, field);
-
-            // Mise à jour de la position pour le champ suivant
-            currentPosition += length;
-        }
-
-        return fields;
+        record.setLine(line);
     }
 }
@@ -15,22 +15,94 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.ikkileague.data.exception.ConversionException;
+import com.ikkileague.data.formatter.DataFormatter;
 import com.ikkileague.data.model.ColumnDefinition;
 import com.ikkileague.data.model.ColumnType;
+import com.ikkileague.data.model.RecordLayout;
+import com.ikkileague.data.model.RecordTypes;
 
+/**
+ * Lit le fichier de métadonnées : une ligne {@code nom,longueur,type} par
+ * colonne, dans l'ordre de la ligne fixe.
+ * <p>
+ * Un fichier qui mêle plusieurs types d'enregistrement déclare d'abord la
+ * position (à partir de 1) et la longueur du code de type, puis chaque type et
+ * ses colonnes :
+ *
+ * <pre>
+ * &#64;discriminant,1,1
+ * &#64;type,H,entete
+ * TypeEnreg,1,chaîne
+ * DateFichier,10,date
+ * &#64;type,D,detail
+ * TypeEnreg,1,chaîne
+ * ID,10,numérique
+ * </pre>
+ *
+ * Le code est pris tel quel, blancs compris ; le nom, facultatif (le code par
+ * défaut), désigne le fichier de sortie du type. Voir {@link RecordTypes}.
+ */
 public class MetadataParser {
     private static final CSVFormat CSV_FORMAT = CSVFormat.DEFAULT; // Format CSV par défaut (RFC 4180)
     private static final Logger logger = LoggerFactory.getLogger(MetadataParser.class);
 
+    private static final String DISCRIMINATOR_DIRECTIVE = "@discriminant";
+    private static final String TYPE_DIRECTIVE = "@type";
+
     /**
      * Analyse le fichier de métadonnées et retourne une liste d'objets ColumnDefinition.
      *
      * @param metadataFilePath Le chemin du fichier CSV de métadonnées.
      * @return Une liste d'objets ColumnDefinition.
-     * @throws ConversionException En cas d'erreur de lecture ou de format incorrect.
+     * @throws ConversionException En cas d'erreur de lecture ou de format incorrect,
+     *                             ou si le fichier décrit plusieurs types d'enregistrement.
      */
     public List<ColumnDefinition> parse(Path metadataFilePath) throws ConversionException {
-        List<ColumnDefinition> definitions = new ArrayList<>();
+        Sections sections = read(metadataFilePath);
+        if (sections.discriminated()) {
+            throw new ConversionException("Le fichier de métadonnées décrit plusieurs types d'enregistrement ("
+                    + DISCRIMINATOR_DIRECTIVE + ") : " + metadataFilePath);
+        }
+        return sections.definitions.get(0);
+    }
+
+    /**
+     * Analyse le fichier de métadonnées et compile la structure d'enregistrement
+     * correspondante (positions, longueurs et formateur de chaque colonne).
+     *
+     * @param metadataFilePath Le chemin du fichier CSV de métadonnées.
+     * @param dataFormatter    Le formateur fournissant la stratégie de chaque type.
+     * @return La structure d'enregistrement compilée, immuable.
+     * @throws ConversionException En cas d'erreur de lecture ou de format incorrect.
+     */
+    public RecordLayout parseLayout(Path metadataFilePath, DataFormatter dataFormatter) throws ConversionException {
+        return RecordLayout.compile(parse(metadataFilePath), dataFormatter);
+    }
+
+    /**
+     * Analyse un fichier de métadonnées à une ou plusieurs structures et compile
+     * chacune d'elles. Sans directive {@code @discriminant}, le résultat compte
+     * un seul type ({@link RecordTypes#single(RecordLayout)}).
+     *
+     * @throws ConversionException En cas d'erreur de lecture ou de format incorrect.
+     */
+    public RecordTypes parseRecordTypes(Path metadataFilePath, DataFormatter dataFormatter)
+            throws ConversionException {
+        Sections sections = read(metadataFilePath);
+        List<RecordLayout> layouts = new ArrayList<>(sections.definitions.size());
+        for (List<ColumnDefinition> definitions : sections.definitions) {
+            layouts.add(RecordLayout.compile(definitions, dataFormatter));
+        }
+        if (!sections.discriminated()) {
+            return RecordTypes.single(layouts.get(0));
+        }
+        return RecordTypes.compile(sections.discriminatorOffset, sections.discriminatorLength, sections.codes,
+                sections.names, layouts);
+    }
+
+    // Lit les directives et les colonnes de chaque structure déclarée
+    private Sections read(Path metadataFilePath) throws ConversionException {
+        Sections sections = new Sections();
 
         // Vérifie si le fichier existe et est bien un fichier standard
         if (metadataFilePath == null || !Files.exists(metadataFilePath) || !Files.isRegularFile(metadataFilePath)) {
@@ -43,29 +115,116 @@ public class MetadataParser {
              CSVParser csvParser = new CSVParser(reader, CSV_FORMAT)) {
 
             int lineNumber = 0;
+            List<ColumnDefinition> definitions = null;
             for (CSVRecord csvRecord : csvParser) {
                 lineNumber++;
                 // Ignore les lignes vides (Apache Commons CSV peut les retourner)
                 if (csvRecord.size() == 0) {
                     continue;
                 }
-                definitions.add(parseRecord(csvRecord, lineNumber));
+                String first = csvRecord.get(0).trim();
+                if (DISCRIMINATOR_DIRECTIVE.equalsIgnoreCase(first)) {
+                    if (sections.discriminated() || definitions != null) {
+                        throw directiveError("la directive " + DISCRIMINATOR_DIRECTIVE
+                                + " doit figurer une seule fois, avant les colonnes", csvRecord, lineNumber);
+                    }
+                    parseDiscriminator(csvRecord, lineNumber, sections);
+                } else if (TYPE_DIRECTIVE.equalsIgnoreCase(first)) {
+                    if (!sections.discriminated()) {
+                        throw directiveError("la directive " + TYPE_DIRECTIVE + " exige une directive "
+                                + DISCRIMINATOR_DIRECTIVE + " préalable", csvRecord, lineNumber);
+                    }
+                    definitions = parseType(csvRecord, lineNumber, sections);
+                } else {
+                    if (definitions == null) {
+                        if (sections.discriminated()) {
+                            throw directiveError("colonne déclarée avant la première directive " + TYPE_DIRECTIVE,
+                                    csvRecord, lineNumber);
+                        }
+                        definitions = new ArrayList<>();
+                        sections.definitions.add(definitions);
+                    }
+                    definitions.add(parseRecord(csvRecord, lineNumber));
+                }
             }
 
-            // Vérifie que le fichier contient bien au moins une définition
-            if (definitions.isEmpty()) {
+            // Vérifie que le fichier contient bien au moins une définition, et chaque type au moins une colonne
+            if (sections.definitions.isEmpty()) {
                 String errorMessage = "Le fichier de métadonnées est vide ou ne contient aucune définition valide : "
                         + metadataFilePath;
                 logger.error(errorMessage);
                 throw new ConversionException(errorMessage);
             }
+            for (int i = 0; i < sections.definitions.size(); i++) {
+                if (sections.definitions.get(i).isEmpty()) {
+                    throw new ConversionException(String.format(
+                            "Le type d'enregistrement '%s' ne déclare aucune colonne : %s", sections.names.get(i),
+                            metadataFilePath));
+                }
+            }
 
         } catch (IOException e) {
             throw new ConversionException("Erreur lors de la lecture du fichier de métadonnées : " + metadataFilePath, e);
         }
+        return sections;
+    }
+
+    // @discriminant,position,longueur : position à partir de 1, comme dans les descriptions de fichiers
+    private static void parseDiscriminator(CSVRecord csvRecord, int lineNumber, Sections sections)
+            throws ConversionException {
+        if (csvRecord.size() != 3) {
+            throw directiveError("3 éléments attendus (" + DISCRIMINATOR_DIRECTIVE + ", position, longueur)",
+                    csvRecord, lineNumber);
+        }
+        try {
+            sections.discriminatorOffset = Integer.parseInt(csvRecord.get(1).trim()) - 1;
+            sections.discriminatorLength = Integer.parseInt(csvRecord.get(2).trim());
+        } catch (NumberFormatException e) {
+            throw directiveError("position et longueur doivent être des entiers", csvRecord, lineNumber);
+        }
+        if (sections.discriminatorOffset < 0 || sections.discriminatorLength <= 0) {
+            throw directiveError("position et longueur doivent être strictement positives", csvRecord, lineNumber);
+        }
+    }
+
+    // @type,code[,nom] : ouvre la liste de colonnes du type
+    private static List<ColumnDefinition> parseType(CSVRecord csvRecord, int lineNumber, Sections sections)
+            throws ConversionException {
+        if (csvRecord.size() < 2 || csvRecord.size() > 3) {
+            throw directiveError("2 ou 3 éléments attendus (" + TYPE_DIRECTIVE + ", code, nom)", csvRecord,
+                    lineNumber);
+        }
+        String code = csvRecord.get(1);
+        String name = csvRecord.size() == 3 ? csvRecord.get(2).trim() : code.trim();
+        if (name.isEmpty() || !name.codePoints().allMatch(c -> Character.isLetterOrDigit(c) || c == '_' || c == '-')) {
+            throw directiveError("le nom du type, repris dans le nom de son fichier de sortie, ne peut contenir que "
+                    + "des lettres, des chiffres, '_' et '-'", csvRecord, lineNumber);
+        }
+        List<ColumnDefinition> definitions = new ArrayList<>();
+        sections.codes.add(code);
+        sections.names.add(name);
+        sections.definitions.add(definitions);
         return definitions;
     }
 
+    private static ConversionException directiveError(String reason, CSVRecord csvRecord, int lineNumber) {
+        return new ConversionException(String.format("Directive invalide à la ligne %d : %s. Ligne : '%s'",
+                lineNumber, reason, csvRecord.toList()));
+    }
+
+    /** Contenu lu du fichier : une liste de colonnes par type, une seule sans discriminant. */
+    private static final class Sections {
+        private final List<List<ColumnDefinition>> definitions = new ArrayList<>();
+        private final List<String> codes = new ArrayList<>();
+        private final List<String> names = new ArrayList<>();
+        private int discriminatorOffset = -1;
+        private int discriminatorLength;
+
+        boolean discriminated() {
+            return discriminatorLength > 0;
+        }
+    }
+
     /**
      * Analyse une ligne du fichier CSV et crée une instance de ColumnDefinition.
      *
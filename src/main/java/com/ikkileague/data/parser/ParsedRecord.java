@@ -0,0 +1,118 @@
+package com.ikkileague.data.parser;
+
+import java.util.List;
+
+import com.ikkileague.data.model.ColumnDefinition;
+import com.ikkileague.data.model.RecordLayout;
+
+/**
+ * Enregistrement découpé, réutilisable d'une ligne à l'autre.
+ * <p>
+ * Les positions et longueurs des colonnes, ainsi que la longueur totale
+ * attendue, sont calculées une seule fois à la construction. Chaque champ est
+ * exposé sous forme d'une vue {@link CharSequence} (décalage + longueur dans la
+ * ligne courante) : remplir l'enregistrement avec
+ * {@link FixedRecordParser#parseInto(CharSequence, ParsedRecord, long)}
+ * n'alloue donc rien.
+ * <p>
+ * L'instance appartient à l'appelant et n'est pas thread-safe. Les vues
+ * renvoyées par {@link #field(int)} lisent toujours la ligne courante : leur
+ * contenu change au prochain appel de {@code parseInto}.
+ */
+public final class ParsedRecord {
+
+    private final int[] offsets;
+    private final int[] lengths;
+    private final int totalLength;
+    private final FieldView[] fields;
+
+    private CharSequence line = "";
+
+    public ParsedRecord(List<ColumnDefinition> columnDefinitions) {
+        int columnCount = columnDefinitions.size();
+        this.offsets = new int[columnCount];
+        this.lengths = new int[columnCount];
+        this.fields = new FieldView[columnCount];
+        int position = 0;
+        for (int i = 0; i < columnCount; i++) {
+            offsets[i] = position;
+            lengths[i] = columnDefinitions.get(i).getLength();
+            fields[i] = new FieldView(i);
+            position += lengths[i];
+        }
+        this.totalLength = position;
+    }
+
+    /** Crée un enregistrement à partir d'une structure déjà compilée. */
+    public ParsedRecord(RecordLayout layout) {
+        int columnCount = layout.columnCount();
+        this.offsets = new int[columnCount];
+        this.lengths = new int[columnCount];
+        this.fields = new FieldView[columnCount];
+        for (int i = 0; i < columnCount; i++) {
+            offsets[i] = layout.getOffset(i);
+            lengths[i] = layout.getLength(i);
+            fields[i] = new FieldView(i);
+        }
+        this.totalLength = layout.getTotalLength();
+    }
+
+    /** Longueur de ligne attendue : somme des longueurs de colonnes. */
+    public int getTotalLength() {
+        return totalLength;
+    }
+
+    public int fieldCount() {
+        return fields.length;
+    }
+
+    /** Vue sur le champ {@code index} de la ligne courante. */
+    public CharSequence field(int index) {
+        return fields[index];
+    }
+
+    /** La ligne actuellement référencée par l'enregistrement. */
+    public CharSequence line() {
+        return line;
+    }
+
+    void setLine(CharSequence line) {
+        this.line = line;
+    }
+
+    // Vue sur un champ : lit directement la ligne courante, sans copie
+    private final class FieldView implements CharSequence {
+        private final int column;
+
+        private FieldView(int column) {
+            this.column = column;
+        }
+
+        @Override
+        public int length() {
+            return lengths[column];
+        }
+
+        @Override
+        public char charAt(int index) {
+            if (index < 0 || index >= lengths[column]) {
+                throw new IndexOutOfBoundsException("index " + index + ", length " + lengths[column]);
+            }
+            return line.charAt(offsets[column] + index);
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            if (start < 0 || end > lengths[column] || start > end) {
+                throw new IndexOutOfBoundsException(
+                        "start " + start + ", end " + end + ", length " + lengths[column]);
+            }
+            return line.subSequence(offsets[column] + start, offsets[column] + end);
+        }
+
+        @Override
+        public String toString() {
+            return line.subSequence(offsets[column], offsets[column] + lengths[column]).toString();
+        }
+    }
+}
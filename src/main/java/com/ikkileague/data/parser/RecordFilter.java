@@ -0,0 +1,384 @@
+package com.ikkileague.data.parser;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.format.ResolverStyle;
+import java.util.List;
+
+import com.ikkileague.data.exception.ConversionException;
+import com.ikkileague.data.model.ColumnType;
+import com.ikkileague.data.model.RecordLayout;
+
+/**
+ * Filtre de lignes évalué sur les champs bruts, avant tout formatage.
+ * <p>
+ * Chaque condition porte sur une colonne : {@code COLONNE=valeur},
+ * {@code !=}, {@code <}, {@code <=}, {@code >}, {@code >=} ou {@code ^=}
+ * (préfixe). Une ligne est retenue si elle satisfait toutes les conditions ;
+ * un intervalle s'écrit donc avec deux conditions sur la même colonne.
+ * <p>
+ * Le champ est lu directement dans la ligne, à sa position dans la structure
+ * complète, et débarrassé de ses blancs de bourrage par indices : évaluer une
+ * condition n'alloue rien et ne fait aucun travail de formatage. La comparaison
+ * suit le type de la colonne :
+ * <ul>
+ * <li>chaîne : ordre des caractères ;</li>
+ * <li>numérique : valeur décimale, sans limite de chiffres ({@code 007} égale
+ * {@code 7.0}) ; un champ qui n'est pas un nombre ne satisfait que
+ * {@code !=} ;</li>
+ * <li>date : ordre chronologique de la forme AAAA-MM-JJ des données ; la valeur
+ * de la condition peut aussi s'écrire JJ/MM/AAAA, comme en sortie.</li>
+ * </ul>
+ * Le préfixe ({@code ^=}) s'applique au texte brut, quel que soit le type. Une
+ * valeur vide ({@code COLONNE=} ou {@code COLONNE!=}) teste si le champ est
+ * vide.
+ * <p>
+ * Les instances sont immuables et peuvent être partagées entre threads.
+ */
+public final class RecordFilter {
+
+    private static final RecordFilter ACCEPT_ALL = new RecordFilter(new Condition[0]);
+
+    private static final DateTimeFormatter OUTPUT_DATE_FORMAT = DateTimeFormatter.ofPattern("dd/MM/uuuu")
+            .withResolverStyle(ResolverStyle.STRICT);
+
+    private final Condition[] conditions;
+
+    private RecordFilter(Condition[] conditions) {
+        this.conditions = conditions;
+    }
+
+    /** Filtre qui retient toutes les lignes. */
+    public static RecordFilter acceptAll() {
+        return ACCEPT_ALL;
+    }
+
+    /**
+     * Compile des conditions sur les colonnes d'une structure complète.
+     *
+     * @param expressions Les conditions, toutes requises ; vide pour tout retenir.
+     * @throws ConversionException si une condition est mal formée, désigne une
+     *                             colonne inconnue ou compare à une valeur
+     *                             invalide pour le type de la colonne.
+     */
+    public static RecordFilter compile(List<String> expressions, RecordLayout layout) throws ConversionException {
+        if (expressions.isEmpty()) {
+            return ACCEPT_ALL;
+        }
+        Condition[] conditions = new Condition[expressions.size()];
+        for (int i = 0; i < conditions.length; i++) {
+            conditions[i] = compileCondition(expressions.get(i), layout);
+        }
+        return new RecordFilter(conditions);
+    }
+
+    /**
+     * Indique si la ligne satisfait toutes les conditions. La ligne doit avoir
+     * la longueur de la structure complète.
+     */
+    public boolean accepts(CharSequence line) {
+        for (Condition condition : conditions) {
+            if (!condition.test(line)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static Condition compileCondition(String expression, RecordLayout layout) throws ConversionException {
+        int operatorStart = 0;
+        while (operatorStart < expression.length() && "=!<>^".indexOf(expression.charAt(operatorStart)) < 0) {
+            operatorStart++;
+        }
+        Operator operator = Operator.at(expression, operatorStart);
+        if (operator == null) {
+            throw invalidCondition(expression, "opérateur attendu (=, !=, <, <=, >, >= ou ^=)");
+        }
+        String name = expression.substring(0, operatorStart).trim();
+        String value = expression.substring(operatorStart + operator.symbol.length()).trim();
+        int column = layout.indexOf(name);
+        if (column < 0) {
+            throw invalidCondition(expression, "colonne inconnue '" + name + "'");
+        }
+        int offset = layout.getOffset(column);
+        int length = layout.getLength(column);
+        if (value.isEmpty()) {
+            if (operator != Operator.EQ && operator != Operator.NE) {
+                throw invalidCondition(expression, "une valeur vide ne se compare qu'avec = ou !=");
+            }
+            return new BlankCondition(offset, length, operator == Operator.EQ);
+        }
+        if (operator == Operator.PREFIX) {
+            return new PrefixCondition(offset, length, value);
+        }
+        ColumnType type = layout.getType(column);
+        switch (type) {
+        case NUMERIC:
+            return new NumericCondition(offset, length, operator, parseNumber(expression, value));
+        case DATE:
+            return new TextCondition(offset, length, operator, parseDate(expression, value));
+        default:
+            return new TextCondition(offset, length, operator, value);
+        }
+    }
+
+    // Forme canonique de la valeur : pas de zéros non significatifs, ni de zéros décimaux de fin
+    private static BigDecimal parseNumber(String expression, String value) throws ConversionException {
+        try {
+            BigDecimal number = new BigDecimal(value);
+            return number.signum() == 0 ? BigDecimal.ZERO : number.stripTrailingZeros();
+        } catch (NumberFormatException e) {
+            throw invalidCondition(expression, "'" + value + "' n'est pas un nombre");
+        }
+    }
+
+    // Ramène la date à la forme AAAA-MM-JJ des données, dont l'ordre des caractères est chronologique
+    private static String parseDate(String expression, String value) throws ConversionException {
+        try {
+            if (value.indexOf('/') >= 0) {
+                return LocalDate.parse(value, OUTPUT_DATE_FORMAT).toString();
+            }
+            return LocalDate.parse(value).toString();
+        } catch (DateTimeParseException e) {
+            throw invalidCondition(expression, "'" + value + "' n'est pas une date AAAA-MM-JJ ou JJ/MM/AAAA");
+        }
+    }
+
+    private static ConversionException invalidCondition(String expression, String reason) {
+        return new ConversionException("Condition de filtre invalide '" + expression + "' : " + reason + ".");
+    }
+
+    private enum Operator {
+        PREFIX("^="), NE("!="), LE("<="), GE(">="), EQ("="), LT("<"), GT(">");
+
+        private final String symbol;
+
+        Operator(String symbol) {
+            this.symbol = symbol;
+        }
+
+        // Symboles de deux caractères d'abord, pour ne pas lire « <= » comme « < »
+        static Operator at(String expression, int position) {
+            for (Operator operator : values()) {
+                if (expression.startsWith(operator.symbol, position)) {
+                    return operator;
+                }
+            }
+            return null;
+        }
+
+        boolean matches(int comparison) {
+            switch (this) {
+            case EQ:
+                return comparison == 0;
+            case NE:
+                return comparison != 0;
+            case LT:
+                return comparison < 0;
+            case LE:
+                return comparison <= 0;
+            case GT:
+                return comparison > 0;
+            case GE:
+                return comparison >= 0;
+            default:
+                throw new IllegalStateException(name());
+            }
+        }
+    }
+
+    // Condition sur un champ : début et longueur dans la ligne complète
+    private abstract static class Condition {
+        final int offset;
+        final int length;
+
+        Condition(int offset, int length) {
+            this.offset = offset;
+            this.length = length;
+        }
+
+        abstract boolean test(CharSequence line);
+
+        // Début du champ sans ses blancs de tête
+        final int trimmedStart(CharSequence line) {
+            int start = offset;
+            int end = offset + length;
+            while (start < end && line.charAt(start) <= ' ') {
+                start++;
+            }
+            return start;
+        }
+
+        // Fin du champ sans ses blancs de fin
+        final int trimmedEnd(CharSequence line, int start) {
+            int end = offset + length;
+            while (end > start && line.charAt(end - 1) <= ' ') {
+                end--;
+            }
+            return end;
+        }
+    }
+
+    private static final class BlankCondition extends Condition {
+        private final boolean blank;
+
+        BlankCondition(int offset, int length, boolean blank) {
+            super(offset, length);
+            this.blank = blank;
+        }
+
+        @Override
+        boolean test(CharSequence line) {
+            int start = trimmedStart(line);
+            return (start == offset + length) == blank;
+        }
+    }
+
+    private static final class PrefixCondition extends Condition {
+        private final String prefix;
+
+        PrefixCondition(int offset, int length, String prefix) {
+            super(offset, length);
+            this.prefix = prefix;
+        }
+
+        @Override
+        boolean test(CharSequence line) {
+            int start = trimmedStart(line);
+            if (trimmedEnd(line, start) - start < prefix.length()) {
+                return false;
+            }
+            for (int i = 0; i < prefix.length(); i++) {
+                if (line.charAt(start + i) != prefix.charAt(i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    // Chaînes et dates AAAA-MM-JJ : comparaison caractère par caractère
+    private static final class TextCondition extends Condition {
+        private final Operator operator;
+        private final String value;
+
+        TextCondition(int offset, int length, Operator operator, String value) {
+            super(offset, length);
+            this.operator = operator;
+            this.value = value;
+        }
+
+        @Override
+        boolean test(CharSequence line) {
+            int start = trimmedStart(line);
+            int end = trimmedEnd(line, start);
+            int common = Math.min(end - start, value.length());
+            for (int i = 0; i < common; i++) {
+                int difference = line.charAt(start + i) - value.charAt(i);
+                if (difference != 0) {
+                    return operator.matches(difference);
+                }
+            }
+            return operator.matches((end - start) - value.length());
+        }
+    }
+
+    /*
+     * Nombres : le champ est analysé par indices (signe, partie entière sans
+     * zéros de tête, partie décimale sans zéros de fin) puis comparé chiffre à
+     * chiffre à la forme canonique de la valeur.
+     */
+    private static final class NumericCondition extends Condition {
+        private final Operator operator;
+        private final int signum;
+        private final String integerDigits;
+        private final String fractionDigits;
+
+        NumericCondition(int offset, int length, Operator operator, BigDecimal value) {
+            super(offset, length);
+            this.operator = operator;
+            this.signum = value.signum();
+            String digits = value.abs().toPlainString();
+            int point = digits.indexOf('.');
+            String integerPart = point < 0 ? digits : digits.substring(0, point);
+            this.integerDigits = "0".equals(integerPart) ? "" : integerPart;
+            this.fractionDigits = point < 0 ? "" : digits.substring(point + 1);
+        }
+
+        @Override
+        boolean test(CharSequence line) {
+            int start = trimmedStart(line);
+            int end = trimmedEnd(line, start);
+            if (start == end) {
+                return operator == Operator.NE;
+            }
+            boolean negative = false;
+            int position = start;
+            char first = line.charAt(position);
+            if (first == '-' || first == '+') {
+                negative = first == '-';
+                position++;
+            }
+            int integerStart = position;
+            while (position < end && isDigit(line.charAt(position))) {
+                position++;
+            }
+            int integerEnd = position;
+            int fractionStart = position;
+            int fractionEnd = position;
+            if (position < end && line.charAt(position) == '.') {
+                fractionStart = ++position;
+                while (position < end && isDigit(line.charAt(position))) {
+                    position++;
+                }
+                fractionEnd = position;
+            }
+            if (position != end || (integerEnd == integerStart && fractionEnd == fractionStart)) {
+                return operator == Operator.NE; // Pas un nombre : différent de toute valeur
+            }
+            while (integerStart < integerEnd && line.charAt(integerStart) == '0') {
+                integerStart++;
+            }
+            while (fractionEnd > fractionStart && line.charAt(fractionEnd - 1) == '0') {
+                fractionEnd--;
+            }
+            boolean zero = integerStart == integerEnd && fractionStart == fractionEnd;
+            int fieldSignum = zero ? 0 : negative ? -1 : 1;
+            if (fieldSignum != signum) {
+                return operator.matches(Integer.compare(fieldSignum, signum));
+            }
+            int magnitude = compareMagnitude(line, integerStart, integerEnd, fractionStart, fractionEnd);
+            return operator.matches(signum < 0 ? -magnitude : magnitude);
+        }
+
+        private int compareMagnitude(CharSequence line, int integerStart, int integerEnd, int fractionStart,
+                int fractionEnd) {
+            int integerLength = integerEnd - integerStart;
+            if (integerLength != integerDigits.length()) {
+                return integerLength - integerDigits.length();
+            }
+            for (int i = 0; i < integerLength; i++) {
+                int difference = line.charAt(integerStart + i) - integerDigits.charAt(i);
+                if (difference != 0) {
+                    return difference;
+                }
+            }
+            int fractionLength = fractionEnd - fractionStart;
+            int common = Math.min(fractionLength, fractionDigits.length());
+            for (int i = 0; i < common; i++) {
+                int difference = line.charAt(fractionStart + i) - fractionDigits.charAt(i);
+                if (difference != 0) {
+                    return difference;
+                }
+            }
+            // Sans zéros de fin, la partie décimale la plus longue est la plus grande
+            return fractionLength - fractionDigits.length();
+        }
+
+        private static boolean isDigit(char c) {
+            return c >= '0' && c <= '9';
+        }
+    }
+}
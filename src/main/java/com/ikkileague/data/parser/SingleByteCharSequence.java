@@ -0,0 +1,95 @@
+package com.ikkileague.data.parser;
+
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Vue {@link CharSequence} sur une plage d'octets encodés en ISO-8859-1 ou
+ * US-ASCII, sans décodage préalable.
+ * <p>
+ * Dans ces encodages un caractère occupe exactement un octet : l'index d'un
+ * caractère est donc aussi son décalage en octets, et les longueurs de
+ * {@link com.ikkileague.data.model.ColumnDefinition} s'appliquent telles
+ * quelles aux octets. Le découpage, le trim et la validation des champs
+ * travaillent directement sur le tableau d'octets ; une chaîne Java n'est
+ * construite que lorsqu'on appelle {@link #toString()}, c'est-à-dire au moment
+ * d'écrire la valeur.
+ * <p>
+ * La vue ne copie pas les octets : elle n'est valide que tant que le tableau
+ * sous-jacent n'est pas réutilisé par la source d'enregistrements.
+ */
+public final class SingleByteCharSequence implements CharSequence {
+
+    // Caractère de remplacement produit par le décodeur US-ASCII pour un octet > 0x7F
+    private static final char REPLACEMENT_CHAR = '\uFFFD';
+
+    private final boolean asciiOnly;
+    private byte[] bytes;
+    private int offset;
+    private int length;
+
+    private SingleByteCharSequence(boolean asciiOnly) {
+        this.asciiOnly = asciiOnly;
+    }
+
+    /**
+     * Indique si l'encodage donné peut être lu octet par octet par cette vue.
+     */
+    public static boolean supports(Charset charset) {
+        return StandardCharsets.ISO_8859_1.equals(charset) || StandardCharsets.US_ASCII.equals(charset);
+    }
+
+    /**
+     * Crée une vue vide et réutilisable pour l'encodage donné.
+     *
+     * @throws IllegalArgumentException si l'encodage n'est pas pris en charge.
+     */
+    public static SingleByteCharSequence forCharset(Charset charset) {
+        if (!supports(charset)) {
+            throw new IllegalArgumentException("Encodage non mono-octet : " + charset);
+        }
+        return new SingleByteCharSequence(StandardCharsets.US_ASCII.equals(charset));
+    }
+
+    /**
+     * Repositionne la vue sur une nouvelle plage d'octets.
+     *
+     * @return Cette même instance.
+     */
+    public SingleByteCharSequence reset(byte[] bytes, int offset, int length) {
+        this.bytes = bytes;
+        this.offset = offset;
+        this.length = length;
+        return this;
+    }
+
+    @Override
+    public int length() {
+        return length;
+    }
+
+    @Override
+    public char charAt(int index) {
+        if (index < 0 || index >= length) {
+            throw new IndexOutOfBoundsException("index " + index + ", length " + length);
+        }
+        int b = bytes[offset + index] & 0xFF;
+        if (asciiOnly && b > 0x7F) {
+            return REPLACEMENT_CHAR;
+        }
+        return (char) b;
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        if (start < 0 || end > length || start > end) {
+            throw new IndexOutOfBoundsException("start " + start + ", end " + end + ", length " + length);
+        }
+        return new SingleByteCharSequence(asciiOnly).reset(bytes, offset + start, end - start);
+    }
+
+    @Override
+    public String toString() {
+        return new String(bytes, offset, length, asciiOnly ? StandardCharsets.US_ASCII : StandardCharsets.ISO_8859_1);
+    }
+}
@@ -0,0 +1,29 @@
+package com.ikkileague.data.reader;
+
+import java.io.IOException;
+
+/**
+ * Source d'enregistrements donnant accès aux octets bruts de chaque
+ * enregistrement, sans les décoder.
+ * <p>
+ * Après un appel à {@link #advance()} renvoyant {@code true}, l'enregistrement
+ * courant occupe {@code recordBuffer()[recordOffset() .. recordOffset() + recordLength()[}.
+ * Le tableau appartient à la source : son contenu n'est valide que jusqu'à
+ * l'appel suivant.
+ */
+public interface ByteRecordSource extends RecordSource {
+
+    /**
+     * Avance jusqu'à l'enregistrement suivant.
+     *
+     * @return {@code false} en fin de fichier.
+     * @throws IOException En cas d'erreur de lecture.
+     */
+    boolean advance() throws IOException;
+
+    byte[] recordBuffer();
+
+    int recordOffset();
+
+    int recordLength();
+}
@@ -0,0 +1,282 @@
+package com.ikkileague.data.reader;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+
+import com.ikkileague.data.model.ColumnType;
+import com.ikkileague.data.writer.ColumnarFormat;
+
+/**
+ * Lit un fichier au format colonne binaire {@code .f2c} (voir
+ * {@link ColumnarFormat}) groupe de lignes par groupe de lignes, en colonnes
+ * typées : {@code String[]} pour STRING, {@code LocalDate[]} pour DATE et
+ * {@code BigDecimal[]} pour NUMERIC, une valeur nulle valant {@code null}.
+ */
+public class ColumnarReader implements Closeable {
+
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+
+    private final DataInputStream in;
+    private final String[] names;
+    private final ColumnType[] types;
+    private boolean finished;
+
+    /**
+     * Lit l'en-tête du fichier dans le flux fourni, fermé avec ce reader.
+     *
+     * @throws IOException si le flux n'est pas un fichier {@code .f2c} lisible.
+     */
+    public ColumnarReader(InputStream input) throws IOException {
+        this.in = new DataInputStream(new BufferedInputStream(input, 64 * 1024));
+        byte[] magic = new byte[ColumnarFormat.MAGIC.length];
+        in.readFully(magic);
+        if (!Arrays.equals(magic, ColumnarFormat.MAGIC)) {
+            throw new IOException("Signature de fichier colonne invalide");
+        }
+        int version = in.readUnsignedByte();
+        if (version != ColumnarFormat.VERSION) {
+            throw new IOException("Version de fichier colonne non prise en charge : " + version);
+        }
+        int columnCount = (int) readVarint(in);
+        this.names = new String[columnCount];
+        this.types = new ColumnType[columnCount];
+        for (int i = 0; i < columnCount; i++) {
+            byte[] name = new byte[(int) readVarint(in)];
+            in.readFully(name);
+            names[i] = new String(name, StandardCharsets.UTF_8);
+            int type = in.readUnsignedByte();
+            if (type >= ColumnType.values().length) {
+                throw new IOException("Type de colonne inconnu : " + type);
+            }
+            types[i] = ColumnType.values()[type];
+        }
+    }
+
+    public static ColumnarReader open(Path path) throws IOException {
+        return new ColumnarReader(Files.newInputStream(path));
+    }
+
+    public int columnCount() {
+        return names.length;
+    }
+
+    public String getName(int column) {
+        return names[column];
+    }
+
+    public ColumnType getType(int column) {
+        return types[column];
+    }
+
+    /**
+     * Lit le groupe de lignes suivant.
+     *
+     * @return Le groupe, ou {@code null} en fin de fichier.
+     */
+    public RowGroup next() throws IOException {
+        if (finished) {
+            return null;
+        }
+        int rowCount = (int) readVarint(in);
+        if (rowCount == 0) {
+            finished = true;
+            return null;
+        }
+        Object[][] columns = new Object[names.length][];
+        int[] encodings = new int[names.length];
+        for (int c = 0; c < names.length; c++) {
+            encodings[c] = in.readUnsignedByte();
+            byte[] content = new byte[(int) readVarint(in)];
+            in.readFully(content);
+            columns[c] = decodeColumn(new Cursor(content), encodings[c], types[c], rowCount);
+        }
+        return new RowGroup(rowCount, columns, encodings);
+    }
+
+    private static Object[] decodeColumn(Cursor cursor, int encoding, ColumnType type, int rowCount)
+            throws IOException {
+        Object[] values = type == ColumnType.STRING ? new String[rowCount]
+                : type == ColumnType.DATE ? new LocalDate[rowCount] : new BigDecimal[rowCount];
+        boolean[] nulls = new boolean[rowCount];
+        if (cursor.varint() > 0) {
+            byte[] bitmap = cursor.bytes((rowCount + 7) / 8);
+            for (int r = 0; r < rowCount; r++) {
+                nulls[r] = (bitmap[r >> 3] & (1 << (r & 7))) != 0;
+            }
+        }
+
+        switch (encoding) {
+            case ColumnarFormat.PLAIN:
+                for (int r = 0; r < rowCount; r++) {
+                    if (!nulls[r]) {
+                        values[r] = parse(cursor.string(), type);
+                    }
+                }
+                break;
+            case ColumnarFormat.DICTIONARY:
+                String[] dictionary = new String[(int) cursor.varint()];
+                for (int i = 0; i < dictionary.length; i++) {
+                    dictionary[i] = cursor.string();
+                }
+                boolean wide = dictionary.length > 256;
+                for (int r = 0; r < rowCount; r++) {
+                    if (!nulls[r]) {
+                        int code = cursor.unsignedByte();
+                        if (wide) {
+                            code |= cursor.unsignedByte() << 8;
+                        }
+                        values[r] = parse(dictionary[code], type);
+                    }
+                }
+                break;
+            case ColumnarFormat.DATE_DAYS:
+                long day = 0;
+                for (int r = 0; r < rowCount; r++) {
+                    if (!nulls[r]) {
+                        day += cursor.zigzag();
+                        values[r] = LocalDate.ofEpochDay(day);
+                    }
+                }
+                break;
+            case ColumnarFormat.DECIMAL:
+                int scale = cursor.unsignedByte();
+                for (int r = 0; r < rowCount; r++) {
+                    if (!nulls[r]) {
+                        values[r] = BigDecimal.valueOf(cursor.zigzag(), scale);
+                    }
+                }
+                break;
+            default:
+                throw new IOException("Encodage de colonne inconnu : " + encoding);
+        }
+        return values;
+    }
+
+    private static Object parse(String value, ColumnType type) throws IOException {
+        try {
+            switch (type) {
+                case DATE:
+                    return LocalDate.parse(value, DATE_FORMAT);
+                case NUMERIC:
+                    return new BigDecimal(value);
+                case STRING:
+                default:
+                    return value;
+            }
+        } catch (DateTimeException | NumberFormatException e) {
+            throw new IOException("Valeur " + type.getName() + " invalide : '" + value + "'", e);
+        }
+    }
+
+    private static long readVarint(DataInputStream in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Varint invalide");
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    /** Groupe de lignes : une colonne typée par colonne du fichier. */
+    public static final class RowGroup {
+        private final int rowCount;
+        private final Object[][] columns;
+        private final int[] encodings;
+
+        RowGroup(int rowCount, Object[][] columns, int[] encodings) {
+            this.rowCount = rowCount;
+            this.columns = columns;
+            this.encodings = encodings;
+        }
+
+        public int rowCount() {
+            return rowCount;
+        }
+
+        /**
+         * Valeurs de la colonne : {@code String[]}, {@code LocalDate[]} ou
+         * {@code BigDecimal[]} selon son type.
+         */
+        public Object[] column(int column) {
+            return columns[column];
+        }
+
+        /** Encodage du bloc de la colonne (constantes de {@link ColumnarFormat}). */
+        public int encoding(int column) {
+            return encodings[column];
+        }
+    }
+
+    /** Lecture séquentielle du contenu d'un bloc. */
+    private static final class Cursor {
+        private final byte[] bytes;
+        private int position;
+
+        Cursor(byte[] bytes) {
+            this.bytes = bytes;
+        }
+
+        int unsignedByte() throws EOFException {
+            if (position >= bytes.length) {
+                throw new EOFException("Bloc de colonne tronqué");
+            }
+            return bytes[position++] & 0xFF;
+        }
+
+        byte[] bytes(int length) throws EOFException {
+            if (bytes.length - position < length) {
+                throw new EOFException("Bloc de colonne tronqué");
+            }
+            byte[] result = Arrays.copyOfRange(bytes, position, position + length);
+            position += length;
+            return result;
+        }
+
+        long varint() throws IOException {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                int b = unsignedByte();
+                value |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new IOException("Varint invalide");
+        }
+
+        long zigzag() throws IOException {
+            long value = varint();
+            return (value >>> 1) ^ -(value & 1);
+        }
+
+        String string() throws IOException {
+            int length = (int) varint();
+            if (bytes.length - position < length) {
+                throw new EOFException("Bloc de colonne tronqué");
+            }
+            String value = new String(bytes, position, length, StandardCharsets.UTF_8);
+            position += length;
+            return value;
+        }
+    }
+}
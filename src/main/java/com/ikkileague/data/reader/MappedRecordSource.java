@@ -0,0 +1,185 @@
+package com.ikkileague.data.reader;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Source d'enregistrements lisant le fichier par grandes fenêtres projetées en
+ * mémoire ({@link MappedByteBuffer}).
+ * <p>
+ * Les fins de ligne sont recherchées directement dans la fenêtre projetée, et
+ * chaque enregistrement est décodé en une seule fois depuis ses octets, sans
+ * passer par un BufferedReader. Les fichiers de plus de 2 Go sont lus en
+ * re-projetant la fenêtre à partir du début de l'enregistrement en cours
+ * lorsqu'elle est épuisée. Une fenêtre épuisée sans fin de ligne est agrandie,
+ * dans la limite de {@link #MAX_RECORD_LENGTH} octets par enregistrement.
+ * <p>
+ * La détection des fins de ligne travaille sur les octets CR (0x0D) et LF
+ * (0x0A) : elle suppose un encodage compatible ASCII (UTF-8, ISO-8859-1...).
+ */
+public class MappedRecordSource implements ByteRecordSource {
+
+    /** Taille par défaut d'une fenêtre projetée : 64 Mio. */
+    public static final int DEFAULT_WINDOW_SIZE = 64 * 1024 * 1024;
+
+    /**
+     * Longueur maximale d'un enregistrement, en octets : 64 Mio. La conversion
+     * parallèle applique la même limite à la recherche des fins de ligne.
+     */
+    public static final int MAX_RECORD_LENGTH = 64 * 1024 * 1024;
+
+    // Place d'un terminateur CRLF au-delà d'un enregistrement de longueur maximale
+    private static final int MAX_TERMINATOR_LENGTH = 2;
+
+    private static final byte LF = '\n';
+    private static final byte CR = '\r';
+
+    private final FileChannel channel;
+    private final Charset charset;
+    private final long fileSize;
+    private final long startOffset;
+    private final int maxRecordLength;
+    private int windowSize;
+
+    private MappedByteBuffer window;
+    private long windowStart;
+    private int windowLimit;
+    private int position;
+
+    // Tampon réutilisé pour copier les octets d'un enregistrement avant décodage
+    private byte[] recordBytes = new byte[256];
+    private int recordLength;
+
+    public MappedRecordSource(Path path, Charset charset) throws IOException {
+        this(path, charset, DEFAULT_WINDOW_SIZE);
+    }
+
+    public MappedRecordSource(Path path, Charset charset, int windowSize) throws IOException {
+        this(path, charset, windowSize, 0);
+    }
+
+    /**
+     * @param startOffset Position, en octets, du premier enregistrement à lire
+     *                    (début d'une ligne).
+     */
+    public MappedRecordSource(Path path, Charset charset, int windowSize, long startOffset) throws IOException {
+        this(path, charset, windowSize, startOffset, MAX_RECORD_LENGTH);
+    }
+
+    // Longueur maximale d'enregistrement réduite pour les tests
+    MappedRecordSource(Path path, Charset charset, int windowSize, long startOffset, int maxRecordLength)
+            throws IOException {
+        if (windowSize < 2) {
+            throw new IllegalArgumentException("La taille de fenêtre doit être >= 2 : " + windowSize);
+        }
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+        this.charset = charset;
+        this.fileSize = channel.size();
+        this.windowSize = windowSize;
+        this.maxRecordLength = maxRecordLength;
+        this.startOffset = Math.min(startOffset, fileSize);
+        map(this.startOffset);
+    }
+
+    @Override
+    public String nextRecord() throws IOException {
+        return advance() ? new String(recordBytes, 0, recordLength, charset) : null;
+    }
+
+    /**
+     * @throws IOException si un enregistrement dépasse {@link #MAX_RECORD_LENGTH}
+     *                     octets : la fenêtre ne peut plus être agrandie.
+     */
+    @Override
+    public boolean advance() throws IOException {
+        while (true) {
+            if (windowStart + position >= fileSize) {
+                return false;
+            }
+            boolean windowReachesEnd = windowStart + windowLimit >= fileSize;
+
+            for (int i = position; i < windowLimit; i++) {
+                byte b = window.get(i);
+                if (b == LF) {
+                    return consume(i, 1);
+                }
+                if (b == CR) {
+                    if (i + 1 < windowLimit) {
+                        return consume(i, window.get(i + 1) == LF ? 2 : 1);
+                    }
+                    if (windowReachesEnd) {
+                        return consume(i, 1);
+                    }
+                    // CR en fin de fenêtre : impossible de savoir s'il est suivi d'un LF
+                    break;
+                }
+            }
+
+            if (windowReachesEnd) {
+                // Dernier enregistrement sans terminateur
+                return consume(windowLimit, 0);
+            }
+            if (position == 0) {
+                // L'enregistrement est plus long que la fenêtre : on l'agrandit
+                int maxWindowSize = maxRecordLength + MAX_TERMINATOR_LENGTH;
+                if (windowSize >= maxWindowSize) {
+                    throw new IOException(String.format(
+                            "Aucune fin de ligne dans les %d octets suivant la position %d : enregistrement "
+                                    + "plus long que la taille maximale (%d octets).",
+                            windowLimit, windowStart, maxRecordLength));
+                }
+                windowSize = (int) Math.min(maxWindowSize, windowSize * 2L);
+            }
+            map(windowStart + position);
+        }
+    }
+
+    // Copie l'enregistrement [position, end[ puis saute son terminateur
+    private boolean consume(int end, int terminatorLength) {
+        int length = end - position;
+        if (recordBytes.length < length) {
+            recordBytes = new byte[Math.max(length, recordBytes.length * 2)];
+        }
+        window.get(position, recordBytes, 0, length);
+        recordLength = length;
+        position = end + terminatorLength;
+        return true;
+    }
+
+    @Override
+    public byte[] recordBuffer() {
+        return recordBytes;
+    }
+
+    @Override
+    public int recordOffset() {
+        return 0;
+    }
+
+    @Override
+    public int recordLength() {
+        return recordLength;
+    }
+
+    @Override
+    public long position() {
+        return windowStart + position - startOffset;
+    }
+
+    private void map(long start) throws IOException {
+        windowStart = start;
+        windowLimit = (int) Math.min(windowSize, fileSize - start);
+        window = channel.map(FileChannel.MapMode.READ_ONLY, start, windowLimit);
+        position = 0;
+    }
+
+    @Override
+    public void close() throws IOException {
+        window = null;
+        channel.close();
+    }
+}
@@ -0,0 +1,35 @@
+package com.ikkileague.data.reader;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Source d'enregistrements historique, basée sur {@link BufferedReader#readLine()}.
+ */
+public class ReaderRecordSource implements RecordSource {
+
+    private final BufferedReader reader;
+
+    public ReaderRecordSource(Path path, Charset charset) throws IOException {
+        this.reader = Files.newBufferedReader(path, charset);
+    }
+
+    @Override
+    public String nextRecord() throws IOException {
+        return reader.readLine();
+    }
+
+    /** Inconnue : le {@link BufferedReader} décode l'entrée par blocs. */
+    @Override
+    public long position() {
+        return -1;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
@@ -0,0 +1,61 @@
+package com.ikkileague.data.reader;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Stratégies de lecture du fichier d'entrée disponibles.
+ */
+public enum ReaderType {
+    /** Lecture séquentielle bufferisée (comportement historique). */
+    BUFFERED,
+    /** Lecture par fenêtres projetées en mémoire (FileChannel + MappedByteBuffer). */
+    MAPPED;
+
+    /** Ouvre une source d'enregistrements décodés en chaînes. */
+    public RecordSource open(Path path, Charset charset) throws IOException {
+        switch (this) {
+            case MAPPED:
+                return new MappedRecordSource(path, charset);
+            case BUFFERED:
+            default:
+                return new ReaderRecordSource(path, charset);
+        }
+    }
+
+    /** Ouvre une source donnant accès aux octets bruts des enregistrements. */
+    public ByteRecordSource openBytes(Path path, Charset charset) throws IOException {
+        switch (this) {
+            case MAPPED:
+                return new MappedRecordSource(path, charset);
+            case BUFFERED:
+            default:
+                return new StreamRecordSource(Files.newInputStream(path), charset);
+        }
+    }
+
+    /**
+     * Ouvre une source d'octets bruts dont la lecture commence à
+     * {@code startOffset}, qui doit être le début d'une ligne (reprise d'une
+     * conversion interrompue).
+     */
+    public ByteRecordSource openBytes(Path path, Charset charset, long startOffset) throws IOException {
+        if (startOffset == 0) {
+            return openBytes(path, charset);
+        }
+        switch (this) {
+            case MAPPED:
+                return new MappedRecordSource(path, charset, MappedRecordSource.DEFAULT_WINDOW_SIZE, startOffset);
+            case BUFFERED:
+            default:
+                FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+                channel.position(startOffset);
+                return new StreamRecordSource(Channels.newInputStream(channel), charset);
+        }
+    }
+}
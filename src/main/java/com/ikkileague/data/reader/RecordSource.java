@@ -0,0 +1,30 @@
+package com.ikkileague.data.reader;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Source d'enregistrements d'un fichier à largeur fixe.
+ * <p>
+ * Les fins de ligne reconnues sont celles de {@link java.io.BufferedReader#readLine()} :
+ * LF, CR ou CRLF. Le terminateur n'est jamais inclus dans l'enregistrement.
+ */
+public interface RecordSource extends Closeable {
+
+    /**
+     * Lit l'enregistrement suivant.
+     *
+     * @return L'enregistrement décodé, ou {@code null} en fin de fichier.
+     * @throws IOException En cas d'erreur de lecture.
+     */
+    String nextRecord() throws IOException;
+
+    /**
+     * Nombre d'octets consommés depuis l'ouverture de la source, terminateur
+     * du dernier enregistrement lu compris : c'est la position, relative au
+     * point de départ, à laquelle la lecture pourrait reprendre.
+     *
+     * @return La position, ou -1 si la source ne la connaît pas.
+     */
+    long position();
+}
@@ -0,0 +1,137 @@
+package com.ikkileague.data.reader;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+
+/**
+ * Source d'enregistrements lisant un {@link InputStream} dans un tampon
+ * d'octets réutilisé, et découpant les enregistrements directement dans ce
+ * tampon. Contrairement à {@link ReaderRecordSource}, aucun décodage n'a lieu
+ * tant que l'appelant ne demande pas l'enregistrement sous forme de chaîne.
+ * <p>
+ * Fonctionne avec n'importe quel flux (fichier, entrée standard, pipe...).
+ * Comme {@link MappedRecordSource}, elle suppose un encodage compatible ASCII.
+ */
+public class StreamRecordSource implements ByteRecordSource {
+
+    /** Taille initiale par défaut du tampon de lecture : 1 Mio. */
+    public static final int DEFAULT_BUFFER_SIZE = 1024 * 1024;
+
+    private static final byte LF = '\n';
+    private static final byte CR = '\r';
+
+    private final InputStream input;
+    private final Charset charset;
+
+    private byte[] buffer;
+    private int position;
+    private int limit;
+    private boolean endOfStream;
+
+    private int recordOffset;
+    private int recordLength;
+    // Octets du flux déjà sortis du tampon
+    private long bufferStart;
+
+    public StreamRecordSource(InputStream input, Charset charset) {
+        this(input, charset, DEFAULT_BUFFER_SIZE);
+    }
+
+    public StreamRecordSource(InputStream input, Charset charset, int bufferSize) {
+        if (bufferSize < 2) {
+            throw new IllegalArgumentException("La taille de tampon doit être >= 2 : " + bufferSize);
+        }
+        this.input = input;
+        this.charset = charset;
+        this.buffer = new byte[bufferSize];
+    }
+
+    @Override
+    public String nextRecord() throws IOException {
+        return advance() ? new String(buffer, recordOffset, recordLength, charset) : null;
+    }
+
+    @Override
+    public boolean advance() throws IOException {
+        while (true) {
+            for (int i = position; i < limit; i++) {
+                byte b = buffer[i];
+                if (b == LF) {
+                    return consume(i, 1);
+                }
+                if (b == CR) {
+                    if (i + 1 < limit) {
+                        return consume(i, buffer[i + 1] == LF ? 2 : 1);
+                    }
+                    if (endOfStream) {
+                        return consume(i, 1);
+                    }
+                    // CR en fin de tampon : il faut lire la suite pour savoir s'il est suivi d'un LF
+                    break;
+                }
+            }
+
+            if (endOfStream) {
+                if (position < limit) {
+                    // Dernier enregistrement sans terminateur
+                    return consume(limit, 0);
+                }
+                return false;
+            }
+            fill();
+        }
+    }
+
+    private boolean consume(int end, int terminatorLength) {
+        recordOffset = position;
+        recordLength = end - position;
+        position = end + terminatorLength;
+        return true;
+    }
+
+    // Déplace l'enregistrement incomplet en tête du tampon (en l'agrandissant si besoin) puis lit la suite
+    private void fill() throws IOException {
+        if (position > 0) {
+            System.arraycopy(buffer, position, buffer, 0, limit - position);
+            bufferStart += position;
+            limit -= position;
+            position = 0;
+        } else if (limit == buffer.length) {
+            byte[] larger = new byte[buffer.length * 2];
+            System.arraycopy(buffer, 0, larger, 0, limit);
+            buffer = larger;
+        }
+        int read = input.read(buffer, limit, buffer.length - limit);
+        if (read < 0) {
+            endOfStream = true;
+        } else {
+            limit += read;
+        }
+    }
+
+    @Override
+    public byte[] recordBuffer() {
+        return buffer;
+    }
+
+    @Override
+    public int recordOffset() {
+        return recordOffset;
+    }
+
+    @Override
+    public int recordLength() {
+        return recordLength;
+    }
+
+    @Override
+    public long position() {
+        return bufferStart + position;
+    }
+
+    @Override
+    public void close() throws IOException {
+        input.close();
+    }
+}
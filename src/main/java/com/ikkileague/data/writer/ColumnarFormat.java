@@ -0,0 +1,50 @@
+package com.ikkileague.data.writer;
+
+/**
+ * Constantes du format colonne binaire {@code .f2c}, partagées par
+ * {@link ColumnarWriter} et {@link com.ikkileague.data.reader.ColumnarReader}.
+ * <p>
+ * Structure du fichier (entiers en varint LEB128 non signé, sauf mention
+ * contraire ; chaînes en UTF-8 précédées de leur longueur en octets) :
+ *
+ * <pre>
+ * fichier      = MAGIC version nbColonnes colonne* groupe* 0
+ * colonne      = nom type                       (type : ordinal de ColumnType, 1 octet)
+ * groupe       = nbLignes bloc*                 (un bloc par colonne, nbLignes &gt; 0)
+ * bloc         = encodage longueur contenu      (encodage : 1 octet ; longueur du contenu)
+ * contenu      = nbNulls [bitmap] valeurs       (bitmap de (nbLignes + 7) / 8 octets si nbNulls &gt; 0,
+ *                                                bit i (poids faible d'abord) à 1 si la ligne i est nulle)
+ * </pre>
+ *
+ * Seules les valeurs non nulles figurent dans {@code valeurs}, selon l'encodage :
+ * <ul>
+ * <li>{@link #PLAIN} : chaque valeur sous forme de chaîne ;</li>
+ * <li>{@link #DICTIONARY} : taille du dictionnaire, ses chaînes, puis un code
+ * par valeur sur 1 octet (dictionnaire de 256 entrées au plus) ou 2 octets
+ * petit-boutistes ;</li>
+ * <li>{@link #DATE_DAYS} : écart, en jours, avec la valeur précédente (la
+ * première étant comparée au 01/01/1970), en varint zigzag ;</li>
+ * <li>{@link #DECIMAL} : l'échelle (1 octet) commune au bloc, puis chaque
+ * valeur multipliée par 10^échelle, en varint zigzag.</li>
+ * </ul>
+ * Une valeur DATE ou NUMERIC vide est nulle ; une valeur STRING vide est une
+ * chaîne vide.
+ */
+public final class ColumnarFormat {
+
+    /** Signature en tête de fichier. */
+    public static final byte[] MAGIC = { 'F', '2', 'C' };
+    public static final int VERSION = 1;
+
+    /** Valeurs sous forme de chaînes. */
+    public static final int PLAIN = 0;
+    /** Dictionnaire de chaînes distinctes et codes (colonnes STRING peu variées). */
+    public static final int DICTIONARY = 1;
+    /** Dates en nombre de jours depuis le 01/01/1970, codées en écarts (colonnes DATE). */
+    public static final int DATE_DAYS = 2;
+    /** Décimaux à échelle commune, en entiers 64 bits (colonnes NUMERIC). */
+    public static final int DECIMAL = 3;
+
+    private ColumnarFormat() {
+    }
+}
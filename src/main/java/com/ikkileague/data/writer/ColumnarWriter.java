@@ -0,0 +1,449 @@
+package com.ikkileague.data.writer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.ikkileague.data.exception.ConversionException;
+import com.ikkileague.data.formatter.FormattedRecord;
+import com.ikkileague.data.model.ColumnType;
+import com.ikkileague.data.model.RecordLayout;
+
+/**
+ * Écrit les enregistrements au format colonne binaire {@code .f2c} (voir
+ * {@link ColumnarFormat}), relu par
+ * {@link com.ikkileague.data.reader.ColumnarReader} sans analyse de texte.
+ * <p>
+ * Les valeurs sont accumulées colonne par colonne en groupes de lignes, puis
+ * chaque colonne du groupe est écrite en un bloc avec l'encodage le plus
+ * compact applicable :
+ * <ul>
+ * <li>STRING : dictionnaire lorsque la colonne a au plus une valeur distincte
+ * pour quatre lignes, chaînes sinon ;</li>
+ * <li>DATE : nombre de jours, en écarts d'une ligne à l'autre ;</li>
+ * <li>NUMERIC : entiers 64 bits à échelle commune. Les valeurs sont conservées
+ * exactement, mais pas leur forme textuelle ({@code 5} et {@code 5.0}
+ * deviennent tous deux 5.0 si le bloc a une décimale) ; un bloc dont une
+ * valeur dépasse la capacité d'un {@code long} est écrit en chaînes.</li>
+ * </ul>
+ * La taille d'un groupe est bornée en nombre de cellules, de sorte que la
+ * mémoire retenue ne dépend pas du nombre de colonnes.
+ */
+public class ColumnarWriter implements RecordSink {
+
+    private static final Logger logger = LoggerFactory.getLogger(ColumnarWriter.class);
+
+    /** Nombre maximal de lignes d'un groupe. */
+    public static final int MAX_ROW_GROUP_SIZE = 65_536;
+    private static final int MIN_ROW_GROUP_SIZE = 1024;
+    // Cellules (lignes × colonnes) retenues en mémoire au plus par groupe
+    private static final int ROW_GROUP_CELLS = 4 * 1024 * 1024;
+    // Au-delà, les codes ne tiennent plus sur 2 octets
+    private static final int MAX_DICTIONARY_SIZE = 65_536;
+
+    private final OutputStream output;
+    private final ColumnType[] types;
+    private final int rowGroupSize;
+    // Valeurs du groupe en cours, colonne par colonne
+    private final String[][] columns;
+    private final int[] codes;
+    private final Bytes header = new Bytes(64);
+    private final Bytes content = new Bytes(64 * 1024);
+    private int rowCount;
+    private long rowGroups;
+    private boolean closed;
+
+    /** Écrit dans le flux fourni, fermé avec ce writer. */
+    public ColumnarWriter(OutputStream output, RecordLayout layout) throws ConversionException {
+        this(output, layout, Math.max(MIN_ROW_GROUP_SIZE,
+                Math.min(MAX_ROW_GROUP_SIZE, ROW_GROUP_CELLS / Math.max(1, layout.columnCount()))));
+    }
+
+    /** @param rowGroupSize Nombre de lignes par groupe. */
+    public ColumnarWriter(OutputStream output, RecordLayout layout, int rowGroupSize) throws ConversionException {
+        if (rowGroupSize < 1 || rowGroupSize > MAX_ROW_GROUP_SIZE) {
+            throw new IllegalArgumentException("La taille de groupe doit être comprise entre 1 et "
+                    + MAX_ROW_GROUP_SIZE + " : " + rowGroupSize);
+        }
+        logger.debug("Columnar layout: {} columns, {} rows per group", layout.columnCount(), rowGroupSize);
+        this.output = output;
+        this.rowGroupSize = rowGroupSize;
+        this.types = new ColumnType[layout.columnCount()];
+        this.columns = new String[types.length][rowGroupSize];
+        this.codes = new int[rowGroupSize];
+
+        header.writeBytes(ColumnarFormat.MAGIC);
+        header.writeByte(ColumnarFormat.VERSION);
+        header.writeVarint(types.length);
+        for (int i = 0; i < types.length; i++) {
+            types[i] = layout.getType(i);
+            header.writeString(layout.getName(i));
+            header.writeByte(types[i].ordinal());
+        }
+        try {
+            header.writeTo(output);
+        } catch (IOException e) {
+            throw new ConversionException("Error initializing columnar writer", e);
+        }
+    }
+
+    @Override
+    public void write(FormattedRecord record) throws ConversionException {
+        try {
+            ensureOpen();
+            for (int i = 0; i < columns.length; i++) {
+                columns[i][rowCount] = record.get(i);
+            }
+            if (++rowCount == rowGroupSize) {
+                writeRowGroup();
+            }
+        } catch (IOException e) {
+            logger.error("Error writing record to columnar file: {}. Message: {}", record.fields(), e.getMessage(),
+                    e);
+            throw new ConversionException("Error writing record to columnar file: " + record.fields(), e);
+        }
+    }
+
+    @Override
+    public RecordBlock newBlock(int sizeHint) {
+        return new RowBlock(columns.length);
+    }
+
+    @Override
+    public void write(RecordBlock block) throws ConversionException {
+        try {
+            ensureOpen();
+            for (String[] row : ((RowBlock) block).rows) {
+                for (int i = 0; i < columns.length; i++) {
+                    columns[i][rowCount] = row[i];
+                }
+                if (++rowCount == rowGroupSize) {
+                    writeRowGroup();
+                }
+            }
+        } catch (IOException e) {
+            logger.error("Error writing block to columnar file. Message: {}", e.getMessage(), e);
+            throw new ConversionException("Error writing block to columnar file", e);
+        }
+    }
+
+    /**
+     * Termine le groupe en cours, même incomplet, et vide le flux.
+     *
+     * @return -1 : une sortie colonne n'est pas reprise après interruption.
+     */
+    @Override
+    public long flush() throws ConversionException {
+        try {
+            ensureOpen();
+            if (rowCount > 0) {
+                writeRowGroup();
+            }
+            output.flush();
+            return -1;
+        } catch (IOException e) {
+            logger.error("Error flushing columnar file. Message: {}", e.getMessage(), e);
+            throw new ConversionException("Error flushing columnar file", e);
+        }
+    }
+
+    private void ensureOpen() throws IOException {
+        if (closed) {
+            throw new IOException("Stream closed");
+        }
+    }
+
+    private void writeRowGroup() throws IOException {
+        header.reset();
+        header.writeVarint(rowCount);
+        header.writeTo(output);
+        for (int c = 0; c < columns.length; c++) {
+            content.reset();
+            int encoding = encodeColumn(columns[c], types[c]);
+            header.reset();
+            header.writeByte(encoding);
+            header.writeVarint(content.size());
+            header.writeTo(output);
+            content.writeTo(output);
+        }
+        rowCount = 0;
+        rowGroups++;
+    }
+
+    // Écrit le contenu du bloc d'une colonne et renvoie son encodage
+    private int encodeColumn(String[] column, ColumnType type) {
+        if (type == ColumnType.STRING) {
+            content.writeVarint(0); // Une chaîne vide n'est pas nulle
+            return encodeDictionary(column) ? ColumnarFormat.DICTIONARY : encodePlain(column, false);
+        }
+        writeNulls(column);
+        int mark = content.size();
+        boolean encoded = type == ColumnType.DATE ? encodeDates(column) : encodeDecimals(column);
+        if (encoded) {
+            return type == ColumnType.DATE ? ColumnarFormat.DATE_DAYS : ColumnarFormat.DECIMAL;
+        }
+        content.truncate(mark);
+        return encodePlain(column, true);
+    }
+
+    private void writeNulls(String[] column) {
+        int nulls = 0;
+        for (int r = 0; r < rowCount; r++) {
+            if (column[r].isEmpty()) {
+                nulls++;
+            }
+        }
+        content.writeVarint(nulls);
+        if (nulls > 0) {
+            byte[] bitmap = new byte[(rowCount + 7) / 8];
+            for (int r = 0; r < rowCount; r++) {
+                if (column[r].isEmpty()) {
+                    bitmap[r >> 3] |= (byte) (1 << (r & 7));
+                }
+            }
+            content.writeBytes(bitmap);
+        }
+    }
+
+    private int encodePlain(String[] column, boolean nullable) {
+        for (int r = 0; r < rowCount; r++) {
+            if (!nullable || !column[r].isEmpty()) {
+                content.writeString(column[r]);
+            }
+        }
+        return ColumnarFormat.PLAIN;
+    }
+
+    // Abandonné dès que le dictionnaire dépasse une entrée pour quatre lignes
+    private boolean encodeDictionary(String[] column) {
+        int limit = Math.min(MAX_DICTIONARY_SIZE, rowCount / 4);
+        Map<String, Integer> codeByValue = new HashMap<>();
+        List<String> dictionary = new ArrayList<>();
+        for (int r = 0; r < rowCount; r++) {
+            Integer code = codeByValue.get(column[r]);
+            if (code == null) {
+                if (dictionary.size() >= limit) {
+                    return false;
+                }
+                code = dictionary.size();
+                codeByValue.put(column[r], code);
+                dictionary.add(column[r]);
+            }
+            codes[r] = code;
+        }
+        content.writeVarint(dictionary.size());
+        for (String value : dictionary) {
+            content.writeString(value);
+        }
+        boolean wide = dictionary.size() > 256;
+        for (int r = 0; r < rowCount; r++) {
+            content.writeByte(codes[r]);
+            if (wide) {
+                content.writeByte(codes[r] >>> 8);
+            }
+        }
+        return true;
+    }
+
+    private boolean encodeDates(String[] column) {
+        long previous = 0;
+        for (int r = 0; r < rowCount; r++) {
+            String value = column[r];
+            if (value.isEmpty()) {
+                continue;
+            }
+            long day = epochDay(value);
+            if (day == Long.MIN_VALUE) {
+                return false;
+            }
+            content.writeZigzag(day - previous);
+            previous = day;
+        }
+        return true;
+    }
+
+    // JJ/MM/AAAA vers nombre de jours depuis le 01/01/1970 ; Long.MIN_VALUE pour une autre forme
+    private static long epochDay(String value) {
+        if (value.length() != 10 || value.charAt(2) != '/' || value.charAt(5) != '/') {
+            return Long.MIN_VALUE;
+        }
+        try {
+            return LocalDate.of(Integer.parseInt(value, 6, 10, 10), Integer.parseInt(value, 3, 5, 10),
+                    Integer.parseInt(value, 0, 2, 10)).toEpochDay();
+        } catch (NumberFormatException | DateTimeException e) {
+            return Long.MIN_VALUE;
+        }
+    }
+
+    private boolean encodeDecimals(String[] column) {
+        int scale = 0;
+        for (int r = 0; r < rowCount; r++) {
+            int point = column[r].indexOf('.');
+            if (point >= 0) {
+                scale = Math.max(scale, column[r].length() - point - 1);
+            }
+        }
+        // 10^19 dépasse la capacité d'un long
+        if (scale > 18) {
+            return false;
+        }
+        content.writeByte(scale);
+        try {
+            for (int r = 0; r < rowCount; r++) {
+                if (!column[r].isEmpty()) {
+                    content.writeZigzag(unscaled(column[r], scale));
+                }
+            }
+        } catch (ArithmeticException | NumberFormatException e) {
+            return false;
+        }
+        return true;
+    }
+
+    // Valeur canonique (voir NumericFieldFormatter) multipliée par 10^scale
+    private static long unscaled(String value, int scale) {
+        boolean negative = value.charAt(0) == '-';
+        long result = 0;
+        int fractionDigits = -1;
+        for (int i = negative ? 1 : 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '.' && fractionDigits < 0) {
+                fractionDigits = 0;
+                continue;
+            }
+            if (c < '0' || c > '9') {
+                throw new NumberFormatException(value);
+            }
+            result = Math.addExact(Math.multiplyExact(result, 10), c - '0');
+            if (fractionDigits >= 0) {
+                fractionDigits++;
+            }
+        }
+        for (int i = Math.max(fractionDigits, 0); i < scale; i++) {
+            result = Math.multiplyExact(result, 10);
+        }
+        return negative ? -result : result;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (!closed) {
+            logger.info("Closing columnar writer.");
+            closed = true;
+            try {
+                if (rowCount > 0) {
+                    writeRowGroup();
+                }
+                header.reset();
+                header.writeVarint(0); // Fin des groupes
+                header.writeTo(output);
+                logger.debug("Columnar output: {} row groups", rowGroups);
+            } finally {
+                output.close();
+            }
+        }
+    }
+
+    /** Bloc du mode parallèle : copie des valeurs de chaque enregistrement. */
+    private static final class RowBlock implements RecordBlock {
+        private final int columnCount;
+        private final List<String[]> rows = new ArrayList<>();
+
+        RowBlock(int columnCount) {
+            this.columnCount = columnCount;
+        }
+
+        @Override
+        public void append(FormattedRecord record) {
+            String[] row = new String[columnCount];
+            for (int i = 0; i < columnCount; i++) {
+                row[i] = record.get(i);
+            }
+            rows.add(row);
+        }
+
+        @Override
+        public int recordCount() {
+            return rows.size();
+        }
+
+        @Override
+        public void reset() {
+            rows.clear();
+        }
+    }
+
+    /** Tampon d'octets extensible, avec écriture de varints et de chaînes. */
+    private static final class Bytes {
+        private byte[] buffer;
+        private int size;
+
+        Bytes(int initialCapacity) {
+            this.buffer = new byte[initialCapacity];
+        }
+
+        int size() {
+            return size;
+        }
+
+        void reset() {
+            size = 0;
+        }
+
+        void truncate(int length) {
+            size = length;
+        }
+
+        void writeByte(int b) {
+            ensureCapacity(1);
+            buffer[size++] = (byte) b;
+        }
+
+        void writeBytes(byte[] bytes) {
+            ensureCapacity(bytes.length);
+            System.arraycopy(bytes, 0, buffer, size, bytes.length);
+            size += bytes.length;
+        }
+
+        // LEB128 non signé : 7 bits par octet, bit de poids fort à 1 s'il en suit d'autres
+        void writeVarint(long value) {
+            ensureCapacity(10);
+            while ((value & ~0x7FL) != 0) {
+                buffer[size++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            buffer[size++] = (byte) value;
+        }
+
+        // Zigzag : les petites valeurs négatives restent courtes
+        void writeZigzag(long value) {
+            writeVarint((value << 1) ^ (value >> 63));
+        }
+
+        void writeString(String value) {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            writeVarint(bytes.length);
+            writeBytes(bytes);
+        }
+
+        void writeTo(OutputStream out) throws IOException {
+            out.write(buffer, 0, size);
+        }
+
+        private void ensureCapacity(int additional) {
+            if (buffer.length - size < additional) {
+                buffer = Arrays.copyOf(buffer, Math.max(size + additional, buffer.length * 2));
+            }
+        }
+    }
+}
@@ -0,0 +1,208 @@
+package com.ikkileague.data.writer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.MalformedInputException;
+import java.util.List;
+
+import com.ikkileague.data.exception.ConversionException;
+import com.ikkileague.data.formatter.FormattedRecord;
+
+/**
+ * Encode des enregistrements CSV (RFC 4180 : séparateur ',', fin de ligne CRLF)
+ * directement en octets UTF-8, dans un tampon réutilisable.
+ * <p>
+ * La sortie est identique, octet pour octet, à celle que produisait
+ * {@code CSVPrinter} de commons-csv avec {@code CSVFormat.DEFAULT} et le mode
+ * de guillemets MINIMAL. Un champ est entouré de guillemets lorsque :
+ * <ul>
+ * <li>il est vide et ouvre l'enregistrement ;</li>
+ * <li>son premier caractère est inférieur ou égal à '#' ;</li>
+ * <li>il contient CR, LF, '"' ou ',' ;</li>
+ * <li>son dernier caractère est inférieur ou égal à l'espace.</li>
+ * </ul>
+ * Les guillemets internes sont doublés. Comme l'encodeur UTF-8 de
+ * {@code Files.newBufferedWriter}, un surrogate isolé est refusé.
+ * <p>
+ * Sert de tampon d'écriture à {@link CsvWriter}, et de {@link RecordBlock} aux
+ * tâches de conversion parallèle : chaque tâche encode son bloc puis le bloc
+ * est écrit d'un seul tenant via {@link CsvWriter#writeEncoded(CsvBlockEncoder)}.
+ * <p>
+ * Une instance n'est pas thread-safe ; il faut en créer une par tâche.
+ */
+public class CsvBlockEncoder implements RecordBlock {
+
+    private static final byte DELIMITER = ',';
+    private static final byte QUOTE = '"';
+    private static final char COMMENT = '#';
+
+    private byte[] buffer;
+    private int size;
+    private int recordCount;
+
+    public CsvBlockEncoder(int initialCapacity) {
+        this.buffer = new byte[Math.max(initialCapacity, 64)];
+    }
+
+    /**
+     * Encode une liste de valeurs en un seul enregistrement (ligne d'en-tête ou
+     * de données).
+     */
+    public void append(List<? extends CharSequence> record) throws ConversionException {
+        try {
+            encodeRecord(record);
+        } catch (MalformedInputException e) {
+            throw new ConversionException("Error encoding CSV record: " + record, e);
+        }
+    }
+
+    @Override
+    public void append(FormattedRecord record) throws ConversionException {
+        append(record.fields());
+    }
+
+    // Variante utilisée par CsvWriter, qui enrichit lui-même le message d'erreur
+    void encodeRecord(List<? extends CharSequence> record) throws MalformedInputException {
+        int mark = size;
+        try {
+            for (int i = 0, count = record.size(); i < count; i++) {
+                if (i > 0) {
+                    ensureCapacity(1);
+                    buffer[size++] = DELIMITER;
+                }
+                encodeField(record.get(i), i == 0);
+            }
+            ensureCapacity(2);
+            buffer[size++] = '\r';
+            buffer[size++] = '\n';
+            recordCount++;
+        } catch (MalformedInputException e) {
+            size = mark; // L'enregistrement partiel est abandonné
+            throw e;
+        }
+    }
+
+    private void encodeField(CharSequence value, boolean newRecord) throws MalformedInputException {
+        int length = value.length();
+        // Pire cas : 3 octets par caractère, plus les deux guillemets encadrants
+        ensureCapacity(3 * length + 2);
+        if (!needsQuotes(value, length, newRecord)) {
+            encodeChars(value, 0, length);
+            return;
+        }
+        buffer[size++] = QUOTE;
+        int start = 0;
+        for (int i = 0; i < length; i++) {
+            if (value.charAt(i) == '"') {
+                // Le guillemet est recopié avec le segment, puis doublé au segment suivant
+                encodeChars(value, start, i + 1);
+                start = i;
+                ensureCapacity(3 * (length - i) + 2);
+            }
+        }
+        encodeChars(value, start, length);
+        buffer[size++] = QUOTE;
+    }
+
+    // Règles du mode MINIMAL de commons-csv
+    private static boolean needsQuotes(CharSequence value, int length, boolean newRecord) {
+        if (length == 0) {
+            return newRecord; // Un premier champ vide ne doit pas donner une ligne vide
+        }
+        if (value.charAt(0) <= COMMENT) {
+            return true;
+        }
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c == '\n' || c == '\r' || c == '"' || c == ',') {
+                return true;
+            }
+        }
+        return value.charAt(length - 1) <= ' ';
+    }
+
+    // Encodage UTF-8 de [start, end[ ; la capacité a été vérifiée par l'appelant
+    private void encodeChars(CharSequence value, int start, int end) throws MalformedInputException {
+        byte[] bytes = buffer;
+        int position = size;
+        int i = start;
+        // Boucle ASCII : le cas courant, recopié octet pour octet
+        while (i < end) {
+            char c = value.charAt(i);
+            if (c >= 0x80) {
+                break;
+            }
+            bytes[position++] = (byte) c;
+            i++;
+        }
+        for (; i < end; i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                bytes[position++] = (byte) c;
+            } else if (c < 0x800) {
+                bytes[position++] = (byte) (0xC0 | (c >> 6));
+                bytes[position++] = (byte) (0x80 | (c & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                char low = i + 1 < end ? value.charAt(i + 1) : 0;
+                if (!Character.isHighSurrogate(c) || !Character.isLowSurrogate(low)) {
+                    size = position;
+                    throw new MalformedInputException(1);
+                }
+                int codePoint = Character.toCodePoint(c, low);
+                bytes[position++] = (byte) (0xF0 | (codePoint >> 18));
+                bytes[position++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                bytes[position++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                bytes[position++] = (byte) (0x80 | (codePoint & 0x3F));
+                i++;
+            } else {
+                bytes[position++] = (byte) (0xE0 | (c >> 12));
+                bytes[position++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                bytes[position++] = (byte) (0x80 | (c & 0x3F));
+            }
+        }
+        size = position;
+    }
+
+    private void ensureCapacity(int additional) {
+        if (buffer.length - size < additional) {
+            long required = (long) size + additional;
+            long grown = Math.max(required, buffer.length * 2L);
+            if (required > Integer.MAX_VALUE - 8) {
+                throw new OutOfMemoryError("Bloc CSV trop volumineux : " + required + " octets");
+            }
+            byte[] larger = new byte[(int) Math.min(grown, Integer.MAX_VALUE - 8)];
+            System.arraycopy(buffer, 0, larger, 0, size);
+            buffer = larger;
+        }
+    }
+
+    /** Nombre d'octets encodés jusqu'ici. */
+    public int size() {
+        return size;
+    }
+
+    /** Nombre d'enregistrements encodés jusqu'ici. */
+    @Override
+    public int recordCount() {
+        return recordCount;
+    }
+
+    /** Copie des octets encodés jusqu'ici. */
+    public byte[] toByteArray() {
+        byte[] copy = new byte[size];
+        System.arraycopy(buffer, 0, copy, 0, size);
+        return copy;
+    }
+
+    /** Écrit les octets encodés dans le flux, sans vider le tampon. */
+    public void writeTo(OutputStream out) throws IOException {
+        out.write(buffer, 0, size);
+    }
+
+    /** Vide le tampon en conservant sa capacité. */
+    @Override
+    public void reset() {
+        size = 0;
+        recordCount = 0;
+    }
+}
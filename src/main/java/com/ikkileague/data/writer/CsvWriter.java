@@ -1,42 +1,83 @@
 package com.ikkileague.data.writer;
 
-import java.io.BufferedWriter;
 import java.io.IOException;
-import java.nio.charset.StandardCharsets;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.List;
 
-import org.apache.commons.csv.CSVFormat;
-import org.apache.commons.csv.CSVPrinter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.ikkileague.data.exception.ConversionException;
+import com.ikkileague.data.formatter.FormattedRecord;
 
-public class CsvWriter implements AutoCloseable {
+/**
+ * Écrit le fichier CSV de sortie (UTF-8, séparateur ',', séparateur de ligne
+ * CRLF, guillemets minimaux selon la RFC 4180).
+ * <p>
+ * Les enregistrements sont encodés par un {@link CsvBlockEncoder} dans un
+ * grand tampon d'octets réutilisé, vidé dans le fichier par blocs de
+ * {@link #FLUSH_THRESHOLD} octets : il n'y a ni étape d'encodage
+ * supplémentaire ni appel par caractère vers un {@code Writer}.
+ */
+public class CsvWriter implements RecordSink {
 
     private static final Logger logger = LoggerFactory.getLogger(CsvWriter.class);
 
-    private final CSVPrinter csvPrinter;
-    private final BufferedWriter writer;
-
+    /** Taille à partir de laquelle le tampon d'encodage est écrit dans le fichier : 256 Kio. */
+    static final int FLUSH_THRESHOLD = 256 * 1024;
 
+    private final OutputStream output;
+    private final CsvBlockEncoder encoder;
+    // Octets déjà transmis au fichier, tampon d'encodage non compris
+    private long bytesWritten;
+    // Faux pour un flux fourni par l'appelant, dont la longueur réelle n'est pas connue
+    private final boolean resumable;
+    private boolean closed;
 
     public CsvWriter(Path outputPath, List<String> headers) throws ConversionException {
+        this(outputPath, headers, 0);
+    }
+
+    /**
+     * Écrit le CSV dans un flux fourni par l'appelant (flux compressé, par
+     * exemple), fermé avec ce writer.
+     */
+    public CsvWriter(OutputStream output, List<String> headers) throws ConversionException {
+        logger.debug("CSV Headers: {}", headers);
+        this.encoder = new CsvBlockEncoder(FLUSH_THRESHOLD + FLUSH_THRESHOLD / 4);
+        encoder.append(headers);
+        this.output = output;
+        this.resumable = false;
+    }
+
+    /**
+     * Ouvre le fichier CSV en reprenant une écriture interrompue : le fichier
+     * est tronqué à {@code resumeLength} octets et les enregistrements suivants
+     * sont ajoutés à la suite, sans réécrire l'en-tête. Avec
+     * {@code resumeLength == 0}, le fichier est créé ou écrasé comme d'habitude.
+     */
+    public CsvWriter(Path outputPath, List<String> headers, long resumeLength) throws ConversionException {
         logger.info("Initializing CSV writer for output file: {}", outputPath);
         logger.debug("CSV Headers: {}", headers);
+        this.encoder = new CsvBlockEncoder(FLUSH_THRESHOLD + FLUSH_THRESHOLD / 4);
+        this.resumable = true;
         try {
-            this.writer = Files.newBufferedWriter(outputPath, StandardCharsets.UTF_8);
-
-            // Configuration du format CSV : séparateur ',', séparateur de ligne CRLF (RFC 4180)
-            CSVFormat format = CSVFormat.DEFAULT.builder()
-                    .setHeader(headers.toArray(new String[0])) // remplace withHeader
-                    .setRecordSeparator("\r\n") // CRLF
-                    .setDelimiter(',') // virgule
-                    .build();
-
-            this.csvPrinter = new CSVPrinter(writer, format);
+            if (resumeLength > 0) {
+                logger.info("Resuming CSV output at byte {}", resumeLength);
+                try (FileChannel channel = FileChannel.open(outputPath, StandardOpenOption.WRITE)) {
+                    channel.truncate(resumeLength);
+                }
+                this.output = Files.newOutputStream(outputPath, StandardOpenOption.APPEND);
+                this.bytesWritten = resumeLength;
+            } else {
+                // En-tête encodé une seule fois, en tête du tampon
+                encoder.encodeRecord(headers);
+                this.output = Files.newOutputStream(outputPath);
+            }
         } catch (IOException e) {
             throw new ConversionException("Error initializing CSV writer for file: " + outputPath, e);
         }
@@ -44,19 +85,107 @@ public class CsvWriter implements AutoCloseable {
 
     public void writeRecord(List<String> record) throws ConversionException {
         try {
-            csvPrinter.printRecord(record);
-            logger.trace("Record written: {}", record);
+            encode(record);
         } catch (IOException e) {
             logger.error("Error writing record to CSV file: {}. Message: {}", record, e.getMessage(), e);
             throw new ConversionException("Error writing record to CSV file: " + record, e);
         }
     }
 
+    /**
+     * Écrit un enregistrement formaté, sans matérialiser ses valeurs en chaînes.
+     */
+    public void writeRecord(FormattedRecord record) throws ConversionException {
+        try {
+            encode(record.fields());
+        } catch (IOException e) {
+            logger.error("Error writing record to CSV file: {}. Message: {}", record.fields(), e.getMessage(), e);
+            throw new ConversionException("Error writing record to CSV file: " + record.fields(), e);
+        }
+    }
+
+    @Override
+    public void write(FormattedRecord record) throws ConversionException {
+        writeRecord(record);
+    }
+
+    @Override
+    public RecordBlock newBlock(int sizeHint) {
+        return new CsvBlockEncoder(sizeHint + sizeHint / 4);
+    }
+
+    @Override
+    public void write(RecordBlock block) throws ConversionException {
+        writeEncoded((CsvBlockEncoder) block);
+    }
+
+    private void encode(List<? extends CharSequence> record) throws IOException {
+        ensureOpen();
+        encoder.encodeRecord(record);
+        if (encoder.size() >= FLUSH_THRESHOLD) {
+            flushBuffer();
+        }
+    }
+
+    /**
+     * Écrit tel quel un bloc d'enregistrements déjà encodés (voir
+     * {@link CsvBlockEncoder}), à la suite des enregistrements précédents.
+     */
+    public void writeEncoded(CsvBlockEncoder block) throws ConversionException {
+        try {
+            ensureOpen();
+            flushBuffer();
+            block.writeTo(output);
+            bytesWritten += block.size();
+        } catch (IOException e) {
+            logger.error("Error writing encoded block to CSV file. Message: {}", e.getMessage(), e);
+            throw new ConversionException("Error writing encoded block to CSV file", e);
+        }
+    }
+
+    /**
+     * Transmet au fichier tous les enregistrements écrits jusqu'ici.
+     *
+     * @return La longueur du fichier en octets, en-tête compris, ou -1 pour un
+     *         flux fourni par l'appelant.
+     */
+    @Override
+    public long flush() throws ConversionException {
+        try {
+            ensureOpen();
+            flushBuffer();
+            output.flush();
+            return resumable ? bytesWritten : -1;
+        } catch (IOException e) {
+            logger.error("Error flushing CSV file. Message: {}", e.getMessage(), e);
+            throw new ConversionException("Error flushing CSV file", e);
+        }
+    }
+
+    private void ensureOpen() throws IOException {
+        if (closed) {
+            throw new IOException("Stream closed");
+        }
+    }
+
+    private void flushBuffer() throws IOException {
+        if (encoder.size() > 0) {
+            encoder.writeTo(output);
+            bytesWritten += encoder.size();
+            encoder.reset();
+        }
+    }
+
     @Override
     public void close() throws IOException {
-        if (csvPrinter != null) {
+        if (!closed) {
             logger.info("Closing CSV writer.");
-            csvPrinter.close();
+            closed = true;
+            try {
+                flushBuffer();
+            } finally {
+                output.close();
+            }
         }
     }
-}
\ No newline at end of file
+}
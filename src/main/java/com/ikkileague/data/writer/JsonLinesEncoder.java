@@ -0,0 +1,208 @@
+package com.ikkileague.data.writer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+import com.ikkileague.data.exception.ConversionException;
+import com.ikkileague.data.formatter.FormattedRecord;
+import com.ikkileague.data.model.ColumnType;
+import com.ikkileague.data.model.RecordLayout;
+
+/**
+ * Encode des enregistrements au format JSON Lines : un objet JSON par ligne
+ * (terminée par LF), dont les clés sont les noms de colonnes dans l'ordre des
+ * métadonnées. Les valeurs STRING et DATE sont des chaînes ; les valeurs
+ * NUMERIC, déjà sous forme canonique (voir
+ * {@link com.ikkileague.data.formatter.NumericFieldFormatter}), sont écrites
+ * telles quelles comme nombres. Une valeur DATE ou NUMERIC vide donne
+ * {@code null}.
+ * <p>
+ * Comme {@link CsvBlockEncoder}, l'encodage se fait directement en octets
+ * UTF-8 dans un tampon réutilisable, les préfixes {@code "nom":} de chaque
+ * colonne étant encodés une seule fois. Une instance n'est pas thread-safe.
+ */
+public class JsonLinesEncoder implements RecordBlock {
+
+    private static final byte[] NULL = { 'n', 'u', 'l', 'l' };
+    private static final byte[] HEX = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+
+    // {"nom": pour la première colonne, ,"nom": pour les suivantes
+    private final byte[][] keyPrefixes;
+    private final ColumnType[] types;
+    private byte[] buffer;
+    private int size;
+    private int recordCount;
+
+    public JsonLinesEncoder(RecordLayout layout, int initialCapacity) {
+        this(keyPrefixes(layout), types(layout), initialCapacity);
+    }
+
+    // Préfixes partagés entre les blocs d'un même JsonLinesWriter
+    JsonLinesEncoder(byte[][] keyPrefixes, ColumnType[] types, int initialCapacity) {
+        this.keyPrefixes = keyPrefixes;
+        this.types = types;
+        this.buffer = new byte[Math.max(initialCapacity, 64)];
+    }
+
+    static byte[][] keyPrefixes(RecordLayout layout) {
+        byte[][] prefixes = new byte[layout.columnCount()][];
+        for (int i = 0; i < prefixes.length; i++) {
+            JsonLinesEncoder key = new JsonLinesEncoder(new byte[0][], new ColumnType[0], 64);
+            key.appendByte(i == 0 ? (byte) '{' : (byte) ',');
+            key.appendString(layout.getName(i));
+            key.appendByte((byte) ':');
+            prefixes[i] = key.toByteArray();
+        }
+        return prefixes;
+    }
+
+    static ColumnType[] types(RecordLayout layout) {
+        ColumnType[] types = new ColumnType[layout.columnCount()];
+        for (int i = 0; i < types.length; i++) {
+            types[i] = layout.getType(i);
+        }
+        return types;
+    }
+
+    @Override
+    public void append(FormattedRecord record) throws ConversionException {
+        for (int i = 0; i < keyPrefixes.length; i++) {
+            appendBytes(keyPrefixes[i]);
+            CharSequence value = record.field(i);
+            if (types[i] == ColumnType.STRING) {
+                appendString(value);
+            } else if (value.length() == 0) {
+                appendBytes(NULL);
+            } else if (types[i] == ColumnType.NUMERIC) {
+                // Forme canonique : chiffres, signe et point uniquement
+                ensureCapacity(value.length());
+                for (int c = 0; c < value.length(); c++) {
+                    buffer[size++] = (byte) value.charAt(c);
+                }
+            } else {
+                appendString(value);
+            }
+        }
+        if (keyPrefixes.length == 0) {
+            appendByte((byte) '{');
+        }
+        ensureCapacity(2);
+        buffer[size++] = '}';
+        buffer[size++] = '\n';
+        recordCount++;
+    }
+
+    // Chaîne JSON entre guillemets (RFC 8259) : '"', '\' et caractères de contrôle échappés
+    private void appendString(CharSequence value) {
+        int length = value.length();
+        // Pire cas : séquence d'échappement de 6 octets par caractère, plus les guillemets
+        ensureCapacity(6 * length + 2);
+        byte[] bytes = buffer;
+        int position = size;
+        bytes[position++] = '"';
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c >= 0x20 && c < 0x80) {
+                if (c == '"' || c == '\\') {
+                    bytes[position++] = '\\';
+                }
+                bytes[position++] = (byte) c;
+            } else if (c < 0x20) {
+                bytes[position++] = '\\';
+                switch (c) {
+                    case '\n':
+                        bytes[position++] = 'n';
+                        break;
+                    case '\r':
+                        bytes[position++] = 'r';
+                        break;
+                    case '\t':
+                        bytes[position++] = 't';
+                        break;
+                    default:
+                        bytes[position++] = 'u';
+                        bytes[position++] = '0';
+                        bytes[position++] = '0';
+                        bytes[position++] = HEX[c >> 4];
+                        bytes[position++] = HEX[c & 0xF];
+                }
+            } else if (c < 0x800) {
+                bytes[position++] = (byte) (0xC0 | (c >> 6));
+                bytes[position++] = (byte) (0x80 | (c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < length
+                    && Character.isLowSurrogate(value.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                bytes[position++] = (byte) (0xF0 | (codePoint >> 18));
+                bytes[position++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                bytes[position++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                bytes[position++] = (byte) (0x80 | (codePoint & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                // Surrogate isolé : échappé plutôt que de produire de l'UTF-8 invalide
+                bytes[position++] = '\\';
+                bytes[position++] = 'u';
+                bytes[position++] = HEX[c >> 12];
+                bytes[position++] = HEX[(c >> 8) & 0xF];
+                bytes[position++] = HEX[(c >> 4) & 0xF];
+                bytes[position++] = HEX[c & 0xF];
+            } else {
+                bytes[position++] = (byte) (0xE0 | (c >> 12));
+                bytes[position++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                bytes[position++] = (byte) (0x80 | (c & 0x3F));
+            }
+        }
+        bytes[position++] = '"';
+        size = position;
+    }
+
+    private void appendBytes(byte[] bytes) {
+        ensureCapacity(bytes.length);
+        System.arraycopy(bytes, 0, buffer, size, bytes.length);
+        size += bytes.length;
+    }
+
+    private void appendByte(byte b) {
+        ensureCapacity(1);
+        buffer[size++] = b;
+    }
+
+    private void ensureCapacity(int additional) {
+        if (buffer.length - size < additional) {
+            long required = (long) size + additional;
+            if (required > Integer.MAX_VALUE - 8) {
+                throw new OutOfMemoryError("Bloc JSON trop volumineux : " + required + " octets");
+            }
+            byte[] larger = new byte[(int) Math.min(Math.max(required, buffer.length * 2L), Integer.MAX_VALUE - 8)];
+            System.arraycopy(buffer, 0, larger, 0, size);
+            buffer = larger;
+        }
+    }
+
+    /** Nombre d'octets encodés jusqu'ici. */
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public int recordCount() {
+        return recordCount;
+    }
+
+    /** Copie des octets encodés jusqu'ici. */
+    public byte[] toByteArray() {
+        byte[] copy = new byte[size];
+        System.arraycopy(buffer, 0, copy, 0, size);
+        return copy;
+    }
+
+    /** Écrit les octets encodés dans le flux, sans vider le tampon. */
+    public void writeTo(OutputStream out) throws IOException {
+        out.write(buffer, 0, size);
+    }
+
+    @Override
+    public void reset() {
+        size = 0;
+        recordCount = 0;
+    }
+}
@@ -0,0 +1,115 @@
+package com.ikkileague.data.writer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.ikkileague.data.exception.ConversionException;
+import com.ikkileague.data.formatter.FormattedRecord;
+import com.ikkileague.data.model.ColumnType;
+import com.ikkileague.data.model.RecordLayout;
+
+/**
+ * Écrit les enregistrements au format JSON Lines (UTF-8, un objet par ligne,
+ * séparateur de ligne LF, sans en-tête). Voir {@link JsonLinesEncoder} pour la
+ * représentation des valeurs.
+ * <p>
+ * Comme {@link CsvWriter}, les enregistrements sont encodés dans un tampon
+ * d'octets réutilisé, vidé dans le flux par blocs de
+ * {@link CsvWriter#FLUSH_THRESHOLD} octets.
+ */
+public class JsonLinesWriter implements RecordSink {
+
+    private static final Logger logger = LoggerFactory.getLogger(JsonLinesWriter.class);
+
+    private final OutputStream output;
+    private final byte[][] keyPrefixes;
+    private final ColumnType[] types;
+    private final JsonLinesEncoder encoder;
+    private boolean closed;
+
+    /** Écrit dans le flux fourni, fermé avec ce writer. */
+    public JsonLinesWriter(OutputStream output, RecordLayout layout) {
+        logger.debug("JSON Lines keys: {}", layout.getHeaders());
+        this.output = output;
+        this.keyPrefixes = JsonLinesEncoder.keyPrefixes(layout);
+        this.types = JsonLinesEncoder.types(layout);
+        this.encoder = new JsonLinesEncoder(keyPrefixes, types,
+                CsvWriter.FLUSH_THRESHOLD + CsvWriter.FLUSH_THRESHOLD / 4);
+    }
+
+    @Override
+    public void write(FormattedRecord record) throws ConversionException {
+        try {
+            ensureOpen();
+            encoder.append(record);
+            if (encoder.size() >= CsvWriter.FLUSH_THRESHOLD) {
+                flushBuffer();
+            }
+        } catch (IOException e) {
+            logger.error("Error writing record to JSON Lines file: {}. Message: {}", record.fields(),
+                    e.getMessage(), e);
+            throw new ConversionException("Error writing record to JSON Lines file: " + record.fields(), e);
+        }
+    }
+
+    @Override
+    public RecordBlock newBlock(int sizeHint) {
+        // Les clés répétées sur chaque ligne rendent le JSON plus volumineux que l'entrée
+        return new JsonLinesEncoder(keyPrefixes, types, sizeHint * 2);
+    }
+
+    @Override
+    public void write(RecordBlock block) throws ConversionException {
+        try {
+            ensureOpen();
+            flushBuffer();
+            ((JsonLinesEncoder) block).writeTo(output);
+        } catch (IOException e) {
+            logger.error("Error writing encoded block to JSON Lines file. Message: {}", e.getMessage(), e);
+            throw new ConversionException("Error writing encoded block to JSON Lines file", e);
+        }
+    }
+
+    /** @return -1 : une sortie JSON Lines n'est pas reprise après interruption. */
+    @Override
+    public long flush() throws ConversionException {
+        try {
+            ensureOpen();
+            flushBuffer();
+            output.flush();
+            return -1;
+        } catch (IOException e) {
+            logger.error("Error flushing JSON Lines file. Message: {}", e.getMessage(), e);
+            throw new ConversionException("Error flushing JSON Lines file", e);
+        }
+    }
+
+    private void ensureOpen() throws IOException {
+        if (closed) {
+            throw new IOException("Stream closed");
+        }
+    }
+
+    private void flushBuffer() throws IOException {
+        if (encoder.size() > 0) {
+            encoder.writeTo(output);
+            encoder.reset();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (!closed) {
+            logger.info("Closing JSON Lines writer.");
+            closed = true;
+            try {
+                flushBuffer();
+            } finally {
+                output.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.ikkileague.data.writer;
+
+import java.nio.file.Path;
+
+/**
+ * Formats de sortie, reconnus à l'extension du fichier de sortie (une
+ * extension {@code .gz} finale étant ignorée).
+ */
+public enum OutputFormat {
+    /** CSV RFC 4180 ({@link CsvWriter}) : format par défaut. */
+    CSV("csv"),
+    /** Un objet JSON par ligne ({@link JsonLinesWriter}) ; extensions {@code .jsonl} ou {@code .ndjson}. */
+    JSONL("jsonl"),
+    /** Format colonne binaire ({@link ColumnarWriter}) ; extension {@code .f2c}. */
+    COLUMNAR("f2c");
+
+    private final String extension;
+
+    OutputFormat(String extension) {
+        this.extension = extension;
+    }
+
+    /** Extension de fichier, sans le point. */
+    public String getExtension() {
+        return extension;
+    }
+
+    /** Format d'après l'extension du fichier ; CSV pour toute extension inconnue. */
+    public static OutputFormat forPath(Path path) {
+        String name = path.getFileName().toString().toLowerCase();
+        if (name.endsWith(".gz")) {
+            name = name.substring(0, name.length() - 3);
+        }
+        if (name.endsWith(".jsonl") || name.endsWith(".ndjson")) {
+            return JSONL;
+        }
+        if (name.endsWith("." + COLUMNAR.extension)) {
+            return COLUMNAR;
+        }
+        return CSV;
+    }
+}
@@ -0,0 +1,237 @@
+package com.ikkileague.data.writer;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Flux de sortie gzip compressé en parallèle, à la manière de pigz.
+ * <p>
+ * Les octets reçus sont regroupés en blocs de {@code blockSize} octets ; chaque
+ * bloc est compressé indépendamment, sur un pool de threads, en un membre gzip
+ * complet (en-tête, données DEFLATE, CRC-32 et taille). Les membres sont écrits
+ * dans l'ordre des blocs : leur concaténation est un fichier gzip valide
+ * (RFC 1952), que gzip, zcat ou {@link java.util.zip.GZIPInputStream} lisent
+ * comme un flux unique. Chaque membre repartant d'un dictionnaire vide, le taux
+ * de compression est un peu inférieur à celui d'un gzip d'un seul tenant.
+ * <p>
+ * Au plus deux blocs par thread sont en cours de compression : un écrivain plus
+ * rapide que la compression est ralenti plutôt que de remplir la mémoire. Les
+ * tampons de blocs et les {@link Deflater} sont recyclés d'un bloc à l'autre.
+ * Une instance n'est pas thread-safe : un seul thread y écrit.
+ */
+public class ParallelGzipOutputStream extends OutputStream {
+
+    /** Taille par défaut d'un bloc compressé en un membre gzip : 1 Mio. */
+    public static final int DEFAULT_BLOCK_SIZE = 1024 * 1024;
+
+    // ID1, ID2, CM = DEFLATE, FLG, MTIME (4 octets), XFL, OS = inconnu
+    private static final byte[] HEADER = { 0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, (byte) 0xff };
+    // CRC-32 et taille non compressée, sur 4 octets chacun
+    private static final int TRAILER_LENGTH = 8;
+
+    private static final AtomicInteger POOL_COUNTER = new AtomicInteger();
+
+    private final OutputStream out;
+    private final int level;
+    private final int blockSize;
+    private final int maxPending;
+    private final ExecutorService compressors;
+    private final Deque<Future<Member>> pending = new ArrayDeque<>();
+    private final Queue<byte[]> freeBlocks = new ConcurrentLinkedQueue<>();
+    private final Queue<Deflater> deflaters = new ConcurrentLinkedQueue<>();
+
+    private byte[] block;
+    private int blockLength;
+    private boolean memberSubmitted;
+    private boolean closed;
+
+    public ParallelGzipOutputStream(OutputStream out, int threads, int level) {
+        this(out, threads, level, DEFAULT_BLOCK_SIZE);
+    }
+
+    /**
+     * @param threads   Nombre de threads de compression.
+     * @param level     Niveau de compression, de 1 à 9, ou {@link Deflater#DEFAULT_COMPRESSION}.
+     * @param blockSize Octets non compressés par membre gzip.
+     */
+    public ParallelGzipOutputStream(OutputStream out, int threads, int level, int blockSize) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Le nombre de threads de compression doit être >= 1 : " + threads);
+        }
+        if (level != Deflater.DEFAULT_COMPRESSION && (level < 1 || level > 9)) {
+            throw new IllegalArgumentException("Le niveau de compression doit être compris entre 1 et 9 : " + level);
+        }
+        if (blockSize < 1) {
+            throw new IllegalArgumentException("La taille de bloc doit être >= 1 : " + blockSize);
+        }
+        this.out = out;
+        this.level = level;
+        this.blockSize = blockSize;
+        this.maxPending = 2 * threads;
+        int pool = POOL_COUNTER.incrementAndGet();
+        AtomicInteger counter = new AtomicInteger();
+        this.compressors = Executors.newFixedThreadPool(threads, task -> {
+            Thread thread = new Thread(task, "fixed2csv-gzip-" + pool + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.block = new byte[blockSize];
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        ensureOpen();
+        block[blockLength++] = (byte) b;
+        if (blockLength == blockSize) {
+            submitBlock();
+        }
+    }
+
+    @Override
+    public void write(byte[] bytes, int offset, int length) throws IOException {
+        ensureOpen();
+        while (length > 0) {
+            int copied = Math.min(length, blockSize - blockLength);
+            System.arraycopy(bytes, offset, block, blockLength, copied);
+            blockLength += copied;
+            offset += copied;
+            length -= copied;
+            if (blockLength == blockSize) {
+                submitBlock();
+            }
+        }
+    }
+
+    /**
+     * Termine le membre en cours (même incomplet), attend la compression de
+     * tous les blocs puis vide le flux sous-jacent.
+     */
+    @Override
+    public void flush() throws IOException {
+        ensureOpen();
+        if (blockLength > 0) {
+            submitBlock();
+        }
+        drain(0);
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        try {
+            // Un fichier gzip contient au moins un membre, éventuellement vide
+            if (blockLength > 0 || !memberSubmitted) {
+                submitBlock();
+            }
+            drain(0);
+        } finally {
+            closed = true;
+            compressors.shutdownNow();
+            Deflater deflater;
+            while ((deflater = deflaters.poll()) != null) {
+                deflater.end();
+            }
+            out.close();
+        }
+    }
+
+    private void submitBlock() throws IOException {
+        drain(maxPending - 1);
+        byte[] data = block;
+        int length = blockLength;
+        pending.addLast(compressors.submit(() -> compress(data, length)));
+        memberSubmitted = true;
+        byte[] free = freeBlocks.poll();
+        block = free != null ? free : new byte[blockSize];
+        blockLength = 0;
+    }
+
+    // Écrit, dans l'ordre, les membres compressés jusqu'à n'en laisser que maxRemaining en cours
+    private void drain(int maxRemaining) throws IOException {
+        while (pending.size() > maxRemaining) {
+            Member member = await(pending.removeFirst());
+            out.write(member.bytes, 0, member.length);
+        }
+    }
+
+    private Member compress(byte[] data, int length) {
+        Deflater deflater = deflaters.poll();
+        if (deflater == null) {
+            deflater = new Deflater(level, true);
+        }
+        try {
+            CRC32 crc = new CRC32();
+            crc.update(data, 0, length);
+            deflater.setInput(data, 0, length);
+            deflater.finish();
+
+            byte[] member = new byte[HEADER.length + length + length / 8 + 64 + TRAILER_LENGTH];
+            System.arraycopy(HEADER, 0, member, 0, HEADER.length);
+            int size = HEADER.length;
+            while (!deflater.finished()) {
+                if (size == member.length - TRAILER_LENGTH) {
+                    member = Arrays.copyOf(member, member.length * 2);
+                }
+                size += deflater.deflate(member, size, member.length - TRAILER_LENGTH - size);
+            }
+            writeIntLE(member, size, (int) crc.getValue());
+            writeIntLE(member, size + 4, length);
+            return new Member(member, size + TRAILER_LENGTH);
+        } finally {
+            deflater.reset();
+            deflaters.offer(deflater);
+            freeBlocks.offer(data);
+        }
+    }
+
+    private static void writeIntLE(byte[] bytes, int offset, int value) {
+        bytes[offset] = (byte) value;
+        bytes[offset + 1] = (byte) (value >>> 8);
+        bytes[offset + 2] = (byte) (value >>> 16);
+        bytes[offset + 3] = (byte) (value >>> 24);
+    }
+
+    private static Member await(Future<Member> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Compression interrompue");
+        } catch (ExecutionException e) {
+            throw new IOException("Échec de la compression gzip : " + e.getCause().getMessage(), e.getCause());
+        }
+    }
+
+    private void ensureOpen() throws IOException {
+        if (closed) {
+            throw new IOException("Stream closed");
+        }
+    }
+
+    /** Membre gzip complet : {@code bytes[0 .. length[}. */
+    private static final class Member {
+        final byte[] bytes;
+        final int length;
+
+        Member(byte[] bytes, int length) {
+            this.bytes = bytes;
+            this.length = length;
+        }
+    }
+}
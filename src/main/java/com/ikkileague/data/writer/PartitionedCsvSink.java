@@ -0,0 +1,442 @@
+package com.ikkileague.data.writer;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.ikkileague.data.exception.ConversionException;
+import com.ikkileague.data.formatter.FormattedRecord;
+import com.ikkileague.data.model.ColumnType;
+import com.ikkileague.data.model.RecordLayout;
+
+/**
+ * Sortie CSV découpée en partitions (voir {@link Partitioning}), en une seule
+ * passe sur l'entrée.
+ * <p>
+ * Le chemin de sortie sert de modèle : pour {@code out/clients.csv}, une
+ * partition par valeur est écrite dans {@code out/<colonne>=<valeur>/clients.csv}
+ * et une partition par hachage dans {@code out/clients-00003.csv}. Chaque
+ * fichier a son propre {@link CsvWriter}, avec son en-tête et son grand tampon
+ * d'encodage. Les valeurs sont échappées comme le fait Hive ({@code %XX}) et
+ * une valeur vide va dans {@value #DEFAULT_PARTITION}.
+ * <p>
+ * Au plus {@code maxOpenWriters} fichiers sont ouverts à la fois : au-delà, le
+ * moins récemment utilisé est fermé, puis rouvert en ajout s'il reçoit de
+ * nouveaux enregistrements. Un fichier existant est écrasé à sa première
+ * ouverture dans la conversion. En fin de découpage par hachage, les fichiers
+ * qui n'ont reçu aucun enregistrement sont créés avec leur seul en-tête.
+ * <p>
+ * Les blocs des modes parallèle et pipeline regroupent les enregistrements par
+ * partition dès l'encodage, sur les threads de conversion ; avec plusieurs
+ * threads d'écriture, les partitions d'un même bloc sont ensuite écrites en
+ * parallèle, chacune dans l'ordre du fichier d'entrée.
+ */
+public class PartitionedCsvSink implements RecordSink {
+
+    private static final Logger logger = LoggerFactory.getLogger(PartitionedCsvSink.class);
+
+    /** Partition des valeurs vides, nommée comme dans Hive. */
+    public static final String DEFAULT_PARTITION = "__HIVE_DEFAULT_PARTITION__";
+
+    // Caractères échappés dans les noms de répertoires, comme dans Hive
+    private static final String ESCAPED_CHARACTERS = "\"#%'*/:=?\\[]^{}<>|";
+
+    private final Path outputPath;
+    private final List<String> headers;
+    private final Partitioning partitioning;
+    private final int column;
+    private final int maxOpenWriters;
+    private final int writeThreads;
+    // Partitions par hachage, connues d'avance
+    private final Partition[] shards;
+    // Partitions par valeur, créées au fil des blocs, depuis n'importe quel thread
+    private final Map<String, Partition> partitionsByKey = new ConcurrentHashMap<>();
+    // Fichiers ouverts, du moins au plus récemment utilisé
+    private final LinkedHashMap<Partition, CsvWriter> openWriters = new LinkedHashMap<>(16, 0.75f, true);
+    // Partition du dernier enregistrement écrit un par un
+    private final StringBuilder scratchKey = new StringBuilder();
+    private Partition lastPartition;
+    private ExecutorService writePool;
+    private int reopenings;
+    private boolean closed;
+
+    /**
+     * @param maxOpenWriters Nombre maximal de fichiers ouverts simultanément.
+     * @param writeThreads   Nombre de threads écrivant les partitions d'un bloc ;
+     *                       1 pour écrire sur le seul thread appelant.
+     * @throws ConversionException si la colonne de partition n'est pas écrite, ou
+     *                             si une granularité de date porte sur une
+     *                             colonne d'un autre type.
+     */
+    public PartitionedCsvSink(Path outputPath, RecordLayout layout, Partitioning partitioning, int maxOpenWriters,
+            int writeThreads) throws ConversionException {
+        if (maxOpenWriters < 1) {
+            throw new IllegalArgumentException("Le nombre de fichiers ouverts doit être >= 1 : " + maxOpenWriters);
+        }
+        this.outputPath = outputPath.toAbsolutePath();
+        this.headers = layout.getHeaders();
+        this.partitioning = partitioning;
+        this.column = layout.indexOf(partitioning.getColumn());
+        if (column < 0) {
+            throw new ConversionException("La colonne de partition '" + partitioning.getColumn()
+                    + "' ne fait pas partie des colonnes écrites : " + headers);
+        }
+        if (partitioning.getGranularity() != Partitioning.Granularity.VALUE
+                && layout.getType(column) != ColumnType.DATE) {
+            throw new ConversionException("La partition par " + partitioning
+                    + " exige une colonne de type date ; '" + partitioning.getColumn() + "' est de type "
+                    + layout.getType(column) + ".");
+        }
+        this.maxOpenWriters = maxOpenWriters;
+        this.writeThreads = writeThreads;
+        if (partitioning.isHashed()) {
+            this.shards = new Partition[partitioning.getShards()];
+            for (int i = 0; i < shards.length; i++) {
+                shards[i] = new Partition(shardPath(i));
+            }
+        } else {
+            this.shards = null;
+        }
+        logger.info("Partitioned CSV output by {} next to {} ({} open files at most)", partitioning, outputPath,
+                maxOpenWriters);
+    }
+
+    @Override
+    public void write(FormattedRecord record) throws ConversionException {
+        ensureOpen();
+        Partition partition = partitionOf(record, scratchKey, lastPartition);
+        lastPartition = partition;
+        writerFor(partition).write(record);
+    }
+
+    @Override
+    public RecordBlock newBlock(int sizeHint) {
+        return new PartitionedBlock(sizeHint);
+    }
+
+    @Override
+    public void write(RecordBlock block) throws ConversionException {
+        ensureOpen();
+        PartitionedBlock partitioned = (PartitionedBlock) block;
+        List<Partition> partitions = new ArrayList<>(partitioned.order.size());
+        for (Partition partition : partitioned.order) {
+            if (partitioned.parts.get(partition).recordCount() > 0) {
+                partitions.add(partition);
+            }
+        }
+        // Par groupes d'au plus maxOpenWriters partitions : aucune n'est fermée avant d'avoir été écrite
+        for (int start = 0; start < partitions.size(); start += maxOpenWriters) {
+            List<Partition> group = partitions.subList(start, Math.min(partitions.size(), start + maxOpenWriters));
+            List<CsvWriter> writers = new ArrayList<>(group.size());
+            List<CsvBlockEncoder> encoded = new ArrayList<>(group.size());
+            for (Partition partition : group) {
+                writers.add(writerFor(partition));
+                encoded.add(partitioned.parts.get(partition));
+            }
+            if (writeThreads > 1 && group.size() > 1) {
+                writeInParallel(writers, encoded);
+            } else {
+                for (int i = 0; i < group.size(); i++) {
+                    writers.get(i).writeEncoded(encoded.get(i));
+                }
+            }
+        }
+    }
+
+    /** @return -1 : une sortie partitionnée n'est pas reprise après interruption. */
+    @Override
+    public long flush() throws ConversionException {
+        ensureOpen();
+        for (CsvWriter writer : openWriters.values()) {
+            writer.flush();
+        }
+        return -1;
+    }
+
+    /** Ferme tous les fichiers, même si l'un d'eux échoue. */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        IOException failure = null;
+        for (CsvWriter writer : openWriters.values()) {
+            try {
+                writer.close();
+            } catch (IOException e) {
+                failure = addFailure(failure, e);
+            }
+        }
+        openWriters.clear();
+        if (writePool != null) {
+            writePool.shutdownNow();
+        }
+        if (shards != null && failure == null) {
+            // Tous les fichiers numérotés existent, même ceux qu'aucun enregistrement n'a atteints
+            for (Partition shard : shards) {
+                if (!shard.created) {
+                    try {
+                        new CsvWriter(shard.path, headers).close();
+                    } catch (ConversionException e) {
+                        failure = addFailure(failure, new IOException(e.getMessage(), e));
+                    }
+                }
+            }
+        }
+        logger.info("Partitioned CSV output closed: {} files, {} reopened after eviction",
+                shards != null ? shards.length : partitionsByKey.size(), reopenings);
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    // Partition de l'enregistrement ; 'previous' évite une recherche quand la partition ne change pas
+    private Partition partitionOf(FormattedRecord record, StringBuilder key, Partition previous) {
+        CharSequence value = record.field(column);
+        if (shards != null) {
+            return shards[shardOf(value)];
+        }
+        key.setLength(0);
+        appendKey(value, key);
+        if (previous != null && previous.key.contentEquals(key)) {
+            return previous;
+        }
+        String partitionKey = key.toString();
+        Partition partition = partitionsByKey.get(partitionKey);
+        if (partition == null) {
+            partition = partitionsByKey.computeIfAbsent(partitionKey,
+                    k -> new Partition(valuePath(k), k));
+        }
+        return partition;
+    }
+
+    // Hachage stable d'une exécution à l'autre, brassé pour répartir aussi les valeurs proches
+    private int shardOf(CharSequence value) {
+        int hash = 0;
+        for (int i = 0; i < value.length(); i++) {
+            hash = 31 * hash + value.charAt(i);
+        }
+        hash ^= hash >>> 16;
+        hash *= 0x85ebca6b;
+        hash ^= hash >>> 13;
+        return Math.floorMod(hash, shards.length);
+    }
+
+    // Valeur de partition : valeur formatée, ou partie d'une date JJ/MM/AAAA
+    private void appendKey(CharSequence value, StringBuilder key) {
+        if (value.length() == 0) {
+            key.append(DEFAULT_PARTITION);
+            return;
+        }
+        switch (partitioning.getGranularity()) {
+        case YEAR:
+            key.append(value, 6, 10);
+            break;
+        case MONTH:
+            key.append(value, 6, 10).append('-').append(value, 3, 5);
+            break;
+        case DAY:
+            key.append(value, 6, 10).append('-').append(value, 3, 5).append('-').append(value, 0, 2);
+            break;
+        case VALUE:
+        default:
+            key.append(value);
+        }
+    }
+
+    // Fichier ouvert de la partition ; ferme le moins récemment utilisé si la limite est atteinte
+    private CsvWriter writerFor(Partition partition) throws ConversionException {
+        CsvWriter writer = openWriters.get(partition);
+        if (writer != null) {
+            return writer;
+        }
+        if (openWriters.size() >= maxOpenWriters) {
+            Iterator<CsvWriter> eldest = openWriters.values().iterator();
+            CsvWriter evicted = eldest.next();
+            eldest.remove();
+            try {
+                evicted.close();
+            } catch (IOException e) {
+                throw new ConversionException("Error closing partition file: " + e.getMessage(), e);
+            }
+        }
+        try {
+            if (partition.created) {
+                // Rouvert après éviction : ajout à la suite, sans nouvel en-tête
+                writer = new CsvWriter(partition.path, headers, Files.size(partition.path));
+                reopenings++;
+            } else {
+                Files.createDirectories(partition.path.getParent());
+                writer = new CsvWriter(partition.path, headers);
+                partition.created = true;
+            }
+        } catch (IOException e) {
+            throw new ConversionException("Error opening partition file: " + partition.path, e);
+        }
+        openWriters.put(partition, writer);
+        return writer;
+    }
+
+    private void writeInParallel(List<CsvWriter> writers, List<CsvBlockEncoder> encoded)
+            throws ConversionException {
+        if (writePool == null) {
+            AtomicInteger threadCount = new AtomicInteger();
+            writePool = Executors.newFixedThreadPool(writeThreads, runnable -> {
+                Thread thread = new Thread(runnable, "fixed2csv-partition-writer-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        List<Future<Void>> writes = new ArrayList<>(writers.size());
+        for (int i = 0; i < writers.size(); i++) {
+            CsvWriter writer = writers.get(i);
+            CsvBlockEncoder block = encoded.get(i);
+            writes.add(writePool.submit(() -> {
+                writer.writeEncoded(block);
+                return null;
+            }));
+        }
+        ConversionException failure = null;
+        for (Future<Void> write : writes) {
+            try {
+                write.get();
+            } catch (ExecutionException e) {
+                if (failure == null) {
+                    failure = e.getCause() instanceof ConversionException ? (ConversionException) e.getCause()
+                            : new ConversionException("Error writing partition file", e.getCause());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ConversionException("Interrupted while writing partition files", e);
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private Path shardPath(int shard) {
+        String name = outputPath.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        String baseName = dot > 0 ? name.substring(0, dot) : name;
+        String extension = dot > 0 ? name.substring(dot) : "";
+        return outputPath.resolveSibling(String.format("%s-%05d%s", baseName, shard, extension));
+    }
+
+    private Path valuePath(String key) {
+        String directory = escape(partitioning.getColumn()) + "=" + escape(key);
+        return outputPath.resolveSibling(directory).resolve(outputPath.getFileName());
+    }
+
+    // Échappement %XX des caractères interdits ou ambigus dans un nom de répertoire
+    static String escape(String value) {
+        StringBuilder escaped = new StringBuilder(value.length() + 8);
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            // Un point initial ferait de « . » ou « .. » un chemin relatif
+            if (c < ' ' || c == 0x7F || ESCAPED_CHARACTERS.indexOf(c) >= 0 || (i == 0 && c == '.')) {
+                escaped.append('%').append(String.format("%02X", (int) c));
+            } else {
+                escaped.append(c);
+            }
+        }
+        return escaped.toString();
+    }
+
+    private static IOException addFailure(IOException failure, IOException e) {
+        if (failure == null) {
+            return e;
+        }
+        failure.addSuppressed(e);
+        return failure;
+    }
+
+    private void ensureOpen() throws ConversionException {
+        if (closed) {
+            throw new ConversionException("Partitioned CSV output already closed");
+        }
+    }
+
+    /** Fichier d'une partition ; l'état n'est lu et modifié que par le thread d'écriture. */
+    private static final class Partition {
+        private final Path path;
+        private final String key;
+        private boolean created;
+
+        Partition(Path path) {
+            this(path, "");
+        }
+
+        Partition(Path path, String key) {
+            this.path = path;
+            this.key = key;
+        }
+    }
+
+    /**
+     * Bloc regroupant les enregistrements par partition, dans l'ordre de leur
+     * première apparition : chaque partition reçoit un bloc CSV déjà encodé.
+     * Les encodeurs sont conservés d'un remplissage à l'autre (lots du
+     * pipeline) ; ceux restés vides ne sont pas écrits.
+     */
+    private final class PartitionedBlock implements RecordBlock {
+        private final int sizeHint;
+        private final Map<Partition, CsvBlockEncoder> parts = new IdentityHashMap<>();
+        private final List<Partition> order = new ArrayList<>();
+        private final StringBuilder key = new StringBuilder();
+        private Partition lastPartition;
+        private CsvBlockEncoder lastEncoder;
+        private int recordCount;
+
+        PartitionedBlock(int sizeHint) {
+            this.sizeHint = sizeHint;
+        }
+
+        @Override
+        public void append(FormattedRecord record) throws ConversionException {
+            Partition partition = partitionOf(record, key, lastPartition);
+            if (partition != lastPartition) {
+                CsvBlockEncoder encoder = parts.get(partition);
+                if (encoder == null) {
+                    // Taille de départ modeste : le bloc se répartit entre plusieurs partitions
+                    encoder = new CsvBlockEncoder(Math.max(1024, sizeHint / 8));
+                    parts.put(partition, encoder);
+                    order.add(partition);
+                }
+                lastPartition = partition;
+                lastEncoder = encoder;
+            }
+            lastEncoder.append(record);
+            recordCount++;
+        }
+
+        @Override
+        public int recordCount() {
+            return recordCount;
+        }
+
+        @Override
+        public void reset() {
+            for (CsvBlockEncoder encoder : parts.values()) {
+                encoder.reset();
+            }
+            recordCount = 0;
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.ikkileague.data.writer;
+
+import java.util.Locale;
+import java.util.Objects;
+
+/**
+ * Découpage de la sortie CSV en plusieurs fichiers (voir
+ * {@link PartitionedCsvSink}) :
+ * <ul>
+ * <li>par valeur d'une colonne, dans des répertoires à la manière de Hive
+ * ({@code DateNaissance=1990-05/clients.csv}) ; pour une colonne de type date,
+ * la valeur peut être ramenée à l'année, au mois ou au jour ;</li>
+ * <li>par hachage d'une colonne en un nombre fixe de fichiers numérotés
+ * ({@code clients-00003.csv}).</li>
+ * </ul>
+ * La partition d'un enregistrement est calculée sur sa valeur formatée : la
+ * colonne doit donc faire partie des colonnes écrites.
+ * <p>
+ * Les instances sont immuables.
+ */
+public final class Partitioning {
+
+    /** Valeur retenue d'une colonne pour le découpage par valeur. */
+    public enum Granularity {
+        /** Valeur formatée complète. */
+        VALUE,
+        /** Année d'une date : {@code AAAA}. */
+        YEAR,
+        /** Mois d'une date : {@code AAAA-MM}. */
+        MONTH,
+        /** Jour d'une date : {@code AAAA-MM-JJ}. */
+        DAY
+    }
+
+    private final String column;
+    private final Granularity granularity;
+    private final int shards;
+
+    private Partitioning(String column, Granularity granularity, int shards) {
+        this.column = Objects.requireNonNull(column, "column");
+        this.granularity = granularity;
+        this.shards = shards;
+    }
+
+    /** Un fichier par valeur (ou par année, mois, jour) de la colonne. */
+    public static Partitioning byValue(String column, Granularity granularity) {
+        return new Partitioning(column, Objects.requireNonNull(granularity, "granularity"), 0);
+    }
+
+    /** {@code shards} fichiers numérotés, selon le hachage de la valeur de la colonne. */
+    public static Partitioning byHash(String column, int shards) {
+        if (shards < 1) {
+            throw new IllegalArgumentException("Le nombre de fichiers doit être >= 1 : " + shards);
+        }
+        return new Partitioning(column, Granularity.VALUE, shards);
+    }
+
+    /**
+     * Découpage par valeur décrit par {@code COLONNE} ou
+     * {@code COLONNE:year|month|day}.
+     *
+     * @throws IllegalArgumentException si la granularité est inconnue.
+     */
+    public static Partitioning parseByValue(String spec) {
+        int colon = spec.lastIndexOf(':');
+        if (colon < 0) {
+            return byValue(spec.trim(), Granularity.VALUE);
+        }
+        String granularity = spec.substring(colon + 1).trim();
+        try {
+            return byValue(spec.substring(0, colon).trim(),
+                    Granularity.valueOf(granularity.toUpperCase(Locale.ROOT)));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Granularité de partition inconnue '" + granularity
+                    + "' : value, year, month ou day attendu", e);
+        }
+    }
+
+    /**
+     * Découpage par hachage décrit par {@code COLONNE:NOMBRE}.
+     *
+     * @throws IllegalArgumentException si le nombre de fichiers est absent ou invalide.
+     */
+    public static Partitioning parseByHash(String spec) {
+        int colon = spec.lastIndexOf(':');
+        if (colon < 0) {
+            throw new IllegalArgumentException("Nombre de fichiers attendu après la colonne : " + spec);
+        }
+        try {
+            return byHash(spec.substring(0, colon).trim(), Integer.parseInt(spec.substring(colon + 1).trim()));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Nombre de fichiers invalide : " + spec, e);
+        }
+    }
+
+    public String getColumn() {
+        return column;
+    }
+
+    public Granularity getGranularity() {
+        return granularity;
+    }
+
+    /** Indique un découpage par hachage en {@link #getShards()} fichiers. */
+    public boolean isHashed() {
+        return shards > 0;
+    }
+
+    /** Nombre de fichiers d'un découpage par hachage ; 0 pour un découpage par valeur. */
+    public int getShards() {
+        return shards;
+    }
+
+    @Override
+    public String toString() {
+        if (isHashed()) {
+            return column + ":" + shards;
+        }
+        return granularity == Granularity.VALUE ? column
+                : column + ":" + granularity.name().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,26 @@
+package com.ikkileague.data.writer;
+
+import com.ikkileague.data.exception.ConversionException;
+import com.ikkileague.data.formatter.FormattedRecord;
+
+/**
+ * Bloc d'enregistrements encodés pour un {@link RecordSink} donné, rempli par
+ * une tâche de conversion (bloc du mode parallèle, lot du pipeline) puis écrit
+ * d'un seul tenant par le thread d'écriture via {@link RecordSink#write(RecordBlock)}.
+ * <p>
+ * Une instance n'est pas thread-safe : un seul thread la remplit à la fois.
+ */
+public interface RecordBlock {
+
+    /**
+     * Ajoute un enregistrement au bloc. L'enregistrement est réutilisé par
+     * l'appelant : ses valeurs doivent être encodées ou copiées immédiatement.
+     */
+    void append(FormattedRecord record) throws ConversionException;
+
+    /** Nombre d'enregistrements ajoutés depuis la création ou le dernier {@link #reset()}. */
+    int recordCount();
+
+    /** Vide le bloc en conservant sa capacité. */
+    void reset();
+}
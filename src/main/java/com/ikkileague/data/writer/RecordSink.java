@@ -0,0 +1,46 @@
+package com.ikkileague.data.writer;
+
+import java.io.IOException;
+
+import com.ikkileague.data.exception.ConversionException;
+import com.ikkileague.data.formatter.FormattedRecord;
+
+/**
+ * Destination des enregistrements convertis : CSV ({@link CsvWriter}), JSON
+ * Lines ({@link JsonLinesWriter}), format colonne binaire
+ * ({@link ColumnarWriter}), ou plusieurs à la fois ({@link TeeSink}).
+ * <p>
+ * En mode séquentiel, les enregistrements sont écrits un par un via
+ * {@link #write(FormattedRecord)}. Les modes parallèle et pipeline encodent
+ * les enregistrements hors du thread d'écriture, dans des blocs obtenus par
+ * {@link #newBlock(int)}, puis écrivent chaque bloc d'un seul tenant via
+ * {@link #write(RecordBlock)}. Dans les deux cas, les écritures se font sur un
+ * seul thread et dans l'ordre du fichier d'entrée.
+ */
+public interface RecordSink extends AutoCloseable {
+
+    /** Écrit un enregistrement formaté, réutilisé ensuite par l'appelant. */
+    void write(FormattedRecord record) throws ConversionException;
+
+    /**
+     * Crée un bloc vide propre à cette destination. Peut être appelée depuis
+     * n'importe quel thread.
+     *
+     * @param sizeHint Taille estimée, en octets, des enregistrements du bloc.
+     */
+    RecordBlock newBlock(int sizeHint);
+
+    /** Écrit les enregistrements d'un bloc créé par {@link #newBlock(int)}, sans le vider. */
+    void write(RecordBlock block) throws ConversionException;
+
+    /**
+     * Transmet à la sortie tous les enregistrements écrits jusqu'ici.
+     *
+     * @return La longueur de la sortie en octets, à laquelle elle pourrait être
+     *         tronquée pour reprendre l'écriture ; -1 si elle ne peut pas l'être.
+     */
+    long flush() throws ConversionException;
+
+    @Override
+    void close() throws IOException;
+}
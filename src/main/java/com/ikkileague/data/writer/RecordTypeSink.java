@@ -0,0 +1,143 @@
+package com.ikkileague.data.writer;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.ikkileague.data.exception.ConversionException;
+import com.ikkileague.data.formatter.FormattedRecord;
+
+/**
+ * Écrit chaque enregistrement d'un fichier à plusieurs types dans la
+ * destination de son type ({@link FormattedRecord#getRecordType()}), en une
+ * seule lecture de l'entrée. Un bloc regroupe un bloc par type rencontré : en
+ * mode parallèle, les enregistrements sont répartis et encodés sur les threads
+ * de conversion.
+ */
+public class RecordTypeSink implements RecordSink {
+
+    private static final Logger logger = LoggerFactory.getLogger(RecordTypeSink.class);
+
+    private final List<String> names;
+    private final RecordSink[] sinks;
+    // Enregistrements écrits par type, sur le seul thread d'écriture
+    private final long[] written;
+
+    /**
+     * @param names Nom de chaque type, pour le journal.
+     * @param sinks Destination de chaque type, dans l'ordre des index de type.
+     */
+    public RecordTypeSink(List<String> names, List<? extends RecordSink> sinks) {
+        if (sinks.isEmpty() || names.size() != sinks.size()) {
+            throw new IllegalArgumentException("Une destination par type est requise");
+        }
+        this.names = new ArrayList<>(names);
+        this.sinks = sinks.toArray(new RecordSink[0]);
+        this.written = new long[this.sinks.length];
+    }
+
+    @Override
+    public void write(FormattedRecord record) throws ConversionException {
+        int type = record.getRecordType();
+        sinks[type].write(record);
+        written[type]++;
+    }
+
+    /**
+     * Le bloc d'un type n'est créé qu'au premier enregistrement de ce type, avec
+     * une part de {@code sizeHint} : la mémoire des blocs en vol reste celle
+     * d'une sortie unique, quel que soit le nombre de types.
+     */
+    @Override
+    public RecordBlock newBlock(int sizeHint) {
+        return new TypedBlock(sinks, Math.max(1024, sizeHint / sinks.length));
+    }
+
+    @Override
+    public void write(RecordBlock block) throws ConversionException {
+        RecordBlock[] blocks = ((TypedBlock) block).blocks;
+        for (int i = 0; i < blocks.length; i++) {
+            if (blocks[i] != null && blocks[i].recordCount() > 0) {
+                sinks[i].write(blocks[i]);
+                written[i] += blocks[i].recordCount();
+            }
+        }
+    }
+
+    /** @return -1 : plusieurs sorties ne sont pas reprises après interruption. */
+    @Override
+    public long flush() throws ConversionException {
+        for (RecordSink sink : sinks) {
+            sink.flush();
+        }
+        return -1;
+    }
+
+    /** Ferme toutes les destinations, même si l'une d'elles échoue. */
+    @Override
+    public void close() throws IOException {
+        IOException failure = null;
+        for (int i = 0; i < sinks.length; i++) {
+            try {
+                sinks[i].close();
+            } catch (IOException e) {
+                if (failure == null) {
+                    failure = e;
+                } else {
+                    failure.addSuppressed(e);
+                }
+            }
+            logger.info("Record type '{}': {} records written", names.get(i), written[i]);
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /** Un bloc par type rencontré ; chaque enregistrement va dans le bloc de son type. */
+    private static final class TypedBlock implements RecordBlock {
+        private final RecordSink[] sinks;
+        private final int typeSizeHint;
+        private final RecordBlock[] blocks;
+
+        TypedBlock(RecordSink[] sinks, int typeSizeHint) {
+            this.sinks = sinks;
+            this.typeSizeHint = typeSizeHint;
+            this.blocks = new RecordBlock[sinks.length];
+        }
+
+        @Override
+        public void append(FormattedRecord record) throws ConversionException {
+            int type = record.getRecordType();
+            RecordBlock block = blocks[type];
+            if (block == null) {
+                block = sinks[type].newBlock(typeSizeHint);
+                blocks[type] = block;
+            }
+            block.append(record);
+        }
+
+        @Override
+        public int recordCount() {
+            int count = 0;
+            for (RecordBlock block : blocks) {
+                if (block != null) {
+                    count += block.recordCount();
+                }
+            }
+            return count;
+        }
+
+        @Override
+        public void reset() {
+            for (RecordBlock block : blocks) {
+                if (block != null) {
+                    block.reset();
+                }
+            }
+        }
+    }
+}
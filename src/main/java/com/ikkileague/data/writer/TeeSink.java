@@ -0,0 +1,107 @@
+package com.ikkileague.data.writer;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.ikkileague.data.exception.ConversionException;
+import com.ikkileague.data.formatter.FormattedRecord;
+
+/**
+ * Écrit chaque enregistrement dans plusieurs destinations, en une seule
+ * lecture de l'entrée. Un bloc regroupe un bloc de chaque destination : en
+ * mode parallèle, l'encodage de tous les formats se fait donc sur les threads
+ * de conversion.
+ */
+public class TeeSink implements RecordSink {
+
+    private final List<RecordSink> sinks;
+
+    public TeeSink(List<? extends RecordSink> sinks) {
+        if (sinks.isEmpty()) {
+            throw new IllegalArgumentException("Au moins une destination est requise");
+        }
+        this.sinks = new ArrayList<>(sinks);
+    }
+
+    @Override
+    public void write(FormattedRecord record) throws ConversionException {
+        for (RecordSink sink : sinks) {
+            sink.write(record);
+        }
+    }
+
+    @Override
+    public RecordBlock newBlock(int sizeHint) {
+        RecordBlock[] blocks = new RecordBlock[sinks.size()];
+        for (int i = 0; i < blocks.length; i++) {
+            blocks[i] = sinks.get(i).newBlock(sizeHint);
+        }
+        return new TeeBlock(blocks);
+    }
+
+    @Override
+    public void write(RecordBlock block) throws ConversionException {
+        RecordBlock[] blocks = ((TeeBlock) block).blocks;
+        for (int i = 0; i < blocks.length; i++) {
+            sinks.get(i).write(blocks[i]);
+        }
+    }
+
+    /** @return -1 : plusieurs sorties ne sont pas reprises après interruption. */
+    @Override
+    public long flush() throws ConversionException {
+        for (RecordSink sink : sinks) {
+            sink.flush();
+        }
+        return -1;
+    }
+
+    /** Ferme toutes les destinations, même si l'une d'elles échoue. */
+    @Override
+    public void close() throws IOException {
+        IOException failure = null;
+        for (RecordSink sink : sinks) {
+            try {
+                sink.close();
+            } catch (IOException e) {
+                if (failure == null) {
+                    failure = e;
+                } else {
+                    failure.addSuppressed(e);
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /** Un bloc par destination, remplis ensemble. */
+    private static final class TeeBlock implements RecordBlock {
+        private final RecordBlock[] blocks;
+
+        TeeBlock(RecordBlock[] blocks) {
+            this.blocks = blocks;
+        }
+
+        @Override
+        public void append(FormattedRecord record) throws ConversionException {
+            for (RecordBlock block : blocks) {
+                block.append(record);
+            }
+        }
+
+        @Override
+        public int recordCount() {
+            return blocks[0].recordCount();
+        }
+
+        @Override
+        public void reset() {
+            for (RecordBlock block : blocks) {
+                block.reset();
+            }
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.ikkileague.data.core;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.ikkileague.data.exception.ConversionException;
+
+// mvn -Dtest=BatchConverterTest test
+class BatchConverterTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(BatchConverterTest.class);
+
+    @TempDir
+    Path tempDir;
+
+    private Path inputDirectory;
+    private Path metadataFilePath;
+    private Path outputDirectory;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        inputDirectory = Files.createDirectory(tempDir.resolve("in"));
+        outputDirectory = tempDir.resolve("out");
+        metadataFilePath = tempDir.resolve("metadata.csv");
+        Files.writeString(metadataFilePath, "ID,10,numérique\nDateNaissance,10,date");
+    }
+
+    @Test
+    @DisplayName("Convertit tous les fichiers et consigne les échecs sans interrompre le lot")
+    void convert_manyFiles_reportsSuccessesAndFailures() throws IOException, ConversionException {
+        logger.info("*** Démarrage du test : conversion par lot ***");
+
+        // Given : 20 fichiers valides et un fichier contenant une date invalide
+        for (int i = 0; i < 20; i++) {
+            Files.writeString(inputDirectory.resolve(String.format("part-%02d.txt", i)),
+                    String.format("%010d1990-05-15\n%010d2000-11-30\n", i, i + 100));
+        }
+        Files.writeString(inputDirectory.resolve("part-bad.txt"), "00000000011990/05/15\n");
+        Files.writeString(inputDirectory.resolve("notes.md"), "ignoré par le motif");
+        List<Path> inputs = BatchConverter.listInputs(inputDirectory, "*.txt");
+
+        // When
+        BatchReport report = new BatchConverter(new FileConverter(), 4)
+                .convert(inputs, metadataFilePath, outputDirectory, ConversionOptions.defaults());
+        logger.debug("{}", report);
+
+        // Then
+        assertEquals(21, inputs.size());
+        assertEquals(20, report.getSucceeded());
+        assertEquals(1, report.getFailed());
+        assertEquals(inputDirectory.resolve("part-bad.txt"), report.getFailures().get(0).getInputFile());
+        assertTrue(report.getFailures().get(0).getMessage().contains("Format de date invalide"));
+        assertEquals("ID,DateNaissance\r\n7,15/05/1990\r\n107,30/11/2000\r\n",
+                Files.readString(outputDirectory.resolve("part-07.csv")));
+        assertTrue(report.getBytesConverted() > 0);
+    }
+
+    @Test
+    @DisplayName("Refuse les entrées qui produiraient le même fichier de sortie")
+    void convert_sameBaseName_failsBothWithoutWriting() throws IOException, ConversionException {
+        // Given : a.txt et a.dat donneraient tous deux a.csv
+        String content = "00000000011990-05-15\n";
+        Files.writeString(inputDirectory.resolve("a.txt"), content);
+        Files.writeString(inputDirectory.resolve("a.dat"), content);
+        Files.writeString(inputDirectory.resolve("b.txt"), content);
+        List<Path> inputs = BatchConverter.listInputs(inputDirectory, "*");
+
+        // When
+        BatchReport report = new BatchConverter(new FileConverter(), 2)
+                .convert(inputs, metadataFilePath, outputDirectory, ConversionOptions.defaults());
+        logger.debug("{}", report);
+
+        // Then
+        assertEquals(1, report.getSucceeded());
+        assertEquals(2, report.getFailed());
+        for (BatchReport.Failure failure : report.getFailures()) {
+            assertTrue(failure.getMessage().contains("'a.csv'"), failure.getMessage());
+        }
+        assertFalse(Files.exists(outputDirectory.resolve("a.csv")));
+        assertTrue(Files.exists(outputDirectory.resolve("b.csv")));
+    }
+
+    @Test
+    @DisplayName("Accepte un motif glob comme entrée")
+    void listInputs_globPath_matchesFileNames() throws IOException, ConversionException {
+        // Given
+        Files.writeString(inputDirectory.resolve("a.dat"), "");
+        Files.writeString(inputDirectory.resolve("b.dat"), "");
+        Files.writeString(inputDirectory.resolve("c.txt"), "");
+
+        // When
+        List<Path> inputs = BatchConverter.listInputs(inputDirectory.resolve("*.dat"), "*");
+
+        // Then
+        assertEquals(List.of(inputDirectory.resolve("a.dat"), inputDirectory.resolve("b.dat")), inputs);
+        assertFalse(Files.exists(outputDirectory));
+    }
+}
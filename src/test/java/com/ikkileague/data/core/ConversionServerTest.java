@@ -0,0 +1,186 @@
+package com.ikkileague.data.core;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+// mvn -Dtest=ConversionServerTest test
+class ConversionServerTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(ConversionServerTest.class);
+
+    @TempDir
+    Path tempDir;
+
+    private Path metadataFilePath;
+    private ConversionServer server;
+    private ConversionClient client;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        metadataFilePath = tempDir.resolve("metadata.csv");
+        Files.writeString(metadataFilePath, "ID,10,numérique\nDateNaissance,10,date");
+        server = ConversionServer.start(new FileConverter(), 0, 2, 4, 8, Duration.ofMillis(20),
+                tempDir.resolve("server.token"));
+        client = new ConversionClient(server.getPort(), ConversionClient.readToken(server.getTokenFile()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.close();
+    }
+
+    @Test
+    @DisplayName("Exécute les tâches soumises et réutilise les métadonnées compilées")
+    void submit_twoJobs_convertsAndReusesLayout() throws Exception {
+        logger.info("*** Démarrage du test : serveur de conversion ***");
+
+        // Given
+        Path input = tempDir.resolve("in.txt");
+        Files.writeString(input, "00000000011990-05-15\n00000000022000-11-30\n");
+
+        // When
+        List<String> lines = new ArrayList<>();
+        boolean first = client.submit(job(input, tempDir.resolve("a.csv")), lines::add);
+        boolean second = client.submit(job(input, tempDir.resolve("b.csv")), lines::add);
+        Properties status = client.status();
+        logger.debug("Lignes d'état : {}, compteurs : {}", lines, status);
+
+        // Then
+        assertTrue(first);
+        assertTrue(second);
+        String expected = "ID,DateNaissance\r\n1,15/05/1990\r\n2,30/11/2000\r\n";
+        assertEquals(expected, Files.readString(tempDir.resolve("a.csv")));
+        assertEquals(expected, Files.readString(tempDir.resolve("b.csv")));
+        assertTrue(lines.get(0).startsWith("QUEUED "));
+        assertTrue(lines.contains("RUNNING 1"));
+        assertTrue(lines.get(lines.size() - 1).startsWith("DONE 2 records=2 errors=0"));
+        assertEquals("2", status.getProperty("jobs.completed"));
+        assertEquals("1", status.getProperty("layouts.misses"));
+        assertEquals("1", status.getProperty("layouts.hits"));
+    }
+
+    @Test
+    @DisplayName("Signale une demande invalide et une conversion en échec sans arrêter le serveur")
+    void submit_invalidAndFailingJobs_reportsErrors() throws Exception {
+        // Given
+        Path input = tempDir.resolve("bad.txt");
+        Files.writeString(input, "00000000011990/05/15\n");
+        Properties missingOutput = job(input, tempDir.resolve("x.csv"));
+        missingOutput.remove(ConversionServer.KEY_OUTPUT);
+
+        // When
+        List<String> invalid = new ArrayList<>();
+        boolean invalidAccepted = client.submit(missingOutput, invalid::add);
+        List<String> failing = new ArrayList<>();
+        boolean failingSucceeded = client.submit(job(input, tempDir.resolve("bad.csv")), failing::add);
+
+        // Then
+        assertFalse(invalidAccepted);
+        assertEquals(List.of("Paramètre obligatoire manquant : output"), invalid);
+        assertFalse(failingSucceeded);
+        assertTrue(failing.get(failing.size() - 1).contains("Format de date invalide"), failing.toString());
+        assertEquals("1", client.status().getProperty("jobs.failed"));
+    }
+
+    @Test
+    @DisplayName("S'arrête à la demande d'un client")
+    void shutdown_fromClient_stopsServer() throws Exception {
+        // When
+        client.shutdown();
+        server.awaitShutdown();
+
+        // Then
+        assertThrows(IOException.class, () -> client.status());
+        assertFalse(Files.exists(tempDir.resolve("server.token")));
+    }
+
+    @Test
+    @DisplayName("Refuse les demandes sans jeton, venant d'un navigateur ou adressées à un autre hôte")
+    void request_withoutTokenOrForeignOrigin_isRejected() throws Exception {
+        // Given
+        Path input = tempDir.resolve("in.txt");
+        Files.writeString(input, "00000000011990-05-15\n");
+        String body = "input=" + input + "\nmetadata=" + metadataFilePath + "\noutput=" + tempDir.resolve("x.csv");
+        String token = ConversionClient.readToken(server.getTokenFile());
+        String localHost = "127.0.0.1:" + server.getPort();
+
+        // When
+        String noToken = post("/jobs", localHost, null, null, body);
+        String wrongToken = post("/shutdown", localHost, "0000", null, "");
+        String foreignOrigin = post("/jobs", localHost, token, "http://evil.example", body);
+        String rebound = post("/shutdown", "evil.example:" + server.getPort(), token, null, "");
+        String otherPort = post("/jobs", "127.0.0.1:1", token, null, body);
+        logger.debug("Réponses : {}, {}, {}, {}, {}", noToken, wrongToken, foreignOrigin, rebound, otherPort);
+
+        // Then
+        assertTrue(noToken.startsWith("HTTP/1.1 401"), noToken);
+        assertTrue(wrongToken.startsWith("HTTP/1.1 401"), wrongToken);
+        assertTrue(foreignOrigin.startsWith("HTTP/1.1 403"), foreignOrigin);
+        assertTrue(rebound.startsWith("HTTP/1.1 403"), rebound);
+        assertTrue(otherPort.startsWith("HTTP/1.1 403"), otherPort);
+        assertFalse(Files.exists(tempDir.resolve("x.csv")));
+        assertEquals("0", client.status().getProperty("jobs.completed"));
+        if (FileSystems.getDefault().supportedFileAttributeViews().contains("posix")) {
+            assertEquals("rw-------",
+                    PosixFilePermissions.toString(Files.getPosixFilePermissions(server.getTokenFile())));
+        }
+    }
+
+    // Demande écrite à la main : les clients HTTP du JDK interdisent de choisir l'en-tête Host
+    private String post(String path, String host, String token, String origin, String body) throws IOException {
+        byte[] content = body.getBytes(StandardCharsets.UTF_8);
+        StringBuilder request = new StringBuilder("POST ").append(path).append(" HTTP/1.1\r\n")
+                .append("Host: ").append(host).append("\r\n")
+                .append("Content-Length: ").append(content.length).append("\r\n")
+                .append("Connection: close\r\n");
+        if (token != null) {
+            request.append("Authorization: Bearer ").append(token).append("\r\n");
+        }
+        if (origin != null) {
+            request.append("Origin: ").append(origin).append("\r\n");
+        }
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), server.getPort())) {
+            OutputStream out = socket.getOutputStream();
+            out.write(request.append("\r\n").toString().getBytes(StandardCharsets.US_ASCII));
+            out.write(content);
+            out.flush();
+            BufferedReader in = new BufferedReader(
+                    new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+            return in.readLine();
+        }
+    }
+
+    private Properties job(Path input, Path output) {
+        Properties job = new Properties();
+        job.setProperty(ConversionServer.KEY_INPUT, input.toString());
+        job.setProperty(ConversionServer.KEY_METADATA, metadataFilePath.toString());
+        job.setProperty(ConversionServer.KEY_OUTPUT, output.toString());
+        return job;
+    }
+}
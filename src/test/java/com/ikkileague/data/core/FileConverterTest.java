@@ -1,6 +1,16 @@
 package com.ikkileague.data.core;
 
 import com.ikkileague.data.exception.ConversionException;
+import com.ikkileague.data.metrics.ConversionMetrics;
+import com.ikkileague.data.metrics.RecordTracer;
+import com.ikkileague.data.reader.ColumnarReader;
+import com.ikkileague.data.reader.ReaderType;
+import com.ikkileague.data.writer.ColumnarFormat;
+import com.ikkileague.data.writer.OutputFormat;
+import com.ikkileague.data.writer.Partitioning;
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -8,11 +18,24 @@ import org.junit.jupiter.api.io.TempDir;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -178,4 +201,663 @@ class FileConverterTest {
         logger.debug("Line Too Short excep msg: {} \n", thrown.getMessage());
         assertTrue(thrown.getMessage().contains("Ligne 1 : la longueur (10) ne correspond pas à la longueur attendue (45)"));
     }
+
+    // --- Scénario 8 : Conversion parallèle identique à la conversion séquentielle ---
+    @Test
+    @DisplayName("La conversion parallèle produit le même CSV que la conversion séquentielle")
+    void convert_parallelMode_matchesSequentialOutput() throws IOException, ConversionException {
+        logger.info("Test : Conversion parallèle");
+
+        StringBuilder fixedFileContent = new StringBuilder();
+        for (int i = 1; i <= 500; i++) {
+            fixedFileContent.append(String.format("%010d%-25s%s", i, "Nom " + i, "1990-05-15"));
+            // Alterne LF, CRLF, CR seul et lignes vides pour couvrir les bornes de blocs
+            fixedFileContent.append(i % 3 == 0 ? "\r\n" : i % 3 == 1 ? "\r" : "\n");
+            if (i % 50 == 0) {
+                fixedFileContent.append("\n");
+            }
+        }
+        Files.writeString(inputFilePath, fixedFileContent.toString());
+        Files.writeString(metadataFilePath, "ID,10,numérique\nNom,25,chaîne\nDateNaissance,10,date");
+
+        Path parallelOutputPath = tempDir.resolve("output_parallel.csv");
+        ConversionOptions options = ConversionOptions.builder()
+                .threads(4)
+                .chunkSize(100) // blocs minuscules pour forcer de nombreuses tâches
+                .maxInFlightBytes(300)
+                .build();
+
+        fileConverter.convert(inputFilePath, metadataFilePath, outputFilePath);
+        fileConverter.convert(inputFilePath, metadataFilePath, parallelOutputPath, options);
+
+        assertEquals(Files.readString(outputFilePath), Files.readString(parallelOutputPath));
+        assertEquals(501, Files.readAllLines(parallelOutputPath).size());
+    }
+
+    // --- Scénario 9 : Erreur en mode parallèle avec le bon numéro de ligne ---
+    @Test
+    @DisplayName("En mode parallèle, l'erreur indique le numéro de ligne absolu")
+    void convert_parallelModeInvalidLine_reportsAbsoluteLineNumber() throws IOException {
+        logger.info("Test : Erreur en mode parallèle");
+
+        StringBuilder fixedFileContent = new StringBuilder();
+        for (int i = 1; i <= 200; i++) {
+            String date = i == 137 ? "1990/05/15" : "1990-05-15";
+            fixedFileContent.append(String.format("%010d%s%n", i, date));
+        }
+        Files.writeString(inputFilePath, fixedFileContent.toString());
+        Files.writeString(metadataFilePath, "ID,10,numérique\nDateNaissance,10,date");
+
+        ConversionOptions options = ConversionOptions.builder().threads(3).chunkSize(64).build();
+
+        ConversionException thrown = assertThrows(ConversionException.class,
+                () -> fileConverter.convert(inputFilePath, metadataFilePath, outputFilePath, options));
+
+        logger.debug("Parallel error msg: {} \n", thrown.getMessage());
+        assertTrue(thrown.getMessage().contains("à la ligne 137"));
+        assertTrue(thrown.getMessage().contains("Format de date invalide : '1990/05/15'"));
+    }
+
+    // --- Scénario 10 : Lecture par projection mémoire ---
+    @Test
+    @DisplayName("La lecture projetée en mémoire produit le même CSV que la lecture bufferisée")
+    void convert_mappedReader_matchesBufferedReaderOutput() throws IOException, ConversionException {
+        logger.info("Test : Lecture projetée en mémoire");
+
+        String fixedFileContent = "0000000001Jean Dupont              1990-05-15\r\n" +
+                "0000000002Rémi Martin              2000-11-30\n\n" +
+                "0000000003Bob Martin               1985-01-01";
+        Files.writeString(inputFilePath, fixedFileContent);
+        Files.writeString(metadataFilePath, "ID,10,numérique\nNom,25,chaîne\nDateNaissance,10,date");
+
+        Path mappedOutputPath = tempDir.resolve("output_mapped.csv");
+        ConversionOptions options = ConversionOptions.builder().readerType(ReaderType.MAPPED).build();
+
+        fileConverter.convert(inputFilePath, metadataFilePath, outputFilePath);
+        fileConverter.convert(inputFilePath, metadataFilePath, mappedOutputPath, options);
+
+        assertEquals(Files.readString(outputFilePath), Files.readString(mappedOutputPath));
+    }
+
+    // --- Scénario 11 : Fichier ISO-8859-1 traité directement sur les octets ---
+    @Test
+    @DisplayName("Un fichier ISO-8859-1 est converti sur ses octets avec le même résultat en UTF-8")
+    void convert_latin1Input_producesSameCsvWithEveryEngine() throws IOException, ConversionException {
+        logger.info("Test : Fichier ISO-8859-1");
+
+        String fixedFileContent = "0000000001Rémi Crépin              1990-05-15\r\n" +
+                "   \n" +
+                "0000000002Anaïs, \"Zoé\"             2000-11-30\n";
+        Files.write(inputFilePath, fixedFileContent.getBytes(StandardCharsets.ISO_8859_1));
+        Files.writeString(metadataFilePath, "ID,10,numérique\nNom,25,chaîne\nDateNaissance,10,date");
+
+        List<String> expected = List.of(
+                "ID,Nom,DateNaissance",
+                "1,Rémi Crépin,15/05/1990",
+                "2,\"Anaïs, \"\"Zoé\"\"\",30/11/2000");
+
+        ConversionOptions.Builder latin1 = ConversionOptions.builder().charset(StandardCharsets.ISO_8859_1);
+        for (ConversionOptions options : List.of(
+                latin1.readerType(ReaderType.BUFFERED).build(),
+                latin1.readerType(ReaderType.MAPPED).build(),
+                latin1.threads(2).chunkSize(16).build())) {
+            logger.debug("Options : {}", options);
+            fileConverter.convert(inputFilePath, metadataFilePath, outputFilePath, options);
+            assertLinesMatch(expected, Files.readAllLines(outputFilePath, StandardCharsets.UTF_8));
+        }
+    }
+
+    // --- Scénario 12 : Pipeline lecture / formatage / écriture ---
+    @Test
+    @DisplayName("Le mode pipeline produit le même CSV que la conversion séquentielle")
+    void convert_pipelinedMode_matchesSequentialOutput() throws IOException, ConversionException {
+        logger.info("Test : Conversion en pipeline");
+
+        StringBuilder fixedFileContent = new StringBuilder();
+        for (int i = 1; i <= 1000; i++) {
+            fixedFileContent.append(String.format("%010d%-25s%s", i, "Nom " + i, "1990-05-15"));
+            fixedFileContent.append(i % 3 == 0 ? "\r\n" : "\n");
+            if (i % 70 == 0) {
+                fixedFileContent.append("\n");
+            }
+        }
+        Files.writeString(inputFilePath, fixedFileContent.toString());
+        Files.writeString(metadataFilePath, "ID,10,numérique\nNom,25,chaîne\nDateNaissance,10,date");
+
+        Path pipelinedOutputPath = tempDir.resolve("output_pipelined.csv");
+        ConversionOptions options = ConversionOptions.builder()
+                .pipelined(true)
+                .pipelineBatchSize(7) // petits lots : l'anneau fait de nombreux tours
+                .pipelineDepth(2)
+                .build();
+
+        fileConverter.convert(inputFilePath, metadataFilePath, outputFilePath);
+        fileConverter.convert(inputFilePath, metadataFilePath, pipelinedOutputPath, options);
+
+        assertEquals(Files.readString(outputFilePath), Files.readString(pipelinedOutputPath));
+        assertEquals(1001, Files.readAllLines(pipelinedOutputPath).size());
+    }
+
+    // --- Scénario 13 : Erreur en mode pipeline ---
+    @Test
+    @DisplayName("En mode pipeline, l'erreur et les lignes écrites avant elle sont celles du mode séquentiel")
+    void convert_pipelinedModeInvalidLine_matchesSequentialFailure() throws IOException {
+        logger.info("Test : Erreur en mode pipeline");
+
+        StringBuilder fixedFileContent = new StringBuilder();
+        for (int i = 1; i <= 200; i++) {
+            String date = i == 137 ? "1990/05/15" : "1990-05-15";
+            fixedFileContent.append(String.format("%010d%s%n", i, date));
+        }
+        Files.writeString(inputFilePath, fixedFileContent.toString());
+        Files.writeString(metadataFilePath, "ID,10,numérique\nDateNaissance,10,date");
+        Path pipelinedOutputPath = tempDir.resolve("output_pipelined.csv");
+        ConversionOptions options = ConversionOptions.builder().pipelined(true).pipelineBatchSize(10).build();
+
+        ConversionException sequential = assertThrows(ConversionException.class,
+                () -> fileConverter.convert(inputFilePath, metadataFilePath, outputFilePath));
+        ConversionException pipelined = assertThrows(ConversionException.class,
+                () -> fileConverter.convert(inputFilePath, metadataFilePath, pipelinedOutputPath, options));
+
+        logger.debug("Pipelined error msg: {} \n", pipelined.getMessage());
+        assertEquals(sequential.getMessage(), pipelined.getMessage());
+        assertTrue(pipelined.getMessage().contains("à la ligne 137"));
+        assertEquals(Files.readString(outputFilePath), Files.readString(pipelinedOutputPath));
+    }
+
+    // --- Scénario 14 : Lecture depuis un flux (entrée standard, pipe) ---
+    @Test
+    @DisplayName("Un flux d'entrée est converti comme le fichier équivalent, avec ou sans pipeline")
+    void convert_inputStream_matchesFileOutput() throws IOException, ConversionException {
+        logger.info("Test : Conversion depuis un flux");
+
+        String fixedFileContent = "0000000001Jean Dupont              1990-05-15\n"
+                + "\n"
+                + "0000000002Alice Smith              2000-11-30\r\n"
+                + "0000000003Bob Martin               1985-01-01";
+        Files.writeString(inputFilePath, fixedFileContent);
+        Files.writeString(metadataFilePath, "ID,10,numérique\nNom,25,chaîne\nDateNaissance,10,date");
+        Path sequentialStreamPath = tempDir.resolve("output_stream.csv");
+        Path pipelinedStreamPath = tempDir.resolve("output_stream_pipelined.csv");
+        byte[] bytes = fixedFileContent.getBytes(StandardCharsets.UTF_8);
+
+        fileConverter.convert(inputFilePath, metadataFilePath, outputFilePath);
+        fileConverter.convert(new ByteArrayInputStream(bytes), metadataFilePath, sequentialStreamPath,
+                ConversionOptions.defaults());
+        fileConverter.convert(new ByteArrayInputStream(bytes), metadataFilePath, pipelinedStreamPath,
+                ConversionOptions.builder().threads(2).pipelineBatchSize(1).build());
+
+        String expected = Files.readString(outputFilePath);
+        assertEquals(expected, Files.readString(sequentialStreamPath));
+        assertEquals(expected, Files.readString(pipelinedStreamPath));
+    }
+
+    // --- Scénario 15 : Mode rejet ---
+    @Test
+    @DisplayName("En mode rejet, les lignes invalides vont dans le fichier de rejets, dans tous les modes")
+    void convert_rejectMode_writesRejectFileAndKeepsGoing() throws IOException, ConversionException {
+        logger.info("Test : Mode rejet");
+
+        StringBuilder fixedFileContent = new StringBuilder();
+        StringBuilder expectedCsv = new StringBuilder("ID,DateNaissance\r\n");
+        for (int i = 1; i <= 300; i++) {
+            if (i == 42) {
+                fixedFileContent.append(String.format("%010d1990/05/15%n", i));
+            } else if (i == 250) {
+                fixedFileContent.append("trop court\n");
+            } else {
+                fixedFileContent.append(String.format("%010d1990-05-15%n", i));
+                expectedCsv.append(i).append(",15/05/1990\r\n");
+            }
+        }
+        Files.writeString(inputFilePath, fixedFileContent.toString());
+        Files.writeString(metadataFilePath, "ID,10,numérique\nDateNaissance,10,date");
+        String expectedRejects = "line,column,reason,record\r\n"
+                + "42,DateNaissance,Format de date invalide : '1990/05/15'. Format attendu : YYYY-MM-DD.,"
+                + "00000000421990/05/15\r\n"
+                + "250,,la longueur (10) ne correspond pas à la longueur attendue (20),trop court\r\n";
+
+        ConversionOptions[] modes = {
+                ConversionOptions.builder().errorPolicy(ErrorPolicy.REJECT).build(),
+                ConversionOptions.builder().errorPolicy(ErrorPolicy.REJECT).threads(3).chunkSize(512).build(),
+                ConversionOptions.builder().errorPolicy(ErrorPolicy.REJECT).pipelined(true).pipelineBatchSize(16)
+                        .build() };
+        for (ConversionOptions options : modes) {
+            Files.deleteIfExists(tempDir.resolve("output.rejects.csv"));
+
+            fileConverter.convert(inputFilePath, metadataFilePath, outputFilePath, options);
+
+            assertEquals(expectedCsv.toString(), Files.readString(outputFilePath), options.toString());
+            assertEquals(expectedRejects, Files.readString(tempDir.resolve("output.rejects.csv")),
+                    options.toString());
+        }
+    }
+
+    // --- Scénario 16 : Budget d'erreurs ---
+    @Test
+    @DisplayName("La conversion s'arrête dès que le budget d'erreurs (nombre ou proportion) est dépassé")
+    void convert_errorBudgetExceeded_aborts() throws IOException {
+        logger.info("Test : Budget d'erreurs");
+
+        StringBuilder fixedFileContent = new StringBuilder();
+        for (int i = 1; i <= 2000; i++) {
+            String date = i % 100 == 0 ? "1990/05/15" : "1990-05-15"; // 1 % de lignes invalides
+            fixedFileContent.append(String.format("%010d%s%n", i, date));
+        }
+        Files.writeString(inputFilePath, fixedFileContent.toString());
+        Files.writeString(metadataFilePath, "ID,10,numérique\nDateNaissance,10,date");
+        Path rejectPath = tempDir.resolve("rejets.csv");
+
+        ConversionException byCount = assertThrows(ConversionException.class,
+                () -> fileConverter.convert(inputFilePath, metadataFilePath, outputFilePath,
+                        ConversionOptions.builder().errorPolicy(ErrorPolicy.REJECT).rejectPath(rejectPath)
+                                .maxErrors(3).build()));
+        ConversionException byRatio = assertThrows(ConversionException.class,
+                () -> fileConverter.convert(inputFilePath, metadataFilePath, outputFilePath,
+                        ConversionOptions.builder().errorPolicy(ErrorPolicy.REJECT).rejectPath(rejectPath)
+                                .maxErrorRatio(0.005).threads(2).chunkSize(1024).build()));
+
+        logger.debug("Budget error msgs: {} / {}", byCount.getMessage(), byRatio.getMessage());
+        assertTrue(byCount.getMessage().contains("4 enregistrements rejetés (maximum 3), dernier à la ligne 400"));
+        assertTrue(byRatio.getMessage().contains("10 enregistrements rejetés sur 1000 lignes"));
+        assertDoesNotThrow(() -> fileConverter.convert(inputFilePath, metadataFilePath, outputFilePath,
+                ConversionOptions.builder().errorPolicy(ErrorPolicy.REJECT).rejectPath(rejectPath)
+                        .maxErrorRatio(0.01).build()));
+    }
+
+    // --- Scénario 17 : Reprise après interruption ---
+    @Test
+    @DisplayName("Une conversion interrompue reprend au dernier point de reprise et produit les mêmes sorties")
+    void convert_resumeAfterInterruption_producesSameOutput() throws IOException, ConversionException {
+        logger.info("Test : Reprise après interruption");
+
+        StringBuilder fixedFileContent = new StringBuilder();
+        for (int i = 1; i <= 20000; i++) {
+            String date = i == 3000 || i == 15000 ? "1990/05/15" : "1990-05-15";
+            fixedFileContent.append(String.format("%010d%s%n", i, date));
+        }
+        Files.writeString(inputFilePath, fixedFileContent.toString());
+        Files.writeString(metadataFilePath, "ID,10,numérique\nDateNaissance,10,date");
+        Path rejectPath = tempDir.resolve("output.rejects.csv");
+        Path statePath = tempDir.resolve("output.csv.checkpoint");
+
+        fileConverter.convert(inputFilePath, metadataFilePath, outputFilePath,
+                ConversionOptions.builder().errorPolicy(ErrorPolicy.REJECT).build());
+        String expectedCsv = Files.readString(outputFilePath);
+        String expectedRejects = Files.readString(rejectPath);
+
+        ConversionOptions[] modes = {
+                ConversionOptions.builder().build(),
+                ConversionOptions.builder().charset(StandardCharsets.ISO_8859_1).readerType(ReaderType.MAPPED)
+                        .build(),
+                ConversionOptions.builder().threads(3).chunkSize(4096).build(),
+                ConversionOptions.builder().pipelined(true).pipelineBatchSize(16).build() };
+        for (ConversionOptions mode : modes) {
+            Files.delete(outputFilePath);
+            Files.delete(rejectPath);
+
+            // Given : la première conversion s'arrête à la ligne 15000, après plusieurs points de reprise
+            ConversionException interruption = assertThrows(ConversionException.class,
+                    () -> fileConverter.convert(inputFilePath, metadataFilePath, outputFilePath,
+                            resumable(mode, false).maxErrors(1).build()));
+            assertTrue(interruption.getMessage().contains("ligne 15000"), interruption.getMessage());
+            Properties checkpoint = new Properties();
+            try (InputStream in = Files.newInputStream(statePath)) {
+                checkpoint.load(in);
+            }
+            logger.debug("Point de reprise ({}) : {}", mode, checkpoint);
+            assertTrue(Long.parseLong(checkpoint.getProperty("line")) >= 4096, mode.toString());
+            assertTrue(Long.parseLong(checkpoint.getProperty("output.length")) < Files.size(outputFilePath),
+                    mode.toString());
+
+            // When
+            fileConverter.convert(inputFilePath, metadataFilePath, outputFilePath, resumable(mode, true).build());
+
+            // Then
+            assertEquals(expectedCsv, Files.readString(outputFilePath), mode.toString());
+            assertEquals(expectedRejects, Files.readString(rejectPath), mode.toString());
+            assertFalse(Files.exists(statePath), mode.toString());
+        }
+    }
+
+    // Mêmes options, en mode rejet avec un point de reprise toutes les 4096 lignes
+    private static ConversionOptions.Builder resumable(ConversionOptions mode, boolean resume) {
+        return ConversionOptions.builder().threads(mode.getThreads()).chunkSize(mode.getChunkSize())
+                .charset(mode.getCharset()).readerType(mode.getReaderType()).pipelined(mode.isPipelined())
+                .pipelineBatchSize(mode.getPipelineBatchSize()).errorPolicy(ErrorPolicy.REJECT)
+                .checkpointInterval(Duration.ofNanos(1)).resume(resume);
+    }
+
+    // --- Scénario 18 : Entrée et sortie gzip ---
+    @Test
+    @DisplayName("Une entrée gzip est lue de façon transparente et une sortie .gz est compressée en gzip")
+    void convert_gzipInputAndOutput_matchesPlainConversion() throws IOException, ConversionException {
+        logger.info("Test : Entrée et sortie gzip");
+
+        StringBuilder fixedFileContent = new StringBuilder();
+        for (int i = 1; i <= 5000; i++) {
+            fixedFileContent.append(String.format("%010dJean Dupont %05d1990-05-15%n", i, i % 100));
+        }
+        Files.writeString(inputFilePath, fixedFileContent.toString());
+        Files.writeString(metadataFilePath, "ID,10,numérique\nNom,17,chaîne\nDateNaissance,10,date");
+        fileConverter.convert(inputFilePath, metadataFilePath, outputFilePath);
+        String expectedCsv = Files.readString(outputFilePath);
+
+        // Nom sans extension .gz : l'entrée est reconnue à sa signature
+        Path gzipInput = tempDir.resolve("input.dat");
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(gzipInput))) {
+            out.write(fixedFileContent.toString().getBytes(StandardCharsets.UTF_8));
+        }
+        Path gzipOutput = tempDir.resolve("output.csv.gz");
+
+        ConversionOptions[] modes = {
+                ConversionOptions.builder().compressionThreads(1).build(),
+                ConversionOptions.builder().threads(3).compressionThreads(4).compressionLevel(1).build(),
+                ConversionOptions.builder().charset(StandardCharsets.ISO_8859_1).pipelined(true).build() };
+        for (ConversionOptions options : modes) {
+            // When
+            fileConverter.convert(gzipInput, metadataFilePath, gzipOutput, options);
+            fileConverter.convert(new ByteArrayInputStream(Files.readAllBytes(gzipInput)), metadataFilePath,
+                    outputFilePath, options);
+
+            // Then
+            try (InputStream in = new GZIPInputStream(Files.newInputStream(gzipOutput))) {
+                assertEquals(expectedCsv, new String(in.readAllBytes(), StandardCharsets.UTF_8), options.toString());
+            }
+            assertEquals(expectedCsv, Files.readString(outputFilePath), options.toString());
+        }
+    }
+
+    // --- Scénario 19 : Plusieurs formats de sortie en une passe ---
+    @Test
+    @DisplayName("Une seule lecture de l'entrée écrit le CSV, le JSON Lines et le format colonne, dans tous les modes")
+    void convert_additionalFormats_writesAllFormatsInOnePass() throws IOException, ConversionException {
+        logger.info("Test : Plusieurs formats de sortie en une passe");
+
+        StringBuilder fixedFileContent = new StringBuilder();
+        for (int i = 1; i <= 5000; i++) {
+            String date = i % 7 == 0 ? "          " : "1990-05-15";
+            fixedFileContent.append(String.format("%010dJean Dupont %05d%s%n", i, i % 100, date));
+        }
+        Files.writeString(inputFilePath, fixedFileContent.toString());
+        Files.writeString(metadataFilePath, "ID,10,numérique\nNom,17,chaîne\nDateNaissance,10,date");
+        fileConverter.convert(inputFilePath, metadataFilePath, outputFilePath);
+        String expectedCsv = Files.readString(outputFilePath);
+        Path jsonPath = tempDir.resolve("output.jsonl");
+        Path columnarPath = tempDir.resolve("output.f2c");
+
+        ConversionOptions[] modes = {
+                ConversionOptions.builder().build(),
+                ConversionOptions.builder().threads(3).chunkSize(4096).build(),
+                ConversionOptions.builder().charset(StandardCharsets.ISO_8859_1).pipelined(true)
+                        .pipelineBatchSize(100).build() };
+        for (ConversionOptions mode : modes) {
+            Files.deleteIfExists(jsonPath);
+            Files.deleteIfExists(columnarPath);
+
+            // When
+            fileConverter.convert(inputFilePath, metadataFilePath, outputFilePath, ConversionOptions.builder()
+                    .threads(mode.getThreads()).chunkSize(mode.getChunkSize()).charset(mode.getCharset())
+                    .pipelined(mode.isPipelined()).pipelineBatchSize(mode.getPipelineBatchSize())
+                    .additionalFormats(List.of(OutputFormat.JSONL, OutputFormat.COLUMNAR)).build());
+
+            // Then
+            assertEquals(expectedCsv, Files.readString(outputFilePath), mode.toString());
+            List<String> json = Files.readAllLines(jsonPath);
+            assertEquals(5000, json.size(), mode.toString());
+            assertEquals("{\"ID\":1,\"Nom\":\"Jean Dupont 00001\",\"DateNaissance\":\"15/05/1990\"}", json.get(0));
+            assertEquals("{\"ID\":7,\"Nom\":\"Jean Dupont 00007\",\"DateNaissance\":null}", json.get(6));
+
+            int rows = 0;
+            try (ColumnarReader reader = ColumnarReader.open(columnarPath)) {
+                assertEquals("DateNaissance", reader.getName(2));
+                ColumnarReader.RowGroup group;
+                while ((group = reader.next()) != null) {
+                    for (int r = 0; r < group.rowCount(); r++) {
+                        int id = rows + r + 1;
+                        assertEquals(BigDecimal.valueOf(id), group.column(0)[r], mode.toString());
+                        assertEquals(String.format("Jean Dupont %05d", id % 100), group.column(1)[r]);
+                        assertEquals(id % 7 == 0 ? null : LocalDate.of(1990, 5, 15), group.column(2)[r]);
+                    }
+                    assertEquals(ColumnarFormat.DICTIONARY, group.encoding(1));
+                    rows += group.rowCount();
+                }
+            }
+            assertEquals(5000, rows, mode.toString());
+        }
+
+        // Le format du fichier de sortie lui-même suit son extension
+        fileConverter.convert(inputFilePath, metadataFilePath, jsonPath, ConversionOptions.builder()
+                .additionalFormats(List.of(OutputFormat.CSV)).build());
+        assertEquals(5000, Files.readAllLines(jsonPath).size());
+        assertEquals(expectedCsv, Files.readString(outputFilePath));
+    }
+
+    // --- Scénario 20 : Projection et filtre sur les champs bruts ---
+    @Test
+    @DisplayName("Seules les colonnes demandées des lignes retenues sont écrites, dans tous les modes")
+    void convert_columnsAndFilters_writeSelectedColumnsOfMatchingLines() throws IOException, ConversionException {
+        // Given : la date des lignes écartées est invalide, elle n'est jamais formatée
+        StringBuilder fixedFileContent = new StringBuilder();
+        StringBuilder expectedCsv = new StringBuilder("Montant,ID\r\n");
+        int keptLines = 0;
+        for (int i = 1; i <= 3000; i++) {
+            boolean kept = i % 10 == 3 && i >= 100 && i <= 2500;
+            fixedFileContent.append(String.format("%010d%-8s%s%08d.50\n", i, kept ? "FR" + i % 7 : "BE",
+                    kept ? "1990-05-15" : "1990-13-45", i));
+            if (kept) {
+                expectedCsv.append(i).append(".5,").append(i).append("\r\n");
+                keptLines++;
+            }
+        }
+        Files.writeString(inputFilePath, fixedFileContent.toString());
+        Files.writeString(metadataFilePath,
+                "ID,10,numérique\nPays,8,chaîne\nDateNaissance,10,date\nMontant,11,numérique");
+        List<String> columns = List.of("Montant", "ID");
+        List<String> filters = List.of("Pays^=FR", "Montant>=100", "ID <= 2500", "DateNaissance=15/05/1990");
+
+        ConversionOptions[] modes = {
+                ConversionOptions.builder().build(),
+                ConversionOptions.builder().threads(3).chunkSize(4096).build(),
+                ConversionOptions.builder().charset(StandardCharsets.ISO_8859_1).pipelined(true)
+                        .pipelineBatchSize(100).build() };
+        for (ConversionOptions mode : modes) {
+            ConversionMetrics metrics = new ConversionMetrics();
+
+            // When
+            fileConverter.convert(inputFilePath, metadataFilePath, outputFilePath, ConversionOptions.builder()
+                    .threads(mode.getThreads()).chunkSize(mode.getChunkSize()).charset(mode.getCharset())
+                    .pipelined(mode.isPipelined()).pipelineBatchSize(mode.getPipelineBatchSize())
+                    .metrics(metrics).columns(columns).filters(filters).build());
+
+            // Then
+            assertEquals(expectedCsv.toString(), Files.readString(outputFilePath), mode.toString());
+            assertEquals(3000, metrics.getRecordsRead(), mode.toString());
+            assertEquals(keptLines, metrics.getRecordsWritten(), mode.toString());
+            assertEquals(3000 - keptLines, metrics.getFilteredLines(), mode.toString());
+            assertEquals(0, metrics.getErrors(), mode.toString());
+        }
+
+        // Une colonne inconnue est signalée avant toute lecture
+        ConversionException error = assertThrows(ConversionException.class,
+                () -> fileConverter.convert(inputFilePath, metadataFilePath, outputFilePath,
+                        ConversionOptions.builder().columns(List.of("Inconnue")).build()));
+        assertTrue(error.getMessage().contains("Inconnue"), error.getMessage());
+    }
+
+    // --- Scénario 21 : Sortie découpée par année ---
+    @Test
+    @DisplayName("La sortie découpée par année contient les mêmes lignes, dans l'ordre, dans tous les modes")
+    void convert_partitionByYear_writesOneOrderedFilePerYear() throws IOException, ConversionException {
+        // Given : plus d'années que de fichiers ouverts, entrelacées
+        StringBuilder fixedFileContent = new StringBuilder();
+        Map<Integer, StringBuilder> expectedByYear = new TreeMap<>();
+        for (int i = 1; i <= 3000; i++) {
+            int year = 1990 + i % 5;
+            fixedFileContent.append(String.format("%010d%d-05-15\n", i, year));
+            expectedByYear.computeIfAbsent(year, y -> new StringBuilder("ID,DateNaissance\r\n"))
+                    .append(i).append(",15/05/").append(year).append("\r\n");
+        }
+        Files.writeString(inputFilePath, fixedFileContent.toString());
+        Files.writeString(metadataFilePath, "ID,10,numérique\nDateNaissance,10,date");
+        Partitioning byYear = Partitioning.parseByValue("DateNaissance:year");
+
+        ConversionOptions[] modes = {
+                ConversionOptions.builder().build(),
+                ConversionOptions.builder().threads(3).chunkSize(4096).build(),
+                ConversionOptions.builder().pipelined(true).pipelineBatchSize(100).build() };
+        for (ConversionOptions mode : modes) {
+            // When
+            fileConverter.convert(inputFilePath, metadataFilePath, outputFilePath, ConversionOptions.builder()
+                    .threads(mode.getThreads()).chunkSize(mode.getChunkSize()).pipelined(mode.isPipelined())
+                    .pipelineBatchSize(mode.getPipelineBatchSize()).partitioning(byYear).maxOpenPartitions(2)
+                    .build());
+
+            // Then
+            for (Map.Entry<Integer, StringBuilder> year : expectedByYear.entrySet()) {
+                Path partition = outputFilePath.resolveSibling("DateNaissance=" + year.getKey())
+                        .resolve(outputFilePath.getFileName());
+                assertEquals(year.getValue().toString(), Files.readString(partition), mode + " " + year.getKey());
+            }
+        }
+
+        // Le découpage ne s'applique qu'à une sortie CSV non compressée
+        assertThrows(ConversionException.class,
+                () -> fileConverter.convert(inputFilePath, metadataFilePath, tempDir.resolve("output.csv.gz"),
+                        ConversionOptions.builder().partitioning(byYear).build()));
+    }
+
+    // --- Scénario 22 : Fichier à plusieurs types d'enregistrement ---
+    @Test
+    @DisplayName("Chaque type d'enregistrement est converti selon sa structure, dans sa propre sortie, en une passe")
+    void convert_recordTypes_routesEachLineToItsLayoutAndOutput() throws IOException, ConversionException {
+        // Given : en-tête, détails et fin de fichier de longueurs différentes, et une ligne de type inconnu
+        StringBuilder fixedFileContent = new StringBuilder("H2024-03-31\n");
+        StringBuilder expectedDetails = new StringBuilder("TypeEnreg,ID,Nom\r\n");
+        for (int i = 1; i <= 1000; i++) {
+            fixedFileContent.append(String.format("D%010d%-8s\n", i, "Nom" + i));
+            expectedDetails.append("D,").append(i).append(",Nom").append(i).append("\r\n");
+            if (i == 500) {
+                fixedFileContent.append("X0000000000\n");
+            }
+        }
+        fixedFileContent.append("T0000001000\n");
+        Files.writeString(inputFilePath, fixedFileContent.toString());
+        Files.writeString(metadataFilePath, "@discriminant,1,1\n"
+                + "@type,H,entete\nTypeEnreg,1,chaîne\nDateFichier,10,date\n"
+                + "@type,D,detail\nTypeEnreg,1,chaîne\nID,10,numérique\nNom,8,chaîne\n"
+                + "@type,T,fin\nTypeEnreg,1,chaîne\nTotal,10,numérique");
+        Path rejectPath = tempDir.resolve("output.rejects.csv");
+
+        ConversionOptions[] modes = {
+                ConversionOptions.builder().build(),
+                ConversionOptions.builder().charset(StandardCharsets.ISO_8859_1).build(),
+                ConversionOptions.builder().threads(3).chunkSize(1024).build(),
+                ConversionOptions.builder().pipelined(true).pipelineBatchSize(64).build() };
+        for (ConversionOptions mode : modes) {
+            Files.deleteIfExists(rejectPath);
+
+            // When
+            fileConverter.convert(inputFilePath, metadataFilePath, outputFilePath, ConversionOptions.builder()
+                    .threads(mode.getThreads()).chunkSize(mode.getChunkSize()).charset(mode.getCharset())
+                    .pipelined(mode.isPipelined()).pipelineBatchSize(mode.getPipelineBatchSize())
+                    .errorPolicy(ErrorPolicy.REJECT).build());
+
+            // Then
+            assertEquals("TypeEnreg,DateFichier\r\nH,31/03/2024\r\n",
+                    Files.readString(tempDir.resolve("output-entete.csv")), mode.toString());
+            assertEquals(expectedDetails.toString(), Files.readString(tempDir.resolve("output-detail.csv")),
+                    mode.toString());
+            assertEquals("TypeEnreg,Total\r\nT,1000\r\n", Files.readString(tempDir.resolve("output-fin.csv")),
+                    mode.toString());
+            assertFalse(Files.exists(outputFilePath), mode.toString());
+            List<String> rejects = Files.readAllLines(rejectPath);
+            assertEquals(2, rejects.size(), mode.toString());
+            assertTrue(rejects.get(1).startsWith("502,,\"type d'enregistrement inconnu 'X'"), rejects.get(1));
+        }
+
+        // Le code de chaque type doit avoir la longueur du discriminant
+        Files.writeString(metadataFilePath, "@discriminant,1,2\n@type,H,entete\nTypeEnreg,2,chaîne");
+        ConversionException error = assertThrows(ConversionException.class,
+                () -> fileConverter.convert(inputFilePath, metadataFilePath, outputFilePath));
+        assertTrue(error.getMessage().contains("'H'"), error.getMessage());
+    }
+
+    // --- Scénario 23 : Journal des rejets en mode parallèle ---
+    @Test
+    @DisplayName("En mode rejet parallèle, les erreurs sont journalisées une fois, avec le numéro de ligne absolu")
+    void convert_parallelRejectMode_logsAbsoluteLineNumbers() throws IOException, ConversionException {
+        // Given : deux lignes de type inconnu, loin du début de leur bloc
+        StringBuilder fixedFileContent = new StringBuilder();
+        for (int i = 1; i <= 400; i++) {
+            fixedFileContent.append(i == 77 || i == 333 ? "X0000000000\n" : String.format("D%010d\n", i));
+        }
+        Files.writeString(inputFilePath, fixedFileContent.toString());
+        Files.writeString(metadataFilePath, "@discriminant,1,1\n@type,D,detail\nTypeEnreg,1,chaîne\nID,10,numérique");
+        ch.qos.logback.classic.Logger lineLogger =
+                (ch.qos.logback.classic.Logger) LoggerFactory.getLogger(LineConverter.class);
+        ListAppender<ILoggingEvent> appender = new ListAppender<>();
+        appender.start();
+        lineLogger.addAppender(appender);
+
+        // When
+        try {
+            fileConverter.convert(inputFilePath, metadataFilePath, outputFilePath, ConversionOptions.builder()
+                    .errorPolicy(ErrorPolicy.REJECT).threads(3).chunkSize(256).build());
+        } finally {
+            lineLogger.detachAppender(appender);
+        }
+
+        // Then
+        List<String> errors = new ArrayList<>();
+        for (ILoggingEvent event : appender.list) {
+            if (event.getLevel() == Level.ERROR) {
+                errors.add(event.getFormattedMessage());
+            }
+        }
+        logger.debug("Erreurs journalisées : {}", errors);
+        assertEquals(2, errors.size(), errors.toString());
+        assertTrue(errors.get(0).startsWith("Ligne 77 : type d'enregistrement inconnu 'X'"), errors.get(0));
+        assertTrue(errors.get(1).startsWith("Ligne 333 : type d'enregistrement inconnu 'X'"), errors.get(1));
+        List<String> rejects = Files.readAllLines(tempDir.resolve("output.rejects.csv"));
+        assertEquals(3, rejects.size(), rejects.toString());
+        assertTrue(rejects.get(1).startsWith("77,,"), rejects.get(1));
+        assertTrue(rejects.get(2).startsWith("333,,"), rejects.get(2));
+    }
+
+    // --- Scénario 24 : Limite de journalisation par conversion ---
+    @Test
+    @DisplayName("Chaque conversion d'une même JVM journalise ses premières erreurs")
+    void convert_twice_eachConversionLogsItsFirstErrors() throws IOException, ConversionException {
+        // Given : plus d'erreurs que la limite par classe
+        int invalidLines = RecordTracer.ERRORS_PER_CLASS + 5;
+        StringBuilder fixedFileContent = new StringBuilder();
+        for (int i = 1; i <= invalidLines; i++) {
+            fixedFileContent.append("X0000000000\n");
+        }
+        Files.writeString(inputFilePath, fixedFileContent.toString());
+        Files.writeString(metadataFilePath, "@discriminant,1,1\n@type,D,detail\nTypeEnreg,1,chaîne\nID,10,numérique");
+        ConversionOptions options = ConversionOptions.builder().errorPolicy(ErrorPolicy.REJECT).build();
+        ch.qos.logback.classic.Logger lineLogger =
+                (ch.qos.logback.classic.Logger) LoggerFactory.getLogger(LineConverter.class);
+        ListAppender<ILoggingEvent> appender = new ListAppender<>();
+        appender.start();
+        lineLogger.addAppender(appender);
+
+        // When
+        List<Long> errorCounts = new ArrayList<>();
+        try {
+            for (String name : List.of("first.csv", "second.csv")) {
+                appender.list.clear();
+                fileConverter.convert(inputFilePath, metadataFilePath, tempDir.resolve(name), options);
+                errorCounts.add(appender.list.stream().filter(event -> event.getLevel() == Level.ERROR).count());
+            }
+        } finally {
+            lineLogger.detachAppender(appender);
+        }
+
+        // Then
+        logger.debug("Erreurs journalisées par conversion : {}", errorCounts);
+        assertEquals(List.of((long) RecordTracer.ERRORS_PER_CLASS, (long) RecordTracer.ERRORS_PER_CLASS), errorCounts);
+    }
 }
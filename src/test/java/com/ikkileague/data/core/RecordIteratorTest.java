@@ -0,0 +1,247 @@
+package com.ikkileague.data.core;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.ikkileague.data.exception.ConversionException;
+import com.ikkileague.data.exception.UncheckedConversionException;
+
+// mvn -Dtest=RecordIteratorTest test
+class RecordIteratorTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(RecordIteratorTest.class);
+
+    private static final String INPUT = "0000000001Élodie    1990-05-15\n\n0000000002Marc      2000-11-30\r\n"
+            + "0000000003Anne      1985-01-02";
+
+    @TempDir
+    Path tempDir;
+
+    private Path metadataFilePath;
+    private final FileConverter fileConverter = new FileConverter();
+
+    @BeforeEach
+    void setUp() throws IOException {
+        metadataFilePath = tempDir.resolve("metadata.csv");
+        Files.writeString(metadataFilePath, "ID,10,numérique\nPrénom,10,chaîne\nDateNaissance,10,date");
+    }
+
+    @Test
+    @DisplayName("Un Stream livre les enregistrements convertis, en UTF-8 comme en ISO-8859-1, sans les lignes vides")
+    void stream_fixedInput_convertsRecordsLazily() throws ConversionException {
+        logger.info("*** Démarrage du test : API de flux d'enregistrements ***");
+        for (ConversionOptions options : List.of(ConversionOptions.defaults(),
+                ConversionOptions.builder().charset(StandardCharsets.ISO_8859_1).build())) {
+            // Given
+            InputStream input = new ByteArrayInputStream(INPUT.getBytes(options.getCharset()));
+
+            // When
+            List<String> rows;
+            try (Stream<ConvertedRecord> records = fileConverter.stream(input, metadataFilePath, options)) {
+                rows = records.map(record -> record.lineNumber() + ":" + record.get("Prénom") + ","
+                        + record.field(2)).collect(Collectors.toList());
+            }
+
+            // Then
+            logger.debug("{} : {}", options.getCharset(), rows);
+            assertEquals(List.of("1:Élodie,15/05/1990", "3:Marc,30/11/2000", "4:Anne,02/01/1985"), rows);
+        }
+    }
+
+    @Test
+    @DisplayName("Une copie d'enregistrement reste valide, la vue est réutilisée ; un flux gzip est lu via un canal")
+    void iterate_gzipChannel_reusesViewAndKeepsCopies() throws IOException, ConversionException {
+        // Given
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+            gzip.write(INPUT.getBytes(StandardCharsets.UTF_8));
+        }
+        InputStream input = new ByteArrayInputStream(compressed.toByteArray());
+
+        // When
+        List<ConvertedRecord> views = new ArrayList<>();
+        List<ConvertedRecord> copies = new ArrayList<>();
+        try (RecordIterator records = fileConverter.iterate(Channels.newChannel(input), metadataFilePath,
+                ConversionOptions.defaults())) {
+            while (records.hasNext()) {
+                ConvertedRecord record = records.next();
+                views.add(record);
+                copies.add(record.copy());
+            }
+            assertEquals(4, records.getLinesRead());
+        }
+
+        // Then
+        assertTrue(views.stream().allMatch(view -> view == views.get(0)));
+        assertEquals("[1, Élodie, 15/05/1990]", copies.get(0).fields().toString());
+        assertEquals(3, copies.get(1).lineNumber());
+        assertEquals("Anne", copies.get(2).get(1));
+        assertThrows(IllegalArgumentException.class, () -> copies.get(0).get("Inconnue"));
+    }
+
+    @Test
+    @DisplayName("Une ligne invalide interrompt le flux en mode échec, ou part dans le fichier de rejets")
+    void stream_invalidRecord_appliesErrorPolicy() throws IOException, ConversionException {
+        // Given
+        String input = "0000000001Élodie    1990-05-15\n0000000002Marc      1990/05/15\n0000000003Anne      1985-01-02\n";
+        Path rejectPath = tempDir.resolve("rejets.csv");
+        ConversionOptions rejecting = ConversionOptions.builder().errorPolicy(ErrorPolicy.REJECT)
+                .rejectPath(rejectPath).build();
+
+        // When
+        List<String> readBeforeFailure = new ArrayList<>();
+        UncheckedConversionException failure = assertThrows(UncheckedConversionException.class, () -> {
+            try (Stream<ConvertedRecord> records = fileConverter.stream(bytes(input), metadataFilePath,
+                    ConversionOptions.defaults())) {
+                records.forEach(record -> readBeforeFailure.add(record.get(1)));
+            }
+        });
+        List<String> kept;
+        try (Stream<ConvertedRecord> records = fileConverter.stream(bytes(input), metadataFilePath, rejecting)) {
+            kept = records.map(record -> record.get(1)).collect(Collectors.toList());
+        }
+
+        // Then
+        assertEquals(List.of("Élodie"), readBeforeFailure);
+        assertTrue(failure.getCause().getMessage().contains("Format de date invalide"));
+        assertEquals(List.of("Élodie", "Anne"), kept);
+        assertTrue(Files.readString(rejectPath).contains("1990/05/15"));
+        // Sans fichier de sortie, le fichier de rejets doit être donné
+        assertThrows(ConversionException.class, () -> fileConverter.iterate(bytes(input), metadataFilePath,
+                ConversionOptions.builder().errorPolicy(ErrorPolicy.REJECT).build()));
+    }
+
+    @Test
+    @DisplayName("Le Publisher ne livre que les enregistrements demandés, puis termine le flux")
+    void publisher_boundedDemand_respectsBackpressure() throws Exception {
+        // Given : un abonné qui demande 2 enregistrements, puis 1 à chaque réception au-delà du 2e
+        StringBuilder input = new StringBuilder();
+        for (int i = 1; i <= 1000; i++) {
+            input.append(String.format("%010dNom%-7d1990-05-15\n", i, i));
+        }
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        RecordingSubscriber subscriber = new RecordingSubscriber(2);
+
+        // When
+        try {
+            fileConverter.publisher(bytes(input.toString()), metadataFilePath, ConversionOptions.defaults(),
+                    executor).subscribe(subscriber);
+            Thread.sleep(100);
+            int receivedBeforeMoreDemand = subscriber.received.size();
+            subscriber.requestRemaining();
+            subscriber.completion.get(10, TimeUnit.SECONDS);
+
+            // Then
+            assertEquals(2, receivedBeforeMoreDemand);
+            assertEquals(1000, subscriber.received.size());
+            assertEquals("Nom1000", subscriber.received.get(999));
+            assertFalse(subscriber.overDelivered.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("Le Publisher signale par onError des métadonnées invalides et refuse un second abonné")
+    void publisher_invalidMetadata_signalsError() throws Exception {
+        // Given
+        Path missing = tempDir.resolve("absent.csv");
+        Flow.Publisher<ConvertedRecord> publisher = fileConverter.publisher(bytes(INPUT), missing,
+                ConversionOptions.defaults(), Runnable::run);
+        RecordingSubscriber first = new RecordingSubscriber(1);
+        RecordingSubscriber second = new RecordingSubscriber(1);
+
+        // When
+        publisher.subscribe(first);
+        publisher.subscribe(second);
+
+        // Then
+        assertTrue(first.completion.isCompletedExceptionally());
+        assertTrue(second.completion.isCompletedExceptionally());
+        assertTrue(first.received.isEmpty());
+    }
+
+    private static InputStream bytes(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Abonné qui vérifie ne jamais recevoir plus que ce qu'il a demandé
+    private static final class RecordingSubscriber implements Flow.Subscriber<ConvertedRecord> {
+        final List<String> received = Collections.synchronizedList(new ArrayList<>());
+        final CompletableFuture<Void> completion = new CompletableFuture<>();
+        final AtomicBoolean overDelivered = new AtomicBoolean();
+        private final long initialDemand;
+        private Flow.Subscription subscription;
+        private volatile long requested;
+        private volatile boolean unbounded;
+
+        RecordingSubscriber(long initialDemand) {
+            this.initialDemand = initialDemand;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            requested = initialDemand;
+            subscription.request(initialDemand);
+        }
+
+        @Override
+        public void onNext(ConvertedRecord record) {
+            received.add(record.get(1));
+            if (received.size() > requested) {
+                overDelivered.set(true);
+            }
+            if (unbounded) {
+                requested++;
+                subscription.request(1);
+            }
+        }
+
+        void requestRemaining() {
+            unbounded = true;
+            requested++;
+            subscription.request(1);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            completion.completeExceptionally(throwable);
+        }
+
+        @Override
+        public void onComplete() {
+            completion.complete(null);
+        }
+    }
+}
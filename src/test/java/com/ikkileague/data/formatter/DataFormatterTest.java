@@ -1,5 +1,7 @@
 package com.ikkileague.data.formatter;
 
+import java.lang.management.ManagementFactory;
+
 import com.ikkileague.data.exception.ConversionException;
 import com.ikkileague.data.model.ColumnType; // Assurez-vous que ColumnType est correctement importé
 import org.junit.jupiter.api.BeforeEach;
@@ -67,6 +69,86 @@ class DataFormatterTest {
                 "Le message d'erreur doit indiquer le format de date attendu.");
     }
 
+    @Test
+    @DisplayName("Devrait accepter le 29 février des seules années bissextiles")
+    void format_leapDays_followGregorianRules() throws ConversionException {
+        logger.debug("Démarrage du test: format_leapDays_followGregorianRules");
+        // ÉTANT DONNÉ des 29 février d'années bissextiles
+        // ALORS ils sont formatés normalement
+        assertEquals("29/02/2024", dataFormatter.format("2024-02-29", ColumnType.DATE));
+        assertEquals("29/02/2000", dataFormatter.format("2000-02-29", ColumnType.DATE));
+        assertEquals("31/12/0001", dataFormatter.format(" 0001-12-31 ", ColumnType.DATE));
+        // ET les années non bissextiles (dont les siècles non multiples de 400) sont refusées
+        assertThrows(ConversionException.class, () -> dataFormatter.format("2023-02-29", ColumnType.DATE));
+        assertThrows(ConversionException.class, () -> dataFormatter.format("1900-02-29", ColumnType.DATE));
+    }
+
+    @Test
+    @DisplayName("Devrait refuser les dates inexistantes avec le message habituel")
+    void format_impossibleDates_throwConversionException() {
+        logger.debug("Démarrage du test: format_impossibleDates_throwConversionException");
+        for (String rawDate : new String[] { "2023-04-31", "2023-02-30", "2023-13-01", "2023-00-10", "2023-01-00",
+                "0000-01-01", "2023-1-011", "2023/01/01" }) {
+            // QUAND une date inexistante ou mal formée est formatée
+            ConversionException thrown = assertThrows(ConversionException.class,
+                    () -> dataFormatter.format(rawDate, ColumnType.DATE), rawDate);
+            // ALORS le message est celui de l'analyse générique
+            assertEquals("Format de date invalide : '" + rawDate + "'. Format attendu : YYYY-MM-DD.",
+                    thrown.getMessage());
+        }
+    }
+
+    @Test
+    @DisplayName("Devrait refuser une date invalide sans pile d'appels ni cause")
+    void format_invalidDates_throwStacklessException() throws ConversionException {
+        logger.debug("Démarrage du test: format_invalidDates_throwStacklessException");
+        // ÉTANT DONNÉ une date inexistante (analyse rapide) et des formes inhabituelles (analyse générique)
+        for (String rawDate : new String[] { "2023-02-30", "26/10/2023", "2023-1-1", "+12345-13-01",
+                "-2023-01-01" }) {
+            // QUAND la date est formatée
+            ConversionException thrown = assertThrows(ConversionException.class,
+                    () -> dataFormatter.format(rawDate, ColumnType.DATE), rawDate);
+            // ALORS l'exception ne porte ni cause ni pile d'appels
+            assertNull(thrown.getCause(), rawDate);
+            assertEquals(0, thrown.getStackTrace().length, rawDate);
+        }
+        // ET une année signée de plus de quatre chiffres reste acceptée, le jour étant ramené au dernier jour
+        // du mois comme par java.time
+        assertEquals("15/05/+12345", dataFormatter.format("+12345-05-15", ColumnType.DATE));
+        assertEquals("28/02/+12345", dataFormatter.format("+12345-02-30", ColumnType.DATE));
+    }
+
+    @Test
+    @DisplayName("Ne devrait rien allouer lors du formatage d'une date valide")
+    void format_validDate_doesNotAllocate() throws ConversionException {
+        logger.debug("Démarrage du test: format_validDate_doesNotAllocate");
+        // ÉTANT DONNÉ un tampon de sortie réutilisé
+        FieldFormatter formatter = dataFormatter.dateFormatter();
+        StringBuilder out = new StringBuilder(64);
+        String[] rawDates = { "2023-10-26", "2024-02-29", " 1999-12-31" };
+        com.sun.management.ThreadMXBean threadBean =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        for (int i = 0; i < 20_000; i++) { // préchauffage
+            out.setLength(0);
+            formatter.formatTo(rawDates[i % rawDates.length], out);
+        }
+        threadBean.getThreadAllocatedBytes(threadId);
+
+        // QUAND un grand nombre de dates est formaté
+        long before = threadBean.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < 100_000; i++) {
+            out.setLength(0);
+            formatter.formatTo(rawDates[i % rawDates.length], out);
+        }
+        long allocated = threadBean.getThreadAllocatedBytes(threadId) - before;
+        logger.debug("Octets alloués pour 100000 dates : {}", allocated);
+
+        // ALORS aucune allocation n'a lieu (marge pour la mesure elle-même)
+        assertEquals("26/10/2023", out.toString()); // dernière date : index 99999 % 3 == 0
+        assertTrue(allocated < 1024, "Octets alloués : " + allocated);
+    }
+
     // --- Tests pour le formatage des NOMBRES ---
 
     @Test
@@ -128,6 +210,34 @@ class DataFormatterTest {
                 "Le message d'erreur doit indiquer le format numérique invalide.");
     }
 
+    @Test
+    @DisplayName("Devrait mettre les nombres sous forme canonique sans arrondi ni limite de taille")
+    void format_numericValues_areCanonicalised() throws ConversionException {
+        logger.debug("Démarrage du test: format_numericValues_areCanonicalised");
+        String[][] cases = {
+                { "007", "7" }, { "+42", "42" }, { "-0", "0" }, { "-12", "-12" },
+                { "12.50", "12.5" }, { "5.", "5.0" }, { ".5", "0.5" }, { "-0.000", "0.0" }, { "000.0100", "0.01" },
+                { " 3.14 ", "3.14" },
+                // Au-delà de la plage d'un int, et plus de chiffres qu'un double n'en représente
+                { "98765432109876543210", "98765432109876543210" },
+                { "0.1000000000000000055511151231257827", "0.1000000000000000055511151231257827" } };
+        for (String[] c : cases) {
+            // QUAND le nombre est formaté, ALORS la forme canonique est produite
+            assertEquals(c[1], dataFormatter.format(c[0], ColumnType.NUMERIC), c[0]);
+        }
+    }
+
+    @Test
+    @DisplayName("Devrait refuser les formes numériques non décimales")
+    void format_malformedNumbers_throwConversionException() {
+        logger.debug("Démarrage du test: format_malformedNumbers_throwConversionException");
+        for (String rawNumber : new String[] { "-", ".", "+.", "1.2.3", "1e5", "1.5e3", "12 3", "--1", "0x1F", "NaN" }) {
+            ConversionException thrown = assertThrows(ConversionException.class,
+                    () -> dataFormatter.format(rawNumber, ColumnType.NUMERIC), rawNumber);
+            assertEquals("Format numérique invalide : '" + rawNumber + "'.", thrown.getMessage());
+        }
+    }
+
     // // --- Tests pour le formatage des CHAINES (STRING) ---
 
     @Test
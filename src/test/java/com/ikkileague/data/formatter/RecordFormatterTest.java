@@ -0,0 +1,131 @@
+package com.ikkileague.data.formatter;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.ikkileague.data.exception.ConversionException;
+import com.ikkileague.data.model.ColumnDefinition;
+import com.ikkileague.data.model.ColumnType;
+import com.ikkileague.data.model.RecordLayout;
+import com.ikkileague.data.parser.FixedRecordParser;
+import com.ikkileague.data.parser.ParsedRecord;
+//mvn -Dtest=RecordFormatterTest test
+
+class RecordFormatterTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(RecordFormatterTest.class);
+
+    private DataFormatter dataFormatter;
+    private FixedRecordParser parser;
+
+    @BeforeEach
+    void setUp() {
+        dataFormatter = new DataFormatter();
+        parser = new FixedRecordParser();
+    }
+
+    @Test
+    @DisplayName("Devrait compiler les positions, longueurs et index par type des colonnes")
+    void compile_layout_precomputesOffsetsAndTypeIndexes() throws ConversionException {
+        logger.info("*** Démarrage du test : compilation d'une structure d'enregistrement ***");
+
+        // Given
+        List<ColumnDefinition> definitions = List.of(
+                new ColumnDefinition("Date de naissance", 10, ColumnType.DATE),
+                new ColumnDefinition("Prénom", 15, ColumnType.STRING),
+                new ColumnDefinition("Poids", 5, ColumnType.NUMERIC),
+                new ColumnDefinition("Nom", 15, ColumnType.STRING));
+
+        // When
+        RecordLayout layout = RecordLayout.compile(definitions, dataFormatter);
+
+        // Then
+        assertEquals(4, layout.columnCount());
+        assertEquals(45, layout.getTotalLength());
+        assertEquals(25, layout.getOffset(2));
+        assertEquals(30, layout.getOffset(3));
+        assertArrayEquals(new int[] { 1, 3 }, layout.columnsOfType(ColumnType.STRING));
+        assertArrayEquals(new int[] { 0 }, layout.columnsOfType(ColumnType.DATE));
+        assertEquals(2, layout.indexOf("Poids"));
+        assertEquals(-1, layout.indexOf("Inconnue"));
+        assertEquals(List.of("Date de naissance", "Prénom", "Poids", "Nom"), layout.getHeaders());
+    }
+
+    @Test
+    @DisplayName("Devrait formater une ligne de structure large dans l'ordre des colonnes")
+    void format_wideLayout_keepsColumnOrder() throws ConversionException {
+        logger.info("*** Démarrage du test : formatage d'une structure de 3000 colonnes ***");
+
+        // Given : 3000 colonnes alternant les trois types
+        List<ColumnDefinition> definitions = new ArrayList<>();
+        StringBuilder line = new StringBuilder();
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < 3000; i++) {
+            switch (i % 3) {
+            case 0:
+                definitions.add(new ColumnDefinition("d" + i, 10, ColumnType.DATE));
+                line.append("2024-02-29");
+                expected.add("29/02/2024");
+                break;
+            case 1:
+                definitions.add(new ColumnDefinition("s" + i, 6, ColumnType.STRING));
+                line.append(String.format("%-6s", "v" + (i % 1000)));
+                expected.add("v" + (i % 1000));
+                break;
+            default:
+                definitions.add(new ColumnDefinition("n" + i, 4, ColumnType.NUMERIC));
+                line.append(String.format("%4d", i % 1000));
+                expected.add(String.valueOf(i % 1000));
+                break;
+            }
+        }
+        RecordLayout layout = RecordLayout.compile(definitions, dataFormatter);
+        RecordFormatter recordFormatter = new RecordFormatter(layout, dataFormatter);
+        ParsedRecord parsed = new ParsedRecord(layout);
+        FormattedRecord formatted = new FormattedRecord(layout.columnCount());
+
+        // When
+        parser.parseInto(line, parsed, 1);
+        recordFormatter.format(parsed, formatted, 1);
+
+        // Then
+        assertEquals(expected.size(), formatted.fieldCount());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i), formatted.field(i).toString(), "Colonne " + i);
+        }
+    }
+
+    @Test
+    @DisplayName("Devrait signaler la première colonne invalide dans l'ordre des colonnes")
+    void format_invalidFields_reportsFirstInvalidColumn() throws ConversionException {
+        logger.info("*** Démarrage du test : erreur sur la première colonne invalide ***");
+
+        // Given : la colonne numérique (index 1) précède la date invalide (index 2)
+        List<ColumnDefinition> definitions = List.of(
+                new ColumnDefinition("Nom", 5, ColumnType.STRING),
+                new ColumnDefinition("Poids", 3, ColumnType.NUMERIC),
+                new ColumnDefinition("Date", 10, ColumnType.DATE));
+        RecordLayout layout = RecordLayout.compile(definitions, dataFormatter);
+        RecordFormatter recordFormatter = new RecordFormatter(layout, dataFormatter);
+        ParsedRecord parsed = new ParsedRecord(layout);
+        parser.parseInto("Jean abc2024-13-01", parsed, 7);
+
+        // When / Then
+        ConversionException thrown = assertThrows(ConversionException.class,
+                () -> recordFormatter.format(parsed, new FormattedRecord(layout.columnCount()), 7));
+        logger.debug("Exception capturée : {}", thrown.getMessage());
+        assertTrue(thrown.getMessage().startsWith(
+                "Erreur lors du traitement du champ pour la colonne 'Poids' (type NUMERIC) à la ligne 7"));
+    }
+}
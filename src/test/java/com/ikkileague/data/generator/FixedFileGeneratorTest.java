@@ -0,0 +1,122 @@
+package com.ikkileague.data.generator;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.ikkileague.data.core.ConversionOptions;
+import com.ikkileague.data.core.FileConverter;
+import com.ikkileague.data.core.ScalingHarness;
+import com.ikkileague.data.exception.ConversionException;
+import com.ikkileague.data.formatter.DataFormatter;
+import com.ikkileague.data.model.RecordLayout;
+import com.ikkileague.data.parser.MetadataParser;
+
+// mvn -Dtest=FixedFileGeneratorTest test
+class FixedFileGeneratorTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(FixedFileGeneratorTest.class);
+
+    @TempDir
+    Path tempDir;
+
+    private Path metadataFilePath;
+    private RecordLayout layout;
+
+    @BeforeEach
+    void setUp() throws IOException, ConversionException {
+        metadataFilePath = tempDir.resolve("metadata.csv");
+        Files.writeString(metadataFilePath,
+                "ID,10,numérique\nNom,25,chaîne\nDateNaissance,10,date\nMontant,12,numérique\nCourt,3,numérique");
+        layout = new MetadataParser().parseLayout(metadataFilePath, new DataFormatter());
+    }
+
+    @Test
+    @DisplayName("Génère un fichier valide que le convertisseur accepte entièrement")
+    void generate_validFile_convertsWithoutError() throws IOException, ConversionException {
+        logger.info("*** Démarrage du test : génération d'un fichier valide ***");
+
+        // Given
+        Path fixedFilePath = tempDir.resolve("generated.txt");
+        Path outputFilePath = tempDir.resolve("generated.csv");
+
+        // When
+        GenerationResult result = new FixedFileGenerator(layout, 7, 0).generate(fixedFilePath, 200_000);
+        new FileConverter().convert(fixedFilePath, metadataFilePath, outputFilePath);
+
+        // Then
+        List<String> lines = Files.readAllLines(fixedFilePath);
+        assertTrue(result.getBytes() >= 200_000);
+        assertEquals(Files.size(fixedFilePath), result.getBytes());
+        assertEquals(result.getLines(), lines.size());
+        assertTrue(lines.stream().allMatch(line -> line.length() == layout.getTotalLength()));
+        assertEquals(result.getLines() + 1, Files.readAllLines(outputFilePath).size());
+    }
+
+    @Test
+    @DisplayName("Produit le même fichier pour la même graine")
+    void generate_sameSeed_isDeterministic() throws IOException {
+        // Given
+        Path first = tempDir.resolve("first.txt");
+        Path second = tempDir.resolve("second.txt");
+
+        // When
+        new FixedFileGenerator(layout, 99, 0.1).generate(first, 50_000);
+        new FixedFileGenerator(layout, 99, 0.1).generate(second, 50_000);
+
+        // Then
+        assertArrayEquals(Files.readAllBytes(first), Files.readAllBytes(second));
+    }
+
+    @Test
+    @DisplayName("Insère la proportion demandée de lignes invalides")
+    void generate_malformedRate_producesInvalidLines() throws IOException {
+        logger.info("*** Démarrage du test : lignes invalides ***");
+
+        // Given
+        Path fixedFilePath = tempDir.resolve("malformed.txt");
+        Path outputFilePath = tempDir.resolve("malformed.csv");
+
+        // When
+        GenerationResult result = new FixedFileGenerator(layout, 3, 0.2).generate(fixedFilePath, 100_000);
+        logger.debug("{}", result);
+
+        // Then : environ 20 % de lignes invalides, et la conversion échoue
+        double rate = (double) result.getMalformedLines() / result.getLines();
+        assertTrue(rate > 0.15 && rate < 0.25, "Taux observé : " + rate);
+        assertThrows(ConversionException.class,
+                () -> new FileConverter().convert(fixedFilePath, metadataFilePath, outputFilePath));
+    }
+
+    @Test
+    @DisplayName("Mesure la conversion pour chaque nombre de threads")
+    void scalingHarness_run_returnsOneResultPerThreadCount() throws IOException, ConversionException {
+        // Given
+        Path fixedFilePath = tempDir.resolve("scaling.txt");
+        new FixedFileGenerator(layout, 11, 0).generate(fixedFilePath, 100_000);
+
+        // When
+        List<ScalingHarness.Result> results = new ScalingHarness(new FileConverter()).run(fixedFilePath,
+                metadataFilePath, tempDir.resolve("scaling.csv"), 3, 1, ConversionOptions.defaults());
+        String table = ScalingHarness.formatTable(results);
+        logger.debug("\n{}", table);
+
+        // Then
+        assertEquals(3, results.size());
+        assertEquals(1.0, results.get(0).getSpeedup(), 1e-9);
+        assertEquals(4, table.lines().count());
+    }
+}
@@ -0,0 +1,85 @@
+package com.ikkileague.data.logging;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.slf4j.LoggerFactory;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.util.LogbackMDCAdapter;
+
+// mvn -Dtest=LazyFileAppenderTest test
+class LazyFileAppenderTest {
+
+    private static final org.slf4j.Logger logger = LoggerFactory.getLogger(LazyFileAppenderTest.class);
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("Ne crée le fichier journal qu'au premier événement, puis l'écrit jusqu'à l'arrêt")
+    void append_firstEvent_createsLogFile() throws IOException {
+        // Given
+        Path logFile = tempDir.resolve("logs/app.log");
+        LoggerContext context = new LoggerContext();
+        context.setMDCAdapter(new LogbackMDCAdapter());
+        LazyFileAppender appender = appender(context, logFile);
+        Logger fileLogger = context.getLogger("test");
+        fileLogger.addAppender(appender);
+        fileLogger.setAdditive(false);
+
+        // When : journal désactivé, puis activé
+        fileLogger.setLevel(Level.OFF);
+        fileLogger.info("ignoré");
+        boolean openedWhileOff = appender.isOpened();
+        boolean createdWhileOff = Files.exists(logFile);
+        fileLogger.setLevel(Level.INFO);
+        fileLogger.info("Première ligne");
+        fileLogger.info("Seconde ligne");
+        context.stop();
+
+        // Then
+        logger.debug("Journal : {}", Files.readAllLines(logFile));
+        assertFalse(openedWhileOff);
+        assertFalse(createdWhileOff);
+        assertTrue(appender.isOpened());
+        assertEquals("INFO Première ligne\nINFO Seconde ligne\n", Files.readString(logFile));
+    }
+
+    @Test
+    @DisplayName("Refuse de démarrer sans fichier ni motif de rotation")
+    void start_missingSettings_doesNotStart() {
+        // Given
+        LazyFileAppender appender = new LazyFileAppender();
+        appender.setContext(new LoggerContext());
+        appender.setName("INCOMPLET");
+        appender.setPattern("%msg%n");
+
+        // When
+        appender.start();
+
+        // Then
+        assertFalse(appender.isStarted());
+    }
+
+    private static LazyFileAppender appender(LoggerContext context, Path logFile) {
+        LazyFileAppender appender = new LazyFileAppender();
+        appender.setContext(context);
+        appender.setName("FILE");
+        appender.setFile(logFile.toString());
+        appender.setFileNamePattern(logFile.getParent().resolve("app.%d{yyyy-MM-dd}.%i.log").toString());
+        appender.setPattern("%level %msg%n");
+        appender.start();
+        return appender;
+    }
+}
@@ -0,0 +1,158 @@
+package com.ikkileague.data.metrics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.ikkileague.data.core.ConversionOptions;
+import com.ikkileague.data.core.FileConverter;
+import com.ikkileague.data.exception.ConversionException;
+
+// mvn -Dtest=ConversionMetricsTest test
+class ConversionMetricsTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(ConversionMetricsTest.class);
+
+    private static final int RECORDS = 1000;
+
+    @TempDir
+    Path tempDir;
+
+    private Path inputFilePath;
+    private Path metadataFilePath;
+    private long inputBytes;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        metadataFilePath = tempDir.resolve("metadata.csv");
+        Files.writeString(metadataFilePath, "Nom,6,chaîne\nDate,10,date\nMontant,8,numérique");
+        StringBuilder input = new StringBuilder();
+        for (int i = 0; i < RECORDS; i++) {
+            input.append(String.format("N%05d2020-01-%02d%08d\n", i, 1 + i % 28, i));
+            if (i == 500) {
+                input.append("\n"); // Ligne vide
+            }
+        }
+        inputFilePath = tempDir.resolve("input.txt");
+        Files.writeString(inputFilePath, input);
+        inputBytes = (long) RECORDS * 24; // Enregistrements sans fin de ligne
+    }
+
+    @Test
+    @DisplayName("Les compteurs sont identiques en modes séquentiel, parallèle et pipeline")
+    void convert_allModes_countsRecordsBytesAndLatencies() throws ConversionException {
+        ConversionOptions[] modes = {
+                ConversionOptions.builder().build(),
+                ConversionOptions.builder().threads(3).chunkSize(1024).build(),
+                ConversionOptions.builder().pipelined(true).pipelineBatchSize(100).build() };
+        for (ConversionOptions mode : modes) {
+            // Given
+            ConversionMetrics metrics = new ConversionMetrics();
+            ConversionOptions options = copyWithMetrics(mode, metrics);
+
+            // When
+            new FileConverter().convert(inputFilePath, metadataFilePath, tempDir.resolve("output.csv"), options);
+            metrics.complete();
+            logger.debug("Métriques ({}) :\n{}", mode, metrics.toJson());
+
+            // Then
+            assertEquals(RECORDS + 1, metrics.getRecordsRead(), mode.toString());
+            assertEquals(RECORDS, metrics.getRecordsWritten(), mode.toString());
+            assertEquals(1, metrics.getBlankLines(), mode.toString());
+            assertEquals(inputBytes, metrics.getBytesRead(), mode.toString());
+            assertEquals(0, metrics.getErrors(), mode.toString());
+            assertTrue(metrics.histogram(Stage.PARSE).getCount() > 0);
+            assertTrue(metrics.histogram(Stage.FORMAT_DATE).getCount() > 0);
+            assertTrue(metrics.histogram(Stage.READ).getCount() > 0);
+            assertTrue(metrics.histogram(Stage.WRITE).getCount() > 0);
+        }
+    }
+
+    @Test
+    @DisplayName("Une erreur de conversion est comptée et les lignes écrites avant elle aussi")
+    void convert_invalidRecord_countsError() throws IOException {
+        // Given
+        Files.writeString(inputFilePath, "N000012020-01-0100000001\nN000022020-13-0100000002\n");
+        ConversionMetrics metrics = new ConversionMetrics();
+
+        // When
+        assertThrows(ConversionException.class, () -> new FileConverter().convert(inputFilePath, metadataFilePath,
+                tempDir.resolve("output.csv"), ConversionOptions.builder().metrics(metrics).build()));
+
+        // Then
+        assertEquals(2, metrics.getRecordsRead());
+        assertEquals(1, metrics.getRecordsWritten());
+        assertEquals(1, metrics.getErrors());
+    }
+
+    @Test
+    @DisplayName("Les métriques sont lisibles via JMX et exportées en JSON")
+    void register_publishesMBeanAndJsonReport() throws JMException, IOException, ConversionException {
+        // Given
+        ConversionMetrics metrics = new ConversionMetrics();
+        ObjectName name = metrics.register("test-output.csv");
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            // When
+            new FileConverter().convert(inputFilePath, metadataFilePath, tempDir.resolve("output.csv"),
+                    ConversionOptions.builder().metrics(metrics).build());
+            metrics.complete();
+
+            // Then
+            assertEquals((long) RECORDS + 1, server.getAttribute(name, "RecordsRead"));
+            assertEquals((long) RECORDS, server.getAttribute(name, "RecordsWritten"));
+        } finally {
+            ConversionMetrics.unregister(name);
+        }
+        assertFalse(server.isRegistered(name));
+
+        Path reportPath = tempDir.resolve("metrics.json");
+        metrics.writeJson(reportPath);
+        String json = Files.readString(reportPath);
+        assertTrue(json.contains("\"recordsRead\": " + (RECORDS + 1)));
+        assertTrue(json.contains("\"FORMAT_NUMERIC\": {\"samples\": "));
+    }
+
+    @Test
+    @DisplayName("Les percentiles renvoient la borne de la classe logarithmique")
+    void histogram_percentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 0; i < 99; i++) {
+            histogram.record(100);
+        }
+        histogram.record(1_000_000);
+
+        assertEquals(100, histogram.getCount());
+        assertEquals(127, histogram.getPercentileNanos(50));
+        assertEquals(127, histogram.getPercentileNanos(99));
+        assertEquals(1_000_000, histogram.getPercentileNanos(100));
+        assertEquals(1_000_000, histogram.getMaxNanos());
+    }
+
+    private static ConversionOptions copyWithMetrics(ConversionOptions mode, ConversionMetrics metrics) {
+        return ConversionOptions.builder()
+                .threads(mode.getThreads())
+                .chunkSize(mode.getChunkSize())
+                .pipelined(mode.isPipelined())
+                .pipelineBatchSize(mode.getPipelineBatchSize())
+                .metrics(metrics)
+                .build();
+    }
+}
@@ -0,0 +1,49 @@
+package com.ikkileague.data.metrics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+// mvn -Dtest=ErrorLogLimitTest test
+class ErrorLogLimitTest {
+
+    @Test
+    @DisplayName("Seules les premières erreurs de chaque classe sont journalisées")
+    void allow_limitsEachErrorClassIndependently() {
+        // Given
+        ErrorLogLimit limit = new ErrorLogLimit();
+
+        // When
+        int allowed = 0;
+        for (int i = 0; i < RecordTracer.ERRORS_PER_CLASS * 3; i++) {
+            if (limit.allow("TEST_LIMIT")) {
+                allowed++;
+            }
+        }
+
+        // Then
+        assertEquals(RecordTracer.ERRORS_PER_CLASS, allowed);
+        assertFalse(limit.allow("TEST_LIMIT"));
+        assertTrue(limit.allow("TEST_OTHER_CLASS"));
+    }
+
+    @Test
+    @DisplayName("Chaque limite compte ses erreurs indépendamment des autres")
+    void allow_newLimitStartsFromZero() {
+        // Given
+        ErrorLogLimit first = new ErrorLogLimit();
+        for (int i = 0; i <= RecordTracer.ERRORS_PER_CLASS; i++) {
+            first.allow("TEST_LIMIT");
+        }
+
+        // When
+        ErrorLogLimit second = new ErrorLogLimit();
+
+        // Then
+        assertFalse(first.allow("TEST_LIMIT"));
+        assertTrue(second.allow("TEST_LIMIT"));
+    }
+}
@@ -0,0 +1,68 @@
+package com.ikkileague.data.metrics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+// mvn -Dtest=ProgressReporterTest test
+class ProgressReporterTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProgressReporterTest.class);
+
+    @Test
+    @DisplayName("Le rapport indique la part consommée, les débits et le temps restant")
+    void sample_reportsPercentRatesAndEta() {
+        // Given : 1 Mio d'enregistrements de 1023 octets + fin de ligne, sur un fichier de 4 Mio
+        ConversionMetrics metrics = new ConversionMetrics();
+        ByteArrayOutputStream terminal = new ByteArrayOutputStream();
+        try (ProgressReporter progress = new ProgressReporter(metrics, 4L * 1024 * 1024, Duration.ofHours(1),
+                ProgressReporter.Style.LOG, new PrintStream(terminal, true, StandardCharsets.UTF_8))) {
+            StageRecorder recorder = metrics.newRecorder();
+            for (int i = 0; i < 1024; i++) {
+                recorder.startRecord(1023, 0);
+            }
+            recorder.flush();
+
+            // When
+            String line = progress.sample(System.nanoTime());
+            logger.debug("{}", line);
+
+            // Then
+            assertTrue(line.startsWith(" 25.0% 1.0 MiB / 4.0 MiB"), line);
+            assertTrue(line.contains("MiB/s now"), line);
+            assertTrue(line.matches(".*ETA \\d\\d:\\d\\d:\\d\\d"), line);
+        }
+        assertEquals(0, terminal.size(), "Le style LOG n'écrit pas sur le terminal");
+    }
+
+    @Test
+    @DisplayName("Sur un terminal, la ligne est réécrite sur place puis terminée à la fermeture")
+    void tty_rewritesLineAndEndsItOnClose() throws InterruptedException {
+        // Given
+        ConversionMetrics metrics = new ConversionMetrics();
+        ByteArrayOutputStream terminal = new ByteArrayOutputStream();
+
+        // When : taille inconnue (entrée standard)
+        ProgressReporter progress = new ProgressReporter(metrics, -1, Duration.ofMillis(10),
+                ProgressReporter.Style.TTY, new PrintStream(terminal, true, StandardCharsets.UTF_8));
+        try {
+            Thread.sleep(100);
+        } finally {
+            progress.close();
+        }
+
+        // Then
+        String output = terminal.toString(StandardCharsets.UTF_8);
+        assertTrue(output.startsWith("\r0.0 MiB |"), output);
+        assertTrue(output.endsWith("ETA --:--:--" + System.lineSeparator()), output);
+    }
+}
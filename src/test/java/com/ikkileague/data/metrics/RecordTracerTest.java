@@ -0,0 +1,22 @@
+package com.ikkileague.data.metrics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+// mvn -Dtest=RecordTracerTest test
+class RecordTracerTest {
+
+    @Test
+    @DisplayName("Un enregistrement sur SAMPLE_INTERVAL est échantillonné")
+    void isSampled_everyNthLine() {
+        long sampled = 0;
+        for (long line = 1; line <= RecordTracer.SAMPLE_INTERVAL * 4; line++) {
+            if (RecordTracer.isSampled(line)) {
+                sampled++;
+            }
+        }
+        assertEquals(4, sampled);
+    }
+}
@@ -1,6 +1,7 @@
 package com.ikkileague.data.parser;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
@@ -17,8 +18,10 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.ikkileague.data.exception.ConversionException;
+import com.ikkileague.data.formatter.DataFormatter;
 import com.ikkileague.data.model.ColumnDefinition;
 import com.ikkileague.data.model.ColumnType;
+import com.ikkileague.data.model.RecordTypes;
 //mvn -Dtest=MetadataParserTest test
 
 class MetadataParserTest {
@@ -210,4 +213,67 @@ class MetadataParserTest {
         assertTrue(thrown.getMessage().contains(nonExistentPath.getFileName().toString()));
         logger.info("Test passed: Correctement lancé l'exception pour un fichier de métadonnées inexistant.");
     }
+
+    @Test
+    @DisplayName("Should compile one layout per record type and find each line's type from its code")
+    void parseRecordTypes_discriminatedFile_compilesEachType() throws IOException, ConversionException {
+        // Given : codes de deux caractères, dont deux partagent le premier
+        Path metadataFilePath = tempDir.resolve("types.csv");
+        Files.writeString(metadataFilePath, "@discriminant,3,2\n"
+                + "@type,01,entete\nSociete,2,chaîne\nType,2,chaîne\nDate,10,date\n"
+                + "@type,02,detail\nSociete,2,chaîne\nType,2,chaîne\nMontant,8,numérique\n"
+                + "@type,\"9 \"\nSociete,2,chaîne\nType,2,chaîne\n");
+
+        // When
+        RecordTypes types = new MetadataParser().parseRecordTypes(metadataFilePath, new DataFormatter());
+        logger.debug("Parsed record types: {}", types);
+
+        // Then
+        assertTrue(types.isDiscriminated());
+        assertEquals(List.of("entete", "detail", "9"), types.getNames());
+        assertEquals(14, types.getLayout(0).getTotalLength());
+        assertEquals(List.of("Societe", "Type", "Montant"), types.getLayout(1).getHeaders());
+        assertEquals(0, types.typeOf("AB012024-01-01"));
+        assertEquals(1, types.typeOf("AB0200001234"));
+        assertEquals(2, types.typeOf("AB9 "));
+        assertEquals(-1, types.typeOf("AB03"));
+        assertEquals(-1, types.typeOf("AB0"));
+        assertEquals(-1, types.typeOf("AB9X"));
+        assertEquals(-1, types.typeOf("AB\u20AC1"));
+    }
+
+    @Test
+    @DisplayName("Should read a file without directives as a single record type, and reject misplaced directives")
+    void parseRecordTypes_directives_validated() throws IOException, ConversionException {
+        // Given
+        MetadataParser parser = new MetadataParser();
+        Path single = tempDir.resolve("single.csv");
+        Files.writeString(single, "ID,10,numérique\nNom,5,chaîne");
+        Path discriminated = tempDir.resolve("discriminated.csv");
+        Files.writeString(discriminated, "@discriminant,1,1\n@type,H\nType,1,chaîne");
+        String[] invalid = {
+                "@type,H\nType,1,chaîne",
+                "ID,10,numérique\n@discriminant,1,1",
+                "@discriminant,1,1\nType,1,chaîne",
+                "@discriminant,0,1\n@type,H\nType,1,chaîne",
+                "@discriminant,1,1\n@type,H,en tête\nType,1,chaîne",
+                "@discriminant,1,1\n@type,H\n@type,D\nType,1,chaîne",
+                "@discriminant,1,1\n@type,H\nType,1,chaîne\n@type,H,autre\nType,1,chaîne" };
+
+        // When
+        RecordTypes singleType = parser.parseRecordTypes(single, new DataFormatter());
+
+        // Then
+        assertFalse(singleType.isDiscriminated());
+        assertEquals(1, singleType.typeCount());
+        assertEquals(0, singleType.typeOf("anything"));
+        assertThrows(ConversionException.class, () -> parser.parse(discriminated));
+        for (String content : invalid) {
+            Path metadataFilePath = tempDir.resolve("invalid.csv");
+            Files.writeString(metadataFilePath, content);
+            ConversionException error = assertThrows(ConversionException.class,
+                    () -> parser.parseRecordTypes(metadataFilePath, new DataFormatter()), content);
+            logger.debug("Invalid metadata '{}': {}", content.replace('\n', '|'), error.getMessage());
+        }
+    }
 }
@@ -0,0 +1,115 @@
+package com.ikkileague.data.parser;
+
+import com.ikkileague.data.exception.ConversionException;
+import com.ikkileague.data.formatter.DataFormatter;
+import com.ikkileague.data.model.ColumnDefinition;
+import com.ikkileague.data.model.ColumnType;
+import com.ikkileague.data.model.RecordLayout;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// mvn -Dtest=RecordFilterTest test
+class RecordFilterTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(RecordFilterTest.class);
+
+    private RecordLayout layout;
+
+    @BeforeEach
+    void setUp() throws ConversionException {
+        logger.info("--- Setting up RecordFilterTest for a new test ---");
+        layout = RecordLayout.compile(List.of(
+                new ColumnDefinition("Code", 6, ColumnType.STRING),
+                new ColumnDefinition("Amount", 8, ColumnType.NUMERIC),
+                new ColumnDefinition("Date", 10, ColumnType.DATE)), new DataFormatter());
+    }
+
+    @Test
+    @DisplayName("Should compare numeric fields by value, whatever their padding and zeros")
+    void accepts_numericConditions_compareByValue() throws ConversionException {
+        // Given
+        RecordFilter range = RecordFilter.compile(List.of("Amount>=-1.5", "Amount<100"), layout);
+        RecordFilter equal = RecordFilter.compile(List.of("Amount=7"), layout);
+
+        // When / Then
+        assertTrue(range.accepts(line("AB", "  007.00", "2020-01-01")));
+        assertTrue(range.accepts(line("AB", "-0001.50", "2020-01-01")));
+        assertTrue(range.accepts(line("AB", "   99.99", "2020-01-01")));
+        assertTrue(range.accepts(line("AB", "    -0.0", "2020-01-01")));
+        assertFalse(range.accepts(line("AB", "-1.51   ", "2020-01-01")));
+        assertFalse(range.accepts(line("AB", "  100   ", "2020-01-01")));
+        assertFalse(range.accepts(line("AB", "  1000.0", "2020-01-01")));
+        assertTrue(equal.accepts(line("AB", "+0007.0 ", "2020-01-01")));
+        assertFalse(equal.accepts(line("AB", "  70    ", "2020-01-01")));
+        assertFalse(equal.accepts(line("AB", "     7.1", "2020-01-01")));
+        // Un champ qui n'est pas un nombre n'est égal à aucune valeur
+        assertFalse(equal.accepts(line("AB", "   7A   ", "2020-01-01")));
+        assertTrue(RecordFilter.compile(List.of("Amount!=7"), layout).accepts(line("AB", "   7A   ", "2020-01-01")));
+    }
+
+    @Test
+    @DisplayName("Should compare text, prefixes, dates and blank fields on the raw line")
+    void accepts_textDateAndBlankConditions() throws ConversionException {
+        // Given
+        RecordFilter prefix = RecordFilter.compile(List.of("Code^=FR"), layout);
+        RecordFilter text = RecordFilter.compile(List.of("Code>B", "Code<=FR01"), layout);
+        RecordFilter dates = RecordFilter.compile(List.of("Date>=2020-01-01", "Date<31/12/2020"), layout);
+        RecordFilter blank = RecordFilter.compile(List.of("Date="), layout);
+
+        // When / Then
+        assertTrue(prefix.accepts(line("FR01", "1", "2020-01-01")));
+        assertFalse(prefix.accepts(line("BE01", "1", "2020-01-01")));
+        assertFalse(prefix.accepts(line("F", "1", "2020-01-01")));
+        assertTrue(text.accepts(line("C", "1", "2020-01-01")));
+        assertTrue(text.accepts(line("FR01", "1", "2020-01-01")));
+        assertFalse(text.accepts(line("FR010", "1", "2020-01-01")));
+        assertFalse(text.accepts(line("B", "1", "2020-01-01")));
+        assertTrue(dates.accepts(line("A", "1", "2020-06-30")));
+        assertFalse(dates.accepts(line("A", "1", "2020-12-31")));
+        assertFalse(dates.accepts(line("A", "1", "2019-12-31")));
+        assertTrue(blank.accepts(line("A", "1", "")));
+        assertFalse(blank.accepts(line("A", "1", "2020-06-30")));
+    }
+
+    @Test
+    @DisplayName("Should evaluate the same way on single-byte records")
+    void accepts_singleByteLine_matchesStringLine() throws ConversionException {
+        // Given
+        RecordFilter filter = RecordFilter.compile(List.of("Code=ÉTÉ", "Amount>12.5"), layout);
+        String fixedLine = line("ÉTÉ", "12.51", "2020-01-01");
+        byte[] bytes = fixedLine.getBytes(StandardCharsets.ISO_8859_1);
+
+        // When
+        SingleByteCharSequence singleByteLine = SingleByteCharSequence.forCharset(StandardCharsets.ISO_8859_1)
+                .reset(bytes, 0, bytes.length);
+
+        // Then
+        assertTrue(filter.accepts(fixedLine));
+        assertTrue(filter.accepts(singleByteLine));
+    }
+
+    @Test
+    @DisplayName("Should reject malformed conditions with an explicit message")
+    void compile_invalidConditions_throwException() {
+        String[] invalid = { "Code", "Unknown=1", "Amount>=abc", "Date=2020-02-30", "Amount<" };
+        for (String condition : invalid) {
+            ConversionException error = assertThrows(ConversionException.class,
+                    () -> RecordFilter.compile(List.of(condition), layout), condition);
+            logger.debug("Condition '{}': {}", condition, error.getMessage());
+            assertTrue(error.getMessage().contains(condition), error.getMessage());
+        }
+    }
+
+    // Ligne à largeur fixe de la structure de test
+    private static String line(String code, String amount, String date) {
+        return String.format("%-6s%8s%-10s", code, amount, date);
+    }
+}
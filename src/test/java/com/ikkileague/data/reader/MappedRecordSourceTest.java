@@ -0,0 +1,186 @@
+package com.ikkileague.data.reader;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+// mvn -Dtest=MappedRecordSourceTest test
+class MappedRecordSourceTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(MappedRecordSourceTest.class);
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("Should read the same records as BufferedReader.readLine for every line terminator")
+    void nextRecord_mixedTerminators_matchesReadLine() throws IOException {
+        // Given
+        String content = "0000000001Jean Dupont\r\n0000000002Rémi\rlone CR\n\n\r\nlast line without terminator";
+        Path input = tempDir.resolve("mixed.txt");
+        Files.writeString(input, content);
+
+        // When / Then
+        for (int windowSize : new int[] { 2, 3, 7, 16, MappedRecordSource.DEFAULT_WINDOW_SIZE }) {
+            logger.debug("Window size: {}", windowSize);
+            assertEquals(readLines(content), readAll(input, windowSize), "window size " + windowSize);
+        }
+    }
+
+    @Test
+    @DisplayName("Should not produce a trailing empty record after a final line terminator")
+    void nextRecord_trailingTerminator_noExtraRecord() throws IOException {
+        // Given
+        Path input = tempDir.resolve("trailing.txt");
+        Files.writeString(input, "AAA\r\nBBB\r\n");
+
+        // When
+        List<String> records = readAll(input, 5);
+
+        // Then
+        assertEquals(List.of("AAA", "BBB"), records);
+    }
+
+    @Test
+    @DisplayName("Should report the offset after each record and resume reading from it")
+    void position_reopenAtPosition_readsRemainingRecords() throws IOException {
+        // Given
+        String content = "AAA\r\nBB\n\nCCCC\rDDD";
+        Path input = tempDir.resolve("resume.txt");
+        Files.writeString(input, content);
+
+        for (ReaderType readerType : ReaderType.values()) {
+            // When
+            List<Long> positions = new ArrayList<>();
+            try (ByteRecordSource source = readerType.openBytes(input, StandardCharsets.UTF_8)) {
+                while (source.advance()) {
+                    positions.add(source.position());
+                }
+            }
+            List<String> remaining = new ArrayList<>();
+            try (ByteRecordSource source = readerType.openBytes(input, StandardCharsets.UTF_8, positions.get(1))) {
+                String record;
+                while ((record = source.nextRecord()) != null) {
+                    remaining.add(record);
+                }
+                assertEquals(content.length() - positions.get(1), source.position(), readerType.name());
+            }
+
+            // Then
+            logger.debug("{} positions: {}", readerType, positions);
+            assertEquals(List.of(5L, 8L, 9L, 14L, 17L), positions, readerType.name());
+            assertEquals(List.of("", "CCCC", "DDD"), remaining, readerType.name());
+        }
+    }
+
+    @Test
+    @DisplayName("Should return null immediately for an empty file")
+    void nextRecord_emptyFile_returnsNull() throws IOException {
+        // Given
+        Path input = tempDir.resolve("empty.txt");
+        Files.writeString(input, "");
+
+        // When / Then
+        try (MappedRecordSource source = new MappedRecordSource(input, StandardCharsets.UTF_8)) {
+            assertNull(source.nextRecord());
+        }
+    }
+
+    @Test
+    @DisplayName("Should remap windows across many records and records longer than the window")
+    void nextRecord_manyWindows_readsEveryRecord() throws IOException {
+        // Given
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < 1000; i++) {
+            content.append("record-").append(i).append("-é".repeat(i % 40)).append(i % 2 == 0 ? "\n" : "\r\n");
+        }
+        Path input = tempDir.resolve("many.txt");
+        Files.writeString(input, content.toString());
+
+        // When
+        List<String> records = readAll(input, 32);
+
+        // Then
+        assertEquals(readLines(content.toString()), records);
+    }
+
+    @Test
+    @DisplayName("Should read records up to the maximum length, whatever their terminator")
+    void nextRecord_recordsAtMaxLength_readsEveryRecord() throws IOException {
+        // Given
+        String content = "A".repeat(16) + "\r\n" + "B".repeat(16) + "\r" + "C".repeat(16) + "\n" + "D".repeat(16);
+        Path input = tempDir.resolve("max-length.txt");
+        Files.writeString(input, content);
+
+        // When
+        List<String> records = new ArrayList<>();
+        try (MappedRecordSource source = new MappedRecordSource(input, StandardCharsets.UTF_8, 2, 0, 16)) {
+            String record;
+            while ((record = source.nextRecord()) != null) {
+                records.add(record);
+            }
+        }
+
+        // Then
+        assertEquals(readLines(content), records);
+    }
+
+    @Test
+    @DisplayName("Should fail with the record offset instead of remapping forever when a record is too long")
+    void nextRecord_recordLongerThanMaxLength_throws() throws IOException {
+        // Given
+        Path input = tempDir.resolve("too-long.txt");
+        Files.writeString(input, "short\n" + "X".repeat(40) + "\nnext\n");
+
+        // When
+        IOException e = assertTimeoutPreemptively(Duration.ofSeconds(10), () -> {
+            try (MappedRecordSource source = new MappedRecordSource(input, StandardCharsets.UTF_8, 4, 0, 16)) {
+                assertEquals("short", source.nextRecord());
+                return assertThrows(IOException.class, source::nextRecord);
+            }
+        });
+
+        // Then
+        logger.debug("Error: {}", e.getMessage());
+        assertTrue(e.getMessage().contains("position 6 "), e.getMessage());
+    }
+
+    private static List<String> readAll(Path input, int windowSize) throws IOException {
+        List<String> records = new ArrayList<>();
+        try (MappedRecordSource source = new MappedRecordSource(input, StandardCharsets.UTF_8, windowSize)) {
+            String record;
+            while ((record = source.nextRecord()) != null) {
+                records.add(record);
+            }
+        }
+        return records;
+    }
+
+    private static List<String> readLines(String content) throws IOException {
+        List<String> lines = new ArrayList<>();
+        BufferedReader reader = new BufferedReader(new StringReader(content));
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lines.add(line);
+        }
+        return lines;
+    }
+}
@@ -0,0 +1,77 @@
+package com.ikkileague.data.reader;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+// mvn -Dtest=StreamRecordSourceTest test
+class StreamRecordSourceTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(StreamRecordSourceTest.class);
+
+    @Test
+    @DisplayName("Should read the same records as BufferedReader.readLine whatever the buffer size")
+    void nextRecord_mixedTerminators_matchesReadLine() throws IOException {
+        // Given
+        String content = "0000000001Jean Dupont\r\n0000000002Rémi\rlone CR\n\n\r\n"
+                + "a much longer record than the smallest buffers\r\nlast line without terminator";
+
+        // When / Then
+        for (int bufferSize : new int[] { 2, 3, 7, 16, StreamRecordSource.DEFAULT_BUFFER_SIZE }) {
+            logger.debug("Buffer size: {}", bufferSize);
+            assertEquals(readLines(content), readAll(content, bufferSize), "buffer size " + bufferSize);
+        }
+    }
+
+    @Test
+    @DisplayName("Should expose the raw bytes of the current record")
+    void advance_exposesRecordBytes() throws IOException {
+        // Given
+        byte[] content = "AB\r\nCDE\n".getBytes(StandardCharsets.ISO_8859_1);
+
+        try (StreamRecordSource source = new StreamRecordSource(new ByteArrayInputStream(content),
+                StandardCharsets.ISO_8859_1, 4)) {
+            // When / Then
+            List<String> records = new ArrayList<>();
+            while (source.advance()) {
+                records.add(new String(source.recordBuffer(), source.recordOffset(), source.recordLength(),
+                        StandardCharsets.ISO_8859_1));
+            }
+            assertEquals(List.of("AB", "CDE"), records);
+        }
+    }
+
+    private static List<String> readAll(String content, int bufferSize) throws IOException {
+        List<String> records = new ArrayList<>();
+        try (StreamRecordSource source = new StreamRecordSource(
+                new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)), StandardCharsets.UTF_8,
+                bufferSize)) {
+            String record;
+            while ((record = source.nextRecord()) != null) {
+                records.add(record);
+            }
+        }
+        return records;
+    }
+
+    private static List<String> readLines(String content) throws IOException {
+        List<String> lines = new ArrayList<>();
+        BufferedReader reader = new BufferedReader(new StringReader(content));
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lines.add(line);
+        }
+        return lines;
+    }
+}
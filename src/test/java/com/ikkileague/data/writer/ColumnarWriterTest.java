@@ -0,0 +1,172 @@
+package com.ikkileague.data.writer;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.ikkileague.data.exception.ConversionException;
+import com.ikkileague.data.formatter.DataFormatter;
+import com.ikkileague.data.formatter.FormattedRecord;
+import com.ikkileague.data.model.ColumnDefinition;
+import com.ikkileague.data.model.ColumnType;
+import com.ikkileague.data.model.RecordLayout;
+import com.ikkileague.data.reader.ColumnarReader;
+
+// mvn -Dtest=ColumnarWriterTest test
+class ColumnarWriterTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(ColumnarWriterTest.class);
+
+    @Test
+    @DisplayName("Should read back typed columns over several row groups, with dictionary and typed encodings")
+    void write_severalRowGroups_roundTripsThroughReader() throws IOException, ConversionException {
+        // Given : 2500 lignes en groupes de 1000, ville peu variée, nom unique par ligne
+        RecordLayout layout = layout();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // When
+        try (ColumnarWriter writer = new ColumnarWriter(out, layout, 1000)) {
+            for (int i = 0; i < 2500; i++) {
+                writer.write(record(i));
+            }
+        }
+
+        // Then
+        logger.debug("2500 rows -> {} bytes", out.size());
+        List<Integer> groupSizes = new ArrayList<>();
+        try (ColumnarReader reader = new ColumnarReader(new ByteArrayInputStream(out.toByteArray()))) {
+            assertEquals(4, reader.columnCount());
+            assertEquals("Ville", reader.getName(1));
+            assertEquals(ColumnType.DATE, reader.getType(2));
+            int row = 0;
+            ColumnarReader.RowGroup group;
+            while ((group = reader.next()) != null) {
+                groupSizes.add(group.rowCount());
+                assertEquals(ColumnarFormat.PLAIN, group.encoding(0));
+                assertEquals(ColumnarFormat.DICTIONARY, group.encoding(1));
+                assertEquals(ColumnarFormat.DATE_DAYS, group.encoding(2));
+                assertEquals(ColumnarFormat.DECIMAL, group.encoding(3));
+                for (int r = 0; r < group.rowCount(); r++, row++) {
+                    assertEquals("Client " + row, group.column(0)[r]);
+                    assertEquals(row % 10 == 0 ? "" : "Ville " + row % 3, group.column(1)[r]);
+                    assertEquals(row % 5 == 0 ? null : LocalDate.of(2000, 1, 1).plusDays(row - 1000),
+                            group.column(2)[r]);
+                    BigDecimal amount = (BigDecimal) group.column(3)[r];
+                    if (row % 4 == 0) {
+                        assertNull(amount);
+                    } else {
+                        assertEquals(0, new BigDecimal(amount(row)).compareTo(amount), "row " + row);
+                    }
+                }
+            }
+            assertNull(reader.next());
+        }
+        assertEquals(List.of(1000, 1000, 500), groupSizes);
+    }
+
+    @Test
+    @DisplayName("Should fall back to plain strings for numbers too large for a 64-bit scaled decimal")
+    void write_hugeNumber_fallsBackToPlainEncoding() throws IOException, ConversionException {
+        // Given
+        RecordLayout layout = layout();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        String huge = "123456789012345678901234567890.5";
+
+        // When
+        try (ColumnarWriter writer = new ColumnarWriter(out, layout)) {
+            writer.write(record("Client 1", "Paris", "01/01/2000", huge));
+            writer.write(record("Client 2", "Paris", "", "-1"));
+        }
+
+        // Then
+        try (ColumnarReader reader = new ColumnarReader(new ByteArrayInputStream(out.toByteArray()))) {
+            ColumnarReader.RowGroup group = reader.next();
+            assertEquals(ColumnarFormat.PLAIN, group.encoding(3));
+            assertArrayEquals(new BigDecimal[] { new BigDecimal(huge), new BigDecimal("-1") }, group.column(3));
+            // Trop peu de lignes pour qu'un dictionnaire soit rentable
+            assertEquals(ColumnarFormat.PLAIN, group.encoding(1));
+            assertArrayEquals(new LocalDate[] { LocalDate.of(2000, 1, 1), null }, group.column(2));
+        }
+    }
+
+    @Test
+    @DisplayName("Should write blocks from the parallel engine like records written one by one")
+    void writeBlock_sameRecords_matchesRecordByRecordOutput() throws IOException, ConversionException {
+        // Given
+        RecordLayout layout = layout();
+        ByteArrayOutputStream oneByOne = new ByteArrayOutputStream();
+        ByteArrayOutputStream byBlock = new ByteArrayOutputStream();
+
+        // When
+        try (ColumnarWriter writer = new ColumnarWriter(oneByOne, layout, 700)) {
+            for (int i = 0; i < 3000; i++) {
+                writer.write(record(i));
+            }
+        }
+        try (ColumnarWriter writer = new ColumnarWriter(byBlock, layout, 700)) {
+            RecordBlock block = writer.newBlock(1024);
+            for (int i = 0; i < 3000; i++) {
+                block.append(record(i));
+                if (block.recordCount() == 256) {
+                    writer.write(block);
+                    block.reset();
+                }
+            }
+            writer.write(block);
+        }
+
+        // Then
+        assertArrayEquals(oneByOne.toByteArray(), byBlock.toByteArray());
+        assertTrue(oneByOne.size() > 0);
+    }
+
+    private static RecordLayout layout() throws ConversionException {
+        return RecordLayout.compile(List.of(new ColumnDefinition("Nom", 20, ColumnType.STRING),
+                new ColumnDefinition("Ville", 20, ColumnType.STRING), new ColumnDefinition("Date", 10, ColumnType.DATE),
+                new ColumnDefinition("Montant", 12, ColumnType.NUMERIC)), new DataFormatter());
+    }
+
+    // Ligne i : date nulle une ligne sur 5, montant nul une ligne sur 4, ville vide une ligne sur 10
+    private static FormattedRecord record(int i) {
+        LocalDate date = LocalDate.of(2000, 1, 1).plusDays(i - 1000);
+        String formattedDate = String.format("%02d/%02d/%04d", date.getDayOfMonth(), date.getMonthValue(),
+                date.getYear());
+        return record("Client " + i, i % 10 == 0 ? "" : "Ville " + i % 3, i % 5 == 0 ? "" : formattedDate,
+                i % 4 == 0 ? "" : amount(i));
+    }
+
+    // Formes canoniques variées : entiers, négatifs, une ou deux décimales
+    private static String amount(int i) {
+        switch (i % 3) {
+            case 0:
+                return Integer.toString(i);
+            case 1:
+                return "-" + i + ".5";
+            default:
+                return i + ".25";
+        }
+    }
+
+    private static FormattedRecord record(String... values) {
+        FormattedRecord record = new FormattedRecord(values.length);
+        for (int i = 0; i < values.length; i++) {
+            record.beginField(i).append(values[i]);
+            record.endField(i);
+        }
+        return record;
+    }
+}
@@ -9,10 +9,16 @@ import org.slf4j.LoggerFactory;
 import com.ikkileague.data.exception.ConversionException;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Random;
+
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVPrinter;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -149,4 +155,89 @@ class CsvWriterTest {
         assertThrows(ConversionException.class, () -> finalWriter.writeRecord(record),
                 "Should throw ConversionException on write error");
     }
+
+    @Test
+    @DisplayName("Should produce byte-identical output to commons-csv CSVPrinter for random fields")
+    void writeRecord_randomFields_matchesCsvPrinter() throws IOException, ConversionException {
+        // Given : des champs aléatoires riches en caractères sensibles pour les guillemets
+        char[] alphabet = { 'a', 'Z', '0', ' ', '\t', ',', '"', '\r', '\n', '#', '!', '$', '\'', ';', 'é', '€',
+                '\u0001', '\uD83D', '\uDE00' };
+        Random random = new Random(42);
+        List<List<String>> records = new ArrayList<>();
+        for (int r = 0; r < 2000; r++) {
+            List<String> record = new ArrayList<>();
+            int fieldCount = 1 + random.nextInt(4);
+            for (int f = 0; f < fieldCount; f++) {
+                StringBuilder field = new StringBuilder();
+                int length = random.nextInt(6);
+                for (int c = 0; c < length; c++) {
+                    char ch = alphabet[random.nextInt(alphabet.length)];
+                    if (ch == '\uD83D' || ch == '\uDE00') {
+                        field.append("\uD83D\uDE00"); // Paire valide uniquement
+                    } else {
+                        field.append(ch);
+                    }
+                }
+                record.add(field.toString());
+            }
+            records.add(record);
+        }
+        List<String> headers = Arrays.asList("", "#H", "h,2", "fin ");
+
+        StringBuilder expected = new StringBuilder();
+        try (CSVPrinter printer = new CSVPrinter(expected,
+                CSVFormat.DEFAULT.builder().setRecordSeparator("\r\n").setDelimiter(',').build())) {
+            printer.printRecord(headers);
+            for (List<String> record : records) {
+                printer.printRecord(record);
+            }
+        }
+
+        // When
+        Path outputFile = tempDir.resolve("output_differential.csv");
+        try (CsvWriter writer = new CsvWriter(outputFile, headers)) {
+            for (List<String> record : records) {
+                writer.writeRecord(record);
+            }
+        }
+
+        // Then
+        assertArrayEquals(expected.toString().getBytes(StandardCharsets.UTF_8), Files.readAllBytes(outputFile));
+    }
+
+    @Test
+    @DisplayName("Should keep record order when the encoding buffer is flushed several times")
+    void writeRecord_largeOutput_flushesInOrder() throws IOException, ConversionException {
+        // Given : bien plus de données que le seuil de vidage du tampon
+        Path outputFile = tempDir.resolve("output_large.csv");
+        StringBuilder expected = new StringBuilder("N,Valeur\r\n");
+
+        // When
+        try (CsvWriter writer = new CsvWriter(outputFile, Arrays.asList("N", "Valeur"))) {
+            for (int i = 0; i < 100_000; i++) {
+                String value = "valeur numéro " + i;
+                writer.writeRecord(Arrays.asList(String.valueOf(i), value));
+                expected.append(i).append(',').append(value).append("\r\n");
+            }
+        }
+
+        // Then
+        assertTrue(Files.size(outputFile) > 3L * CsvWriter.FLUSH_THRESHOLD);
+        assertEquals(expected.toString(), Files.readString(outputFile));
+    }
+
+    @Test
+    @DisplayName("Should reject an unpaired surrogate like the UTF-8 writer did")
+    void writeRecord_unpairedSurrogate_throwsConversionException() throws IOException, ConversionException {
+        // Given
+        Path outputFile = tempDir.resolve("output_surrogate.csv");
+
+        // When / Then : l'enregistrement fautif n'est pas écrit, les autres le sont
+        try (CsvWriter writer = new CsvWriter(outputFile, Arrays.asList("H1"))) {
+            writer.writeRecord(Arrays.asList("avant"));
+            assertThrows(ConversionException.class, () -> writer.writeRecord(Arrays.asList("x\uD83Dy")));
+            writer.writeRecord(Arrays.asList("après"));
+        }
+        assertEquals("H1\r\navant\r\naprès\r\n", Files.readString(outputFile));
+    }
 }
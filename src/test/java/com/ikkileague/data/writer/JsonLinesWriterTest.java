@@ -0,0 +1,111 @@
+package com.ikkileague.data.writer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.ikkileague.data.exception.ConversionException;
+import com.ikkileague.data.formatter.DataFormatter;
+import com.ikkileague.data.formatter.FormattedRecord;
+import com.ikkileague.data.model.ColumnDefinition;
+import com.ikkileague.data.model.ColumnType;
+import com.ikkileague.data.model.RecordLayout;
+
+// mvn -Dtest=JsonLinesWriterTest test
+class JsonLinesWriterTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(JsonLinesWriterTest.class);
+
+    @Test
+    @DisplayName("Should write one JSON object per line with typed values and null for blank dates or numbers")
+    void write_typedValues_writesJsonObjects() throws IOException, ConversionException {
+        // Given
+        RecordLayout layout = layout();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // When
+        try (JsonLinesWriter writer = new JsonLinesWriter(out, layout)) {
+            writer.write(record("-12.5", "Jean Dupont", "15/05/1990"));
+            writer.write(record("", "", ""));
+        }
+
+        // Then
+        String json = out.toString(StandardCharsets.UTF_8);
+        logger.debug("JSON Lines:\n{}", json);
+        assertEquals("{\"Montant\":-12.5,\"Nom\":\"Jean Dupont\",\"Date\":\"15/05/1990\"}\n"
+                + "{\"Montant\":null,\"Nom\":\"\",\"Date\":null}\n", json);
+    }
+
+    @Test
+    @DisplayName("Should escape quotes, backslashes and control characters, and encode non-ASCII text in UTF-8")
+    void write_specialCharacters_escapesPerRfc8259() throws IOException, ConversionException {
+        // Given
+        RecordLayout layout = layout();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        String name = "Élodie \"Lou\" C:\\dir\ttab\u0001 \uD83D\uDE00";
+
+        // When
+        try (JsonLinesWriter writer = new JsonLinesWriter(out, layout)) {
+            writer.write(record("7", name, ""));
+        }
+
+        // Then
+        String json = out.toString(StandardCharsets.UTF_8);
+        logger.debug("Escaped: {}", json);
+        assertEquals("{\"Montant\":7,\"Nom\":\"Élodie \\\"Lou\\\" C:\\\\dir\\ttab\\u0001 \uD83D\uDE00\","
+                + "\"Date\":null}\n", json);
+    }
+
+    @Test
+    @DisplayName("Should write encoded blocks exactly like records written one by one")
+    void writeBlock_sameRecords_matchesRecordByRecordOutput() throws IOException, ConversionException {
+        // Given
+        RecordLayout layout = layout();
+        ByteArrayOutputStream oneByOne = new ByteArrayOutputStream();
+        ByteArrayOutputStream byBlock = new ByteArrayOutputStream();
+
+        // When
+        try (JsonLinesWriter writer = new JsonLinesWriter(oneByOne, layout)) {
+            for (int i = 0; i < 1000; i++) {
+                writer.write(record(Integer.toString(i), "Nom " + i, "01/01/2000"));
+            }
+        }
+        try (JsonLinesWriter writer = new JsonLinesWriter(byBlock, layout)) {
+            RecordBlock block = writer.newBlock(16);
+            for (int i = 0; i < 1000; i++) {
+                block.append(record(Integer.toString(i), "Nom " + i, "01/01/2000"));
+                if (block.recordCount() == 300) {
+                    writer.write(block);
+                    block.reset();
+                }
+            }
+            writer.write(block);
+        }
+
+        // Then
+        assertEquals(oneByOne.toString(StandardCharsets.UTF_8), byBlock.toString(StandardCharsets.UTF_8));
+    }
+
+    private static RecordLayout layout() throws ConversionException {
+        return RecordLayout.compile(List.of(new ColumnDefinition("Montant", 10, ColumnType.NUMERIC),
+                new ColumnDefinition("Nom", 20, ColumnType.STRING), new ColumnDefinition("Date", 10, ColumnType.DATE)),
+                new DataFormatter());
+    }
+
+    private static FormattedRecord record(String... values) {
+        FormattedRecord record = new FormattedRecord(values.length);
+        for (int i = 0; i < values.length; i++) {
+            record.beginField(i).append(values[i]);
+            record.endField(i);
+        }
+        return record;
+    }
+}
@@ -0,0 +1,106 @@
+package com.ikkileague.data.writer;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Random;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+// mvn -Dtest=ParallelGzipOutputStreamTest test
+class ParallelGzipOutputStreamTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(ParallelGzipOutputStreamTest.class);
+
+    @Test
+    @DisplayName("Should produce a gzip stream that decompresses to the original bytes, whatever the block size")
+    void write_manyBlocks_roundTripsThroughGzipInputStream() throws IOException {
+        // Given
+        byte[] data = sampleCsv(30_000);
+
+        for (int blockSize : new int[] { 64, 1000, 65_536, ParallelGzipOutputStream.DEFAULT_BLOCK_SIZE }) {
+            // When : écritures de tailles variées, dont des octets isolés
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+            Random random = new Random(blockSize);
+            try (ParallelGzipOutputStream out = new ParallelGzipOutputStream(compressed, 3, 6, blockSize)) {
+                int offset = 0;
+                while (offset < data.length) {
+                    if (random.nextInt(10) == 0) {
+                        out.write(data[offset++]);
+                    } else {
+                        int length = Math.min(data.length - offset, random.nextInt(5000));
+                        out.write(data, offset, length);
+                        offset += length;
+                    }
+                }
+            }
+
+            // Then
+            logger.debug("Block size {}: {} bytes -> {} bytes", blockSize, data.length, compressed.size());
+            assertArrayEquals(data, gunzip(compressed.toByteArray()), "block size " + blockSize);
+            if (blockSize >= 65_536) {
+                assertTrue(compressed.size() < data.length / 3, "block size " + blockSize);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Should end the current member on flush and still produce a single valid stream")
+    void flush_midStream_writesCompleteMembers() throws IOException {
+        // Given
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        byte[] first = sampleCsv(5000);
+        byte[] second = sampleCsv(7000);
+
+        // When
+        try (ParallelGzipOutputStream out = new ParallelGzipOutputStream(compressed, 2, 1)) {
+            out.write(first);
+            out.flush();
+            logger.debug("Flushed {} bytes into {} compressed bytes", first.length, compressed.size());
+            assertArrayEquals(first, gunzip(compressed.toByteArray()));
+            out.write(second);
+        }
+
+        // Then
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        expected.write(first);
+        expected.write(second);
+        assertArrayEquals(expected.toByteArray(), gunzip(compressed.toByteArray()));
+    }
+
+    @Test
+    @DisplayName("Should write a valid empty gzip stream when nothing was written")
+    void close_nothingWritten_writesEmptyMember() throws IOException {
+        // Given
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+
+        // When
+        new ParallelGzipOutputStream(compressed, 1, 9).close();
+
+        // Then
+        assertEquals(0, gunzip(compressed.toByteArray()).length);
+    }
+
+    private static byte[] sampleCsv(int lines) {
+        StringBuilder csv = new StringBuilder();
+        for (int i = 0; i < lines; i++) {
+            csv.append(i).append(",Jean Dupont ").append(i % 97).append(",15/05/1990\r\n");
+        }
+        return csv.toString().getBytes();
+    }
+
+    private static byte[] gunzip(byte[] compressed) throws IOException {
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+            return in.readAllBytes();
+        }
+    }
+}
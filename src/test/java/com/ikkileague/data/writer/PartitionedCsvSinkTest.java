@@ -0,0 +1,171 @@
+package com.ikkileague.data.writer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.ikkileague.data.exception.ConversionException;
+import com.ikkileague.data.formatter.DataFormatter;
+import com.ikkileague.data.formatter.FormattedRecord;
+import com.ikkileague.data.model.ColumnDefinition;
+import com.ikkileague.data.model.ColumnType;
+import com.ikkileague.data.model.RecordLayout;
+
+// mvn -Dtest=PartitionedCsvSinkTest test
+class PartitionedCsvSinkTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(PartitionedCsvSinkTest.class);
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("Should write one headed CSV file per month in Hive-style directories")
+    void write_partitionByMonth_writesOneFilePerMonth() throws IOException, ConversionException {
+        // Given
+        Path output = tempDir.resolve("out/clients.csv");
+
+        // When
+        try (PartitionedCsvSink sink = new PartitionedCsvSink(output, layout(),
+                Partitioning.parseByValue("Date:month"), 8, 1)) {
+            sink.write(record("1", "Alice", "15/05/1990"));
+            sink.write(record("2", "Bob", "02/06/1990"));
+            sink.write(record("3", "Carl", "31/05/1990"));
+            sink.write(record("4", "Dan", ""));
+        }
+
+        // Then
+        Path dir = tempDir.resolve("out");
+        assertEquals("Montant,Nom,Date\r\n1,Alice,15/05/1990\r\n3,Carl,31/05/1990\r\n",
+                read(dir.resolve("Date=1990-05/clients.csv")));
+        assertEquals("Montant,Nom,Date\r\n2,Bob,02/06/1990\r\n", read(dir.resolve("Date=1990-06/clients.csv")));
+        assertEquals("Montant,Nom,Date\r\n4,Dan,\r\n",
+                read(dir.resolve("Date=" + PartitionedCsvSink.DEFAULT_PARTITION + "/clients.csv")));
+        assertFalse(Files.exists(output));
+    }
+
+    @Test
+    @DisplayName("Should reopen evicted partitions in append mode when more partitions than open files are written")
+    void writeBlock_moreValuesThanOpenFiles_appendsAfterEviction() throws IOException, ConversionException {
+        // Given
+        Path output = tempDir.resolve("clients.csv");
+        List<String> expectedA = new ArrayList<>(List.of("Montant,Nom,Date"));
+        List<String> expectedB = new ArrayList<>(List.of("Montant,Nom,Date"));
+        List<String> expectedC = new ArrayList<>(List.of("Montant,Nom,Date"));
+
+        // When : un seul fichier ouvert à la fois, trois partitions entrelacées
+        try (PartitionedCsvSink sink = new PartitionedCsvSink(output, layout(),
+                Partitioning.parseByValue("Nom"), 1, 3)) {
+            RecordBlock block = sink.newBlock(16);
+            for (int i = 0; i < 300; i++) {
+                String name = String.valueOf((char) ('A' + i % 3));
+                block.append(record(Integer.toString(i), name, "01/01/2000"));
+                (i % 3 == 0 ? expectedA : i % 3 == 1 ? expectedB : expectedC).add(i + "," + name + ",01/01/2000");
+                if (block.recordCount() == 40) {
+                    sink.write(block);
+                    block.reset();
+                }
+            }
+            sink.write(block);
+        }
+
+        // Then
+        assertEquals(String.join("\r\n", expectedA) + "\r\n", read(tempDir.resolve("Nom=A/clients.csv")));
+        assertEquals(String.join("\r\n", expectedB) + "\r\n", read(tempDir.resolve("Nom=B/clients.csv")));
+        assertEquals(String.join("\r\n", expectedC) + "\r\n", read(tempDir.resolve("Nom=C/clients.csv")));
+    }
+
+    @Test
+    @DisplayName("Should spread records over every numbered shard, each value always in the same shard")
+    void write_shardByHash_createsEveryShard() throws IOException, ConversionException {
+        // Given
+        Path output = tempDir.resolve("clients.csv");
+
+        // When
+        try (PartitionedCsvSink sink = new PartitionedCsvSink(output, layout(),
+                Partitioning.parseByHash("Nom:4"), 2, 1)) {
+            for (int i = 0; i < 200; i++) {
+                sink.write(record(Integer.toString(i), "Nom " + (i % 50), "01/01/2000"));
+            }
+        }
+        // Aucun enregistrement écrit
+        new PartitionedCsvSink(tempDir.resolve("empty.csv"), layout(), Partitioning.parseByHash("Nom:3"), 2, 1)
+                .close();
+
+        // Then
+        int records = 0;
+        for (int shard = 0; shard < 4; shard++) {
+            List<String> lines = Files.readAllLines(tempDir.resolve(String.format("clients-%05d.csv", shard)));
+            logger.debug("Shard {}: {} lines", shard, lines.size());
+            assertEquals("Montant,Nom,Date", lines.get(0));
+            assertTrue(lines.size() > 1, "shard " + shard + " is empty");
+            for (String line : lines.subList(1, lines.size())) {
+                int id = Integer.parseInt(line.substring(0, line.indexOf(',')));
+                // Les quatre occurrences d'une même valeur sont dans le même fichier
+                for (int other = id % 50; other < 200; other += 50) {
+                    assertTrue(lines.contains(other + ",Nom " + (id % 50) + ",01/01/2000"), line);
+                }
+                records++;
+            }
+        }
+        assertEquals(200, records);
+        for (int shard = 0; shard < 3; shard++) {
+            assertEquals("Montant,Nom,Date\r\n", read(tempDir.resolve(String.format("empty-%05d.csv", shard))));
+        }
+    }
+
+    @Test
+    @DisplayName("Should escape path separators and reserved characters in directory names")
+    void escape_reservedCharacters_percentEncoded() {
+        assertEquals("A%2FB", PartitionedCsvSink.escape("A/B"));
+        assertEquals("x%3Dy%3A1", PartitionedCsvSink.escape("x=y:1"));
+        assertEquals("%2E.", PartitionedCsvSink.escape(".."));
+        assertEquals("100%25 sûr", PartitionedCsvSink.escape("100% sûr"));
+        assertEquals("a%5Cb%0A", PartitionedCsvSink.escape("a\\b\n"));
+    }
+
+    @Test
+    @DisplayName("Should reject an unknown partition column or a date granularity on a text column")
+    void constructor_invalidPartitioning_throwsException() {
+        Path output = tempDir.resolve("clients.csv");
+        assertThrows(ConversionException.class,
+                () -> new PartitionedCsvSink(output, layout(), Partitioning.parseByValue("Pays"), 8, 1));
+        assertThrows(ConversionException.class,
+                () -> new PartitionedCsvSink(output, layout(), Partitioning.parseByValue("Nom:year"), 8, 1));
+        assertThrows(IllegalArgumentException.class, () -> Partitioning.parseByValue("Date:week"));
+        assertThrows(IllegalArgumentException.class, () -> Partitioning.parseByHash("Nom"));
+    }
+
+    private static String read(Path path) throws IOException {
+        return Files.readString(path, StandardCharsets.UTF_8);
+    }
+
+    private static RecordLayout layout() throws ConversionException {
+        return RecordLayout.compile(List.of(new ColumnDefinition("Montant", 10, ColumnType.NUMERIC),
+                new ColumnDefinition("Nom", 20, ColumnType.STRING), new ColumnDefinition("Date", 10, ColumnType.DATE)),
+                new DataFormatter());
+    }
+
+    private static FormattedRecord record(String... values) {
+        FormattedRecord record = new FormattedRecord(values.length);
+        for (int i = 0; i < values.length; i++) {
+            record.beginField(i).append(values[i]);
+            record.endField(i);
+        }
+        return record;
+    }
+}